@@ -20,6 +20,7 @@
  */
 package eu.europa.esig.dss.asic.cades.signature;
 
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -39,6 +40,7 @@ import eu.europa.esig.dss.asic.cades.validation.ASiCEWithCAdESManifestParser;
 import eu.europa.esig.dss.asic.common.ASiCParameters;
 import eu.europa.esig.dss.asic.common.ASiCUtils;
 import eu.europa.esig.dss.asic.common.AbstractASiCContainerExtractor;
+import eu.europa.esig.dss.asic.common.signature.ASiCContainerOutput;
 import eu.europa.esig.dss.asic.common.signature.AbstractASiCSignatureService;
 import eu.europa.esig.dss.cades.CAdESSignatureParameters;
 import eu.europa.esig.dss.cades.signature.CAdESService;
@@ -101,6 +103,29 @@ public class ASiCWithCAdESService extends AbstractASiCSignatureService<ASiCWithC
 
 	@Override
 	public DSSDocument signDocument(List<DSSDocument> toSignDocuments, ASiCWithCAdESSignatureParameters parameters, SignatureValue signatureValue) {
+		return signDocument(toSignDocuments, parameters, signatureValue, getDefaultContainerOutput());
+	}
+
+	/**
+	 * Signs the documents and writes the ASiC container directly to the given {@code OutputStream}, without
+	 * keeping it in memory. The stream is not closed.
+	 * 
+	 * @param toSignDocuments
+	 *                        the documents to be signed
+	 * @param parameters
+	 *                        the signature parameters
+	 * @param signatureValue
+	 *                        the signature value
+	 * @param outputStream
+	 *                        the {@link OutputStream} to write the container to
+	 */
+	public void signDocument(List<DSSDocument> toSignDocuments, ASiCWithCAdESSignatureParameters parameters, SignatureValue signatureValue,
+			OutputStream outputStream) {
+		signDocument(toSignDocuments, parameters, signatureValue, ASiCContainerOutput.stream(outputStream));
+	}
+
+	private DSSDocument signDocument(List<DSSDocument> toSignDocuments, ASiCWithCAdESSignatureParameters parameters, SignatureValue signatureValue,
+			ASiCContainerOutput output) {
 		Objects.requireNonNull(toSignDocuments, "toSignDocument cannot be null!");
 		Objects.requireNonNull(parameters, "SignatureParameters cannot be null!");
 		Objects.requireNonNull(signatureValue, "SignatureValue cannot be null!");
@@ -156,8 +181,11 @@ public class ASiCWithCAdESService extends AbstractASiCSignatureService<ASiCWithC
 		documentsToStore.addAll(timestamps);
 		documentsToStore.addAll(signatures);
 		excludeExtendedDocuments(documentsToStore, extendedDocuments);
-		final DSSDocument asicContainer = buildASiCContainer(dataToSignHelper.getSignedDocuments(), extendedDocuments, documentsToStore, asicParameters, null);
-		asicContainer.setName(getFinalArchiveName(asicContainer, SigningOperation.SIGN, parameters.getSignatureLevel(), asicContainer.getMimeType()));
+		final DSSDocument asicContainer = buildASiCContainer(dataToSignHelper.getSignedDocuments(), extendedDocuments, documentsToStore, asicParameters, null,
+				output);
+		if (asicContainer != null) {
+			asicContainer.setName(getFinalArchiveName(asicContainer, SigningOperation.SIGN, parameters.getSignatureLevel(), asicContainer.getMimeType()));
+		}
 		parameters.reinitDeterministicId();
 		return asicContainer;
 	}
@@ -0,0 +1,167 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.asic.cades.signature.asice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import eu.europa.esig.dss.asic.cades.ASiCWithCAdESSignatureParameters;
+import eu.europa.esig.dss.asic.cades.signature.ASiCWithCAdESService;
+import eu.europa.esig.dss.asic.common.ASiCUtils;
+import eu.europa.esig.dss.diagnostic.DiagnosticData;
+import eu.europa.esig.dss.diagnostic.SignatureWrapper;
+import eu.europa.esig.dss.enumerations.ASiCContainerType;
+import eu.europa.esig.dss.enumerations.SignatureLevel;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import eu.europa.esig.dss.model.MimeType;
+import eu.europa.esig.dss.model.SignatureValue;
+import eu.europa.esig.dss.model.TemporaryFileDocument;
+import eu.europa.esig.dss.model.ToBeSigned;
+import eu.europa.esig.dss.test.signature.PKIFactoryAccess;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+public class ASiCECAdESContainerOutputTest extends PKIFactoryAccess {
+
+	@TempDir
+	File tempDir;
+
+	@Test
+	public void streamOutput() throws Exception {
+		List<DSSDocument> documentToSigns = getDocumentsToSign();
+		ASiCWithCAdESSignatureParameters signatureParameters = getSignatureParameters();
+
+		ASiCWithCAdESService service = new ASiCWithCAdESService(getCompleteCertificateVerifier());
+		ToBeSigned dataToSign = service.getDataToSign(documentToSigns, signatureParameters);
+		SignatureValue signatureValue = getToken().sign(dataToSign, signatureParameters.getDigestAlgorithm(), getPrivateKeyEntry());
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		service.signDocument(documentToSigns, signatureParameters, signatureValue, baos);
+
+		DSSDocument signedDocument = new InMemoryDocument(baos.toByteArray(), "container.asice", MimeType.ASICE);
+		checkContainer(signedDocument);
+	}
+
+	@Test
+	public void temporaryFileOutput() throws Exception {
+		List<DSSDocument> documentToSigns = getDocumentsToSign();
+		ASiCWithCAdESSignatureParameters signatureParameters = getSignatureParameters();
+
+		ASiCWithCAdESService service = new ASiCWithCAdESService(getCompleteCertificateVerifier());
+		service.setTspSource(getGoodTsa());
+		service.setTemporaryFileOutput(true);
+		service.setTemporaryDirectory(tempDir);
+
+		ToBeSigned dataToSign = service.getDataToSign(documentToSigns, signatureParameters);
+		SignatureValue signatureValue = getToken().sign(dataToSign, signatureParameters.getDigestAlgorithm(), getPrivateKeyEntry());
+		DSSDocument signedDocument = service.signDocument(documentToSigns, signatureParameters, signatureValue);
+
+		assertTrue(signedDocument instanceof TemporaryFileDocument);
+		assertEquals(MimeType.ASICE, signedDocument.getMimeType());
+		assertTrue(signedDocument.getName().endsWith(".asice"));
+		checkContainer(signedDocument);
+		assertEquals(1, tempDir.listFiles().length);
+
+		// extension also produces a file-backed container
+		signatureParameters.setSignatureLevel(SignatureLevel.CAdES_BASELINE_T);
+		DSSDocument extendedDocument = service.extendDocument(signedDocument, signatureParameters);
+		assertTrue(extendedDocument instanceof TemporaryFileDocument);
+		checkContainer(extendedDocument);
+		assertEquals(2, tempDir.listFiles().length);
+
+		// closing the documents deletes the temporary files
+		((TemporaryFileDocument) signedDocument).close();
+		assertFalse(((TemporaryFileDocument) signedDocument).exists());
+		((TemporaryFileDocument) extendedDocument).close();
+		assertEquals(0, tempDir.listFiles().length);
+	}
+
+	@Test
+	public void temporaryFileDeletedOnFailure() throws Exception {
+		// two entries with the same name cannot be stored in the container
+		List<DSSDocument> documentToSigns = new ArrayList<>();
+		documentToSigns.add(new InMemoryDocument("Hello World !".getBytes(), "test.text", MimeType.TEXT));
+		documentToSigns.add(new InMemoryDocument("Bye World !".getBytes(), "test.text", MimeType.TEXT));
+		ASiCWithCAdESSignatureParameters signatureParameters = getSignatureParameters();
+
+		ASiCWithCAdESService service = new ASiCWithCAdESService(getCompleteCertificateVerifier());
+		service.setTemporaryFileOutput(true);
+		service.setTemporaryDirectory(tempDir);
+
+		ToBeSigned dataToSign = service.getDataToSign(documentToSigns, signatureParameters);
+		SignatureValue signatureValue = getToken().sign(dataToSign, signatureParameters.getDigestAlgorithm(), getPrivateKeyEntry());
+		assertThrows(DSSException.class, () -> service.signDocument(documentToSigns, signatureParameters, signatureValue));
+		assertEquals(0, tempDir.listFiles().length);
+	}
+
+	private void checkContainer(DSSDocument signedDocument) {
+		List<String> fileNames = ASiCUtils.getFileNames(signedDocument);
+		assertEquals(ASiCUtils.MIME_TYPE, fileNames.get(0));
+		assertTrue(fileNames.contains("test.text"));
+		assertTrue(fileNames.contains("test2.text"));
+
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(signedDocument);
+		validator.setCertificateVerifier(getOfflineCertificateVerifier());
+		Reports reports = validator.validateDocument();
+
+		DiagnosticData diagnosticData = reports.getDiagnosticData();
+		assertEquals(1, diagnosticData.getSignatures().size());
+		SignatureWrapper signature = diagnosticData.getSignatures().get(0);
+		assertTrue(signature.isSignatureIntact());
+		assertTrue(signature.isSignatureValid());
+	}
+
+	private List<DSSDocument> getDocumentsToSign() {
+		List<DSSDocument> documentToSigns = new ArrayList<>();
+		documentToSigns.add(new InMemoryDocument("Hello World !".getBytes(), "test.text", MimeType.TEXT));
+		documentToSigns.add(new InMemoryDocument("Bye World !".getBytes(), "test2.text", MimeType.TEXT));
+		return documentToSigns;
+	}
+
+	private ASiCWithCAdESSignatureParameters getSignatureParameters() {
+		ASiCWithCAdESSignatureParameters signatureParameters = new ASiCWithCAdESSignatureParameters();
+		signatureParameters.bLevel().setSigningDate(new Date());
+		signatureParameters.setSigningCertificate(getSigningCert());
+		signatureParameters.setCertificateChain(getCertificateChain());
+		signatureParameters.setSignatureLevel(SignatureLevel.CAdES_BASELINE_B);
+		signatureParameters.aSiC().setContainerType(ASiCContainerType.ASiC_E);
+		return signatureParameters;
+	}
+
+	@Override
+	protected String getSigningAlias() {
+		return GOOD_USER;
+	}
+
+}
@@ -0,0 +1,517 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.asic.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.FileDocument;
+import eu.europa.esig.dss.spi.DSSUtils;
+
+/**
+ * Rewrites a ZIP container by copying the unchanged entries byte-for-byte from the original archive.
+ * 
+ * The entries are located through the central directory: their local header, compressed data and
+ * (optional) data descriptor are copied without being inflated and deflated again, so the method, the CRC
+ * and the sizes are preserved and the cost of the operation is bounded by I/O. Only the skipped entries are
+ * dropped and the new entries are appended (deflated) at the end of the archive, followed by a new central
+ * directory. The archive comment is preserved.
+ * 
+ * ZIP64 and multi-disk archives are not handled: {@link #isSupported()} returns false and the caller is
+ * expected to fall back to a {@code ZipInputStream}/{@code ZipOutputStream} copy.
+ */
+public class ZipContainerRewriter {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ZipContainerRewriter.class);
+
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+	private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+	private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+	private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+	private static final int LOCAL_HEADER_LENGTH = 30;
+	private static final int CENTRAL_HEADER_LENGTH = 46;
+	private static final int END_OF_CENTRAL_DIRECTORY_LENGTH = 22;
+	private static final int ZIP64_LOCATOR_LENGTH = 20;
+	private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+	private static final int FLAG_DATA_DESCRIPTOR = 0x0008;
+	private static final int FLAG_UTF8 = 0x0800;
+	private static final int VERSION_DEFLATED = 20;
+	private static final int METHOD_DEFLATED = 8;
+
+	private static final long MAX_32_BITS = 0xFFFFFFFFL;
+	private static final int MAX_16_BITS = 0xFFFF;
+
+	private final DSSDocument archive;
+
+	private boolean parsed;
+	private List<RawEntry> entries;
+	private byte[] comment;
+
+	/**
+	 * The default constructor
+	 * 
+	 * @param archive
+	 *                {@link DSSDocument} the ZIP container to rewrite
+	 */
+	public ZipContainerRewriter(DSSDocument archive) {
+		this.archive = archive;
+	}
+
+	/**
+	 * Checks if the archive can be rewritten with a raw copy of its entries
+	 * 
+	 * @return TRUE if the central directory has been parsed successfully
+	 */
+	public boolean isSupported() {
+		parse();
+		return entries != null;
+	}
+
+	/**
+	 * Returns the names of the entries listed in the central directory
+	 * 
+	 * @return a list of entry names, or an empty list if the archive is not supported
+	 */
+	public List<String> getEntryNames() {
+		List<String> names = new ArrayList<>();
+		if (isSupported()) {
+			for (RawEntry entry : entries) {
+				names.add(entry.name);
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * Writes a new archive in the {@code os}. The entries matching {@code skipEntry} are dropped, the
+	 * other ones are copied without recompression and {@code documentsToAdd} are appended as new
+	 * deflated entries.
+	 * 
+	 * @param os
+	 *                       {@link OutputStream} to write the new archive to
+	 * @param skipEntry
+	 *                       {@link Predicate} on the entry name, TRUE if the entry must not be copied
+	 * @param documentsToAdd
+	 *                       a list of {@link DSSDocument}s to add
+	 * @return FALSE if the archive cannot be rewritten this way (nothing has been written)
+	 * @throws IOException
+	 *                     if an error occurred while reading the archive or writing the result
+	 */
+	public boolean rewrite(OutputStream os, Predicate<String> skipEntry, List<DSSDocument> documentsToAdd) throws IOException {
+		if (!isSupported()) {
+			return false;
+		}
+
+		List<RawEntry> keptEntries = new ArrayList<>();
+		long outputSize = 0;
+		long centralDirectorySize = 0;
+		for (RawEntry entry : entries) {
+			if (!skipEntry.test(entry.name)) {
+				keptEntries.add(entry);
+				outputSize += entry.length;
+				centralDirectorySize += entry.centralHeader.length;
+			}
+		}
+
+		long dosTime = toDosTime(System.currentTimeMillis());
+		List<NewEntry> newEntries = new ArrayList<>();
+		for (DSSDocument document : documentsToAdd) {
+			NewEntry newEntry = new NewEntry(document.getName(), DSSUtils.toByteArray(document), dosTime);
+			newEntries.add(newEntry);
+			outputSize += LOCAL_HEADER_LENGTH + newEntry.name.length + newEntry.compressed.length;
+			centralDirectorySize += CENTRAL_HEADER_LENGTH + newEntry.name.length;
+		}
+
+		if (keptEntries.size() + newEntries.size() > MAX_16_BITS || outputSize + centralDirectorySize > MAX_32_BITS) {
+			LOG.debug("The rewritten archive requires ZIP64, the raw copy is not possible");
+			return false;
+		}
+
+		long offset = 0;
+		try (ArchiveReader reader = openReader()) {
+			for (RawEntry entry : keptEntries) {
+				reader.copy(entry.localHeaderOffset, entry.length, os);
+				entry.newOffset = offset;
+				offset += entry.length;
+			}
+		}
+		for (NewEntry newEntry : newEntries) {
+			newEntry.offset = offset;
+			offset += newEntry.writeLocal(os);
+		}
+
+		long centralDirectoryOffset = offset;
+		for (RawEntry entry : keptEntries) {
+			byte[] centralHeader = entry.centralHeader.clone();
+			putInt(centralHeader, 42, entry.newOffset);
+			os.write(centralHeader);
+		}
+		for (NewEntry newEntry : newEntries) {
+			newEntry.writeCentral(os);
+		}
+
+		byte[] end = new byte[END_OF_CENTRAL_DIRECTORY_LENGTH];
+		putInt(end, 0, END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+		putShort(end, 8, keptEntries.size() + newEntries.size());
+		putShort(end, 10, keptEntries.size() + newEntries.size());
+		putInt(end, 12, centralDirectorySize);
+		putInt(end, 16, centralDirectoryOffset);
+		putShort(end, 20, comment.length);
+		os.write(end);
+		os.write(comment);
+		return true;
+	}
+
+	private void parse() {
+		if (parsed) {
+			return;
+		}
+		parsed = true;
+		try (ArchiveReader reader = openReader()) {
+			entries = readCentralDirectory(reader);
+		} catch (Exception e) {
+			LOG.debug("Unable to read the central directory of the archive : {}", e.getMessage());
+			entries = null;
+		}
+	}
+
+	private List<RawEntry> readCentralDirectory(ArchiveReader reader) throws IOException {
+		long archiveSize = reader.size();
+		int tailLength = (int) Math.min(archiveSize, END_OF_CENTRAL_DIRECTORY_LENGTH + MAX_COMMENT_LENGTH + ZIP64_LOCATOR_LENGTH);
+		byte[] tail = reader.read(archiveSize - tailLength, tailLength);
+
+		int eocd = -1;
+		for (int i = tailLength - END_OF_CENTRAL_DIRECTORY_LENGTH; i >= 0; i--) {
+			if (getInt(tail, i) == END_OF_CENTRAL_DIRECTORY_SIGNATURE
+					&& i + END_OF_CENTRAL_DIRECTORY_LENGTH + getShort(tail, i + 20) == tailLength) {
+				eocd = i;
+				break;
+			}
+		}
+		if (eocd < 0) {
+			throw new IOException("End of central directory not found");
+		}
+		if (eocd >= ZIP64_LOCATOR_LENGTH && getInt(tail, eocd - ZIP64_LOCATOR_LENGTH) == ZIP64_LOCATOR_SIGNATURE) {
+			throw new IOException("ZIP64 archives are not supported");
+		}
+		if (getShort(tail, eocd + 4) != 0 || getShort(tail, eocd + 6) != 0) {
+			throw new IOException("Multi-disk archives are not supported");
+		}
+
+		int entriesNumber = getShort(tail, eocd + 10);
+		long centralDirectorySize = getUnsignedInt(tail, eocd + 12);
+		long centralDirectoryOffset = getUnsignedInt(tail, eocd + 16);
+		if (entriesNumber == MAX_16_BITS || centralDirectorySize == MAX_32_BITS || centralDirectoryOffset == MAX_32_BITS) {
+			throw new IOException("ZIP64 archives are not supported");
+		}
+		long centralDirectoryEnd = centralDirectoryOffset + centralDirectorySize;
+		if (centralDirectoryEnd > archiveSize - tailLength + eocd) {
+			throw new IOException("Invalid central directory location");
+		}
+		comment = new byte[getShort(tail, eocd + 20)];
+		System.arraycopy(tail, eocd + END_OF_CENTRAL_DIRECTORY_LENGTH, comment, 0, comment.length);
+
+		byte[] centralDirectory = reader.read(centralDirectoryOffset, (int) centralDirectorySize);
+		List<RawEntry> result = new ArrayList<>();
+		int position = 0;
+		for (int i = 0; i < entriesNumber; i++) {
+			if (position + CENTRAL_HEADER_LENGTH > centralDirectory.length || getInt(centralDirectory, position) != CENTRAL_HEADER_SIGNATURE) {
+				throw new IOException("Invalid central directory header");
+			}
+			int nameLength = getShort(centralDirectory, position + 28);
+			int headerLength = CENTRAL_HEADER_LENGTH + nameLength + getShort(centralDirectory, position + 30) + getShort(centralDirectory, position + 32);
+			if (position + headerLength > centralDirectory.length) {
+				throw new IOException("Truncated central directory header");
+			}
+
+			RawEntry entry = new RawEntry();
+			entry.centralHeader = new byte[headerLength];
+			System.arraycopy(centralDirectory, position, entry.centralHeader, 0, headerLength);
+			int flags = getShort(entry.centralHeader, 8);
+			entry.name = new String(entry.centralHeader, CENTRAL_HEADER_LENGTH, nameLength,
+					(flags & FLAG_UTF8) != 0 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+			long compressedSize = getUnsignedInt(entry.centralHeader, 20);
+			entry.localHeaderOffset = getUnsignedInt(entry.centralHeader, 42);
+			if (compressedSize == MAX_32_BITS || getUnsignedInt(entry.centralHeader, 24) == MAX_32_BITS
+					|| entry.localHeaderOffset == MAX_32_BITS || getShort(entry.centralHeader, 34) != 0) {
+				throw new IOException("ZIP64 entries are not supported");
+			}
+			entry.length = getLocalEntryLength(reader, entry.localHeaderOffset, compressedSize, flags, centralDirectoryOffset);
+			result.add(entry);
+			position += headerLength;
+		}
+		return result;
+	}
+
+	private long getLocalEntryLength(ArchiveReader reader, long offset, long compressedSize, int flags, long limit) throws IOException {
+		if (offset + LOCAL_HEADER_LENGTH > limit) {
+			throw new IOException("Invalid local header offset");
+		}
+		byte[] localHeader = reader.read(offset, LOCAL_HEADER_LENGTH);
+		if (getInt(localHeader, 0) != LOCAL_HEADER_SIGNATURE) {
+			throw new IOException("Invalid local header");
+		}
+		long length = LOCAL_HEADER_LENGTH + getShort(localHeader, 26) + getShort(localHeader, 28) + compressedSize;
+		if ((flags & FLAG_DATA_DESCRIPTOR) != 0) {
+			if (offset + length + 4 <= limit && getInt(reader.read(offset + length, 4), 0) == DATA_DESCRIPTOR_SIGNATURE) {
+				length += 16;
+			} else {
+				length += 12;
+			}
+		}
+		if (offset + length > limit) {
+			throw new IOException("Entry data exceeds the archive content");
+		}
+		return length;
+	}
+
+	private ArchiveReader openReader() throws IOException {
+		if (archive instanceof FileDocument) {
+			return new FileArchiveReader(new File(archive.getAbsolutePath()));
+		}
+		return new MemoryArchiveReader(DSSUtils.toByteArray(archive));
+	}
+
+	private static long toDosTime(long time) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTimeInMillis(time);
+		int year = calendar.get(Calendar.YEAR);
+		if (year < 1980) {
+			return (1 << 21) | (1 << 16);
+		}
+		return ((long) (year - 1980) << 25) | ((calendar.get(Calendar.MONTH) + 1) << 21) | (calendar.get(Calendar.DAY_OF_MONTH) << 16)
+				| (calendar.get(Calendar.HOUR_OF_DAY) << 11) | (calendar.get(Calendar.MINUTE) << 5) | (calendar.get(Calendar.SECOND) >> 1);
+	}
+
+	private static int getShort(byte[] bytes, int offset) {
+		return (bytes[offset] & 0xFF) | ((bytes[offset + 1] & 0xFF) << 8);
+	}
+
+	private static int getInt(byte[] bytes, int offset) {
+		return (int) getUnsignedInt(bytes, offset);
+	}
+
+	private static long getUnsignedInt(byte[] bytes, int offset) {
+		return (getShort(bytes, offset) | ((long) getShort(bytes, offset + 2) << 16)) & MAX_32_BITS;
+	}
+
+	private static void putShort(byte[] bytes, int offset, int value) {
+		bytes[offset] = (byte) value;
+		bytes[offset + 1] = (byte) (value >>> 8);
+	}
+
+	private static void putInt(byte[] bytes, int offset, long value) {
+		putShort(bytes, offset, (int) (value & MAX_16_BITS));
+		putShort(bytes, offset + 2, (int) ((value >>> 16) & MAX_16_BITS));
+	}
+
+	/**
+	 * An entry of the original archive, copied as is
+	 */
+	private static class RawEntry {
+
+		private String name;
+		private byte[] centralHeader;
+		private long localHeaderOffset;
+		private long length;
+		private long newOffset;
+
+	}
+
+	/**
+	 * A new entry, deflated in memory before writing
+	 */
+	private static class NewEntry {
+
+		private final byte[] name;
+		private final byte[] compressed;
+		private final long crc;
+		private final long size;
+		private final long dosTime;
+		private long offset;
+
+		NewEntry(String name, byte[] content, long dosTime) throws IOException {
+			this.name = name.getBytes(StandardCharsets.UTF_8);
+			this.dosTime = dosTime;
+			this.size = content.length;
+			CRC32 crc32 = new CRC32();
+			crc32.update(content);
+			this.crc = crc32.getValue();
+			Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+			try {
+				ByteArrayOutputStream baos = new ByteArrayOutputStream();
+				try (DeflaterOutputStream dos = new DeflaterOutputStream(baos, deflater)) {
+					dos.write(content);
+				}
+				this.compressed = baos.toByteArray();
+			} finally {
+				deflater.end();
+			}
+		}
+
+		long writeLocal(OutputStream os) throws IOException {
+			byte[] header = new byte[LOCAL_HEADER_LENGTH];
+			putInt(header, 0, LOCAL_HEADER_SIGNATURE);
+			putShort(header, 4, VERSION_DEFLATED);
+			fillCommonFields(header, 6);
+			putShort(header, 26, name.length);
+			os.write(header);
+			os.write(name);
+			os.write(compressed);
+			return LOCAL_HEADER_LENGTH + name.length + compressed.length;
+		}
+
+		void writeCentral(OutputStream os) throws IOException {
+			byte[] header = new byte[CENTRAL_HEADER_LENGTH];
+			putInt(header, 0, CENTRAL_HEADER_SIGNATURE);
+			putShort(header, 4, VERSION_DEFLATED);
+			putShort(header, 6, VERSION_DEFLATED);
+			fillCommonFields(header, 8);
+			putShort(header, 28, name.length);
+			putInt(header, 42, offset);
+			os.write(header);
+			os.write(name);
+		}
+
+		private void fillCommonFields(byte[] header, int offset) {
+			putShort(header, offset, FLAG_UTF8);
+			putShort(header, offset + 2, METHOD_DEFLATED);
+			putInt(header, offset + 4, dosTime);
+			putInt(header, offset + 8, crc);
+			putInt(header, offset + 12, compressed.length);
+			putInt(header, offset + 16, size);
+		}
+
+	}
+
+	private interface ArchiveReader extends Closeable {
+
+		long size() throws IOException;
+
+		byte[] read(long position, int length) throws IOException;
+
+		void copy(long position, long length, OutputStream os) throws IOException;
+
+	}
+
+	private static class MemoryArchiveReader implements ArchiveReader {
+
+		private final byte[] bytes;
+
+		MemoryArchiveReader(byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		@Override
+		public long size() {
+			return bytes.length;
+		}
+
+		@Override
+		public byte[] read(long position, int length) throws IOException {
+			if (position < 0 || position + length > bytes.length) {
+				throw new IOException("Out of the archive bounds");
+			}
+			byte[] result = new byte[length];
+			System.arraycopy(bytes, (int) position, result, 0, length);
+			return result;
+		}
+
+		@Override
+		public void copy(long position, long length, OutputStream os) throws IOException {
+			os.write(bytes, (int) position, (int) length);
+		}
+
+		@Override
+		public void close() {
+			// nothing to close
+		}
+
+	}
+
+	private static class FileArchiveReader implements ArchiveReader {
+
+		private static final int BUFFER_SIZE = 64 * 1024;
+
+		private final RandomAccessFile file;
+
+		FileArchiveReader(File file) throws IOException {
+			this.file = new RandomAccessFile(file, "r");
+		}
+
+		@Override
+		public long size() throws IOException {
+			return file.length();
+		}
+
+		@Override
+		public byte[] read(long position, int length) throws IOException {
+			if (position < 0 || position + length > file.length()) {
+				throw new IOException("Out of the archive bounds");
+			}
+			byte[] result = new byte[length];
+			file.seek(position);
+			file.readFully(result);
+			return result;
+		}
+
+		@Override
+		public void copy(long position, long length, OutputStream os) throws IOException {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			file.seek(position);
+			long remaining = length;
+			while (remaining > 0) {
+				int read = file.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+				if (read < 0) {
+					throw new IOException("Unexpected end of the archive");
+				}
+				os.write(buffer, 0, read);
+				remaining -= read;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			file.close();
+		}
+
+	}
+
+}
@@ -0,0 +1,217 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.asic.common.signature;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DSSDocumentFactory;
+import eu.europa.esig.dss.model.InMemoryDocumentFactory;
+import eu.europa.esig.dss.model.MimeType;
+import eu.europa.esig.dss.model.TemporaryFileDocument;
+
+/**
+ * Defines where an ASiC container is written to.
+ * 
+ * The container is streamed to the {@code OutputStream} returned by {@link #openStream()}, the
+ * resulting {@code DSSDocument} is then obtained with {@link #getResult(MimeType)}. If the container cannot be
+ * written, {@link #discard()} releases what has been written so far. An instance is used for a single container.
+ */
+public abstract class ASiCContainerOutput {
+
+	/**
+	 * Returns an output which keeps the container in memory (default behaviour)
+	 * 
+	 * @return {@link ASiCContainerOutput}
+	 */
+	public static ASiCContainerOutput inMemory() {
+		return documentFactory(new InMemoryDocumentFactory());
+	}
+
+	/**
+	 * Returns an output which builds the container in memory, then stores it with the given
+	 * {@code DSSDocumentFactory}
+	 * 
+	 * @param documentFactory
+	 *                        the {@link DSSDocumentFactory} which creates the resulting document
+	 * @return {@link ASiCContainerOutput}
+	 */
+	public static ASiCContainerOutput documentFactory(DSSDocumentFactory documentFactory) {
+		return new DocumentFactoryOutput(documentFactory);
+	}
+
+	/**
+	 * Returns an output which writes the container to a temporary file. The result is a
+	 * {@code TemporaryFileDocument} : the caller deletes the file by closing the document.
+	 * 
+	 * @param directory
+	 *                  the directory where the temporary file is created (null for the default temporary
+	 *                  directory)
+	 * @return {@link ASiCContainerOutput}
+	 */
+	public static ASiCContainerOutput temporaryFile(File directory) {
+		return new TemporaryFileOutput(directory);
+	}
+
+	/**
+	 * Returns an output which writes the container directly to the given {@code OutputStream}. The stream is
+	 * flushed but not closed, and no {@code DSSDocument} is returned.
+	 * 
+	 * @param outputStream
+	 *                     the {@link OutputStream} to write to
+	 * @return {@link ASiCContainerOutput}
+	 */
+	public static ASiCContainerOutput stream(OutputStream outputStream) {
+		return new StreamOutput(outputStream);
+	}
+
+	/**
+	 * Opens the stream to write the container to
+	 * 
+	 * @return {@link OutputStream}
+	 * @throws IOException
+	 *                     if the stream cannot be created
+	 */
+	public abstract OutputStream openStream() throws IOException;
+
+	/**
+	 * Returns the written container. To be called once the stream returned by {@link #openStream()} is
+	 * closed.
+	 * 
+	 * @param mimeType
+	 *                 the {@link MimeType} of the container
+	 * @return {@link DSSDocument} or null if the container has been written to a caller-supplied stream
+	 */
+	public abstract DSSDocument getResult(MimeType mimeType);
+
+	/**
+	 * Releases what has been written when the container cannot be built. To be called once the stream returned by
+	 * {@link #openStream()} is closed.
+	 */
+	public void discard() {
+		// nothing to release by default
+	}
+
+	private static class DocumentFactoryOutput extends ASiCContainerOutput {
+
+		private final DSSDocumentFactory documentFactory;
+
+		private ByteArrayOutputStream baos;
+
+		DocumentFactoryOutput(DSSDocumentFactory documentFactory) {
+			Objects.requireNonNull(documentFactory, "DocumentFactory cannot be null!");
+			this.documentFactory = documentFactory;
+		}
+
+		@Override
+		public OutputStream openStream() {
+			baos = new ByteArrayOutputStream();
+			return baos;
+		}
+
+		@Override
+		public DSSDocument getResult(MimeType mimeType) {
+			final ByteArrayOutputStream content = baos;
+			baos = null;
+			return documentFactory.create(content::writeTo, mimeType);
+		}
+
+		@Override
+		public void discard() {
+			baos = null;
+		}
+
+	}
+
+	private static class TemporaryFileOutput extends ASiCContainerOutput {
+
+		private final File directory;
+
+		private File file;
+
+		TemporaryFileOutput(File directory) {
+			this.directory = directory;
+		}
+
+		@Override
+		public OutputStream openStream() throws IOException {
+			file = File.createTempFile("dss-asic-", ".zip", directory);
+			return new FileOutputStream(file);
+		}
+
+		@Override
+		public DSSDocument getResult(MimeType mimeType) {
+			TemporaryFileDocument document = new TemporaryFileDocument(file);
+			document.setName(null);
+			document.setMimeType(mimeType);
+			return document;
+		}
+
+		@Override
+		public void discard() {
+			if (file != null && !file.delete()) {
+				file.deleteOnExit();
+			}
+		}
+
+	}
+
+	private static class StreamOutput extends ASiCContainerOutput {
+
+		private final OutputStream outputStream;
+
+		StreamOutput(OutputStream outputStream) {
+			Objects.requireNonNull(outputStream, "OutputStream cannot be null!");
+			this.outputStream = outputStream;
+		}
+
+		@Override
+		public OutputStream openStream() {
+			// the caller remains responsible for closing its stream
+			return new FilterOutputStream(outputStream) {
+
+				@Override
+				public void write(byte[] b, int off, int len) throws IOException {
+					out.write(b, off, len);
+				}
+
+				@Override
+				public void close() throws IOException {
+					flush();
+				}
+
+			};
+		}
+
+		@Override
+		public DSSDocument getResult(MimeType mimeType) {
+			return null;
+		}
+
+	}
+
+}
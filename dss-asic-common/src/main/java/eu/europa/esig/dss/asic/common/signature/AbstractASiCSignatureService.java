@@ -20,9 +20,10 @@
  */
 package eu.europa.esig.dss.asic.common.signature;
 
-import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -33,13 +34,16 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import eu.europa.esig.dss.asic.common.ASiCExtractResult;
 import eu.europa.esig.dss.asic.common.ASiCParameters;
 import eu.europa.esig.dss.asic.common.ASiCUtils;
 import eu.europa.esig.dss.asic.common.AbstractASiCContainerExtractor;
+import eu.europa.esig.dss.asic.common.ZipContainerRewriter;
 import eu.europa.esig.dss.model.DSSDocument;
 import eu.europa.esig.dss.model.DSSException;
-import eu.europa.esig.dss.model.InMemoryDocument;
 import eu.europa.esig.dss.model.SerializableSignatureParameters;
 import eu.europa.esig.dss.model.SerializableTimestampParameters;
 import eu.europa.esig.dss.model.SignatureValue;
@@ -56,10 +60,16 @@ public abstract class AbstractASiCSignatureService<SP extends SerializableSignat
 
 	private static final long serialVersionUID = 243114076381526665L;
 
+	private static final Logger LOG = LoggerFactory.getLogger(AbstractASiCSignatureService.class);
+
 	private static final String ZIP_ENTRY_MIMETYPE = "mimetype";
 
 	protected ASiCExtractResult archiveContent = new ASiCExtractResult();
 
+	private boolean temporaryFileOutput;
+
+	private File temporaryDirectory;
+
 	protected AbstractASiCSignatureService(CertificateVerifier certificateVerifier) {
 		super(certificateVerifier);
 	}
@@ -120,17 +130,65 @@ public abstract class AbstractASiCSignatureService<SP extends SerializableSignat
 		return archiveContent.getMimeTypeDocument();
 	}
 
-	protected DSSDocument mergeArchiveAndExtendedSignatures(DSSDocument archiveDocument, List<DSSDocument> signaturesToAdd) {
-		try (ByteArrayOutputStream baos = new ByteArrayOutputStream(); ZipOutputStream zos = new ZipOutputStream(baos)) {
-			copyArchiveContentWithoutSignatures(archiveDocument, zos, signaturesToAdd);
-			storeDocuments(signaturesToAdd, zos);
+	/**
+	 * Sets whether the containers are written to temporary files instead of being kept in memory. When enabled,
+	 * the returned containers are {@code TemporaryFileDocument}s (the caller deletes the file by closing the
+	 * document) and the memory consumption does not depend on the size of the signed documents (default : false)
+	 * 
+	 * @param temporaryFileOutput
+	 *                            true to write the containers to temporary files
+	 */
+	public void setTemporaryFileOutput(boolean temporaryFileOutput) {
+		this.temporaryFileOutput = temporaryFileOutput;
+	}
 
-			zos.finish();
+	/**
+	 * Sets the directory where the temporary files are created (default : the system temporary directory)
+	 * 
+	 * @param temporaryDirectory
+	 *                           the directory for the temporary files
+	 */
+	public void setTemporaryDirectory(File temporaryDirectory) {
+		this.temporaryDirectory = temporaryDirectory;
+	}
+
+	/**
+	 * Returns the output to be used when no caller-supplied stream is given
+	 * 
+	 * @return {@link ASiCContainerOutput}
+	 */
+	protected ASiCContainerOutput getDefaultContainerOutput() {
+		if (temporaryFileOutput) {
+			return ASiCContainerOutput.temporaryFile(temporaryDirectory);
+		}
+		return ASiCContainerOutput.documentFactory(documentFactory);
+	}
 
-			return new InMemoryDocument(baos.toByteArray(), null, archiveDocument.getMimeType());
+	protected DSSDocument mergeArchiveAndExtendedSignatures(DSSDocument archiveDocument, List<DSSDocument> signaturesToAdd) {
+		return mergeArchiveAndExtendedSignatures(archiveDocument, signaturesToAdd, getDefaultContainerOutput());
+	}
+
+	protected DSSDocument mergeArchiveAndExtendedSignatures(DSSDocument archiveDocument, List<DSSDocument> signaturesToAdd,
+			ASiCContainerOutput output) {
+		final List<String> documentNames = getDocumentNames(signaturesToAdd);
+		try (OutputStream os = output.openStream()) {
+			// unchanged entries are copied without being inflated/deflated again
+			ZipContainerRewriter rewriter = new ZipContainerRewriter(archiveDocument);
+			if (!rewriter.rewrite(os, name -> isSignatureFilename(name) || documentNames.contains(name), signaturesToAdd)) {
+				LOG.debug("Raw copy of the ASiC container is not possible, the entries are recompressed");
+				try (ZipOutputStream zos = new ZipOutputStream(os)) {
+					copyArchiveContentWithoutSignatures(archiveDocument, zos, signaturesToAdd);
+					storeDocuments(signaturesToAdd, zos);
+				}
+			}
 		} catch (IOException e) {
+			output.discard();
 			throw new DSSException("Unable to extend the ASiC container", e);
+		} catch (RuntimeException e) {
+			output.discard();
+			throw e;
 		}
+		return output.getResult(archiveDocument.getMimeType());
 	}
 
 	private void copyArchiveContentWithoutSignatures(DSSDocument archiveDocument, ZipOutputStream zos, List<DSSDocument> documentsToAdd) throws IOException {
@@ -161,17 +219,22 @@ public abstract class AbstractASiCSignatureService<SP extends SerializableSignat
 
 	protected DSSDocument buildASiCContainer(List<DSSDocument> documentsToBeSigned, List<DSSDocument> signatures,
 			List<DSSDocument> documentsToStore,  ASiCParameters asicParameters, DSSDocument rootContainer) {
+		return buildASiCContainer(documentsToBeSigned, signatures, documentsToStore, asicParameters, rootContainer, getDefaultContainerOutput());
+	}
+
+	protected DSSDocument buildASiCContainer(List<DSSDocument> documentsToBeSigned, List<DSSDocument> signatures,
+			List<DSSDocument> documentsToStore, ASiCParameters asicParameters, DSSDocument rootContainer, ASiCContainerOutput output) {
 
 		if (rootContainer != null) {
-			return mergeArchiveAndExtendedSignatures(rootContainer, signatures);
+			return mergeArchiveAndExtendedSignatures(rootContainer, signatures, output);
 		} else {
-			return buildASiCContainerType(documentsToBeSigned, signatures, documentsToStore, asicParameters);
+			return buildASiCContainerType(documentsToBeSigned, signatures, documentsToStore, asicParameters, output);
 		}
 	}
 	
 	private DSSDocument buildASiCContainerType(List<DSSDocument> documentsToBeSigned, List<DSSDocument> signatures, 
-			List<DSSDocument> metaInfFolderDocuments, ASiCParameters asicParameters) {
-		try (ByteArrayOutputStream baos = new ByteArrayOutputStream(); ZipOutputStream zos = new ZipOutputStream(baos)) {
+			List<DSSDocument> metaInfFolderDocuments, ASiCParameters asicParameters, ASiCContainerOutput output) {
+		try (OutputStream os = output.openStream(); ZipOutputStream zos = new ZipOutputStream(os)) {
 			storeMimetype(asicParameters, zos);
 			if (ASiCUtils.isASiCE(asicParameters)) {
 				storeDocuments(metaInfFolderDocuments, zos);
@@ -181,11 +244,14 @@ public abstract class AbstractASiCSignatureService<SP extends SerializableSignat
 			storeZipComment(asicParameters, zos);
 			
 			zos.finish();
-
-			return new InMemoryDocument(baos.toByteArray(), null, ASiCUtils.getMimeType(asicParameters));
 		} catch (IOException e) {
+			output.discard();
 			throw new DSSException("Unable to build the ASiC Container", e);
+		} catch (RuntimeException e) {
+			output.discard();
+			throw e;
 		}
+		return output.getResult(ASiCUtils.getMimeType(asicParameters));
 	}
 
 	private void storeDocuments(List<DSSDocument> documents, ZipOutputStream zos) throws IOException {
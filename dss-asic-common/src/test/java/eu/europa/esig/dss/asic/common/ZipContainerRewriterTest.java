@@ -0,0 +1,170 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.asic.common;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.FileDocument;
+import eu.europa.esig.dss.model.InMemoryDocument;
+
+public class ZipContainerRewriterTest {
+
+	private static final String MIMETYPE = "application/vnd.etsi.asic-e+zip";
+
+	@Test
+	public void rewriteInMemory() throws IOException {
+		byte[] original = buildContainer();
+		byte[] rewritten = rewrite(new InMemoryDocument(original));
+		checkRewritten(original, rewritten);
+	}
+
+	@Test
+	public void rewriteFile() throws IOException {
+		byte[] original = buildContainer();
+		File file = File.createTempFile("container", ".asice");
+		file.deleteOnExit();
+		try (OutputStream os = new FileOutputStream(file)) {
+			os.write(original);
+		}
+		byte[] rewritten = rewrite(new FileDocument(file));
+		checkRewritten(original, rewritten);
+	}
+
+	@Test
+	public void notAZip() throws IOException {
+		ZipContainerRewriter rewriter = new ZipContainerRewriter(new InMemoryDocument("Hello".getBytes(StandardCharsets.UTF_8)));
+		assertFalse(rewriter.isSupported());
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		assertFalse(rewriter.rewrite(baos, name -> false, Collections.<DSSDocument> emptyList()));
+		assertEquals(0, baos.size());
+	}
+
+	private byte[] rewrite(DSSDocument container) throws IOException {
+		ZipContainerRewriter rewriter = new ZipContainerRewriter(container);
+		assertTrue(rewriter.isSupported());
+		assertEquals(Arrays.asList("mimetype", "data.bin", "META-INF/signatures001.xml"), rewriter.getEntryNames());
+
+		DSSDocument newSignature = new InMemoryDocument("<new-signature/>".getBytes(StandardCharsets.UTF_8), "META-INF/signatures001.xml");
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		assertTrue(rewriter.rewrite(baos, name -> name.startsWith("META-INF/signature"), Arrays.asList(newSignature)));
+		return baos.toByteArray();
+	}
+
+	private void checkRewritten(byte[] original, byte[] rewritten) throws IOException {
+		File originalFile = toFile(original);
+		File rewrittenFile = toFile(rewritten);
+		try (ZipFile originalZip = new ZipFile(originalFile); ZipFile rewrittenZip = new ZipFile(rewrittenFile)) {
+			assertEquals(3, rewrittenZip.size());
+			assertEquals(originalZip.getComment(), rewrittenZip.getComment());
+
+			for (String name : Arrays.asList("mimetype", "data.bin")) {
+				ZipEntry originalEntry = originalZip.getEntry(name);
+				ZipEntry rewrittenEntry = rewrittenZip.getEntry(name);
+				assertNotNull(rewrittenEntry);
+				assertEquals(originalEntry.getMethod(), rewrittenEntry.getMethod());
+				assertEquals(originalEntry.getCrc(), rewrittenEntry.getCrc());
+				assertEquals(originalEntry.getCompressedSize(), rewrittenEntry.getCompressedSize());
+				assertEquals(originalEntry.getSize(), rewrittenEntry.getSize());
+				assertArrayEquals(read(originalZip, originalEntry), read(rewrittenZip, rewrittenEntry));
+			}
+			assertEquals(ZipEntry.STORED, rewrittenZip.getEntry("mimetype").getMethod());
+
+			ZipEntry signature = rewrittenZip.getEntry("META-INF/signatures001.xml");
+			assertNotNull(signature);
+			assertEquals(ZipEntry.DEFLATED, signature.getMethod());
+			assertEquals("<new-signature/>", new String(read(rewrittenZip, signature), StandardCharsets.UTF_8));
+		}
+	}
+
+	private byte[] buildContainer() throws IOException {
+		byte[] data = new byte[512 * 1024];
+		new Random(42).nextBytes(data);
+		Arrays.fill(data, 0, data.length / 2, (byte) 'a');
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+			byte[] mimetype = MIMETYPE.getBytes(StandardCharsets.UTF_8);
+			ZipEntry mimetypeEntry = new ZipEntry("mimetype");
+			mimetypeEntry.setMethod(ZipEntry.STORED);
+			mimetypeEntry.setSize(mimetype.length);
+			mimetypeEntry.setCompressedSize(mimetype.length);
+			CRC32 crc = new CRC32();
+			crc.update(mimetype);
+			mimetypeEntry.setCrc(crc.getValue());
+			zos.putNextEntry(mimetypeEntry);
+			zos.write(mimetype);
+
+			// deflated entries are written with a data descriptor
+			zos.putNextEntry(new ZipEntry("data.bin"));
+			zos.write(data);
+
+			zos.putNextEntry(new ZipEntry("META-INF/signatures001.xml"));
+			zos.write("<old-signature/>".getBytes(StandardCharsets.UTF_8));
+
+			zos.setComment("mimetype=" + MIMETYPE);
+		}
+		return baos.toByteArray();
+	}
+
+	private File toFile(byte[] bytes) throws IOException {
+		File file = File.createTempFile("zip", ".zip");
+		file.deleteOnExit();
+		try (OutputStream os = new FileOutputStream(file)) {
+			os.write(bytes);
+		}
+		return file;
+	}
+
+	private byte[] read(ZipFile zipFile, ZipEntry entry) throws IOException {
+		try (InputStream is = zipFile.getInputStream(entry); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = is.read(buffer)) != -1) {
+				baos.write(buffer, 0, read);
+			}
+			return baos.toByteArray();
+		}
+	}
+
+}
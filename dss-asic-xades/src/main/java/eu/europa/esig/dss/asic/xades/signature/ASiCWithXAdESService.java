@@ -20,6 +20,7 @@
  */
 package eu.europa.esig.dss.asic.xades.signature;
 
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -36,6 +37,7 @@ import eu.europa.esig.dss.asic.common.ASiCUtils;
 import eu.europa.esig.dss.asic.common.AbstractASiCContainerExtractor;
 import eu.europa.esig.dss.asic.common.definition.ASiCElement;
 import eu.europa.esig.dss.asic.common.definition.ASiCNamespace;
+import eu.europa.esig.dss.asic.common.signature.ASiCContainerOutput;
 import eu.europa.esig.dss.asic.common.signature.AbstractASiCSignatureService;
 import eu.europa.esig.dss.asic.xades.ASiCWithXAdESContainerExtractor;
 import eu.europa.esig.dss.asic.xades.ASiCWithXAdESSignatureParameters;
@@ -88,6 +90,29 @@ public class ASiCWithXAdESService extends AbstractASiCSignatureService<ASiCWithX
 
 	@Override
 	public DSSDocument signDocument(List<DSSDocument> toSignDocuments, ASiCWithXAdESSignatureParameters parameters, SignatureValue signatureValue) {
+		return signDocument(toSignDocuments, parameters, signatureValue, getDefaultContainerOutput());
+	}
+
+	/**
+	 * Signs the documents and writes the ASiC container directly to the given {@code OutputStream}, without
+	 * keeping it in memory. The stream is not closed.
+	 * 
+	 * @param toSignDocuments
+	 *                        the documents to be signed
+	 * @param parameters
+	 *                        the signature parameters
+	 * @param signatureValue
+	 *                        the signature value
+	 * @param outputStream
+	 *                        the {@link OutputStream} to write the container to
+	 */
+	public void signDocument(List<DSSDocument> toSignDocuments, ASiCWithXAdESSignatureParameters parameters, SignatureValue signatureValue,
+			OutputStream outputStream) {
+		signDocument(toSignDocuments, parameters, signatureValue, ASiCContainerOutput.stream(outputStream));
+	}
+
+	private DSSDocument signDocument(List<DSSDocument> toSignDocuments, ASiCWithXAdESSignatureParameters parameters, SignatureValue signatureValue,
+			ASiCContainerOutput output) {
 		Objects.requireNonNull(toSignDocuments, "toSignDocument cannot be null!");
 		Objects.requireNonNull(parameters, "SignatureParameters cannot be null!");
 		Objects.requireNonNull(signatureValue, "SignatureValue cannot be null!");
@@ -122,8 +147,10 @@ public class ASiCWithXAdESService extends AbstractASiCSignatureService<ASiCWithX
 
 		signatures.add(newSignature);
 
-		final DSSDocument asicSignature = buildASiCContainer(signedDocuments, signatures, manifestFiles, asicParameters, rootContainer);
-		asicSignature.setName(getFinalArchiveName(asicSignature, SigningOperation.SIGN, parameters.getSignatureLevel(), asicSignature.getMimeType()));
+		final DSSDocument asicSignature = buildASiCContainer(signedDocuments, signatures, manifestFiles, asicParameters, rootContainer, output);
+		if (asicSignature != null) {
+			asicSignature.setName(getFinalArchiveName(asicSignature, SigningOperation.SIGN, parameters.getSignatureLevel(), asicSignature.getMimeType()));
+		}
 		parameters.reinitDeterministicId();
 		return asicSignature;
 	}
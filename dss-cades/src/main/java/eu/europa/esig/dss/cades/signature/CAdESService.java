@@ -52,6 +52,7 @@ import eu.europa.esig.dss.model.SignatureValue;
 import eu.europa.esig.dss.model.TimestampBinary;
 import eu.europa.esig.dss.model.ToBeSigned;
 import eu.europa.esig.dss.signature.AbstractSignatureService;
+import eu.europa.esig.dss.signature.BulkSignatureExtensionService;
 import eu.europa.esig.dss.signature.SignatureExtension;
 import eu.europa.esig.dss.signature.SigningOperation;
 import eu.europa.esig.dss.spi.DSSASN1Utils;
@@ -160,6 +161,7 @@ public class CAdESService extends AbstractSignatureService<CAdESSignatureParamet
 			final SignatureExtension<CAdESSignatureParameters> extension = getExtensionProfile(parameters, true);
 			signature = extension.extendSignatures(signature, parameters);
 		}
+		signature = documentFactory.create(signature);
 		signature.setName(getFinalFileName(toSignDocument, SigningOperation.SIGN, parameters.getSignatureLevel()));
 		parameters.reinitDeterministicId();
 		return signature;
@@ -175,13 +177,28 @@ public class CAdESService extends AbstractSignatureService<CAdESSignatureParamet
 		return new BcDigestCalculatorProvider();
 	}
 
+	/**
+	 * Returns a service which extends a large number of documents in parallel. The
+	 * validation pool and the revocation data are shared between the documents.
+	 * 
+	 * @return a new instance of {@code BulkSignatureExtensionService}
+	 */
+	public BulkSignatureExtensionService<CAdESSignatureParameters, CAdESTimestampParameters> getBulkExtensionService() {
+		return new BulkSignatureExtensionService<>(certificateVerifier, verifier -> {
+			CAdESService service = new CAdESService(verifier);
+			service.setTspSource(tspSource);
+			service.setDocumentFactory(documentFactory);
+			return service;
+		});
+	}
+
 	@Override
 	public DSSDocument extendDocument(final DSSDocument toExtendDocument, final CAdESSignatureParameters parameters) {
 		Objects.requireNonNull(toExtendDocument, "toExtendDocument is not defined!");
 		Objects.requireNonNull(parameters, "Cannot extend the signature. SignatureParameters are not defined!");
 		// false: All signature are extended
 		final SignatureExtension<CAdESSignatureParameters> extension = getExtensionProfile(parameters, false);
-		final DSSDocument dssDocument = extension.extendSignatures(toExtendDocument, parameters);
+		final DSSDocument dssDocument = documentFactory.create(extension.extendSignatures(toExtendDocument, parameters));
 		dssDocument.setName(getFinalFileName(toExtendDocument, SigningOperation.EXTEND, parameters.getSignatureLevel()));
 		return dssDocument;
 	}
@@ -948,6 +948,10 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 		if (Utils.isCollectionNotEmpty(messageDigestAlgorithms)) {
 			// try to match with found digest algorithm(s)
 			for (DigestAlgorithm digestAlgorithm : messageDigestAlgorithms) {
+				if (!isDigestAvailable(originalDocument, digestAlgorithm)) {
+					LOG.debug("The digest document does not contain a digest value for the algorithm {}", digestAlgorithm);
+					continue;
+				}
 				String base64Digest = originalDocument.getDigest(digestAlgorithm);
 				if (Arrays.equals(messageDigest.getValue(), Utils.fromBase64(base64Digest))) {
 					messageDigest.setAlgorithm(digestAlgorithm);
@@ -986,6 +990,9 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 	private ManifestFile getSignedManifest(final DSSDocument originalDocument, final Digest messageDigest) {
 		if (Utils.isCollectionNotEmpty(manifestFiles)) {
 			DigestAlgorithm digestAlgorithm = messageDigest.getAlgorithm() != null ? messageDigest.getAlgorithm() : DigestAlgorithm.SHA256;
+			if (!isDigestAvailable(originalDocument, digestAlgorithm)) {
+				return null;
+			}
 			String digestValue = originalDocument.getDigest(digestAlgorithm);
 			
 			for (ManifestFile manifestFile : manifestFiles) {
@@ -1002,12 +1009,33 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 		checkSignatureIntegrity();
 		return referenceValidations;
 	}
+
+	/**
+	 * A {@code DigestDocument} cannot compute a digest value, only the provided
+	 * ones can be used (DocHashOnly validation)
+	 */
+	private boolean isDigestAvailable(DSSDocument document, DigestAlgorithm digestAlgorithm) {
+		return !(document instanceof DigestDocument) || ((DigestDocument) document).isDigestPresent(digestAlgorithm);
+	}
+
+	@Override
+	public Set<DigestAlgorithm> getDetachedContentsDigestAlgorithms() {
+		if (isCounterSignature() || !CMSUtils.isDetachedSignature(cmsSignedData)) {
+			return Collections.emptySet();
+		}
+		// the message-digest (or the content digest) is computed with the digest algorithm of the signer
+		DigestAlgorithm digestAlgorithm = getDigestAlgorithmForOID(signerInformation.getDigestAlgOID());
+		if (digestAlgorithm == null) {
+			return Collections.emptySet();
+		}
+		return Collections.singleton(digestAlgorithm);
+	}
 	
 	private ReferenceValidation getContentReferenceValidation(DSSDocument originalDocument, SignerInformation signerInformation) {
 		ReferenceValidation contentValidation = new ReferenceValidation();
 		contentValidation.setType(DigestMatcherType.CONTENT_DIGEST);
 		DigestAlgorithm digestAlgorithm = getDigestAlgorithmForOID(signerInformation.getDigestAlgOID());
-		if (originalDocument != null && digestAlgorithm != null) {
+		if (originalDocument != null && digestAlgorithm != null && isDigestAvailable(originalDocument, digestAlgorithm)) {
 			byte[] contentDigest = signerInformation.getContentDigest();
 			if (Utils.isArrayNotEmpty(contentDigest)) {
 				contentValidation.setFound(true);
@@ -50,7 +50,12 @@ public class PrecomputedDigestCalculatorProvider implements DigestCalculatorProv
 	public DigestCalculator get(final AlgorithmIdentifier digestAlgorithmIdentifier) throws OperatorCreationException {
 
 		ASN1ObjectIdentifier algorithmOid = digestAlgorithmIdentifier.getAlgorithm();
-		final String digestBase64 = digestDocument.getDigest(DigestAlgorithm.forOID(algorithmOid.getId()));
+		final DigestAlgorithm digestAlgorithm = DigestAlgorithm.forOID(algorithmOid.getId());
+		if (!digestDocument.isDigestPresent(digestAlgorithm)) {
+			// BouncyCastle skips the digest algorithms which cannot be computed
+			throw new OperatorCreationException("The digest document does not contain a digest value for the algorithm : " + digestAlgorithm);
+		}
+		final String digestBase64 = digestDocument.getDigest(digestAlgorithm);
 
 		return new DigestCalculator() {
 
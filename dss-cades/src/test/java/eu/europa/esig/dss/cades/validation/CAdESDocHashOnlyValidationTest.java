@@ -0,0 +1,115 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.cades.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.cades.CAdESSignatureParameters;
+import eu.europa.esig.dss.cades.signature.CAdESService;
+import eu.europa.esig.dss.diagnostic.DiagnosticData;
+import eu.europa.esig.dss.diagnostic.SignatureWrapper;
+import eu.europa.esig.dss.diagnostic.jaxb.XmlDigestMatcher;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.SignatureLevel;
+import eu.europa.esig.dss.enumerations.SignaturePackaging;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DigestDocument;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import eu.europa.esig.dss.model.SignatureValue;
+import eu.europa.esig.dss.model.ToBeSigned;
+import eu.europa.esig.dss.test.signature.PKIFactoryAccess;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+public class CAdESDocHashOnlyValidationTest extends PKIFactoryAccess {
+
+	private DSSDocument originalDocument;
+	private DSSDocument signedDocument;
+
+	@BeforeEach
+	public void init() {
+		originalDocument = new InMemoryDocument("Hello World".getBytes(), "hello.txt");
+
+		CAdESSignatureParameters signatureParameters = new CAdESSignatureParameters();
+		signatureParameters.setSigningCertificate(getSigningCert());
+		signatureParameters.setCertificateChain(getCertificateChain());
+		signatureParameters.setSignaturePackaging(SignaturePackaging.DETACHED);
+		signatureParameters.setSignatureLevel(SignatureLevel.CAdES_BASELINE_B);
+		signatureParameters.setDigestAlgorithm(DigestAlgorithm.SHA256);
+
+		CAdESService service = new CAdESService(getOfflineCertificateVerifier());
+		ToBeSigned dataToSign = service.getDataToSign(originalDocument, signatureParameters);
+		SignatureValue signatureValue = getToken().sign(dataToSign, signatureParameters.getDigestAlgorithm(), getPrivateKeyEntry());
+		signedDocument = service.signDocument(originalDocument, signatureParameters, signatureValue);
+	}
+
+	@Test
+	public void requiredDigestAlgorithms() {
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(signedDocument);
+		validator.setCertificateVerifier(getOfflineCertificateVerifier());
+		assertEquals(Collections.singleton(DigestAlgorithm.SHA256), validator.getDetachedContentsDigestAlgorithms());
+	}
+
+	@Test
+	public void validDigest() {
+		DigestDocument digestDocument = new DigestDocument(DigestAlgorithm.SHA256, originalDocument.getDigest(DigestAlgorithm.SHA256));
+		SignatureWrapper signature = validate(digestDocument);
+		assertTrue(signature.isBLevelTechnicallyValid());
+		for (XmlDigestMatcher digestMatcher : signature.getDigestMatchers()) {
+			assertTrue(digestMatcher.isDataFound());
+			assertTrue(digestMatcher.isDataIntact());
+		}
+	}
+
+	@Test
+	public void missingDigestAlgorithm() {
+		DigestDocument digestDocument = new DigestDocument(DigestAlgorithm.SHA512, originalDocument.getDigest(DigestAlgorithm.SHA512));
+		SignatureWrapper signature = validate(digestDocument);
+		assertFalse(signature.isBLevelTechnicallyValid());
+		List<XmlDigestMatcher> digestMatchers = signature.getDigestMatchers();
+		assertEquals(1, digestMatchers.size());
+		assertFalse(digestMatchers.get(0).isDataIntact());
+	}
+
+	private SignatureWrapper validate(DigestDocument digestDocument) {
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(signedDocument);
+		validator.setCertificateVerifier(getOfflineCertificateVerifier());
+		validator.setDetachedContents(Arrays.<DSSDocument>asList(digestDocument));
+		Reports reports = validator.validateDocument();
+		DiagnosticData diagnosticData = reports.getDiagnosticData();
+		return diagnosticData.getSignatureById(diagnosticData.getFirstSignatureId());
+	}
+
+	@Override
+	protected String getSigningAlias() {
+		return GOOD_USER;
+	}
+
+}
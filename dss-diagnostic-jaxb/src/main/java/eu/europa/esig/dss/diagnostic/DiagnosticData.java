@@ -22,9 +22,11 @@ package eu.europa.esig.dss.diagnostic;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import eu.europa.esig.dss.diagnostic.jaxb.XmlCertificate;
@@ -50,14 +52,22 @@ import eu.europa.esig.dss.enumerations.TimestampType;
 /**
  * This class represents all static data extracted by the process analysing the signature. They are independent from the
  * validation policy to be applied.
+ * 
+ * The wrappers and the indexes by id are built on first access and published once complete. Once
+ * {@link #initializeIndexes()} has been called, the instance can be read by several threads, as long as the wrapped
+ * JAXB object is not modified.
  */
 public class DiagnosticData {
 
 	private final XmlDiagnosticData wrapped;
 
-	private List<SignatureWrapper> foundSignatures;
-	private List<CertificateWrapper> usedCertificates;
-	private List<TimestampWrapper> usedTimestamps;
+	private volatile List<SignatureWrapper> foundSignatures;
+	private volatile List<CertificateWrapper> usedCertificates;
+	private volatile List<TimestampWrapper> usedTimestamps;
+
+	private volatile Map<String, SignatureWrapper> signaturesById;
+	private volatile Map<String, CertificateWrapper> certificatesById;
+	private volatile Map<String, TimestampWrapper> timestampsById;
 
 	public DiagnosticData(final XmlDiagnosticData wrapped) {
 		this.wrapped = wrapped;
@@ -555,25 +565,21 @@ public class DiagnosticData {
 	 * @return a signature wrapper or null
 	 */
 	public SignatureWrapper getSignatureById(String id) {
-		List<SignatureWrapper> signatures = getSignatures();
-		if (signatures != null) {
-			for (SignatureWrapper xmlSignature : signatures) {
-				if (id.equals(xmlSignature.getId())) {
-					return xmlSignature;
-				}
+		Map<String, SignatureWrapper> index = signaturesById;
+		if (index == null) {
+			index = new HashMap<>();
+			for (SignatureWrapper signature : getSignatures()) {
+				index.putIfAbsent(signature.getId(), signature);
 			}
+			signaturesById = index;
 		}
-		return null;
+		return index.get(id);
 	}
 
 	private SignatureWrapper getSignatureByIdNullSafe(String id) {
-		List<SignatureWrapper> signatures = getSignatures();
-		if (signatures != null) {
-			for (SignatureWrapper xmlSignature : signatures) {
-				if (id.equals(xmlSignature.getId())) {
-					return xmlSignature;
-				}
-			}
+		SignatureWrapper signature = getSignatureById(id);
+		if (signature != null) {
+			return signature;
 		}
 		return new SignatureWrapper(new XmlSignature()); // TODO improve ?
 	}
@@ -594,13 +600,15 @@ public class DiagnosticData {
 	 * @return timestamp wrapper or null
 	 */
 	public TimestampWrapper getTimestampById(String id) {
-		Set<TimestampWrapper> allTimestamps = getTimestampSet();
-		for (TimestampWrapper timestampWrapper : allTimestamps) {
-			if (id.equals(timestampWrapper.getId())) {
-				return timestampWrapper;
+		Map<String, TimestampWrapper> index = timestampsById;
+		if (index == null) {
+			index = new HashMap<>();
+			for (TimestampWrapper timestampWrapper : getTimestampList()) {
+				index.putIfAbsent(timestampWrapper.getId(), timestampWrapper);
 			}
+			timestampsById = index;
 		}
-		return null;
+		return index.get(id);
 	}
 
 	/**
@@ -626,15 +634,15 @@ public class DiagnosticData {
 	 * @return a certificate wrapper or null
 	 */
 	public CertificateWrapper getUsedCertificateById(String id) {
-		List<CertificateWrapper> certificates = getUsedCertificates();
-		if (certificates != null) {
-			for (CertificateWrapper certificate : certificates) {
-				if (id.equals(certificate.getId())) {
-					return certificate;
-				}
+		Map<String, CertificateWrapper> index = certificatesById;
+		if (index == null) {
+			index = new HashMap<>();
+			for (CertificateWrapper certificate : getUsedCertificates()) {
+				index.putIfAbsent(certificate.getId(), certificate);
 			}
+			certificatesById = index;
 		}
-		return null;
+		return index.get(id);
 	}
 	
 	/**
@@ -685,16 +693,18 @@ public class DiagnosticData {
 	 * @return a list of {@link SignatureWrapper}s.
 	 */
 	public List<SignatureWrapper> getSignatures() {
-		if (foundSignatures == null) {
-			foundSignatures = new ArrayList<>();
+		List<SignatureWrapper> signatures = foundSignatures;
+		if (signatures == null) {
+			signatures = new ArrayList<>();
 			List<XmlSignature> xmlSignatures = wrapped.getSignatures();
 			if (xmlSignatures != null) {
 				for (XmlSignature xmlSignature : xmlSignatures) {
-					foundSignatures.add(new SignatureWrapper(xmlSignature));
+					signatures.add(new SignatureWrapper(xmlSignature));
 				}
 			}
+			foundSignatures = signatures;
 		}
-		return foundSignatures;
+		return signatures;
 	}
 
 	/**
@@ -703,16 +713,18 @@ public class DiagnosticData {
 	 * @return a List of timestamp wrappers
 	 */
 	public List<TimestampWrapper> getTimestampList() {
-		if (usedTimestamps == null) {
-			usedTimestamps = new ArrayList<>();
+		List<TimestampWrapper> timestamps = usedTimestamps;
+		if (timestamps == null) {
+			timestamps = new ArrayList<>();
 			List<XmlTimestamp> xmlTimestamps = wrapped.getUsedTimestamps();
 			if (xmlTimestamps != null) {
 				for (XmlTimestamp xmlTimestamp : xmlTimestamps) {
-					usedTimestamps.add(new TimestampWrapper(xmlTimestamp));
+					timestamps.add(new TimestampWrapper(xmlTimestamp));
 				}
 			}
+			usedTimestamps = timestamps;
 		}
-		return usedTimestamps;
+		return timestamps;
 	}
 
 	/**
@@ -721,16 +733,28 @@ public class DiagnosticData {
 	 * @return a list of {@link CertificateWrapper}s.
 	 */
 	public List<CertificateWrapper> getUsedCertificates() {
-		if (usedCertificates == null) {
-			usedCertificates = new ArrayList<>();
+		List<CertificateWrapper> certificates = usedCertificates;
+		if (certificates == null) {
+			certificates = new ArrayList<>();
 			List<XmlCertificate> xmlCertificates = wrapped.getUsedCertificates();
 			if (xmlCertificates != null) {
 				for (XmlCertificate certificate : xmlCertificates) {
-					usedCertificates.add(new CertificateWrapper(certificate));
+					certificates.add(new CertificateWrapper(certificate));
 				}
 			}
+			usedCertificates = certificates;
 		}
-		return usedCertificates;
+		return certificates;
+	}
+
+	/**
+	 * Builds the wrappers of the signatures, timestamps and certificates and their indexes by id. To be called
+	 * before the instance is shared between threads, so that all the threads use the same wrappers.
+	 */
+	public void initializeIndexes() {
+		getSignatureById("");
+		getTimestampById("");
+		getUsedCertificateById("");
 	}
 
 	/**
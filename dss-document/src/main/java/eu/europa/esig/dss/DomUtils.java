@@ -41,6 +41,7 @@ import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
@@ -201,6 +202,20 @@ public final class DomUtils {
 		return transformer;
 	}
 
+	/**
+	 * This method returns a new instance of XMLInputFactory with secured features enabled
+	 * (no DTD support, no external entities)
+	 * 
+	 * @return an instance of XMLInputFactory with enabled secure features
+	 */
+	public static XMLInputFactory getSecureXMLInputFactory() {
+		XMLInputFactory xmlInputFactory = XMLInputFactory.newFactory();
+		xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+		xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		return xmlInputFactory;
+	}
+
 	/**
 	 * Creates the new empty Document.
 	 *
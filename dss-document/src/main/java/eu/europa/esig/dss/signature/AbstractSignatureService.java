@@ -27,7 +27,9 @@ import java.util.Objects;
 import eu.europa.esig.dss.enumerations.SignatureForm;
 import eu.europa.esig.dss.enumerations.SignatureLevel;
 import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DSSDocumentFactory;
 import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.InMemoryDocumentFactory;
 import eu.europa.esig.dss.model.MimeType;
 import eu.europa.esig.dss.model.SerializableSignatureParameters;
 import eu.europa.esig.dss.model.SerializableTimestampParameters;
@@ -49,6 +51,8 @@ public abstract class AbstractSignatureService<SP extends SerializableSignatureP
 
 	protected final CertificateVerifier certificateVerifier;
 
+	protected DSSDocumentFactory documentFactory = new InMemoryDocumentFactory();
+
 	/**
 	 * To construct a signature service the <code>CertificateVerifier</code> must be set and cannot be null.
 	 *
@@ -66,6 +70,27 @@ public abstract class AbstractSignatureService<SP extends SerializableSignatureP
 		this.tspSource = tspSource;
 	}
 
+	/**
+	 * Sets the factory which creates the documents returned by the service (in memory by default). A
+	 * {@code SpillableDocumentFactory} allows to store the large results in temporary files.
+	 * 
+	 * @param documentFactory
+	 *                        {@link DSSDocumentFactory}
+	 */
+	public void setDocumentFactory(final DSSDocumentFactory documentFactory) {
+		Objects.requireNonNull(documentFactory, "DocumentFactory cannot be null !");
+		this.documentFactory = documentFactory;
+	}
+
+	/**
+	 * Returns the factory which creates the documents returned by the service
+	 * 
+	 * @return {@link DSSDocumentFactory}
+	 */
+	public DSSDocumentFactory getDocumentFactory() {
+		return documentFactory;
+	}
+
 	/**
 	 * This method raises an exception if the signing rules forbid the use on an expired certificate.
 	 *
@@ -0,0 +1,57 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.signature;
+
+import eu.europa.esig.dss.model.DSSDocument;
+
+/**
+ * This interface allows to follow the progress of a bulk extension (see {@code BulkSignatureExtensionService}).
+ * 
+ * The calls are serialized : an implementation does not need to be thread-safe.
+ */
+public interface BulkExtensionListener {
+
+	/**
+	 * This method is called when a document has been successfully extended
+	 * 
+	 * @param index
+	 *                         the position of the document in the submitted documents
+	 * @param toExtendDocument
+	 *                         the original document
+	 * @param extendedDocument
+	 *                         the extended document
+	 */
+	void onExtended(int index, DSSDocument toExtendDocument, DSSDocument extendedDocument);
+
+	/**
+	 * This method is called when the extension of a document failed. The bulk
+	 * extension continues with the next documents.
+	 * 
+	 * @param index
+	 *                         the position of the document in the submitted documents
+	 * @param toExtendDocument
+	 *                         the original document
+	 * @param exception
+	 *                         the reason of the failure
+	 */
+	void onFailure(int index, DSSDocument toExtendDocument, Exception exception);
+
+}
@@ -0,0 +1,77 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.signature;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class contains the counters of a bulk extension (see {@code BulkSignatureExtensionService}).
+ */
+public class BulkExtensionSummary implements Serializable {
+
+	private static final long serialVersionUID = -4427426307454513212L;
+
+	private final AtomicInteger numberOfExtendedDocuments = new AtomicInteger();
+
+	private final AtomicInteger numberOfFailures = new AtomicInteger();
+
+	void extended() {
+		numberOfExtendedDocuments.incrementAndGet();
+	}
+
+	void failed() {
+		numberOfFailures.incrementAndGet();
+	}
+
+	/**
+	 * Returns the number of processed documents
+	 * 
+	 * @return the number of processed documents (extended or failed)
+	 */
+	public int getNumberOfProcessedDocuments() {
+		return getNumberOfExtendedDocuments() + getNumberOfFailures();
+	}
+
+	/**
+	 * Returns the number of successfully extended documents
+	 * 
+	 * @return the number of extended documents
+	 */
+	public int getNumberOfExtendedDocuments() {
+		return numberOfExtendedDocuments.get();
+	}
+
+	/**
+	 * Returns the number of documents which cannot be extended
+	 * 
+	 * @return the number of failures
+	 */
+	public int getNumberOfFailures() {
+		return numberOfFailures.get();
+	}
+
+	@Override
+	public String toString() {
+		return "BulkExtensionSummary [extended=" + numberOfExtendedDocuments + ", failures=" + numberOfFailures + "]";
+	}
+
+}
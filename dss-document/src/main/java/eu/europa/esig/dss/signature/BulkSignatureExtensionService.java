@@ -0,0 +1,613 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.signature;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.bouncycastle.cert.ocsp.OCSPException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.SerializableSignatureParameters;
+import eu.europa.esig.dss.model.SerializableTimestampParameters;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.client.http.DataLoader;
+import eu.europa.esig.dss.spi.x509.CertificatePool;
+import eu.europa.esig.dss.spi.x509.CertificateSource;
+import eu.europa.esig.dss.spi.x509.revocation.RevocationSource;
+import eu.europa.esig.dss.spi.x509.revocation.RevocationToken;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPTokenBuilder;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPTokenUtils;
+import eu.europa.esig.dss.validation.CertificateVerifier;
+import eu.europa.esig.dss.validation.ListCRLSource;
+import eu.europa.esig.dss.validation.ListOCSPSource;
+
+/**
+ * This class allows to extend a large number of signed documents (eg : T to LT
+ * or LT to LTA before the expiration of a CA).
+ * 
+ * The documents are extended in parallel, chunk by chunk. The validation pool
+ * (with the trust anchors, the intermediate certificates and the certificates
+ * retrieved via AIA) and the retrieved revocation data are shared between the
+ * documents of a same chunk and released at the end of the chunk. Each
+ * document receives its own copy of a shared revocation token. A failure on a
+ * document is reported to the {@code BulkExtensionListener} and does not stop
+ * the process.
+ * 
+ * Note : the timestamps are requested for each document (each timestamp covers
+ * its own signature).
+ *
+ * @param <SP>
+ *             the signature parameters
+ * @param <TP>
+ *             the timestamp parameters
+ */
+public class BulkSignatureExtensionService<SP extends SerializableSignatureParameters, TP extends SerializableTimestampParameters> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(BulkSignatureExtensionService.class);
+
+	/**
+	 * The default number of documents which share a validation pool and the
+	 * retrieved revocation data
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 100;
+
+	private final CertificateVerifier certificateVerifier;
+
+	private final Function<CertificateVerifier, DocumentSignatureService<SP, TP>> serviceFactory;
+
+	/**
+	 * The executor service which runs the extensions. If not defined, a fixed thread
+	 * pool is created for each call of
+	 * {@link #extendDocuments(Iterable, Function, BulkExtensionListener)}
+	 */
+	private ExecutorService executorService;
+
+	/**
+	 * The number of documents extended at the same time (default : number of
+	 * available processors)
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * The number of documents which share the same validation pool and revocation
+	 * data
+	 */
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	/**
+	 * The default constructor
+	 * 
+	 * @param certificateVerifier
+	 *                            the {@code CertificateVerifier} to be used as a
+	 *                            template (sources, behaviors,...)
+	 * @param serviceFactory
+	 *                            the factory which creates a signature service
+	 *                            bound to the given {@code CertificateVerifier}
+	 */
+	public BulkSignatureExtensionService(final CertificateVerifier certificateVerifier,
+			final Function<CertificateVerifier, DocumentSignatureService<SP, TP>> serviceFactory) {
+		Objects.requireNonNull(certificateVerifier, "CertificateVerifier cannot be null !");
+		Objects.requireNonNull(serviceFactory, "The service factory cannot be null !");
+		this.certificateVerifier = certificateVerifier;
+		this.serviceFactory = serviceFactory;
+	}
+
+	/**
+	 * Sets the executor service to be used. The executor service is not shutdown
+	 * by this class.
+	 * 
+	 * @param executorService
+	 *                        the {@code ExecutorService} to use
+	 */
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	/**
+	 * Sets the number of documents to be extended at the same time
+	 * 
+	 * @param parallelism
+	 *                    a positive number
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("The parallelism must be positive");
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Sets the number of documents which share the same validation pool and
+	 * revocation data (default : {@value #DEFAULT_CHUNK_SIZE}). The shared data is
+	 * released after each chunk.
+	 * 
+	 * @param chunkSize
+	 *                  a positive number
+	 */
+	public void setChunkSize(int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("The chunk size must be positive");
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Extends all the given documents. The documents are consumed lazily from the
+	 * {@code Iterable} (a {@code Stream} can be provided with
+	 * {@code stream::iterator}).
+	 * 
+	 * @param toExtendDocuments
+	 *                           the documents to extend
+	 * @param parametersProvider
+	 *                           returns the extension parameters for a given
+	 *                           document (a new instance must be returned for each
+	 *                           document)
+	 * @param listener
+	 *                           the listener which receives the extended documents
+	 *                           and the failures
+	 * @return the summary of the bulk extension
+	 */
+	public BulkExtensionSummary extendDocuments(final Iterable<DSSDocument> toExtendDocuments, final Function<DSSDocument, SP> parametersProvider,
+			final BulkExtensionListener listener) {
+		Objects.requireNonNull(toExtendDocuments, "toExtendDocuments is not defined!");
+		Objects.requireNonNull(parametersProvider, "The parameters provider is not defined!");
+		Objects.requireNonNull(listener, "The listener is not defined!");
+
+		final BulkExtensionSummary summary = new BulkExtensionSummary();
+		final Iterator<DSSDocument> iterator = toExtendDocuments.iterator();
+		final AtomicInteger counter = new AtomicInteger();
+
+		ExecutorService executor = executorService;
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(parallelism);
+		}
+
+		try {
+			while (iterator.hasNext()) {
+				List<DSSDocument> chunk = new ArrayList<>();
+				while (iterator.hasNext() && chunk.size() < chunkSize) {
+					chunk.add(iterator.next());
+				}
+				extendChunk(executor, chunk, counter, parametersProvider, listener, summary);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSException("The bulk extension has been interrupted", e);
+		} catch (ExecutionException e) {
+			throw new DSSException("Unable to complete the bulk extension", e);
+		} finally {
+			if (executorService == null) {
+				executor.shutdownNow();
+			}
+		}
+
+		LOG.info("Bulk extension done : {}", summary);
+		return summary;
+	}
+
+	private void extendChunk(ExecutorService executor, List<DSSDocument> chunk, AtomicInteger counter, Function<DSSDocument, SP> parametersProvider,
+			BulkExtensionListener listener, BulkExtensionSummary summary) throws InterruptedException, ExecutionException {
+		// shared between the documents of the chunk only
+		final CertificatePool sharedPool = certificateVerifier.createValidationPool();
+		final SharedRevocationSource<OCSPToken> sharedOcspSource = getSharedRevocationSource(certificateVerifier.getOcspSource());
+		final SharedRevocationSource<CRLToken> sharedCrlSource = getSharedRevocationSource(certificateVerifier.getCrlSource());
+
+		final Iterator<DSSDocument> chunkIterator = chunk.iterator();
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < Math.min(parallelism, chunk.size()); i++) {
+			// signature services are stateful : one instance per worker
+			CertificateVerifier workerVerifier = new BulkCertificateVerifier(certificateVerifier, sharedPool, sharedOcspSource, sharedCrlSource);
+			DocumentSignatureService<SP, TP> service = serviceFactory.apply(workerVerifier);
+			futures.add(executor.submit(new ExtensionWorker(service, chunkIterator, counter, parametersProvider, listener, summary)));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		LOG.debug("Chunk of {} documents extended ({} certificates in the shared pool)", chunk.size(), sharedPool.getNumberOfCertificates());
+	}
+
+	private <T extends RevocationToken> SharedRevocationSource<T> getSharedRevocationSource(RevocationSource<T> revocationSource) {
+		if (revocationSource != null) {
+			return new SharedRevocationSource<>(revocationSource);
+		}
+		return null;
+	}
+
+	private class ExtensionWorker implements Runnable {
+
+		private final DocumentSignatureService<SP, TP> service;
+		private final Iterator<DSSDocument> iterator;
+		private final AtomicInteger counter;
+		private final Function<DSSDocument, SP> parametersProvider;
+		private final BulkExtensionListener listener;
+		private final BulkExtensionSummary summary;
+
+		ExtensionWorker(DocumentSignatureService<SP, TP> service, Iterator<DSSDocument> iterator, AtomicInteger counter,
+				Function<DSSDocument, SP> parametersProvider, BulkExtensionListener listener, BulkExtensionSummary summary) {
+			this.service = service;
+			this.iterator = iterator;
+			this.counter = counter;
+			this.parametersProvider = parametersProvider;
+			this.listener = listener;
+			this.summary = summary;
+		}
+
+		@Override
+		public void run() {
+			while (!Thread.currentThread().isInterrupted()) {
+				final DSSDocument toExtendDocument;
+				final int index;
+				synchronized (iterator) {
+					if (!iterator.hasNext()) {
+						return;
+					}
+					toExtendDocument = iterator.next();
+					index = counter.getAndIncrement();
+				}
+				try {
+					DSSDocument extendedDocument = service.extendDocument(toExtendDocument, parametersProvider.apply(toExtendDocument));
+					summary.extended();
+					notifyExtended(index, toExtendDocument, extendedDocument);
+				} catch (Exception e) {
+					LOG.warn("Unable to extend the document #{} ({}) : {}", index, toExtendDocument.getName(), e.getMessage());
+					summary.failed();
+					notifyFailure(index, toExtendDocument, e);
+				}
+			}
+		}
+
+		private void notifyExtended(int index, DSSDocument toExtendDocument, DSSDocument extendedDocument) {
+			synchronized (listener) {
+				try {
+					listener.onExtended(index, toExtendDocument, extendedDocument);
+				} catch (Exception e) {
+					LOG.error("Exception in the BulkExtensionListener", e);
+				}
+			}
+		}
+
+		private void notifyFailure(int index, DSSDocument toExtendDocument, Exception exception) {
+			synchronized (listener) {
+				try {
+					listener.onFailure(index, toExtendDocument, exception);
+				} catch (Exception e) {
+					LOG.error("Exception in the BulkExtensionListener", e);
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * This class memorizes the revocation data retrieved during a chunk of a bulk
+	 * extension. The same revocation data is not requested twice for the same
+	 * certificate. As the tokens carry a validation state, each caller receives its
+	 * own copy, bound to its own certificate tokens.
+	 */
+	@SuppressWarnings("serial")
+	private static class SharedRevocationSource<T extends RevocationToken> implements RevocationSource<T> {
+
+		private final RevocationSource<T> wrapped;
+
+		private final Map<String, T> tokens = new ConcurrentHashMap<>();
+
+		SharedRevocationSource(RevocationSource<T> wrapped) {
+			this.wrapped = wrapped;
+		}
+
+		@Override
+		public T getRevocationToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+			final String key = certificateToken.getDSSIdAsString() + "-" + issuerCertificateToken.getDSSIdAsString();
+			T token = tokens.get(key);
+			if (token != null) {
+				T copy = copy(token, certificateToken, issuerCertificateToken);
+				if (copy != null) {
+					LOG.debug("Revocation data for certificate '{}' reused", certificateToken.getDSSIdAsString());
+					return copy;
+				}
+			}
+			token = wrapped.getRevocationToken(certificateToken, issuerCertificateToken);
+			if (token != null) {
+				tokens.putIfAbsent(key, token);
+			}
+			return token;
+		}
+
+		/**
+		 * Returns a new token built from the same revocation data, or null if the type
+		 * of token cannot be copied (the revocation data is then requested again)
+		 */
+		@SuppressWarnings("unchecked")
+		private T copy(T token, CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+			RevocationToken copy = null;
+			if (token instanceof CRLToken) {
+				copy = new CRLToken(certificateToken, ((CRLToken) token).getCrlValidity());
+			} else if (token instanceof OCSPToken) {
+				OCSPToken ocspToken = (OCSPToken) token;
+				OCSPTokenBuilder builder = new OCSPTokenBuilder(ocspToken.getBasicOCSPResp(), certificateToken, issuerCertificateToken);
+				builder.setSourceURL(ocspToken.getSourceURL());
+				builder.setOCSPResponseStatus(ocspToken.getResponseStatus());
+				try {
+					OCSPToken ocspCopy = builder.build();
+					ocspCopy.setUseNonce(ocspToken.isUseNonce());
+					ocspCopy.setNonceMatch(ocspToken.isNonceMatch());
+					OCSPTokenUtils.checkTokenValidity(ocspCopy, certificateToken, issuerCertificateToken);
+					copy = ocspCopy;
+				} catch (OCSPException e) {
+					LOG.warn("Unable to copy the OCSP token : {}", e.getMessage());
+					return null;
+				}
+			} else {
+				return null;
+			}
+			copy.setSourceURL(token.getSourceURL());
+			copy.setAvailable(token.isAvailable());
+			copy.setRevocationTokenKey(token.getRevocationTokenKey());
+			if (token.getOrigins() != null) {
+				copy.setOrigins(new HashSet<>(token.getOrigins()));
+			}
+			return (T) copy;
+		}
+
+	}
+
+	/**
+	 * A view of the configured {@code CertificateVerifier} for one worker, which
+	 * returns the shared validation pool and which uses the shared revocation
+	 * sources. The signature CRL and OCSP sources (set for each extended
+	 * signature) are kept by the worker. All the other properties are read from
+	 * the template and cannot be modified.
+	 */
+	private static class BulkCertificateVerifier implements CertificateVerifier {
+
+		private final CertificateVerifier template;
+		private final CertificatePool sharedPool;
+		private final RevocationSource<OCSPToken> ocspSource;
+		private final RevocationSource<CRLToken> crlSource;
+
+		private ListCRLSource signatureCRLSource;
+		private ListOCSPSource signatureOCSPSource;
+
+		BulkCertificateVerifier(CertificateVerifier template, CertificatePool sharedPool, RevocationSource<OCSPToken> ocspSource,
+				RevocationSource<CRLToken> crlSource) {
+			this.template = template;
+			this.sharedPool = sharedPool;
+			this.ocspSource = ocspSource;
+			this.crlSource = crlSource;
+			this.signatureCRLSource = template.getSignatureCRLSource();
+			this.signatureOCSPSource = template.getSignatureOCSPSource();
+		}
+
+		@Override
+		public CertificatePool createValidationPool() {
+			return sharedPool;
+		}
+
+		@Override
+		public RevocationSource<OCSPToken> getOcspSource() {
+			return ocspSource;
+		}
+
+		@Override
+		public RevocationSource<CRLToken> getCrlSource() {
+			return crlSource;
+		}
+
+		@Override
+		public List<CertificateSource> getTrustedCertSources() {
+			return template.getTrustedCertSources();
+		}
+
+		@Override
+		public CertificateSource getAdjunctCertSource() {
+			return template.getAdjunctCertSource();
+		}
+
+		@Override
+		public DataLoader getDataLoader() {
+			return template.getDataLoader();
+		}
+
+		@Override
+		public ListCRLSource getSignatureCRLSource() {
+			return signatureCRLSource;
+		}
+
+		@Override
+		public ListOCSPSource getSignatureOCSPSource() {
+			return signatureOCSPSource;
+		}
+
+		@Override
+		public boolean isExceptionOnMissingRevocationData() {
+			return template.isExceptionOnMissingRevocationData();
+		}
+
+		@Override
+		public DigestAlgorithm getDefaultDigestAlgorithm() {
+			return template.getDefaultDigestAlgorithm();
+		}
+
+		@Override
+		public boolean isIncludeCertificateTokenValues() {
+			return template.isIncludeCertificateTokenValues();
+		}
+
+		@Override
+		public boolean isIncludeCertificateRevocationValues() {
+			return template.isIncludeCertificateRevocationValues();
+		}
+
+		@Override
+		public boolean isIncludeTimestampTokenValues() {
+			return template.isIncludeTimestampTokenValues();
+		}
+
+		@Override
+		public boolean isExceptionOnInvalidTimestamp() {
+			return template.isExceptionOnInvalidTimestamp();
+		}
+
+		@Override
+		public boolean isExceptionOnRevokedCertificate() {
+			return template.isExceptionOnRevokedCertificate();
+		}
+
+		@Override
+		public boolean isExceptionOnNoRevocationAfterBestSignatureTime() {
+			return template.isExceptionOnNoRevocationAfterBestSignatureTime();
+		}
+
+		@Override
+		public boolean isExceptionOnUncoveredPOE() {
+			return template.isExceptionOnUncoveredPOE();
+		}
+
+		@Override
+		public boolean isCheckRevocationForUntrustedChains() {
+			return template.isCheckRevocationForUntrustedChains();
+		}
+
+		@Override
+		public ExecutorService getRevocationExecutorService() {
+			return template.getRevocationExecutorService();
+		}
+
+		@Override
+		public void setCrlSource(RevocationSource<CRLToken> crlSource) {
+			throw readOnly();
+		}
+
+		@Override
+		public void setOcspSource(RevocationSource<OCSPToken> ocspSource) {
+			throw readOnly();
+		}
+
+		@Override
+		public void setTrustedCertSource(CertificateSource certSource) {
+			throw readOnly();
+		}
+
+		@Override
+		public void setTrustedCertSources(CertificateSource... certSources) {
+			throw readOnly();
+		}
+
+		@Override
+		public void setAdjunctCertSource(CertificateSource adjunctCertSource) {
+			throw readOnly();
+		}
+
+		@Override
+		public void setDataLoader(DataLoader dataLoader) {
+			throw readOnly();
+		}
+
+		@Override
+		public void setSignatureCRLSource(ListCRLSource signatureCRLSource) {
+			this.signatureCRLSource = signatureCRLSource;
+		}
+
+		@Override
+		public void setSignatureOCSPSource(ListOCSPSource signatureOCSPSource) {
+			this.signatureOCSPSource = signatureOCSPSource;
+		}
+
+		@Override
+		public void setExceptionOnMissingRevocationData(boolean throwExceptionOnMissingRevocationData) {
+			throw readOnly();
+		}
+
+		@Override
+		public void setDefaultDigestAlgorithm(DigestAlgorithm digestAlgorithm) {
+			throw readOnly();
+		}
+
+		@Override
+		public void setIncludeCertificateTokenValues(boolean include) {
+			throw readOnly();
+		}
+
+		@Override
+		public void setIncludeCertificateRevocationValues(boolean include) {
+			throw readOnly();
+		}
+
+		@Override
+		public void setIncludeTimestampTokenValues(boolean include) {
+			throw readOnly();
+		}
+
+		@Override
+		public void setExceptionOnInvalidTimestamp(boolean throwExceptionOnInvalidTimestamp) {
+			throw readOnly();
+		}
+
+		@Override
+		public void setExceptionOnRevokedCertificate(boolean throwExceptionOnRevokedCertificate) {
+			throw readOnly();
+		}
+
+		@Override
+		public void setExceptionOnNoRevocationAfterBestSignatureTime(boolean exceptionOnNoRevocationAfterBestSignatureTime) {
+			throw readOnly();
+		}
+
+		@Override
+		public void setExceptionOnUncoveredPOE(boolean throwExceptionOnUncoveredPOE) {
+			throw readOnly();
+		}
+
+		@Override
+		public void setCheckRevocationForUntrustedChains(boolean enable) {
+			throw readOnly();
+		}
+
+		@Override
+		public void setRevocationExecutorService(ExecutorService revocationExecutorService) {
+			throw readOnly();
+		}
+
+		private UnsupportedOperationException readOnly() {
+			return new UnsupportedOperationException("The CertificateVerifier of a bulk extension cannot be modified, configure the template instead");
+		}
+
+	}
+
+}
@@ -488,6 +488,17 @@ public interface AdvancedSignature extends Serializable {
 	 * @return true of it is HashOnly validation, false otherwise
 	 */
 	boolean isHashOnlyValidation();
+
+	/**
+	 * Returns the digest algorithms required to verify the detached contents of the
+	 * signature. In case of DocHashOnly validation, the provided
+	 * {@code DigestDocument}s need to contain the digest values for these
+	 * algorithms.
+	 * 
+	 * @return a {@code Set} of {@code DigestAlgorithm}s (empty if no detached
+	 *         content is expected)
+	 */
+	Set<DigestAlgorithm> getDetachedContentsDigestAlgorithms();
 	
 	/**
 	 * Returns the digital signature value
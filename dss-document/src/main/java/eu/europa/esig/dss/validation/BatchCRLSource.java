@@ -0,0 +1,160 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.crl.CRLValidity;
+import eu.europa.esig.dss.enumerations.RevocationOrigin;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSASN1Utils;
+import eu.europa.esig.dss.spi.x509.revocation.RevocationSource;
+import eu.europa.esig.dss.spi.x509.revocation.RevocationSourceAlternateUrlsSupport;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLSource;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+import eu.europa.esig.dss.utils.Utils;
+
+/**
+ * CRL source which retrieves each CRL only once from the wrapped source for all the
+ * certificates of the same issuer with the same distribution points. The status of the
+ * following certificates is read from the already parsed and verified CRL.
+ * 
+ * Concurrent requests for the same CRL wait for the ongoing retrieval. A failed retrieval
+ * is not kept, the CRL is requested again for the next certificate.
+ * 
+ * The source is meant to be used for the duration of a batch validation.
+ */
+class BatchCRLSource implements CRLSource, RevocationSourceAlternateUrlsSupport<CRLToken> {
+
+	private static final long serialVersionUID = -2786251349476378946L;
+
+	private static final Logger LOG = LoggerFactory.getLogger(BatchCRLSource.class);
+
+	private final RevocationSource<CRLToken> crlSource;
+
+	private final transient Map<String, CompletableFuture<RetrievedCRL>> retrievedCRLs = new ConcurrentHashMap<>();
+
+	BatchCRLSource(RevocationSource<CRLToken> crlSource) {
+		this.crlSource = crlSource;
+	}
+
+	@Override
+	public CRLToken getRevocationToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+		return getRevocationToken(certificateToken, issuerCertificateToken, Collections.<String>emptyList());
+	}
+
+	@Override
+	public CRLToken getRevocationToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken,
+			List<String> alternativeUrls) {
+		if (certificateToken == null || issuerCertificateToken == null) {
+			return null;
+		}
+
+		final String key = getKey(certificateToken, issuerCertificateToken, alternativeUrls);
+		final CompletableFuture<RetrievedCRL> future = new CompletableFuture<>();
+		final CompletableFuture<RetrievedCRL> existing = retrievedCRLs.putIfAbsent(key, future);
+		if (existing == null) {
+			// the download is performed outside of the map, the other threads wait for the future
+			CRLToken crlToken = null;
+			try {
+				crlToken = retrieve(certificateToken, issuerCertificateToken, alternativeUrls);
+			} finally {
+				if (crlToken != null && crlToken.getCrlValidity() != null) {
+					future.complete(new RetrievedCRL(crlToken));
+				} else {
+					// a failure is not kept : the next certificates request the CRL again
+					retrievedCRLs.remove(key, future);
+					future.complete(null);
+				}
+			}
+			return crlToken;
+		}
+
+		final RetrievedCRL retrievedCRL = existing.join();
+		if (retrievedCRL == null) {
+			return retrieve(certificateToken, issuerCertificateToken, alternativeUrls);
+		}
+		try {
+			return retrievedCRL.getRevocationToken(certificateToken);
+		} catch (DSSException e) {
+			LOG.warn("Unable to reuse the CRL for the certificate {} : {}", certificateToken.getDSSIdAsString(), e.getMessage());
+			return retrieve(certificateToken, issuerCertificateToken, alternativeUrls);
+		}
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private CRLToken retrieve(CertificateToken certificateToken, CertificateToken issuerCertificateToken, List<String> alternativeUrls) {
+		if (Utils.isCollectionNotEmpty(alternativeUrls) && crlSource instanceof RevocationSourceAlternateUrlsSupport) {
+			return (CRLToken) ((RevocationSourceAlternateUrlsSupport) crlSource).getRevocationToken(certificateToken, issuerCertificateToken,
+					alternativeUrls);
+		}
+		return crlSource.getRevocationToken(certificateToken, issuerCertificateToken);
+	}
+
+	private String getKey(CertificateToken certificateToken, CertificateToken issuerCertificateToken, List<String> alternativeUrls) {
+		List<String> urls = new ArrayList<>(DSSASN1Utils.getCrlUrls(certificateToken));
+		if (Utils.isCollectionNotEmpty(alternativeUrls)) {
+			urls.addAll(alternativeUrls);
+		}
+		return issuerCertificateToken.getDSSIdAsString() + urls;
+	}
+
+	private static final class RetrievedCRL {
+
+		private final CRLValidity crlValidity;
+		private final Set<RevocationOrigin> origins;
+		private final String sourceURL;
+		private final boolean available;
+		private final String revocationTokenKey;
+
+		private RetrievedCRL(CRLToken crlToken) {
+			this.crlValidity = crlToken.getCrlValidity();
+			this.origins = crlToken.getOrigins();
+			this.sourceURL = crlToken.getSourceURL();
+			this.available = crlToken.isAvailable();
+			this.revocationTokenKey = crlToken.getRevocationTokenKey();
+		}
+
+		private CRLToken getRevocationToken(CertificateToken certificateToken) {
+			CRLToken crlToken = new CRLToken(certificateToken, crlValidity);
+			if (origins != null) {
+				crlToken.setOrigins(new HashSet<>(origins));
+			}
+			crlToken.setSourceURL(sourceURL);
+			crlToken.setAvailable(available);
+			crlToken.setRevocationTokenKey(revocationTokenKey);
+			return crlToken;
+		}
+
+	}
+
+}
@@ -0,0 +1,345 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.diagnostic.jaxb.XmlDiagnosticData;
+import eu.europa.esig.dss.enumerations.CertificateSourceType;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.model.x509.Token;
+import eu.europa.esig.dss.policy.ValidationPolicy;
+import eu.europa.esig.dss.policy.ValidationPolicyFacade;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.x509.revocation.RevocationToken;
+import eu.europa.esig.dss.validation.executor.certificate.CertificateProcessExecutor;
+import eu.europa.esig.dss.validation.executor.certificate.DefaultCertificateProcessExecutor;
+import eu.europa.esig.dss.validation.reports.CertificateReports;
+
+/**
+ * Validates a set of certificates in one run.
+ * 
+ * The certificates are grouped by issuer and each group is validated in chunks of {@code batchSize}
+ * certificates: the trusted certificates import, the certificate chain building and the revocation
+ * check of the intermediate certificates are done once per chunk. A CRL is downloaded and verified
+ * once for all the certificates of the same issuer, the status of each certificate is then read
+ * from the parsed CRL. The chunks are validated concurrently with the configured {@code ExecutorService}, or
+ * sequentially in the calling thread when none is set (default).
+ * 
+ * Each certificate gets its own {@code CertificateReports}, computed with a diagnostic data restricted
+ * to its certificate chain and revocation data.
+ */
+public class CertificateBatchValidator {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CertificateBatchValidator.class);
+
+	private static final int DEFAULT_BATCH_SIZE = 100;
+
+	private final List<CertificateToken> tokens;
+	private Date validationTime;
+	private CertificateVerifier certificateVerifier;
+
+	/**
+	 * Locale to use for reports generation
+	 * By default a Locale from OS is used
+	 */
+	private Locale locale = Locale.getDefault();
+
+	private ExecutorService executorService;
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	private CertificateBatchValidator(Collection<CertificateToken> tokens) {
+		Objects.requireNonNull(tokens, "The certificates are missing");
+		this.tokens = new ArrayList<>(new LinkedHashSet<>(tokens));
+	}
+
+	public static CertificateBatchValidator fromCertificates(final Collection<CertificateToken> tokens) {
+		return new CertificateBatchValidator(tokens);
+	}
+
+	public void setCertificateVerifier(CertificateVerifier certificateVerifier) {
+		this.certificateVerifier = certificateVerifier;
+	}
+
+	public void setValidationTime(Date validationTime) {
+		this.validationTime = validationTime;
+	}
+
+	public void setLocale(Locale locale) {
+		this.locale = locale;
+	}
+
+	/**
+	 * Sets the {@code ExecutorService} used to validate the chunks concurrently (not shutdown by DSS).
+	 * If null (default), the chunks are validated sequentially in the calling thread.
+	 * 
+	 * @param executorService
+	 *                        the executor service
+	 */
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	/**
+	 * Sets the maximum number of certificates of the same issuer validated together (default : 100)
+	 * 
+	 * @param batchSize
+	 *                  the maximum number of certificates per chunk
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("The batch size must be positive");
+		}
+		this.batchSize = batchSize;
+	}
+
+	private Date getValidationTime() {
+		if (validationTime == null) {
+			validationTime = new Date();
+		}
+		return validationTime;
+	}
+
+	/**
+	 * Validates the certificates with the default validation policy
+	 * 
+	 * @return the reports of the certificates, in the order of the given certificates
+	 */
+	public Map<CertificateToken, CertificateReports> validate() {
+		return validate(getDefaultValidationPolicy());
+	}
+
+	/**
+	 * Validates the certificates with the given validation policy
+	 * 
+	 * @param validationPolicy
+	 *                         the validation policy to use
+	 * @return the reports of the certificates, in the order of the given certificates
+	 */
+	public Map<CertificateToken, CertificateReports> validate(ValidationPolicy validationPolicy) {
+		return execute(validationPolicy, (certificate, reports) -> reports);
+	}
+
+	/**
+	 * Validates the certificates with the default validation policy and keeps a summary of each result
+	 * 
+	 * @return the summaries of the certificate validations, in the order of the given certificates
+	 */
+	public Map<CertificateToken, CertificateValidationSummary> validateSummaries() {
+		return validateSummaries(getDefaultValidationPolicy());
+	}
+
+	/**
+	 * Validates the certificates with the given validation policy and keeps a summary of each result
+	 * 
+	 * @param validationPolicy
+	 *                         the validation policy to use
+	 * @return the summaries of the certificate validations, in the order of the given certificates
+	 */
+	public Map<CertificateToken, CertificateValidationSummary> validateSummaries(ValidationPolicy validationPolicy) {
+		return execute(validationPolicy,
+				(certificate, reports) -> new CertificateValidationSummary(certificate.getDSSIdAsString(), reports.getSimpleReport()));
+	}
+
+	/**
+	 * Returns a new instance of the {@code CertificateProcessExecutor} used for one certificate
+	 * 
+	 * @return the {@code CertificateProcessExecutor}
+	 */
+	protected CertificateProcessExecutor getDefaultProcessExecutor() {
+		return new DefaultCertificateProcessExecutor();
+	}
+
+	private ValidationPolicy getDefaultValidationPolicy() {
+		try {
+			return ValidationPolicyFacade.newFacade().getDefaultValidationPolicy();
+		} catch (Exception e) {
+			throw new DSSException("Unable to load the default policy", e);
+		}
+	}
+
+	private <R> Map<CertificateToken, R> execute(ValidationPolicy validationPolicy, BiFunction<CertificateToken, CertificateReports, R> resultFunction) {
+		Objects.requireNonNull(certificateVerifier, "The certificate verifier is missing");
+		Objects.requireNonNull(validationPolicy, "The validation policy is missing");
+
+		final Date currentTime = getValidationTime();
+		final BatchCRLSource crlSource = certificateVerifier.getCrlSource() != null ? new BatchCRLSource(certificateVerifier.getCrlSource()) : null;
+
+		List<List<CertificateToken>> chunks = getChunks();
+		LOG.info("Validation of {} certificate(s) in {} chunk(s)", tokens.size(), chunks.size());
+
+		List<Map<CertificateToken, R>> chunkResults = new ArrayList<>();
+		if (executorService == null) {
+			for (List<CertificateToken> chunk : chunks) {
+				chunkResults.add(validateChunk(chunk, validationPolicy, currentTime, crlSource, resultFunction));
+			}
+		} else {
+			List<Future<Map<CertificateToken, R>>> futures = new ArrayList<>();
+			for (List<CertificateToken> chunk : chunks) {
+				futures.add(executorService.submit(() -> validateChunk(chunk, validationPolicy, currentTime, crlSource, resultFunction)));
+			}
+			for (Future<Map<CertificateToken, R>> future : futures) {
+				chunkResults.add(getResult(future));
+			}
+		}
+
+		Map<CertificateToken, R> results = new HashMap<>();
+		for (Map<CertificateToken, R> chunkResult : chunkResults) {
+			results.putAll(chunkResult);
+		}
+		Map<CertificateToken, R> orderedResults = new LinkedHashMap<>();
+		for (CertificateToken token : tokens) {
+			orderedResults.put(token, results.get(token));
+		}
+		return orderedResults;
+	}
+
+	private <R> Map<CertificateToken, R> getResult(Future<Map<CertificateToken, R>> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSException("Interruption during the certificates validation", e);
+		} catch (ExecutionException e) {
+			throw new DSSException("Unable to validate the certificates : " + e.getCause().getMessage(), e.getCause());
+		}
+	}
+
+	private List<List<CertificateToken>> getChunks() {
+		List<List<CertificateToken>> chunks = new ArrayList<>();
+		Map<X500Principal, List<CertificateToken>> tokensByIssuer = new LinkedHashMap<>();
+		for (CertificateToken token : tokens) {
+			if (token.isSelfIssued()) {
+				// would be an issuer candidate for the other certificates of its group
+				chunks.add(Collections.singletonList(token));
+				continue;
+			}
+			X500Principal issuer = DSSUtils.getNormalizedX500Principal(token.getIssuerX500Principal());
+			tokensByIssuer.computeIfAbsent(issuer, k -> new ArrayList<>()).add(token);
+		}
+		for (List<CertificateToken> issuerTokens : tokensByIssuer.values()) {
+			for (int i = 0; i < issuerTokens.size(); i += batchSize) {
+				chunks.add(issuerTokens.subList(i, Math.min(i + batchSize, issuerTokens.size())));
+			}
+		}
+		return chunks;
+	}
+
+	private <R> Map<CertificateToken, R> validateChunk(List<CertificateToken> chunk, ValidationPolicy validationPolicy, Date currentTime,
+			BatchCRLSource crlSource, BiFunction<CertificateToken, CertificateReports, R> resultFunction) {
+		SignatureValidationContext svc = new SignatureValidationContext();
+		svc.initialize(certificateVerifier);
+		if (crlSource != null) {
+			svc.setCrlSource(crlSource);
+		}
+		for (CertificateToken token : chunk) {
+			svc.addCertificateTokenForVerification(token);
+		}
+		svc.setCurrentTime(currentTime);
+		svc.validate();
+
+		Map<String, List<RevocationToken>> revocationsByCertificate = new HashMap<>();
+		for (RevocationToken revocationToken : svc.getProcessedRevocations()) {
+			revocationsByCertificate.computeIfAbsent(revocationToken.getRelatedCertificateID(), k -> new ArrayList<>()).add(revocationToken);
+		}
+
+		Map<CertificateToken, Set<CertificateSourceType>> certificateSourceTypes = svc.getCertificateSourceTypes();
+
+		Map<CertificateToken, R> results = new HashMap<>();
+		for (CertificateToken token : chunk) {
+			Set<CertificateToken> usedCertificates = new LinkedHashSet<>();
+			Set<RevocationToken> usedRevocations = new LinkedHashSet<>();
+			collectUsedTokens(svc, token, revocationsByCertificate, usedCertificates, usedRevocations);
+
+			final XmlDiagnosticData diagnosticData = new DiagnosticDataBuilder().usedCertificates(usedCertificates)
+					.usedRevocations(usedRevocations).includeRawCertificateTokens(certificateVerifier.isIncludeCertificateTokenValues())
+					.includeRawRevocationData(certificateVerifier.isIncludeCertificateRevocationValues())
+					.certificateSourceTypes(certificateSourceTypes)
+					.trustedCertificateSources(certificateVerifier.getTrustedCertSources())
+					.validationDate(currentTime).build();
+
+			CertificateProcessExecutor executor = getDefaultProcessExecutor();
+			executor.setValidationPolicy(validationPolicy);
+			executor.setDiagnosticData(diagnosticData);
+			executor.setCertificateId(token.getDSSIdAsString());
+			executor.setLocale(locale);
+			executor.setCurrentTime(currentTime);
+			results.put(token, resultFunction.apply(token, executor.execute()));
+		}
+		return results;
+	}
+
+	/**
+	 * Collects the certificates and revocation data of the chunk which are related to the given certificate : its
+	 * certificate chain, their revocation data and the certificate chains of the revocation data
+	 */
+	private void collectUsedTokens(SignatureValidationContext svc, CertificateToken certificate, Map<String, List<RevocationToken>> revocationsByCertificate,
+			Set<CertificateToken> usedCertificates, Set<RevocationToken> usedRevocations) {
+		Set<CertificateToken> processedCertificates = svc.getProcessedCertificates();
+		LinkedList<Token> tokensToCheck = new LinkedList<>();
+		tokensToCheck.add(certificate);
+		usedCertificates.add(certificate);
+		Set<Token> checkedTokens = new HashSet<>();
+		while (!tokensToCheck.isEmpty()) {
+			Token token = tokensToCheck.removeFirst();
+			if (!checkedTokens.add(token)) {
+				continue;
+			}
+			if (token instanceof CertificateToken) {
+				List<RevocationToken> revocations = revocationsByCertificate.get(token.getDSSIdAsString());
+				if (revocations != null) {
+					usedRevocations.addAll(revocations);
+					tokensToCheck.addAll(revocations);
+				}
+			}
+			for (CertificateToken issuer : svc.validationCertificatePool.getIssuers(token)) {
+				if (processedCertificates.contains(issuer) && usedCertificates.add(issuer)) {
+					tokensToCheck.add(issuer);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,88 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import java.util.Date;
+
+import eu.europa.esig.dss.enumerations.CertificateQualification;
+import eu.europa.esig.dss.enumerations.Indication;
+import eu.europa.esig.dss.enumerations.RevocationReason;
+import eu.europa.esig.dss.enumerations.SubIndication;
+import eu.europa.esig.dss.simplecertificatereport.SimpleCertificateReport;
+
+/**
+ * Compact result of a certificate validation, which keeps the main values of the
+ * simple certificate report only.
+ */
+public class CertificateValidationSummary {
+
+	private final String certificateId;
+	private final Indication indication;
+	private final SubIndication subIndication;
+	private final Date revocationDate;
+	private final RevocationReason revocationReason;
+	private final CertificateQualification qualificationAtValidationTime;
+
+	CertificateValidationSummary(String certificateId, SimpleCertificateReport simpleReport) {
+		this.certificateId = certificateId;
+		this.indication = simpleReport.getCertificateIndication(certificateId);
+		this.subIndication = simpleReport.getCertificateSubIndication(certificateId);
+		this.revocationDate = simpleReport.getCertificateRevocationDate(certificateId);
+		this.revocationReason = simpleReport.getCertificateRevocationReason(certificateId);
+		this.qualificationAtValidationTime = simpleReport.getQualificationAtValidationTime();
+	}
+
+	public String getCertificateId() {
+		return certificateId;
+	}
+
+	public Indication getIndication() {
+		return indication;
+	}
+
+	public SubIndication getSubIndication() {
+		return subIndication;
+	}
+
+	/**
+	 * Returns the revocation date of the certificate
+	 * 
+	 * @return the revocation date or null if the certificate is not revoked
+	 */
+	public Date getRevocationDate() {
+		return revocationDate;
+	}
+
+	public RevocationReason getRevocationReason() {
+		return revocationReason;
+	}
+
+	public CertificateQualification getQualificationAtValidationTime() {
+		return qualificationAtValidationTime;
+	}
+
+	@Override
+	public String toString() {
+		return "CertificateValidationSummary [certificateId=" + certificateId + ", indication=" + indication + ", subIndication=" + subIndication
+				+ ", revocationDate=" + revocationDate + ", qualificationAtValidationTime=" + qualificationAtValidationTime + "]";
+	}
+
+}
@@ -21,6 +21,7 @@
 package eu.europa.esig.dss.validation;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.spi.client.http.DataLoader;
@@ -344,6 +345,25 @@ public interface CertificateVerifier {
 	 */
 	boolean isCheckRevocationForUntrustedChains();
 
+	/**
+	 * This method allows to set an executor service which is used to request the
+	 * online OCSP and CRL sources concurrently : the first revocation data found is
+	 * used. If not set (default), the OCSP source is requested first and the CRL
+	 * source only if no OCSP response is found.
+	 * 
+	 * @param revocationExecutorService
+	 *                                  the executor service (not shutdown by DSS)
+	 */
+	void setRevocationExecutorService(ExecutorService revocationExecutorService);
+
+	/**
+	 * This method returns the executor service used to request the online OCSP and
+	 * CRL sources concurrently.
+	 * 
+	 * @return the executor service or null
+	 */
+	ExecutorService getRevocationExecutorService();
+
 	/**
 	 * This method creates the validation pool of certificates which is used
 	 * during the validation process.
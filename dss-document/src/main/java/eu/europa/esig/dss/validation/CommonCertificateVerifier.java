@@ -23,6 +23,7 @@ package eu.europa.esig.dss.validation;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -160,6 +161,12 @@ public class CommonCertificateVerifier implements CertificateVerifier {
 	 */
 	private boolean checkRevocationForUntrustedChains = false;
 
+	/**
+	 * This variable allows to request the online OCSP and CRL sources concurrently
+	 * (not used by default)
+	 */
+	private ExecutorService revocationExecutorService;
+
 	/**
 	 * The default constructor. The {@code DataLoader} is created to allow the
 	 * retrieval of certificates through AIA.
@@ -360,6 +367,16 @@ public class CommonCertificateVerifier implements CertificateVerifier {
 		this.checkRevocationForUntrustedChains = checkRevocationForUntrustedChains;
 	}
 
+	@Override
+	public ExecutorService getRevocationExecutorService() {
+		return revocationExecutorService;
+	}
+
+	@Override
+	public void setRevocationExecutorService(ExecutorService revocationExecutorService) {
+		this.revocationExecutorService = revocationExecutorService;
+	}
+
 	@Override
 	public CertificatePool createValidationPool() {
 		final CertificatePool validationPool = new CertificatePool();
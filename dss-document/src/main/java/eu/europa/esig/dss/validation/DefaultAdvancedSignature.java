@@ -37,6 +37,7 @@ import org.slf4j.LoggerFactory;
 import eu.europa.esig.dss.CertificateReorderer;
 import eu.europa.esig.dss.crl.CRLBinary;
 import eu.europa.esig.dss.enumerations.CertificateSourceType;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.enumerations.RevocationType;
 import eu.europa.esig.dss.enumerations.SignatureLevel;
 import eu.europa.esig.dss.enumerations.TimestampedObjectType;
@@ -1081,6 +1082,12 @@ public abstract class DefaultAdvancedSignature implements AdvancedSignature {
 		return false;
 	}
 	
+	@Override
+	public Set<DigestAlgorithm> getDetachedContentsDigestAlgorithms() {
+		// Not applicable by default
+		return Collections.emptySet();
+	}
+	
 	@Override
 	public byte[] getMessageDigestValue() {
 		// Not applicable by default (CAdES/PAdES only)
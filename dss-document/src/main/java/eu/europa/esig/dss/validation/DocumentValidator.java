@@ -117,6 +117,34 @@ public interface DocumentValidator extends ProcessExecutorProvider<DocumentProce
 	 * @param enableEtsiValidationReport - TRUE if the report must be generated, FALSE otherwise
 	 */
 	void setEnableEtsiValidationReport(boolean enableEtsiValidationReport);
+
+	/**
+	 * This method allows to specify if the detailed, simple and ETSI Validation
+	 * reports must be built on first access (and kept once built). By default the
+	 * value is FALSE (all the reports are built during the validation).
+	 * 
+	 * @param lazyReports - TRUE if the reports must be built on demand, FALSE otherwise
+	 */
+	void setLazyReports(boolean lazyReports);
+
+	/**
+	 * This method allows to specify if the constraint names, titles and additional
+	 * information of the detailed report must be rendered on first access to the
+	 * report. By default the value is FALSE (all the messages are rendered during
+	 * the validation).
+	 * 
+	 * @param lazyMessages - TRUE if the messages must be rendered on demand, FALSE otherwise
+	 */
+	void setLazyMessages(boolean lazyMessages);
+
+	/**
+	 * This method allows to set a cache of the diagnostic data. When the same document
+	 * is validated again, only the validation policy processes are executed over the
+	 * cached diagnostic data. By default no cache is used.
+	 * 
+	 * @param validationResultCache - the {@code ValidationResultCache} to use, or null
+	 */
+	void setValidationResultCache(ValidationResultCache validationResultCache);
 	
 	/**
 	 * This method allows to set a provider for Signature policies
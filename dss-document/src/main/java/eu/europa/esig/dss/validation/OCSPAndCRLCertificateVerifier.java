@@ -20,6 +20,14 @@
  */
 package eu.europa.esig.dss.validation;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,6 +41,9 @@ import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
 /**
  * Fetchs revocation data from a certificate by querying an OCSP server first and then a CRL server if no OCSP response
  * could be retrieved.
+ * 
+ * If an {@code ExecutorService} is provided, the OCSP and CRL sources are requested concurrently and the first
+ * revocation data found is returned.
  *
  */
 public class OCSPAndCRLCertificateVerifier implements CertificateStatusVerifier {
@@ -45,6 +56,8 @@ public class OCSPAndCRLCertificateVerifier implements CertificateStatusVerifier
 
 	private final CertificatePool validationCertPool;
 
+	private ExecutorService executorService;
+
 	/**
 	 * Build a OCSPAndCRLCertificateVerifier that will use the provided CRLSource
 	 * and OCSPSource
@@ -63,11 +76,26 @@ public class OCSPAndCRLCertificateVerifier implements CertificateStatusVerifier
 		this.validationCertPool = validationCertPool;
 	}
 
+	/**
+	 * Sets the executor service used to request the OCSP and CRL sources
+	 * concurrently. The executor is not shutdown by this class.
+	 * 
+	 * @param executorService
+	 *                        the executor service (null to request the sources
+	 *                        sequentially)
+	 */
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
 	@Override
 	public RevocationToken check(final CertificateToken certificateToken) {
 		if (LOG.isTraceEnabled()) {
 			LOG.trace("Check revocation for certificate : {}", certificateToken.getDSSIdAsString());
 		}
+		if (executorService != null && ocspSource != null && crlSource != null) {
+			return checkConcurrently(certificateToken);
+		}
 		RevocationToken result = checkOCSP(certificateToken);
 		if (result != null) {
 			return result;
@@ -82,6 +110,40 @@ public class OCSPAndCRLCertificateVerifier implements CertificateStatusVerifier
 		return null;
 	}
 
+	private RevocationToken checkConcurrently(final CertificateToken certificateToken) {
+		final CompletionService<RevocationToken> completionService = new ExecutorCompletionService<>(executorService);
+		final List<Future<RevocationToken>> futures = new ArrayList<>();
+		futures.add(completionService.submit(() -> checkOCSP(certificateToken)));
+		futures.add(completionService.submit(() -> checkCRL(certificateToken)));
+		try {
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					final RevocationToken result = completionService.take().get();
+					if (result != null) {
+						if (LOG.isDebugEnabled()) {
+							LOG.debug("Revocation data for {} obtained first from {} ({})", certificateToken.getDSSIdAsString(),
+									result.getRevocationType(), result.getSourceURL());
+						}
+						return result;
+					}
+				} catch (ExecutionException e) {
+					LOG.warn("Unable to retrieve revocation data for {} : {}", certificateToken.getDSSIdAsString(), e.getMessage());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOG.warn("Interrupted while retrieving revocation data for {}", certificateToken.getDSSIdAsString());
+		} finally {
+			for (Future<RevocationToken> future : futures) {
+				future.cancel(true);
+			}
+		}
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("There is no response for {} neither from OCSP nor from CRL!", certificateToken.getDSSIdAsString());
+		}
+		return null;
+	}
+
 	public RevocationToken checkOCSP(final CertificateToken certificateToken) {
 		if (ocspSource != null) {
 			final OCSPCertificateVerifier ocspVerifier = new OCSPCertificateVerifier(ocspSource, validationCertPool);
@@ -33,6 +33,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -115,6 +116,9 @@ public class SignatureValidationContext implements ValidationContext {
 	 */
 	private boolean checkRevocationForUntrustedChains;
 
+	// Requests the online OCSP and CRL sources concurrently if set
+	private ExecutorService revocationExecutorService;
+
 	/**
 	 * This is the time at what the validation is carried out. It is used only for test purpose.
 	 */
@@ -166,6 +170,18 @@ public class SignatureValidationContext implements ValidationContext {
 		this.signatureOCSPSource = certificateVerifier.getSignatureOCSPSource();
 		this.trustedCertSources = certificateVerifier.getTrustedCertSources();
 		this.checkRevocationForUntrustedChains = certificateVerifier.isCheckRevocationForUntrustedChains();
+		this.revocationExecutorService = certificateVerifier.getRevocationExecutorService();
+	}
+
+	/**
+	 * Replaces the external CRL source obtained from the {@code CertificateVerifier}. This method must be called
+	 * after {@link #initialize(CertificateVerifier)}.
+	 *
+	 * @param crlSource
+	 *            the CRL source to use for external access
+	 */
+	void setCrlSource(final RevocationSource<CRLToken> crlSource) {
+		this.crlSource = crlSource;
 	}
 
 	@Override
@@ -552,6 +568,7 @@ public class SignatureValidationContext implements ValidationContext {
 					LOG.trace("Initializing a revocation verifier for not trusted chain...");
 					onlineVerifier = new OCSPAndCRLCertificateVerifier(crlSource, ocspSource, validationCertificatePool);
 				}
+				onlineVerifier.setExecutorService(revocationExecutorService);
 
 				final RevocationToken onlineRevocationToken = onlineVerifier.check(certToken);
 				// CRL can already exist in the signature
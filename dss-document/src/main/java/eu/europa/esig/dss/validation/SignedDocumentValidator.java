@@ -29,10 +29,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.ServiceLoader;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -141,9 +143,17 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 	// Produces the ETSI Validation Report by default
 	private boolean enableEtsiValidationReport = true;
 
+	// Builds all the reports during the validation by default
+	private boolean lazyReports = false;
+
+	// Renders all the messages of the detailed report during the validation by default
+	private boolean lazyMessages = false;
+
 	// Disable certificate chain building, revocation data collection,...
 	private boolean skipValidationContextExecution = false;
 
+	private ValidationResultCache validationResultCache;
+
 	protected SignedDocumentValidator() {
 		this.signatureScopeFinder = null;
 	}
@@ -266,6 +276,21 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 		this.enableEtsiValidationReport = enableEtsiValidationReport;
 	}
 
+	@Override
+	public void setLazyReports(boolean lazyReports) {
+		this.lazyReports = lazyReports;
+	}
+
+	@Override
+	public void setLazyMessages(boolean lazyMessages) {
+		this.lazyMessages = lazyMessages;
+	}
+
+	@Override
+	public void setValidationResultCache(ValidationResultCache validationResultCache) {
+		this.validationResultCache = validationResultCache;
+	}
+
 	@Override
 	public Reports validateDocument() {
 		return validateDocument((InputStream) null);
@@ -352,13 +377,36 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 		LOG.info("Document validation...");
 		assertConfigurationValid();
 
-		final ValidationContext validationContext = new SignatureValidationContext(validationCertPool);
-
-		final XmlDiagnosticData diagnosticData = prepareDiagnosticDataBuilder(validationContext).build();
+		final XmlDiagnosticData diagnosticData = getDiagnosticData();
 
 		return processValidationPolicy(diagnosticData, validationPolicy);
 	}
 
+	/**
+	 * Returns the diagnostic data from the validation result cache, or builds it
+	 * 
+	 * @return {@link XmlDiagnosticData}
+	 */
+	private XmlDiagnosticData getDiagnosticData() {
+		if (validationResultCache == null) {
+			return buildDiagnosticData();
+		}
+		final String key = validationResultCache.getKey(this);
+		XmlDiagnosticData diagnosticData = validationResultCache.get(key, getValidationTime());
+		if (diagnosticData != null) {
+			LOG.debug("Diagnostic data restored from the validation result cache");
+			return diagnosticData;
+		}
+		diagnosticData = buildDiagnosticData();
+		validationResultCache.put(key, diagnosticData);
+		return diagnosticData;
+	}
+
+	private XmlDiagnosticData buildDiagnosticData() {
+		final ValidationContext validationContext = new SignatureValidationContext(validationCertPool);
+		return prepareDiagnosticDataBuilder(validationContext).build();
+	}
+
 	/**
 	 * Checks if the Validator configuration is valid
 	 */
@@ -613,6 +661,8 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 		executor.setValidationLevel(validationLevel);
 		executor.setDiagnosticData(diagnosticData);
 		executor.setEnableEtsiValidationReport(enableEtsiValidationReport);
+		executor.setLazyReports(lazyReports);
+		executor.setLazyMessages(lazyMessages);
 		executor.setLocale(locale);
 		executor.setCurrentTime(getValidationTime());
 		return executor.execute();
@@ -641,6 +691,22 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 		return Collections.emptyList();
 	}
 
+	/**
+	 * Returns the digest algorithms required to verify the detached contents of the
+	 * signatures. This method allows a DocHashOnly validation : the caller only
+	 * needs to provide {@code DigestDocument}s with the digest values for these
+	 * algorithms (no document stream is opened)
+	 * 
+	 * @return a {@code Set} of {@code DigestAlgorithm}s
+	 */
+	public Set<DigestAlgorithm> getDetachedContentsDigestAlgorithms() {
+		Set<DigestAlgorithm> digestAlgorithms = new HashSet<>();
+		for (AdvancedSignature signature : getSignatures()) {
+			digestAlgorithms.addAll(signature.getDetachedContentsDigestAlgorithms());
+		}
+		return digestAlgorithms;
+	}
+
 	@Override
 	public List<TimestampToken> getDetachedTimestamps() {
 		// not implemented by default
@@ -676,6 +742,10 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 		this.skipValidationContextExecution = skipValidationContextExecution;
 	}
 
+	boolean isSkipValidationContextExecution() {
+		return skipValidationContextExecution;
+	}
+
 	public void setLocale(Locale locale) {
 		this.locale = locale;
 	}
@@ -0,0 +1,337 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.diagnostic.jaxb.XmlDiagnosticData;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DigestDocument;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.tsl.TrustedListsCertificateSource;
+import eu.europa.esig.dss.spi.x509.CertificateSource;
+import eu.europa.esig.dss.utils.Utils;
+
+/**
+ * This class keeps the diagnostic data of the validated documents, in order to skip the cryptographic
+ * verifications (signature integrity, reference validation), the certificate chain building and the revocation
+ * retrieval when the same document is validated again. Only the validation policy processes are executed for
+ * a cached document, at the new validation time.
+ * 
+ * The key is computed from :
+ * <ul>
+ * <li>the class of the validator, the name and the SHA-256 digest of the document;</li>
+ * <li>the names and the digests of the detached contents (the provided digests for a {@code DigestDocument});</li>
+ * <li>the provided signing certificate and the diagnostic data options of the {@code CertificateVerifier};</li>
+ * <li>the trust snapshot version: the trusted certificate sources (the snapshot version of a
+ * {@code TrustedListsCertificateSource}, the ids of the certificates of the other sources) and the version of this cache, incremented by
+ * {@link #invalidate()}.</li>
+ * </ul>
+ * 
+ * The validation date is the only time-dependent part of the diagnostic data: the returned diagnostic data is
+ * a copy with the current validation date. The revocation data are the ones collected at the first validation,
+ * a time to live ({@link #setTimeToLive(long)}) bounds their age.
+ * 
+ * An instance is intended to be shared by the validators using the same {@code CertificateVerifier}
+ * configuration (online sources, policy provider,...), which is not part of the key.
+ */
+public class ValidationResultCache {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ValidationResultCache.class);
+
+	private static final int DEFAULT_MAX_SIZE = 1000;
+
+	private static final String SEPARATOR = "|";
+
+	/* Serialized diagnostic data, the key is the hex encoded SHA-256 digest of the inputs */
+	private final Map<String, CachedResult> results;
+
+	private final AtomicLong snapshotVersion = new AtomicLong();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private volatile int maxSize;
+
+	private volatile long timeToLive = 0;
+
+	/**
+	 * Creates a cache keeping up to 1000 results
+	 */
+	public ValidationResultCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Creates a cache
+	 * 
+	 * @param maxSize
+	 *                the maximum number of kept results
+	 */
+	public ValidationResultCache(int maxSize) {
+		setMaxSize(maxSize);
+		this.results = new LinkedHashMap<String, CachedResult>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 2146735932812345604L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+				return size() > ValidationResultCache.this.maxSize;
+			}
+
+		};
+	}
+
+	/**
+	 * Sets the maximum number of kept results
+	 * 
+	 * @param maxSize
+	 *                the maximum number of results
+	 */
+	public void setMaxSize(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("The maximum size must be positive");
+		}
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Sets the duration after which a result is not reused anymore, in milliseconds (default : 0, the results
+	 * do not expire)
+	 * 
+	 * @param timeToLive
+	 *                   the time to live in milliseconds
+	 */
+	public void setTimeToLive(long timeToLive) {
+		if (timeToLive < 0) {
+			throw new IllegalArgumentException("The time to live cannot be negative");
+		}
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Drops all the kept results and increments the trust snapshot version. To be called when the trust anchors
+	 * or the revocation sources change.
+	 */
+	public void invalidate() {
+		long version = snapshotVersion.incrementAndGet();
+		clear();
+		LOG.debug("Validation results invalidated (snapshot version {})", version);
+	}
+
+	/**
+	 * Removes all the kept results
+	 */
+	public void clear() {
+		synchronized (results) {
+			results.clear();
+		}
+	}
+
+	/**
+	 * Returns the number of kept results
+	 * 
+	 * @return the number of results
+	 */
+	public int size() {
+		synchronized (results) {
+			return results.size();
+		}
+	}
+
+	/**
+	 * Returns the number of validations which have reused a kept result
+	 * 
+	 * @return the number of hits
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Returns the number of validations which have not found a kept result
+	 * 
+	 * @return the number of misses
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * Computes the key of the diagnostic data built by the given validator
+	 * 
+	 * @param validator
+	 *                  the {@link SignedDocumentValidator}
+	 * @return the key
+	 */
+	String getKey(SignedDocumentValidator validator) {
+		MessageDigest digest = DSSUtils.getMessageDigest(DigestAlgorithm.SHA256);
+		update(digest, snapshotVersion.get());
+		update(digest, validator.getClass().getName());
+		updateDocument(digest, validator.document);
+		List<DSSDocument> detachedContents = validator.detachedContents;
+		if (detachedContents != null) {
+			for (DSSDocument detachedContent : detachedContents) {
+				updateDocument(digest, detachedContent);
+			}
+		}
+		update(digest, SEPARATOR);
+		update(digest, validator.providedSigningCertificateToken != null ? validator.providedSigningCertificateToken.getDSSIdAsString() : null);
+		update(digest, validator.isSkipValidationContextExecution());
+
+		CertificateVerifier certificateVerifier = validator.certificateVerifier;
+		update(digest, certificateVerifier.getDefaultDigestAlgorithm());
+		update(digest, certificateVerifier.isIncludeCertificateTokenValues());
+		update(digest, certificateVerifier.isIncludeCertificateRevocationValues());
+		update(digest, certificateVerifier.isIncludeTimestampTokenValues());
+		List<CertificateSource> trustedCertSources = certificateVerifier.getTrustedCertSources();
+		if (trustedCertSources != null) {
+			for (CertificateSource trustedCertSource : trustedCertSources) {
+				updateTrustedSource(digest, trustedCertSource);
+			}
+		}
+		return Utils.toHex(digest.digest());
+	}
+
+	/**
+	 * Returns a copy of the kept diagnostic data, with the given validation date
+	 * 
+	 * @param key
+	 *                       the key computed with {@link #getKey(SignedDocumentValidator)}
+	 * @param validationTime
+	 *                       the validation time
+	 * @return a copy of the diagnostic data or null
+	 */
+	XmlDiagnosticData get(String key, Date validationTime) {
+		CachedResult result;
+		synchronized (results) {
+			result = results.get(key);
+			if (result != null && isExpired(result)) {
+				results.remove(key);
+				result = null;
+			}
+		}
+		if (result != null) {
+			try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(result.serialized))) {
+				XmlDiagnosticData diagnosticData = (XmlDiagnosticData) ois.readObject();
+				diagnosticData.setValidationDate(validationTime);
+				hitCount.incrementAndGet();
+				return diagnosticData;
+			} catch (IOException | ClassNotFoundException e) {
+				LOG.warn("Unable to restore the diagnostic data : {}", e.getMessage());
+			}
+		}
+		missCount.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Keeps a copy of the diagnostic data
+	 * 
+	 * @param key
+	 *                       the key computed with {@link #getKey(SignedDocumentValidator)}
+	 * @param diagnosticData
+	 *                       the diagnostic data to keep
+	 */
+	void put(String key, XmlDiagnosticData diagnosticData) {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+			oos.writeObject(diagnosticData);
+		} catch (IOException e) {
+			LOG.warn("Unable to keep the diagnostic data : {}", e.getMessage());
+			return;
+		}
+		CachedResult result = new CachedResult(baos.toByteArray(), System.currentTimeMillis());
+		synchronized (results) {
+			results.put(key, result);
+		}
+	}
+
+	private boolean isExpired(CachedResult result) {
+		return timeToLive > 0 && System.currentTimeMillis() - result.creationTime > timeToLive;
+	}
+
+	private void updateDocument(MessageDigest digest, DSSDocument document) {
+		update(digest, document.getName());
+		if (document instanceof DigestDocument) {
+			DigestDocument digestDocument = (DigestDocument) document;
+			for (DigestAlgorithm digestAlgorithm : DigestAlgorithm.values()) {
+				if (digestDocument.isDigestPresent(digestAlgorithm)) {
+					update(digest, digestAlgorithm);
+					update(digest, digestDocument.getDigest(digestAlgorithm));
+				}
+			}
+		} else {
+			update(digest, document.getDigest(DigestAlgorithm.SHA256));
+		}
+		update(digest, SEPARATOR);
+	}
+
+	private void updateTrustedSource(MessageDigest digest, CertificateSource certificateSource) {
+		update(digest, certificateSource.getClass().getName());
+		if (certificateSource instanceof TrustedListsCertificateSource) {
+			update(digest, System.identityHashCode(certificateSource));
+			update(digest, ((TrustedListsCertificateSource) certificateSource).getSnapshotVersion());
+		} else {
+			// the content of the source, a replaced certificate changes the key
+			for (CertificateToken certificateToken : certificateSource.getCertificates()) {
+				update(digest, certificateToken.getDSSIdAsString());
+			}
+		}
+		update(digest, SEPARATOR);
+	}
+
+	private void update(MessageDigest digest, Object value) {
+		digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+		digest.update(SEPARATOR.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static final class CachedResult {
+
+		private final byte[] serialized;
+
+		private final long creationTime;
+
+		private CachedResult(byte[] serialized, long creationTime) {
+			this.serialized = serialized;
+			this.creationTime = creationTime;
+		}
+
+	}
+
+}
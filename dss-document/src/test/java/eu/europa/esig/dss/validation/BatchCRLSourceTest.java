@@ -0,0 +1,169 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.crl.CRLBinary;
+import eu.europa.esig.dss.crl.CRLUtils;
+import eu.europa.esig.dss.crl.CRLValidity;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.x509.revocation.RevocationSource;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+
+public class BatchCRLSourceTest {
+
+	private CertificateToken certificate;
+
+	private CertificateToken issuer;
+
+	private CRLToken crlToken;
+
+	@BeforeEach
+	public void init() {
+		certificate = DSSUtils.loadCertificate(new File("src/test/resources/certificates/TSA_BE.cer"));
+		issuer = DSSUtils.loadCertificate(new File("src/test/resources/certificates/belgiumrs2.crt"));
+		CRLValidity crlValidity = CRLUtils.buildCRLValidity(new CRLBinary(DSSUtils.toByteArray(new File("src/test/resources/crl/belgium2.crl"))),
+				issuer);
+		crlToken = new CRLToken(certificate, crlValidity);
+	}
+
+	@Test
+	public void retrievedOnce() {
+		CountingCRLSource source = new CountingCRLSource(() -> crlToken);
+		BatchCRLSource batchCRLSource = new BatchCRLSource(source);
+
+		assertSame(crlToken, batchCRLSource.getRevocationToken(certificate, issuer));
+		CRLToken reused = batchCRLSource.getRevocationToken(certificate, issuer);
+		assertNotNull(reused);
+		assertNotSame(crlToken, reused);
+		assertEquals(crlToken.getStatus(), reused.getStatus());
+		assertEquals(1, source.getCalls());
+	}
+
+	@Test
+	public void missingCRLNotKept() {
+		CountingCRLSource source = new CountingCRLSource(() -> null);
+		BatchCRLSource batchCRLSource = new BatchCRLSource(source);
+
+		assertNull(batchCRLSource.getRevocationToken(certificate, issuer));
+		assertNull(batchCRLSource.getRevocationToken(certificate, issuer));
+		assertEquals(2, source.getCalls());
+	}
+
+	@Test
+	public void failureNotKept() {
+		AtomicInteger attempts = new AtomicInteger();
+		CountingCRLSource source = new CountingCRLSource(() -> {
+			if (attempts.incrementAndGet() == 1) {
+				throw new DSSException("Unable to download the CRL");
+			}
+			return crlToken;
+		});
+		BatchCRLSource batchCRLSource = new BatchCRLSource(source);
+
+		assertThrows(DSSException.class, () -> batchCRLSource.getRevocationToken(certificate, issuer));
+		assertSame(crlToken, batchCRLSource.getRevocationToken(certificate, issuer));
+		assertNotNull(batchCRLSource.getRevocationToken(certificate, issuer));
+		assertEquals(2, source.getCalls());
+	}
+
+	@Test
+	public void concurrentRequestsWaitForTheRetrieval() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CountingCRLSource source = new CountingCRLSource(() -> {
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return crlToken;
+		});
+		BatchCRLSource batchCRLSource = new BatchCRLSource(source);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<CRLToken>> futures = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				futures.add(executor.submit(() -> batchCRLSource.getRevocationToken(certificate, issuer)));
+			}
+			Thread.sleep(100);
+			release.countDown();
+			for (Future<CRLToken> future : futures) {
+				assertNotNull(future.get(10, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(1, source.getCalls());
+	}
+
+	@FunctionalInterface
+	private interface CRLSupplier {
+
+		CRLToken get();
+
+	}
+
+	@SuppressWarnings("serial")
+	private static class CountingCRLSource implements RevocationSource<CRLToken> {
+
+		private final transient CRLSupplier supplier;
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		CountingCRLSource(CRLSupplier supplier) {
+			this.supplier = supplier;
+		}
+
+		@Override
+		public CRLToken getRevocationToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+			calls.incrementAndGet();
+			return supplier.get();
+		}
+
+		int getCalls() {
+			return calls.get();
+		}
+
+	}
+
+}
@@ -0,0 +1,139 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.simplecertificatereport.SimpleCertificateReport;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.validation.reports.CertificateReports;
+
+public class CertificateBatchValidatorTest {
+
+	private List<CertificateToken> certificates;
+
+	@BeforeEach
+	public void init() {
+		certificates = new ArrayList<>();
+		for (String name : Arrays.asList("CZ.cer", "good-user.cer", "good-ca.cer", "peru_client.cer", "citizen_ca.cer", "ec.europa.eu.crt")) {
+			certificates.add(DSSUtils.loadCertificate(new File("src/test/resources/certificates/" + name)));
+		}
+		// duplicate entry
+		certificates.add(DSSUtils.loadCertificate(new File("src/test/resources/certificates/CZ.cer")));
+	}
+
+	@Test
+	public void test() {
+		CertificateBatchValidator validator = CertificateBatchValidator.fromCertificates(certificates);
+		validator.setCertificateVerifier(new CommonCertificateVerifier(true));
+		validator.setValidationTime(new GregorianCalendar(2019, 1, 1).getTime());
+		validator.setBatchSize(2);
+
+		Map<CertificateToken, CertificateReports> results;
+		ExecutorService executorService = Executors.newFixedThreadPool(2);
+		try {
+			validator.setExecutorService(executorService);
+			results = validator.validate();
+		} finally {
+			executorService.shutdown();
+		}
+		assertEquals(certificates.size() - 1, results.size());
+		assertEquals(certificates.subList(0, certificates.size() - 1), new ArrayList<>(results.keySet()));
+
+		for (Entry<CertificateToken, CertificateReports> entry : results.entrySet()) {
+			CertificateToken certificate = entry.getKey();
+			CertificateReports batchReports = entry.getValue();
+			assertNotNull(batchReports);
+			assertNotNull(batchReports.getXmlDetailedReport());
+
+			CertificateValidator cv = CertificateValidator.fromCertificate(certificate);
+			cv.setCertificateVerifier(new CommonCertificateVerifier(true));
+			cv.setValidationTime(new GregorianCalendar(2019, 1, 1).getTime());
+			CertificateReports reports = cv.validate();
+
+			String id = certificate.getDSSIdAsString();
+			SimpleCertificateReport simpleReport = reports.getSimpleReport();
+			SimpleCertificateReport batchSimpleReport = batchReports.getSimpleReport();
+			assertEquals(simpleReport.getCertificateIds(), batchSimpleReport.getCertificateIds());
+			assertEquals(simpleReport.getCertificateIndication(id), batchSimpleReport.getCertificateIndication(id));
+			assertEquals(simpleReport.getCertificateSubIndication(id), batchSimpleReport.getCertificateSubIndication(id));
+			assertEquals(reports.getDiagnosticData().getUsedCertificates().size(), batchReports.getDiagnosticData().getUsedCertificates().size());
+		}
+	}
+
+	@Test
+	public void summaries() {
+		CertificateBatchValidator validator = CertificateBatchValidator.fromCertificates(certificates);
+		validator.setCertificateVerifier(new CommonCertificateVerifier(true));
+		// sequential validation in the calling thread by default
+		validator.setBatchSize(1);
+
+		Map<CertificateToken, CertificateValidationSummary> summaries = validator.validateSummaries();
+		assertEquals(certificates.size() - 1, summaries.size());
+		for (Entry<CertificateToken, CertificateValidationSummary> entry : summaries.entrySet()) {
+			CertificateValidationSummary summary = entry.getValue();
+			assertNotNull(summary);
+			assertEquals(entry.getKey().getDSSIdAsString(), summary.getCertificateId());
+			assertNotNull(summary.getIndication());
+		}
+	}
+
+	@Test
+	public void testCertificatesNull() {
+		NullPointerException exception = assertThrows(NullPointerException.class, () -> {
+			CertificateBatchValidator.fromCertificates(null);
+		});
+		assertEquals("The certificates are missing", exception.getMessage());
+	}
+
+	@Test
+	public void testPolicyNull() {
+		NullPointerException exception = assertThrows(NullPointerException.class, () -> {
+			CertificateBatchValidator validator = CertificateBatchValidator.fromCertificates(certificates);
+			validator.setCertificateVerifier(new CommonCertificateVerifier(true));
+			validator.validate(null);
+		});
+		assertEquals("The validation policy is missing", exception.getMessage());
+	}
+
+	@Test
+	public void testInvalidBatchSize() {
+		CertificateBatchValidator validator = CertificateBatchValidator.fromCertificates(certificates);
+		assertThrows(IllegalArgumentException.class, () -> validator.setBatchSize(0));
+	}
+
+}
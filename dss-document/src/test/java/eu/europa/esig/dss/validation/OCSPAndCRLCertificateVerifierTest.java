@@ -0,0 +1,199 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.enumerations.CertificateSourceType;
+import eu.europa.esig.dss.enumerations.RevocationType;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.x509.CertificatePool;
+import eu.europa.esig.dss.spi.x509.revocation.RevocationSource;
+import eu.europa.esig.dss.spi.x509.revocation.RevocationToken;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.ExternalResourcesOCSPSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+
+public class OCSPAndCRLCertificateVerifierTest {
+
+	private CertificateToken toCheckToken;
+
+	private CertificatePool validationCertPool;
+
+	private ExecutorService executorService;
+
+	@BeforeEach
+	public void init() {
+		toCheckToken = DSSUtils.loadCertificate(new File("src/test/resources/certificates/peru_client.cer"));
+		CertificateToken caToken = DSSUtils.loadCertificate(new File("src/test/resources/certificates/peru_CA.cer"));
+		validationCertPool = new CertificatePool();
+		validationCertPool.getInstance(toCheckToken, CertificateSourceType.OTHER);
+		validationCertPool.getInstance(caToken, CertificateSourceType.OTHER);
+		executorService = Executors.newFixedThreadPool(2);
+	}
+
+	@AfterEach
+	public void shutdown() {
+		executorService.shutdownNow();
+	}
+
+	@Test
+	public void sequential() {
+		CountingCRLSource crlSource = new CountingCRLSource();
+		OCSPAndCRLCertificateVerifier verifier = new OCSPAndCRLCertificateVerifier(crlSource, new ExternalResourcesOCSPSource("/peru_ocsp.bin"),
+				validationCertPool);
+
+		RevocationToken revocationToken = verifier.check(toCheckToken);
+		assertNotNull(revocationToken);
+		assertEquals(RevocationType.OCSP, revocationToken.getRevocationType());
+		assertEquals(0, crlSource.calls.get());
+	}
+
+	@Test
+	public void firstResponseReturned() throws InterruptedException {
+		BlockingCRLSource crlSource = new BlockingCRLSource();
+		// the OCSP response is only returned once the CRL request is pending
+		GatedOCSPSource ocspSource = new GatedOCSPSource(new ExternalResourcesOCSPSource("/peru_ocsp.bin"), crlSource.started);
+		OCSPAndCRLCertificateVerifier verifier = new OCSPAndCRLCertificateVerifier(crlSource, ocspSource, validationCertPool);
+		verifier.setExecutorService(executorService);
+
+		RevocationToken revocationToken = verifier.check(toCheckToken);
+		assertNotNull(revocationToken);
+		assertEquals(RevocationType.OCSP, revocationToken.getRevocationType());
+
+		// the pending CRL request is cancelled
+		assertTrue(crlSource.interrupted.await(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void noResponse() {
+		CountingCRLSource crlSource = new CountingCRLSource();
+		OCSPAndCRLCertificateVerifier verifier = new OCSPAndCRLCertificateVerifier(crlSource, new EmptyOCSPSource(), validationCertPool);
+		verifier.setExecutorService(executorService);
+
+		assertNull(verifier.check(toCheckToken));
+		assertEquals(1, crlSource.calls.get());
+	}
+
+	@Test
+	public void failingSource() {
+		CountingCRLSource crlSource = new CountingCRLSource();
+		OCSPAndCRLCertificateVerifier verifier = new OCSPAndCRLCertificateVerifier(crlSource, new FailingOCSPSource(), validationCertPool);
+		verifier.setExecutorService(executorService);
+
+		assertNull(verifier.check(toCheckToken));
+		assertEquals(1, crlSource.calls.get());
+	}
+
+	@SuppressWarnings("serial")
+	private static class CountingCRLSource implements RevocationSource<CRLToken> {
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		@Override
+		public CRLToken getRevocationToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+			calls.incrementAndGet();
+			return null;
+		}
+
+	}
+
+	@SuppressWarnings("serial")
+	private static class BlockingCRLSource implements RevocationSource<CRLToken> {
+
+		private final transient CountDownLatch started = new CountDownLatch(1);
+
+		private final transient CountDownLatch interrupted = new CountDownLatch(1);
+
+		@Override
+		public CRLToken getRevocationToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+			started.countDown();
+			try {
+				Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+				Thread.currentThread().interrupt();
+			}
+			return null;
+		}
+
+	}
+
+	@SuppressWarnings("serial")
+	private static class GatedOCSPSource implements RevocationSource<OCSPToken> {
+
+		private final RevocationSource<OCSPToken> ocspSource;
+
+		private final transient CountDownLatch gate;
+
+		GatedOCSPSource(RevocationSource<OCSPToken> ocspSource, CountDownLatch gate) {
+			this.ocspSource = ocspSource;
+			this.gate = gate;
+		}
+
+		@Override
+		public OCSPToken getRevocationToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+			try {
+				gate.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return ocspSource.getRevocationToken(certificateToken, issuerCertificateToken);
+		}
+
+	}
+
+	@SuppressWarnings("serial")
+	private static class EmptyOCSPSource implements RevocationSource<OCSPToken> {
+
+		@Override
+		public OCSPToken getRevocationToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+			return null;
+		}
+
+	}
+
+	@SuppressWarnings("serial")
+	private static class FailingOCSPSource implements RevocationSource<OCSPToken> {
+
+		@Override
+		public OCSPToken getRevocationToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+			throw new IllegalStateException("Unable to reach the OCSP responder");
+		}
+
+	}
+
+}
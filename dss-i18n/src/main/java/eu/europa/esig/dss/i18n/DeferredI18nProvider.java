@@ -0,0 +1,144 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.i18n;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Internalization provider which defers the rendering of the messages given to
+ * {@link #applyMessage(MessageTag, Consumer)} until {@link #renderMessages()} is called.
+ * 
+ * The key and the arguments of the {@code MessageTag} are copied when the message is applied, so the
+ * tag can be reused with other arguments in the meantime. {@link #getMessage(MessageTag)} still renders
+ * the message immediately.
+ */
+public class DeferredI18nProvider extends I18nProvider {
+
+	/* Messages waiting to be rendered */
+	private final List<PendingMessage> pendingMessages = new ArrayList<>();
+
+	/**
+	 * Default constructor with the default {@code Locale}
+	 */
+	public DeferredI18nProvider() {
+		super();
+	}
+
+	/**
+	 * Returns an instance of {@code DeferredI18nProvider}
+	 * 
+	 * @param locale {@link Locale} language/location to use
+	 */
+	public DeferredI18nProvider(Locale locale) {
+		super(locale);
+	}
+
+	@Override
+	public void applyMessage(MessageTag messageTag, Consumer<String> target) {
+		if (messageTag == null) {
+			throw new IllegalArgumentException("messageTag cannot be null!");
+		}
+		PendingMessage pendingMessage = new PendingMessage(snapshot(messageTag), target);
+		synchronized (pendingMessages) {
+			pendingMessages.add(pendingMessage);
+		}
+	}
+
+	@Override
+	public void renderMessages() {
+		List<PendingMessage> toRender;
+		synchronized (pendingMessages) {
+			if (pendingMessages.isEmpty()) {
+				return;
+			}
+			toRender = new ArrayList<>(pendingMessages);
+			pendingMessages.clear();
+		}
+		for (PendingMessage pendingMessage : toRender) {
+			pendingMessage.target.accept(render(pendingMessage.message));
+		}
+	}
+
+	/**
+	 * Returns the number of messages which are not rendered yet
+	 * 
+	 * @return the number of pending messages
+	 */
+	public int getPendingMessagesCount() {
+		synchronized (pendingMessages) {
+			return pendingMessages.size();
+		}
+	}
+
+	private MessageSnapshot snapshot(MessageTag messageTag) {
+		Object[] args = messageTag.getArgs();
+		if (args != null) {
+			args = args.clone();
+			for (int i = 0; i < args.length; ++i) {
+				if (args[i] instanceof MessageTag) {
+					args[i] = snapshot((MessageTag) args[i]);
+				}
+			}
+		}
+		return new MessageSnapshot(messageTag.getId(), args);
+	}
+
+	private String render(MessageSnapshot message) {
+		Object[] args = message.args;
+		if (args != null) {
+			args = args.clone();
+			for (int i = 0; i < args.length; ++i) {
+				if (args[i] instanceof MessageSnapshot) {
+					args[i] = render((MessageSnapshot) args[i]);
+				}
+			}
+		}
+		return format(message.id, args);
+	}
+
+	private static final class MessageSnapshot {
+
+		private final String id;
+		private final Object[] args;
+
+		private MessageSnapshot(String id, Object[] args) {
+			this.id = id;
+			this.args = args;
+		}
+
+	}
+
+	private static final class PendingMessage {
+
+		private final MessageSnapshot message;
+		private final Consumer<String> target;
+
+		private PendingMessage(MessageSnapshot message, Consumer<String> target) {
+			this.message = message;
+			this.target = target;
+		}
+
+	}
+
+}
@@ -22,8 +22,10 @@ package eu.europa.esig.dss.i18n;
 
 import java.text.MessageFormat;
 import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,11 +40,14 @@ public class I18nProvider {
 	
 	private static final String MESSAGES = "dss-messages"; // defined a name of the target file
 	
+	/* Compiled patterns, shared by all the providers of the same locale */
+	private static final Map<Locale, Map<String, MessageFormat>> FORMATS_BY_LOCALE = new ConcurrentHashMap<>();
+	
 	// Use system locale as default
 	private final ResourceBundle bundle;
 	
-	// a set of possible keys
-	private final Set<String> keySet;
+	// compiled patterns of the bundle
+	private final Map<String, MessageFormat> formats;
 	
 	/**
 	 * Default internationalization constructor
@@ -59,7 +64,16 @@ public class I18nProvider {
 	 */
 	public I18nProvider(Locale locale) {
 		this.bundle = ResourceBundle.getBundle(MESSAGES, locale);
-		this.keySet = bundle.keySet();
+		this.formats = FORMATS_BY_LOCALE.computeIfAbsent(bundle.getLocale(), l -> new ConcurrentHashMap<>());
+	}
+	
+	/**
+	 * Returns the {@code Locale} of the loaded messages
+	 * 
+	 * @return {@link Locale}
+	 */
+	public Locale getLocale() {
+		return bundle.getLocale();
 	}
 	
 	/**
@@ -71,16 +85,55 @@ public class I18nProvider {
 	public String getMessage(MessageTag messageTag) {
 		if (messageTag == null) {
 			throw new IllegalArgumentException("messageTag cannot be null!");
-			
-		} else if (keySet.contains(messageTag.getId())) {
-			String patternString = bundle.getString(messageTag.getId());
-			return MessageFormat.format(patternString, getArgs(messageTag));
-			
-		} else {
+		}
+		return format(messageTag.getId(), getArgs(messageTag));
+	}
+	
+	/**
+	 * Gives the message of the {@code messageTag} to the {@code target}. This implementation renders the
+	 * message immediately, a subclass may render it later (see {@link DeferredI18nProvider}).
+	 * 
+	 * @param messageTag {@link MessageTag} key of the message
+	 * @param target {@link Consumer} of the rendered message
+	 */
+	public void applyMessage(MessageTag messageTag, Consumer<String> target) {
+		target.accept(getMessage(messageTag));
+	}
+	
+	/**
+	 * Renders the messages given to {@link #applyMessage(MessageTag, Consumer)} which are not rendered yet.
+	 * Nothing is pending with this implementation.
+	 */
+	public void renderMessages() {
+		// messages are rendered immediately
+	}
+	
+	/**
+	 * Formats the message with the given id
+	 * 
+	 * @param id {@link String} the message key
+	 * @param args the resolved arguments (can be null)
+	 * @return {@link String} message value
+	 */
+	protected String format(String id, Object[] args) {
+		MessageFormat messageFormat = getMessageFormat(id);
+		if (messageFormat == null) {
 			// in case if a value for the message tag does not exist
-			LOG.warn("A value for the MessageTag [{}] not defined!", messageTag.getId());
-			return messageTag.getId();
+			LOG.warn("A value for the MessageTag [{}] not defined!", id);
+			return id;
+		}
+		// MessageFormat is not thread-safe
+		synchronized (messageFormat) {
+			return messageFormat.format(args);
+		}
+	}
+	
+	private MessageFormat getMessageFormat(String id) {
+		MessageFormat messageFormat = formats.get(id);
+		if (messageFormat == null && bundle.containsKey(id)) {
+			messageFormat = formats.computeIfAbsent(id, key -> new MessageFormat(bundle.getString(key)));
 		}
+		return messageFormat;
 	}
 	
 	/* Allows nested MessageTags */
@@ -0,0 +1,76 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.i18n;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+public class DeferredI18nProviderTest {
+
+	@Test
+	public void test() {
+		final DeferredI18nProvider i18nProvider = new DeferredI18nProvider(Locale.ENGLISH);
+
+		AtomicReference<String> message = new AtomicReference<>();
+		i18nProvider.applyMessage(MessageTag.BBB_XCV_CCCBB, message::set);
+		assertNull(message.get());
+		assertEquals(1, i18nProvider.getPendingMessagesCount());
+
+		i18nProvider.renderMessages();
+		assertEquals("Can the certificate chain be built till a trust anchor?", message.get());
+		assertEquals(0, i18nProvider.getPendingMessagesCount());
+
+		// immediate rendering is still available
+		assertEquals("Can the certificate chain be built till a trust anchor?", i18nProvider.getMessage(MessageTag.BBB_XCV_CCCBB));
+	}
+
+	@Test
+	public void argsAreCopiedTest() {
+		final DeferredI18nProvider i18nProvider = new DeferredI18nProvider(Locale.ENGLISH);
+
+		AtomicReference<String> granted = new AtomicReference<>();
+		AtomicReference<String> withdrawn = new AtomicReference<>();
+		i18nProvider.applyMessage(MessageTag.TRUSTED_SERVICE_STATUS.setArgs("granted"), granted::set);
+		i18nProvider.applyMessage(MessageTag.TRUSTED_SERVICE_STATUS.setArgs("withdrawn"), withdrawn::set);
+
+		i18nProvider.renderMessages();
+		assertEquals("Status : granted", granted.get());
+		assertEquals("Status : withdrawn", withdrawn.get());
+	}
+
+	@Test
+	public void nestedMessageTagTest() {
+		final DeferredI18nProvider i18nProvider = new DeferredI18nProvider(Locale.FRENCH);
+
+		AtomicReference<String> message = new AtomicReference<>();
+		i18nProvider.applyMessage(MessageTag.CERT_QUALIFICATION_AT_TIME.setArgs(MessageTag.VT_VALIDATION_TIME), message::set);
+		MessageTag.CERT_QUALIFICATION_AT_TIME.setArgs(MessageTag.VT_CERTIFICATE_ISSUANCE_TIME);
+
+		i18nProvider.renderMessages();
+		assertEquals("Qualification du certificat au moment de la validation", message.get());
+	}
+
+}
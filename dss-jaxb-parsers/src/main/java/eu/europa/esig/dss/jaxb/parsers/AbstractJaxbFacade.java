@@ -36,6 +36,7 @@ import javax.xml.bind.Unmarshaller;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
@@ -176,6 +177,62 @@ public abstract class AbstractJaxbFacade<T> {
 		marshaller.marshal(wrap(jaxbObject), os);
 	}
 
+	/**
+	 * This method marshalls the jaxbObject into the {@link XMLStreamWriter}.
+	 * 
+	 * The object is written as a fragment : the start and the end of the document
+	 * are handled by the caller, which allows to write several objects in the same
+	 * document without building them in memory.
+	 * 
+	 * The validation of the jaxbObject against its related XSD is enabled.
+	 * 
+	 * @param jaxbObject
+	 *                   the jaxb object to be marshalled
+	 * @param writer
+	 *                   the {@link XMLStreamWriter} where the object will be
+	 *                   marshalled
+	 * @throws JAXBException
+	 *                       if an exception occurred with the {@link JAXBContext}
+	 * @throws IOException
+	 *                       if an exception occurred with the I/O.
+	 * @throws SAXException
+	 *                       if an exception occurred with the {@link Schema}
+	 */
+	public void marshall(T jaxbObject, XMLStreamWriter writer) throws JAXBException, SAXException, IOException {
+		marshall(jaxbObject, writer, true);
+	}
+
+	/**
+	 * This method marshalls the jaxbObject into the {@link XMLStreamWriter} with an
+	 * optional validation.
+	 * 
+	 * The object is written as a fragment : the start and the end of the document
+	 * are handled by the caller.
+	 * 
+	 * @param jaxbObject
+	 *                   the jaxb object to be marshalled
+	 * @param writer
+	 *                   the {@link XMLStreamWriter} where the object will be
+	 *                   marshalled
+	 * @param validate
+	 *                   enable/disable the validation against the related XSD
+	 * @throws JAXBException
+	 *                       if an exception occurred with the {@link JAXBContext}
+	 * @throws IOException
+	 *                       if an exception occurred with the I/O.
+	 * @throws SAXException
+	 *                       if an exception occurred with the {@link Schema}
+	 */
+	public void marshall(T jaxbObject, XMLStreamWriter writer, boolean validate) throws JAXBException, SAXException, IOException {
+		Objects.requireNonNull(jaxbObject, "JAXBObject is null");
+		Objects.requireNonNull(writer, "XMLStreamWriter is null");
+
+		Marshaller marshaller = getMarshaller(validate);
+		marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+
+		marshaller.marshal(wrap(jaxbObject), writer);
+	}
+
 	/**
 	 * This method unmarshalls the {@link InputStream} and returns an instance of
 	 * the JAXB Object.
@@ -0,0 +1,77 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.model;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+/**
+ * Creates the {@code DSSDocument}s returned by the signature services. The factory decides where the content of
+ * a produced document is stored (in memory, in a temporary file,...).
+ */
+public interface DSSDocumentFactory extends Serializable {
+
+	/**
+	 * Creates a new document with the content written by the given {@code DocumentWriter}
+	 * 
+	 * @param writer
+	 *                 the {@link DocumentWriter} which writes the content of the document
+	 * @param mimeType
+	 *                 the {@link MimeType} of the document
+	 * @return the created {@link DSSDocument}
+	 * @throws DSSException
+	 *                      if the content cannot be written
+	 */
+	DSSDocument create(DocumentWriter writer, MimeType mimeType);
+
+	/**
+	 * Returns a document of this factory with the content, the name and the mime type of the given document.
+	 * The given document is returned as is if its storage already matches the factory.
+	 * 
+	 * @param document
+	 *                 the document to convert
+	 * @return the {@link DSSDocument}
+	 * @throws DSSException
+	 *                      if the content cannot be copied
+	 */
+	DSSDocument create(DSSDocument document);
+
+	/**
+	 * Writes the content of a document to be created
+	 */
+	@FunctionalInterface
+	interface DocumentWriter {
+
+		/**
+		 * Writes the content to the given {@code OutputStream}. The stream is closed by the factory once the
+		 * writer returns.
+		 * 
+		 * @param outputStream
+		 *                     the {@link OutputStream} to write to
+		 * @throws IOException
+		 *                     if an error occurred
+		 */
+		void write(OutputStream outputStream) throws IOException;
+
+	}
+
+}
@@ -85,6 +85,17 @@ public class DigestDocument extends CommonDocument {
 		base64EncodeDigestMap.put(digestAlgorithm, base64EncodeDigest);
 	}
 
+	/**
+	 * Checks if a digest value is defined for the given {@code DigestAlgorithm}
+	 * 
+	 * @param digestAlgorithm
+	 *            {@code DigestAlgorithm}
+	 * @return TRUE if the digest value is present
+	 */
+	public boolean isDigestPresent(final DigestAlgorithm digestAlgorithm) {
+		return base64EncodeDigestMap.containsKey(digestAlgorithm);
+	}
+
 	@Override
 	public String getDigest(final DigestAlgorithm digestAlgorithm) {
 		String base64EncodeDigest = base64EncodeDigestMap.get(digestAlgorithm);
@@ -0,0 +1,50 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * The default {@code DSSDocumentFactory}: the documents are kept in memory.
+ */
+@SuppressWarnings("serial")
+public class InMemoryDocumentFactory implements DSSDocumentFactory {
+
+	@Override
+	public DSSDocument create(DocumentWriter writer, MimeType mimeType) {
+		try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			writer.write(baos);
+			return new InMemoryDocument(baos.toByteArray(), null, mimeType);
+		} catch (IOException e) {
+			throw new DSSException("Unable to write the document", e);
+		}
+	}
+
+	/**
+	 * Returns the given document: the documents produced by the signature services are already in memory.
+	 */
+	@Override
+	public DSSDocument create(DSSDocument document) {
+		return document;
+	}
+
+}
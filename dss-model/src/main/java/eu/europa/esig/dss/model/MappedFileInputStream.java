@@ -0,0 +1,121 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file through memory-mapped regions. The regions are mapped one after the other, so files larger than
+ * the 2 GB limit of a single mapping can be read.
+ */
+class MappedFileInputStream extends InputStream {
+
+	/**
+	 * The size of a mapped region
+	 */
+	private static final long REGION_SIZE = 64L * 1024 * 1024;
+
+	private final FileChannel channel;
+
+	private final long size;
+
+	private long position;
+
+	private MappedByteBuffer region;
+
+	MappedFileInputStream(File file) throws IOException {
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		this.size = channel.size();
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!nextRegion()) {
+			return -1;
+		}
+		return region.get() & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!nextRegion()) {
+			return -1;
+		}
+		int count = Math.min(len, region.remaining());
+		region.get(b, off, count);
+		return count;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		if (n <= 0) {
+			return 0;
+		}
+		long skipped = Math.min(n, available(region) + size - position);
+		long target = position - available(region) + skipped;
+		region = null;
+		position = target;
+		return skipped;
+	}
+
+	@Override
+	public int available() {
+		return (int) Math.min(Integer.MAX_VALUE, available(region) + size - position);
+	}
+
+	private static int available(MappedByteBuffer buffer) {
+		return buffer == null ? 0 : buffer.remaining();
+	}
+
+	/**
+	 * Maps the next region if the current one is consumed
+	 * 
+	 * @return false if the end of the file is reached
+	 */
+	private boolean nextRegion() throws IOException {
+		if (region != null && region.hasRemaining()) {
+			return true;
+		}
+		if (position >= size) {
+			return false;
+		}
+		long length = Math.min(REGION_SIZE, size - position);
+		region = channel.map(MapMode.READ_ONLY, position, length);
+		position += length;
+		return true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		region = null;
+		channel.close();
+	}
+
+}
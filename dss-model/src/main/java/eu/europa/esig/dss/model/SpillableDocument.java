@@ -0,0 +1,140 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+
+/**
+ * Document produced by a {@code SpillableDocumentFactory}. Its content is kept in memory up to the threshold of
+ * the factory, larger contents are stored in a temporary file which is read through memory-mapped regions.
+ * 
+ * The temporary file is deleted by {@link #close()} (or when the factory is closed). The document cannot be read
+ * anymore once closed.
+ * 
+ * On serialization, the document is replaced by an {@code InMemoryDocument}.
+ */
+@SuppressWarnings("serial")
+public class SpillableDocument extends CommonDocument implements Closeable {
+
+	private transient byte[] bytes;
+
+	private transient File file;
+
+	private final long size;
+
+	private transient SpillableDocumentFactory factory;
+
+	private transient volatile boolean closed;
+
+	SpillableDocument(byte[] bytes, EnumMap<DigestAlgorithm, String> digests) {
+		this.bytes = bytes;
+		this.size = bytes.length;
+		this.base64EncodeDigestMap.putAll(digests);
+	}
+
+	SpillableDocument(File file, long size, EnumMap<DigestAlgorithm, String> digests) {
+		this.file = file;
+		this.size = size;
+		this.base64EncodeDigestMap.putAll(digests);
+	}
+
+	void setFactory(SpillableDocumentFactory factory) {
+		this.factory = factory;
+	}
+
+	@Override
+	public InputStream openStream() {
+		if (closed) {
+			throw new DSSException("The document is closed");
+		}
+		if (file == null) {
+			return new ByteArrayInputStream(bytes);
+		}
+		try {
+			return new MappedFileInputStream(file);
+		} catch (IOException e) {
+			throw new DSSException("Unable to read the temporary file", e);
+		}
+	}
+
+	/**
+	 * Returns true if the content is kept in memory (the threshold has not been exceeded)
+	 * 
+	 * @return true if the content is in memory
+	 */
+	public boolean isInMemory() {
+		return file == null;
+	}
+
+	/**
+	 * Returns the size of the content
+	 * 
+	 * @return the number of bytes
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	@Override
+	public String getAbsolutePath() {
+		if (file != null) {
+			return file.getAbsolutePath();
+		}
+		return super.getAbsolutePath();
+	}
+
+	/**
+	 * Releases the content and deletes the temporary file. If the file cannot be deleted (e.g. it is still mapped
+	 * on Windows), it is deleted when the virtual machine terminates.
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		bytes = null;
+		if (file != null && !file.delete()) {
+			file.deleteOnExit();
+		}
+		if (factory != null) {
+			factory.release(this);
+		}
+	}
+
+	private Object writeReplace() {
+		try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			writeTo(baos);
+			return new InMemoryDocument(baos.toByteArray(), name, mimeType);
+		} catch (IOException e) {
+			throw new DSSException("Unable to serialize the document", e);
+		}
+	}
+
+}
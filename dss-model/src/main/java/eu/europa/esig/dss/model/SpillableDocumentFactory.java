@@ -0,0 +1,157 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.model;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+
+/**
+ * {@code DSSDocumentFactory} which keeps small documents in memory and spills the larger ones to temporary files.
+ * 
+ * The returned {@link SpillableDocument}s should be closed once consumed. Closing the factory closes all the
+ * documents it has created which are still open.
+ * 
+ * The digests for the configured algorithms (see {@link #setDigestAlgorithms(DigestAlgorithm...)}) are computed
+ * while the content is written and cached on the document.
+ */
+@SuppressWarnings("serial")
+public class SpillableDocumentFactory implements DSSDocumentFactory, Closeable {
+
+	/**
+	 * The default threshold: 1 MB
+	 */
+	public static final int DEFAULT_THRESHOLD = 1024 * 1024;
+
+	private final int threshold;
+
+	private final File directory;
+
+	private DigestAlgorithm[] digestAlgorithms = new DigestAlgorithm[0];
+
+	/* The spilled documents which are not closed yet */
+	private transient Set<SpillableDocument> openDocuments = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+	/**
+	 * Creates a factory with the default threshold, using the default temporary directory
+	 */
+	public SpillableDocumentFactory() {
+		this(DEFAULT_THRESHOLD, null);
+	}
+
+	/**
+	 * Creates a factory
+	 * 
+	 * @param threshold
+	 *                  the maximum number of bytes kept in memory for a document
+	 * @param directory
+	 *                  the directory where the temporary files are created (null for the default temporary
+	 *                  directory)
+	 */
+	public SpillableDocumentFactory(int threshold, File directory) {
+		if (threshold < 0) {
+			throw new IllegalArgumentException("The threshold cannot be negative");
+		}
+		this.threshold = threshold;
+		this.directory = directory;
+	}
+
+	/**
+	 * Sets the digest algorithms to be computed while the documents are written
+	 * 
+	 * @param digestAlgorithms
+	 *                         the digest algorithms
+	 */
+	public void setDigestAlgorithms(DigestAlgorithm... digestAlgorithms) {
+		Objects.requireNonNull(digestAlgorithms, "DigestAlgorithms cannot be null");
+		this.digestAlgorithms = digestAlgorithms.clone();
+	}
+
+	@Override
+	public SpillableDocument create(DocumentWriter writer, MimeType mimeType) {
+		Objects.requireNonNull(writer, "DocumentWriter cannot be null");
+		SpillableOutputStream outputStream = new SpillableOutputStream(threshold, directory, digestAlgorithms);
+		try {
+			writer.write(outputStream);
+			outputStream.close();
+		} catch (IOException e) {
+			outputStream.discard();
+			throw new DSSException("Unable to write the document", e);
+		} catch (RuntimeException e) {
+			outputStream.discard();
+			throw e;
+		}
+		SpillableDocument document = outputStream.toDocument();
+		document.setMimeType(mimeType);
+		if (!document.isInMemory()) {
+			document.setFactory(this);
+			openDocuments.add(document);
+		}
+		return document;
+	}
+
+	@Override
+	public DSSDocument create(DSSDocument document) {
+		if (document == null || document instanceof SpillableDocument) {
+			return document;
+		}
+		SpillableDocument spillableDocument = create(document::writeTo, document.getMimeType());
+		spillableDocument.setName(document.getName());
+		return spillableDocument;
+	}
+
+	void release(SpillableDocument document) {
+		openDocuments.remove(document);
+	}
+
+	/**
+	 * Closes all the documents created by this factory which are still open and deletes their temporary files
+	 */
+	@Override
+	public void close() {
+		for (SpillableDocument document : new ArrayList<>(openDocuments)) {
+			document.close();
+		}
+	}
+
+	private Object readResolve() {
+		SpillableDocumentFactory factory = new SpillableDocumentFactory(threshold, directory);
+		factory.digestAlgorithms = digestAlgorithms;
+		return factory;
+	}
+
+	/**
+	 * Returns the number of created documents whose temporary file is not deleted yet
+	 * 
+	 * @return the number of open temporary files
+	 */
+	public int getOpenFileCount() {
+		return openDocuments.size();
+	}
+
+}
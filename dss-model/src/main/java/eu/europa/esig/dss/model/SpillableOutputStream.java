@@ -0,0 +1,148 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.model;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.EnumMap;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+
+/**
+ * Collects the content of a {@code SpillableDocument}: the bytes are buffered in memory until the threshold is
+ * exceeded, then moved to a temporary file. The digests are computed while the content is written.
+ */
+class SpillableOutputStream extends OutputStream {
+
+	private final int threshold;
+
+	private final File directory;
+
+	private final DigestAlgorithm[] digestAlgorithms;
+
+	private final MessageDigest[] messageDigests;
+
+	private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+	private File file;
+
+	private OutputStream fileStream;
+
+	private long size;
+
+	SpillableOutputStream(int threshold, File directory, DigestAlgorithm[] digestAlgorithms) {
+		this.threshold = threshold;
+		this.directory = directory;
+		this.digestAlgorithms = digestAlgorithms;
+		this.messageDigests = new MessageDigest[digestAlgorithms.length];
+		for (int i = 0; i < digestAlgorithms.length; i++) {
+			try {
+				messageDigests[i] = digestAlgorithms[i].getMessageDigest();
+			} catch (NoSuchAlgorithmException e) {
+				throw new DSSException("Unable to compute the digest", e);
+			}
+		}
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] { (byte) b }, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return;
+		}
+		for (MessageDigest messageDigest : messageDigests) {
+			messageDigest.update(b, off, len);
+		}
+		size += len;
+		if (fileStream == null && size > threshold) {
+			spill();
+		}
+		if (fileStream != null) {
+			fileStream.write(b, off, len);
+		} else {
+			buffer.write(b, off, len);
+		}
+	}
+
+	private void spill() throws IOException {
+		file = File.createTempFile("dss-", ".tmp", directory);
+		fileStream = new BufferedOutputStream(new FileOutputStream(file));
+		buffer.writeTo(fileStream);
+		buffer = null;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (fileStream != null) {
+			fileStream.flush();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (fileStream != null) {
+			fileStream.close();
+		}
+	}
+
+	/**
+	 * Closes the stream and deletes the temporary file, if any. Used when the content could not be written.
+	 */
+	void discard() {
+		try {
+			close();
+		} catch (IOException e) {
+			// the file is deleted anyway
+		}
+		if (file != null && !file.delete()) {
+			file.deleteOnExit();
+		}
+		buffer = null;
+	}
+
+	/**
+	 * Returns the written document. To be called once the stream is closed.
+	 * 
+	 * @return {@link SpillableDocument}
+	 */
+	SpillableDocument toDocument() {
+		EnumMap<DigestAlgorithm, String> digests = new EnumMap<>(DigestAlgorithm.class);
+		for (int i = 0; i < digestAlgorithms.length; i++) {
+			digests.put(digestAlgorithms[i], Base64.getEncoder().encodeToString(messageDigests[i].digest()));
+		}
+		if (file != null) {
+			return new SpillableDocument(file, size, digests);
+		}
+		return new SpillableDocument(buffer.toByteArray(), digests);
+	}
+
+}
@@ -33,6 +33,7 @@ import java.security.cert.CertificateNotYetValidException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
@@ -72,6 +73,12 @@ public class CertificateToken extends Token {
 	 */
 	private Boolean selfSigned;
 
+	/**
+	 * The key usages of the certificate. This attribute stays null till the first call to
+	 * {@link #getKeyUsageBits()} function (immutable list, the token can be read by several threads).
+	 */
+	private volatile List<KeyUsageBit> keyUsageBits;
+
 	/**
 	 * This method returns an instance of {@link eu.europa.esig.dss.model.x509.CertificateToken}.
 	 *
@@ -350,16 +357,19 @@ public class CertificateToken extends Token {
 	 * @return {@code List} of {@code KeyUsageBit}s of different certificate's key usages
 	 */
 	public List<KeyUsageBit> getKeyUsageBits() {
-		List<KeyUsageBit> keyUsageBits = new ArrayList<>();
-		final boolean[] keyUsageArray = x509Certificate.getKeyUsage();
-		if (keyUsageArray != null) {
-			for (KeyUsageBit keyUsageBit : KeyUsageBit.values()) {
-				if (keyUsageArray[keyUsageBit.getIndex()]) {
-					keyUsageBits.add(keyUsageBit);
+		if (keyUsageBits == null) {
+			List<KeyUsageBit> result = new ArrayList<>();
+			final boolean[] keyUsageArray = x509Certificate.getKeyUsage();
+			if (keyUsageArray != null) {
+				for (KeyUsageBit keyUsageBit : KeyUsageBit.values()) {
+					if (keyUsageArray[keyUsageBit.getIndex()]) {
+						result.add(keyUsageBit);
+					}
 				}
 			}
+			keyUsageBits = Collections.unmodifiableList(result);
 		}
-		return keyUsageBits;
+		return new ArrayList<>(keyUsageBits);
 	}
 
 	/**
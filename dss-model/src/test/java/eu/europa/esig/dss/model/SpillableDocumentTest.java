@@ -0,0 +1,196 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+
+public class SpillableDocumentTest {
+
+	@TempDir
+	File tempDir;
+
+	@Test
+	public void belowThreshold() throws IOException {
+		byte[] content = randomBytes(100);
+		try (SpillableDocumentFactory factory = new SpillableDocumentFactory(1024, tempDir)) {
+			SpillableDocument document = factory.create(os -> os.write(content), MimeType.XML);
+			assertTrue(document.isInMemory());
+			assertEquals(100, document.getSize());
+			assertEquals(MimeType.XML, document.getMimeType());
+			assertArrayEquals(content, read(document));
+			assertEquals(0, factory.getOpenFileCount());
+			assertEquals(0, tempDir.listFiles().length);
+		}
+	}
+
+	@Test
+	public void aboveThreshold() throws IOException {
+		byte[] content = randomBytes(10000);
+		SpillableDocumentFactory factory = new SpillableDocumentFactory(1024, tempDir);
+		SpillableDocument document = factory.create(os -> {
+			// written in several chunks, the threshold is crossed in the middle of one
+			os.write(content, 0, 1000);
+			os.write(content, 1000, 500);
+			os.write(content[1500]);
+			os.write(content, 1501, content.length - 1501);
+		}, MimeType.PDF);
+		assertFalse(document.isInMemory());
+		assertEquals(10000, document.getSize());
+		assertEquals(1, tempDir.listFiles().length);
+		assertEquals(tempDir.listFiles()[0].getAbsolutePath(), document.getAbsolutePath());
+		assertArrayEquals(content, read(document));
+		assertArrayEquals(content, read(document));
+
+		try (InputStream is = document.openStream()) {
+			assertEquals(10000, is.available());
+			assertEquals(5000, is.skip(5000));
+			assertEquals(content[5000] & 0xFF, is.read());
+			assertEquals(10000 - 5001, is.available());
+		}
+
+		assertEquals(1, factory.getOpenFileCount());
+		document.close();
+		assertEquals(0, factory.getOpenFileCount());
+		assertEquals(0, tempDir.listFiles().length);
+		assertThrows(DSSException.class, () -> document.openStream());
+		document.close();
+	}
+
+	@Test
+	public void digestsComputedWhileWriting() {
+		byte[] content = randomBytes(5000);
+		InMemoryDocument reference = new InMemoryDocument(content);
+		try (SpillableDocumentFactory factory = new SpillableDocumentFactory(1024, tempDir)) {
+			factory.setDigestAlgorithms(DigestAlgorithm.SHA256, DigestAlgorithm.SHA512);
+			SpillableDocument document = factory.create(os -> os.write(content), null);
+			assertEquals(2, document.base64EncodeDigestMap.size());
+			assertEquals(reference.getDigest(DigestAlgorithm.SHA256), document.getDigest(DigestAlgorithm.SHA256));
+			assertEquals(reference.getDigest(DigestAlgorithm.SHA512), document.getDigest(DigestAlgorithm.SHA512));
+			assertEquals(reference.getDigest(DigestAlgorithm.SHA1), document.getDigest(DigestAlgorithm.SHA1));
+		}
+	}
+
+	@Test
+	public void closeFactory() {
+		SpillableDocumentFactory factory = new SpillableDocumentFactory(10, tempDir);
+		SpillableDocument first = factory.create(os -> os.write(randomBytes(100)), null);
+		SpillableDocument second = factory.create(os -> os.write(randomBytes(100)), null);
+		assertEquals(2, tempDir.listFiles().length);
+		factory.close();
+		assertEquals(0, tempDir.listFiles().length);
+		assertThrows(DSSException.class, () -> first.openStream());
+		assertThrows(DSSException.class, () -> second.openStream());
+	}
+
+	@Test
+	public void failedWrite() {
+		SpillableDocumentFactory factory = new SpillableDocumentFactory(10, tempDir);
+		DSSException exception = assertThrows(DSSException.class, () -> factory.create(os -> {
+			os.write(randomBytes(100));
+			throw new IOException("Broken writer");
+		}, null));
+		assertEquals("Unable to write the document", exception.getMessage());
+		assertEquals(0, tempDir.listFiles().length);
+		assertEquals(0, factory.getOpenFileCount());
+	}
+
+	@Test
+	public void copyDocument() {
+		DSSDocument original = new InMemoryDocument(randomBytes(2000), "doc.pdf", MimeType.PDF);
+		try (SpillableDocumentFactory factory = new SpillableDocumentFactory(1024, tempDir)) {
+			DSSDocument copy = factory.create(original);
+			assertTrue(copy instanceof SpillableDocument);
+			assertEquals("doc.pdf", copy.getName());
+			assertEquals(MimeType.PDF, copy.getMimeType());
+			assertEquals(original.getDigest(DigestAlgorithm.SHA256), copy.getDigest(DigestAlgorithm.SHA256));
+			assertSame(copy, factory.create(copy));
+		}
+	}
+
+	@Test
+	public void inMemoryFactory() {
+		byte[] content = randomBytes(2000);
+		InMemoryDocumentFactory factory = new InMemoryDocumentFactory();
+		DSSDocument document = factory.create(os -> os.write(content), MimeType.BINARY);
+		assertTrue(document instanceof InMemoryDocument);
+		assertEquals(MimeType.BINARY, document.getMimeType());
+		assertSame(document, factory.create(document));
+	}
+
+	@Test
+	public void serialization() throws Exception {
+		byte[] content = randomBytes(2000);
+		try (SpillableDocumentFactory factory = new SpillableDocumentFactory(1024, tempDir)) {
+			SpillableDocument document = factory.create(os -> os.write(content), MimeType.PDF);
+			document.setName("doc.pdf");
+
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+				oos.writeObject(document);
+			}
+			try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+				DSSDocument deserialized = (DSSDocument) ois.readObject();
+				assertNotNull(deserialized);
+				assertTrue(deserialized instanceof InMemoryDocument);
+				assertEquals("doc.pdf", deserialized.getName());
+				assertArrayEquals(content, read(deserialized));
+			}
+		}
+	}
+
+	private static byte[] read(DSSDocument document) throws IOException {
+		try (InputStream is = document.openStream(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			byte[] buffer = new byte[777];
+			int count;
+			while ((count = is.read(buffer)) > 0) {
+				baos.write(buffer, 0, count);
+			}
+			return baos.toByteArray();
+		}
+	}
+
+	private static byte[] randomBytes(int length) {
+		byte[] bytes = new byte[length];
+		new Random(length).nextBytes(bytes);
+		return bytes;
+	}
+
+}
@@ -54,7 +54,6 @@ import com.lowagie.text.pdf.PdfWriter;
 
 import eu.europa.esig.dss.model.DSSDocument;
 import eu.europa.esig.dss.model.DSSException;
-import eu.europa.esig.dss.model.InMemoryDocument;
 import eu.europa.esig.dss.model.MimeType;
 import eu.europa.esig.dss.model.x509.CertificateToken;
 import eu.europa.esig.dss.model.x509.Token;
@@ -244,26 +243,25 @@ public class ITextPDFSignatureService extends AbstractPDFSignatureService {
 	@Override
 	public DSSDocument sign(DSSDocument toSignDocument, byte[] signatureValue, PAdESCommonParameters parameters) {
 
-		try (InputStream is = toSignDocument.openStream(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-			PdfStamper stp = prepareStamper(is, baos, parameters);
-			PdfSignatureAppearance sap = stp.getSignatureAppearance();
+		try (InputStream is = toSignDocument.openStream()) {
+			// the signed revision is written directly to the document created by the factory
+			return documentFactory.create(os -> {
+				PdfStamper stp = prepareStamper(is, os, parameters);
+				PdfSignatureAppearance sap = stp.getSignatureAppearance();
 
-			byte[] pk = signatureValue;
-			int csize = parameters.getContentSize();
-			if (csize < pk.length) {
-				throw new DSSException(String.format("The signature size [%s] is too small for the signature value with a length [%s]", csize, pk.length));
-			}
-			
-			byte[] outc = new byte[csize];
-			System.arraycopy(pk, 0, outc, 0, pk.length);
+				byte[] pk = signatureValue;
+				int csize = parameters.getContentSize();
+				if (csize < pk.length) {
+					throw new DSSException(String.format("The signature size [%s] is too small for the signature value with a length [%s]", csize, pk.length));
+				}
 
-			PdfDictionary dic = new PdfDictionary();
-			dic.put(PdfName.CONTENTS, new PdfString(outc).setHexWriting(true));
-			sap.close(dic);
+				byte[] outc = new byte[csize];
+				System.arraycopy(pk, 0, outc, 0, pk.length);
 
-			DSSDocument signature = new InMemoryDocument(baos.toByteArray());
-			signature.setMimeType(MimeType.PDF);
-			return signature;
+				PdfDictionary dic = new PdfDictionary();
+				dic.put(PdfName.CONTENTS, new PdfString(outc).setHexWriting(true));
+				sap.close(dic);
+			}, MimeType.PDF);
 		} catch (Exception e) {
 			throw new DSSException(e);
 		}
@@ -388,82 +386,79 @@ public class ITextPDFSignatureService extends AbstractPDFSignatureService {
 
 	@Override
 	public DSSDocument addDssDictionary(DSSDocument document, List<DSSDictionaryCallback> callbacks) {
-		try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-				InputStream is = document.openStream();
-				PdfReader reader = new PdfReader(is)) {
-
-			PdfStamper stp = new PdfStamper(reader, baos, '\0', true);
-			PdfWriter writer = stp.getWriter();
-
-			if (Utils.isCollectionNotEmpty(callbacks)) {
-
-				Map<String, Long> knownObjects = buildKnownObjects(callbacks);
-
-				PdfDictionary catalog = reader.getCatalog();
-
-				PdfDictionary dss = new PdfDictionary();
-				PdfDictionary vrim = new PdfDictionary();
-				PdfArray ocsps = new PdfArray();
-				PdfArray crls = new PdfArray();
-				PdfArray certs = new PdfArray();
-
-				for (DSSDictionaryCallback callback : callbacks) {
-					PdfArray ocsp = new PdfArray();
-					PdfArray crl = new PdfArray();
-					PdfArray cert = new PdfArray();
-					PdfDictionary vri = new PdfDictionary();
-					for (CRLToken crlToken : callback.getCrls()) {
-						PdfObject iref = getPdfObjectForToken(crlToken, knownObjects, reader, writer);
-						crl.add(iref);
-						crls.add(iref);
-					}
-					for (OCSPToken ocspToken : callback.getOcsps()) {
-						PdfObject iref = getPdfObjectForToken(ocspToken, knownObjects, reader, writer);
-						ocsp.add(iref);
-						ocsps.add(iref);
-					}
-					for (CertificateToken certToken : callback.getCertificates()) {
-						PdfObject iref = getPdfObjectForToken(certToken, knownObjects, reader, writer);
-						cert.add(iref);
-						certs.add(iref);
-					}
-					if (ocsp.size() > 0) {
-						vri.put(new PdfName(PAdESConstants.OCSP_ARRAY_NAME_VRI), ocsp);
-					}
-					if (crl.size() > 0) {
-						vri.put(new PdfName(PAdESConstants.CRL_ARRAY_NAME_VRI), crl);
-					}
-					if (cert.size() > 0) {
-						vri.put(new PdfName(PAdESConstants.CERT_ARRAY_NAME_VRI), cert);
-					}
-					String vkey = callback.getSignature().getVRIKey();
-					vrim.put(new PdfName(vkey), vri);
+		try (InputStream is = document.openStream(); PdfReader reader = new PdfReader(is)) {
+			return documentFactory.create(os -> writeDssDictionary(reader, os, callbacks), MimeType.PDF);
+		} catch (IOException e) {
+			throw new DSSException("Unable to add DSS dictionary", e);
+		}
+	}
+
+	private void writeDssDictionary(PdfReader reader, OutputStream os, List<DSSDictionaryCallback> callbacks) throws IOException {
+		PdfStamper stp = new PdfStamper(reader, os, '\0', true);
+		PdfWriter writer = stp.getWriter();
+
+		if (Utils.isCollectionNotEmpty(callbacks)) {
+
+			Map<String, Long> knownObjects = buildKnownObjects(callbacks);
+
+			PdfDictionary catalog = reader.getCatalog();
+
+			PdfDictionary dss = new PdfDictionary();
+			PdfDictionary vrim = new PdfDictionary();
+			PdfArray ocsps = new PdfArray();
+			PdfArray crls = new PdfArray();
+			PdfArray certs = new PdfArray();
+
+			for (DSSDictionaryCallback callback : callbacks) {
+				PdfArray ocsp = new PdfArray();
+				PdfArray crl = new PdfArray();
+				PdfArray cert = new PdfArray();
+				PdfDictionary vri = new PdfDictionary();
+				for (CRLToken crlToken : callback.getCrls()) {
+					PdfObject iref = getPdfObjectForToken(crlToken, knownObjects, reader, writer);
+					crl.add(iref);
+					crls.add(iref);
 				}
-				dss.put(new PdfName(PAdESConstants.VRI_DICTIONARY_NAME),
-						writer.addToBody(vrim, false).getIndirectReference());
-				if (ocsps.size() > 0) {
-					dss.put(new PdfName(PAdESConstants.OCSP_ARRAY_NAME_DSS), ocsps);
+				for (OCSPToken ocspToken : callback.getOcsps()) {
+					PdfObject iref = getPdfObjectForToken(ocspToken, knownObjects, reader, writer);
+					ocsp.add(iref);
+					ocsps.add(iref);
 				}
-				if (crls.size() > 0) {
-					dss.put(new PdfName(PAdESConstants.CRL_ARRAY_NAME_DSS), crls);
+				for (CertificateToken certToken : callback.getCertificates()) {
+					PdfObject iref = getPdfObjectForToken(certToken, knownObjects, reader, writer);
+					cert.add(iref);
+					certs.add(iref);
 				}
-				if (certs.size() > 0) {
-					dss.put(new PdfName(PAdESConstants.CERT_ARRAY_NAME_DSS), certs);
+				if (ocsp.size() > 0) {
+					vri.put(new PdfName(PAdESConstants.OCSP_ARRAY_NAME_VRI), ocsp);
 				}
-				catalog.put(new PdfName(PAdESConstants.DSS_DICTIONARY_NAME),
-						writer.addToBody(dss, false).getIndirectReference());
-
-				stp.getWriter().addToBody(reader.getCatalog(), reader.getCatalog().getIndRef(), false);
+				if (crl.size() > 0) {
+					vri.put(new PdfName(PAdESConstants.CRL_ARRAY_NAME_VRI), crl);
+				}
+				if (cert.size() > 0) {
+					vri.put(new PdfName(PAdESConstants.CERT_ARRAY_NAME_VRI), cert);
+				}
+				String vkey = callback.getSignature().getVRIKey();
+				vrim.put(new PdfName(vkey), vri);
 			}
+			dss.put(new PdfName(PAdESConstants.VRI_DICTIONARY_NAME),
+					writer.addToBody(vrim, false).getIndirectReference());
+			if (ocsps.size() > 0) {
+				dss.put(new PdfName(PAdESConstants.OCSP_ARRAY_NAME_DSS), ocsps);
+			}
+			if (crls.size() > 0) {
+				dss.put(new PdfName(PAdESConstants.CRL_ARRAY_NAME_DSS), crls);
+			}
+			if (certs.size() > 0) {
+				dss.put(new PdfName(PAdESConstants.CERT_ARRAY_NAME_DSS), certs);
+			}
+			catalog.put(new PdfName(PAdESConstants.DSS_DICTIONARY_NAME),
+					writer.addToBody(dss, false).getIndirectReference());
 
-			stp.close();
-
-			DSSDocument signature = new InMemoryDocument(baos.toByteArray());
-			signature.setMimeType(MimeType.PDF);
-			return signature;
-		} catch (IOException e) {
-			throw new DSSException("Unable to add DSS dictionary", e);
+			stp.getWriter().addToBody(reader.getCatalog(), reader.getCatalog().getIndRef(), false);
 		}
+
+		stp.close();
 	}
 
 	private PdfObject getPdfObjectForToken(Token token, Map<String, Long> knownObjects, PdfReader reader, PdfWriter writer)
@@ -498,20 +493,15 @@ public class ITextPDFSignatureService extends AbstractPDFSignatureService {
 
 	@Override
 	public DSSDocument addNewSignatureField(DSSDocument document, SignatureFieldParameters parameters) {
-		try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-				InputStream is = document.openStream();
-				PdfReader reader = new PdfReader(is)) {
-
-			PdfStamper stp = new PdfStamper(reader, baos, '\0', true);
-
-			stp.addSignature(parameters.getName(), parameters.getPage() + 1, parameters.getOriginX(),
-					parameters.getOriginY(), parameters.getWidth(), parameters.getHeight());
+		try (InputStream is = document.openStream(); PdfReader reader = new PdfReader(is)) {
+			return documentFactory.create(os -> {
+				PdfStamper stp = new PdfStamper(reader, os, '\0', true);
 
-			stp.close();
+				stp.addSignature(parameters.getName(), parameters.getPage() + 1, parameters.getOriginX(),
+						parameters.getOriginY(), parameters.getWidth(), parameters.getHeight());
 
-			DSSDocument signature = new InMemoryDocument(baos.toByteArray());
-			signature.setMimeType(MimeType.PDF);
-			return signature;
+				stp.close();
+			}, MimeType.PDF);
 		} catch (IOException e) {
 			throw new DSSException("Unable to add a signature field", e);
 		}
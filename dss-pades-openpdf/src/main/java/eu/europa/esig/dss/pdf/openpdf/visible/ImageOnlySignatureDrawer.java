@@ -32,15 +32,18 @@ import com.lowagie.text.pdf.PdfTemplate;
 import eu.europa.esig.dss.pdf.visible.CommonDrawerUtils;
 import eu.europa.esig.dss.pdf.visible.ImageAndResolution;
 import eu.europa.esig.dss.pdf.visible.ImageUtils;
+import eu.europa.esig.dss.pdf.visible.SignatureAppearanceCache;
 import eu.europa.esig.dss.spi.DSSUtils;
 import eu.europa.esig.dss.utils.Utils;
 
 public class ImageOnlySignatureDrawer extends AbstractITextSignatureDrawer {
 
+	private static final String IMAGE_KEY_PREFIX = "openpdf-image:";
+
 	@Override
 	public void draw() throws IOException {
 
-		Image image = Image.getInstance(DSSUtils.toByteArray(parameters.getImage()));
+		Image image = getImage();
 
 		float zoom = parameters.getScaleFactor();
 		int width = parameters.getWidth();
@@ -89,4 +92,25 @@ public class ImageOnlySignatureDrawer extends AbstractITextSignatureDrawer {
 		ct.go();
 	}
 
+	/**
+	 * Returns the decoded image. The decoded image is kept in the cache and a copy
+	 * is returned, because the instance is scaled for the current signature
+	 * 
+	 * @return {@link Image}
+	 * @throws IOException
+	 *             in case of image reading error
+	 */
+	private Image getImage() throws IOException {
+		SignatureAppearanceCache cache = SignatureAppearanceCache.getInstance();
+		if (!cache.isEnabled()) {
+			return Image.getInstance(DSSUtils.toByteArray(parameters.getImage()));
+		}
+		String key = IMAGE_KEY_PREFIX + SignatureAppearanceCache.getKey(parameters.getImage());
+		Image decoded = cache.get(key, Image.class);
+		if (decoded == null) {
+			decoded = cache.put(key, Image.getInstance(DSSUtils.toByteArray(parameters.getImage())));
+		}
+		return Image.getInstance(decoded);
+	}
+
 }
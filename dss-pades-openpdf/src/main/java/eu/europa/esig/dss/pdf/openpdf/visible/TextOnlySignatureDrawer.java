@@ -35,11 +35,14 @@ import eu.europa.esig.dss.pades.DSSFont;
 import eu.europa.esig.dss.pades.SignatureImageParameters;
 import eu.europa.esig.dss.pades.SignatureImageTextParameters;
 import eu.europa.esig.dss.pdf.visible.FontUtils;
+import eu.europa.esig.dss.pdf.visible.SignatureAppearanceCache;
 import eu.europa.esig.dss.spi.DSSUtils;
 import eu.europa.esig.dss.utils.Utils;
 
 public class TextOnlySignatureDrawer extends AbstractITextSignatureDrawer {
 	
+	private static final String FONT_KEY_PREFIX = "openpdf-font:";
+	
 	private Font iTextFont;
 	
 	@Override
@@ -84,22 +87,35 @@ public class TextOnlySignatureDrawer extends AbstractITextSignatureDrawer {
 	private Font initFont() throws IOException {
 		SignatureImageTextParameters textParameters = parameters.getTextParameters();
 		DSSFont dssFont = textParameters.getFont();
-		BaseFont baseFont;
+		// a BaseFont is not bound to a document and can be shared between the signatures
+		SignatureAppearanceCache cache = SignatureAppearanceCache.getInstance();
+		String key = cache.isEnabled() ? FONT_KEY_PREFIX + SignatureAppearanceCache.getKey(dssFont) : null;
+		BaseFont baseFont = key != null ? cache.get(key, BaseFont.class) : null;
+		if (baseFont == null) {
+			baseFont = createBaseFont(dssFont);
+			if (key != null) {
+				baseFont = cache.put(key, baseFont);
+			}
+		}
+		Font font = new Font(baseFont, dssFont.getSize());
+		font.setColor(textParameters.getTextColor());
+		return font;
+	}
+
+	private BaseFont createBaseFont(DSSFont dssFont) {
 		if (dssFont.isLogicalFont()) {
 			DefaultFontMapper fontMapper = new DefaultFontMapper();
-			baseFont = fontMapper.awtToPdf(dssFont.getJavaFont());
+			return fontMapper.awtToPdf(dssFont.getJavaFont());
 		} else {
 			try (InputStream iStream = dssFont.getInputStream()) {
 				byte[] fontBytes = DSSUtils.toByteArray(iStream);
-				baseFont = BaseFont.createFont(dssFont.getName(), BaseFont.IDENTITY_H, BaseFont.EMBEDDED, true, fontBytes, null);
+				BaseFont baseFont = BaseFont.createFont(dssFont.getName(), BaseFont.IDENTITY_H, BaseFont.EMBEDDED, true, fontBytes, null);
 				baseFont.setSubset(false);
+				return baseFont;
 			} catch (IOException e) {
 				throw new DSSException("The iText font cannot be initialized", e);
 			}
 		}
-		Font font = new Font(baseFont, dssFont.getSize());
-		font.setColor(textParameters.getTextColor());
-		return font;
 	}
 
 }
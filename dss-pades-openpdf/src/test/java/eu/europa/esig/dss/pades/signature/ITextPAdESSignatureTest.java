@@ -55,6 +55,7 @@ import eu.europa.esig.dss.pades.signature.suite.PAdESLevelTWithSHA1MessageImprin
 import eu.europa.esig.dss.pades.signature.suite.PAdESNoDuplicateValidationDataTest;
 import eu.europa.esig.dss.pades.signature.suite.PAdESServiceTest;
 import eu.europa.esig.dss.pades.signature.suite.PAdESSpaceEOFTest;
+import eu.europa.esig.dss.pades.signature.suite.PAdESSpillableDocumentTest;
 import eu.europa.esig.dss.pades.signature.suite.PAdESWithPSSTest;
 import eu.europa.esig.dss.pades.signature.suite.PAdESWithSHA3Test;
 import eu.europa.esig.dss.pades.signature.suite.PDFTimestampFiltersTest;
@@ -68,7 +69,8 @@ import eu.europa.esig.dss.pades.signature.suite.TwoPAdESSigniatureMustHaveDiffer
 		PAdESLevelLTATest.class, PAdESLevelLTWrongAIATest.class, PAdESLevelTTest.class, PAdESLTACheckTimeStampedTimestampIDTest.class, PAdESLTACheckTimeStampIDTest.class,
 		PDFTimestampFiltersTest.class, TwoPAdESSigniatureMustHaveDifferentIdTest.class, PAdESLevelBHugeTest.class, InvisibleSignatureFieldSignTest.class, PAdESSpaceEOFTest.class,
 		PAdESDoubleLTAValidationDataTest.class, PAdESNoDuplicateValidationDataTest.class, PAdESWithPSSTest.class, PAdESWithSHA3Test.class,
-		PAdESLevelTWithSHA1MessageImprintTest.class, PAdESAllSelfSignedCertsTest.class, PAdESServiceTest.class, CertificateConflictTest.class })
+		PAdESLevelTWithSHA1MessageImprintTest.class, PAdESAllSelfSignedCertsTest.class, PAdESServiceTest.class, CertificateConflictTest.class,
+		PAdESSpillableDocumentTest.class })
 public class ITextPAdESSignatureTest {
 
 }
@@ -123,15 +123,9 @@ public class PdfBoxSignatureService extends AbstractPDFSignatureService {
 	@Override
 	public DSSDocument sign(final DSSDocument toSignDocument, final byte[] signatureValue, final PAdESCommonParameters parameters) {
 
-		try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-				InputStream is = toSignDocument.openStream();
-				PDDocument pdDocument = PDDocument.load(is)) {
-
-			signDocumentAndReturnDigest(parameters, signatureValue, baos, pdDocument);
-
-			DSSDocument signature = new InMemoryDocument(baos.toByteArray());
-			signature.setMimeType(MimeType.PDF);
-			return signature;
+		try (InputStream is = toSignDocument.openStream(); PDDocument pdDocument = PDDocument.load(is)) {
+			// the signed revision is written directly to the document created by the factory
+			return documentFactory.create(os -> signDocumentAndReturnDigest(parameters, signatureValue, os, pdDocument), MimeType.PDF);
 		} catch (IOException e) {
 			throw new DSSException(e);
 		}
@@ -464,7 +458,7 @@ public class PdfBoxSignatureService extends AbstractPDFSignatureService {
 
 	@Override
 	public DSSDocument addDssDictionary(DSSDocument document, List<DSSDictionaryCallback> callbacks) {
-		try (ByteArrayOutputStream baos = new ByteArrayOutputStream(); InputStream is = document.openStream(); PDDocument pdDocument = PDDocument.load(is)) {
+		try (InputStream is = document.openStream(); PDDocument pdDocument = PDDocument.load(is)) {
 
 			if (Utils.isCollectionNotEmpty(callbacks)) {
 				final COSDictionary cosDictionary = pdDocument.getDocumentCatalog().getCOSObject();
@@ -472,11 +466,7 @@ public class PdfBoxSignatureService extends AbstractPDFSignatureService {
 				cosDictionary.setNeedToBeUpdated(true);
 			}
 
-			pdDocument.saveIncremental(baos);
-
-			DSSDocument inMemoryDocument = new InMemoryDocument(baos.toByteArray());
-			inMemoryDocument.setMimeType(MimeType.PDF);
-			return inMemoryDocument;
+			return documentFactory.create(pdDocument::saveIncremental, MimeType.PDF);
 
 		} catch (Exception e) {
 			throw new DSSException(e);
@@ -45,7 +45,6 @@ import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
 import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotationWidget;
 import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceDictionary;
 import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceStream;
-import org.apache.pdfbox.pdmodel.interactive.digitalsignature.SignatureOptions;
 import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
 import org.apache.pdfbox.pdmodel.interactive.form.PDField;
 import org.apache.pdfbox.pdmodel.interactive.form.PDSignatureField;
@@ -61,6 +60,7 @@ import eu.europa.esig.dss.pdf.pdfbox.visible.AbstractPdfBoxSignatureDrawer;
 import eu.europa.esig.dss.pdf.pdfbox.visible.ImageRotationUtils;
 import eu.europa.esig.dss.pdf.visible.CommonDrawerUtils;
 import eu.europa.esig.dss.pdf.visible.FontUtils;
+import eu.europa.esig.dss.pdf.visible.SignatureAppearanceCache;
 import eu.europa.esig.dss.utils.Utils;
 
 public class NativePdfBoxVisibleSignatureDrawer extends AbstractPdfBoxSignatureDrawer {
@@ -71,13 +71,9 @@ public class NativePdfBoxVisibleSignatureDrawer extends AbstractPdfBoxSignatureD
 	
 	private static final float OPAQUE_VALUE = 0xff;
 	
-	@Override
-	public void init(SignatureImageParameters parameters, PDDocument document, SignatureOptions signatureOptions) throws IOException {
-		super.init(parameters, document, signatureOptions);
-		if (parameters.getTextParameters() != null) {
-			this.pdFont = initFont();
-		}
-	}
+	private static final String TEMPLATE_KEY_PREFIX = "pdfbox-template:";
+	
+	private static final String COLOR_SPACE_KEY_PREFIX = "pdfbox-colorspace:";
 	
 	/**
 	 * Method to initialize the specific font for PdfBox {@link PDFont}
@@ -95,9 +91,46 @@ public class NativePdfBoxVisibleSignatureDrawer extends AbstractPdfBoxSignatureD
 	
 	@Override
 	public void draw() throws IOException {
+		PDPage originalPage = document.getPage(parameters.getPage() - 1);
+		
+		// the appearance only depends on the parameters and on the page geometry
+		SignatureAppearanceCache cache = SignatureAppearanceCache.getInstance();
+		String key = cache.isEnabled() ? getTemplateKey(originalPage) : null;
+		byte[] template = key != null ? cache.get(key, byte[].class) : null;
+		if (template == null) {
+			template = buildTemplate(originalPage);
+			if (key != null) {
+				template = cache.put(key, template);
+			}
+		}
+		
+		try (ByteArrayInputStream bais = new ByteArrayInputStream(template)) {
+			signatureOptions.setVisualSignature(bais);
+			signatureOptions.setPage(parameters.getPage() - 1);
+		}
+	}
+	
+	private String getTemplateKey(PDPage originalPage) {
+		PDRectangle mediaBox = originalPage.getMediaBox();
+		return TEMPLATE_KEY_PREFIX + SignatureAppearanceCache.getKey(parameters) + "|" + mediaBox.getLowerLeftX() + "," 
+				+ mediaBox.getLowerLeftY() + "," + mediaBox.getUpperRightX() + "," + mediaBox.getUpperRightY() + "|" + originalPage.getRotation();
+	}
+	
+	/**
+	 * Builds the PDF document containing the signature field with its appearance
+	 * 
+	 * @param originalPage
+	 *		{@link PDPage} of the signed document to place the signature on
+	 * @return the binaries of the built template
+	 * @throws IOException
+	 *		in case of error
+	 */
+	private byte[] buildTemplate(PDPage originalPage) throws IOException {
+		if (parameters.getTextParameters() != null) {
+			this.pdFont = initFont();
+		}
 		try (PDDocument doc = new PDDocument(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
 			
-			PDPage originalPage = document.getPage(parameters.getPage() - 1);
 			SignatureFieldDimensionAndPositionBuilder dimensionAndPositionBuilder = new SignatureFieldDimensionAndPositionBuilder(parameters, originalPage);
 			SignatureFieldDimensionAndPosition dimensionAndPosition = dimensionAndPositionBuilder.build();
 			// create a new page
@@ -140,12 +173,7 @@ public class NativePdfBoxVisibleSignatureDrawer extends AbstractPdfBoxSignatureD
             
             doc.save(baos);
             
-            try (ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray()))
-            {
-        		signatureOptions.setVisualSignature(bais);
-        		signatureOptions.setPage(parameters.getPage() - 1);
-            }
-            
+            return baos.toByteArray();
         }
 	}
 	
@@ -381,12 +409,21 @@ public class NativePdfBoxVisibleSignatureDrawer extends AbstractPdfBoxSignatureD
 
 	@Override
 	protected String getColorSpaceName(DSSDocument image) throws IOException {
-		try (InputStream is = image.openStream()) {
-			byte[] bytes = IOUtils.toByteArray(is);
-			PDImageXObject imageXObject = PDImageXObject.createFromByteArray(document, bytes, image.getName());
-			PDColorSpace colorSpace = imageXObject.getColorSpace();
-			return colorSpace.getName();
+		SignatureAppearanceCache cache = SignatureAppearanceCache.getInstance();
+		String key = cache.isEnabled() ? COLOR_SPACE_KEY_PREFIX + SignatureAppearanceCache.getKey(image) : null;
+		String colorSpaceName = key != null ? cache.get(key, String.class) : null;
+		if (colorSpaceName == null) {
+			try (InputStream is = image.openStream()) {
+				byte[] bytes = IOUtils.toByteArray(is);
+				PDImageXObject imageXObject = PDImageXObject.createFromByteArray(document, bytes, image.getName());
+				PDColorSpace colorSpace = imageXObject.getColorSpace();
+				colorSpaceName = colorSpace.getName();
+			}
+			if (key != null) {
+				colorSpaceName = cache.put(key, colorSpaceName);
+			}
 		}
+		return colorSpaceName;
 	}
 
 }
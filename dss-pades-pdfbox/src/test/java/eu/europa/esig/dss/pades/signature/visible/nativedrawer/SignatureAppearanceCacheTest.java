@@ -0,0 +1,158 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pades.signature.visible.nativedrawer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.util.Date;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.diagnostic.DiagnosticData;
+import eu.europa.esig.dss.enumerations.SignatureLevel;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import eu.europa.esig.dss.model.MimeType;
+import eu.europa.esig.dss.model.SignatureValue;
+import eu.europa.esig.dss.model.ToBeSigned;
+import eu.europa.esig.dss.pades.DSSFileFont;
+import eu.europa.esig.dss.pades.PAdESSignatureParameters;
+import eu.europa.esig.dss.pades.SignatureImageParameters;
+import eu.europa.esig.dss.pades.SignatureImageTextParameters;
+import eu.europa.esig.dss.pades.signature.PAdESService;
+import eu.europa.esig.dss.pdf.pdfbox.PdfBoxNativeObjectFactory;
+import eu.europa.esig.dss.pdf.visible.SignatureAppearanceCache;
+import eu.europa.esig.dss.test.signature.PKIFactoryAccess;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+public class SignatureAppearanceCacheTest extends PKIFactoryAccess {
+
+	private PAdESService service;
+	private DSSDocument documentToSign;
+
+	@BeforeEach
+	public void init() {
+		documentToSign = new InMemoryDocument(getClass().getResourceAsStream("/sample.pdf"));
+
+		service = new PAdESService(getCompleteCertificateVerifier());
+		service.setPdfObjFactory(new PdfBoxNativeObjectFactory());
+
+		SignatureAppearanceCache.getInstance().clear();
+		SignatureAppearanceCache.getInstance().setEnabled(true);
+	}
+
+	@AfterEach
+	public void reset() {
+		SignatureAppearanceCache.getInstance().setEnabled(false);
+	}
+
+	@Test
+	public void appearanceIsReused() {
+		signAndValidate(getImageParameters("My signature"));
+		int size = SignatureAppearanceCache.getInstance().size();
+		assertTrue(size > 0);
+
+		// same content within new instances
+		signAndValidate(getImageParameters("My signature"));
+		assertEquals(size, SignatureAppearanceCache.getInstance().size());
+
+		// only a new template is built, the image resources are reused
+		signAndValidate(getImageParameters("Another signature"));
+		assertEquals(size + 1, SignatureAppearanceCache.getInstance().size());
+	}
+
+	@Test
+	public void disabledCache() {
+		SignatureAppearanceCache.getInstance().setEnabled(false);
+		signAndValidate(getImageParameters("My signature"));
+		assertEquals(0, SignatureAppearanceCache.getInstance().size());
+	}
+
+	@Test
+	public void keys() {
+		String key = SignatureAppearanceCache.getKey(getImageParameters("My signature"));
+		assertEquals(key, SignatureAppearanceCache.getKey(getImageParameters("My signature")));
+		assertNotEquals(key, SignatureAppearanceCache.getKey(getImageParameters("Another signature")));
+
+		SignatureImageParameters imageParameters = getImageParameters("My signature");
+		imageParameters.setBackgroundColor(Color.RED);
+		assertNotEquals(key, SignatureAppearanceCache.getKey(imageParameters));
+
+		imageParameters = getImageParameters("My signature");
+		imageParameters.setImage(new InMemoryDocument(getClass().getResourceAsStream("/signature-image.png"), "signature-image.png", MimeType.PNG));
+		assertNotEquals(key, SignatureAppearanceCache.getKey(imageParameters));
+	}
+
+	@Test
+	public void fontKeys() {
+		DSSFileFont font = DSSFileFont.initializeDefault();
+		String key = SignatureAppearanceCache.getKey(font);
+		assertEquals(key, SignatureAppearanceCache.getKey(font));
+		assertEquals(key, SignatureAppearanceCache.getKey(DSSFileFont.initializeDefault()));
+
+		font.setSize(20);
+		assertNotEquals(key, SignatureAppearanceCache.getKey(font));
+	}
+
+	private SignatureImageParameters getImageParameters(String text) {
+		SignatureImageParameters imageParameters = new SignatureImageParameters();
+		imageParameters.setImage(new InMemoryDocument(getClass().getResourceAsStream("/small-red.jpg"), "small-red.jpg", MimeType.JPEG));
+		imageParameters.setxAxis(100);
+		imageParameters.setyAxis(100);
+		SignatureImageTextParameters textParameters = new SignatureImageTextParameters();
+		textParameters.setText(text);
+		textParameters.setTextColor(Color.BLUE);
+		imageParameters.setTextParameters(textParameters);
+		return imageParameters;
+	}
+
+	private void signAndValidate(SignatureImageParameters imageParameters) {
+		PAdESSignatureParameters signatureParameters = new PAdESSignatureParameters();
+		signatureParameters.bLevel().setSigningDate(new Date());
+		signatureParameters.setSigningCertificate(getSigningCert());
+		signatureParameters.setCertificateChain(getCertificateChain());
+		signatureParameters.setSignatureLevel(SignatureLevel.PAdES_BASELINE_B);
+		signatureParameters.setImageParameters(imageParameters);
+
+		ToBeSigned dataToSign = service.getDataToSign(documentToSign, signatureParameters);
+		SignatureValue signatureValue = getToken().sign(dataToSign, signatureParameters.getDigestAlgorithm(), getPrivateKeyEntry());
+		DSSDocument signedDocument = service.signDocument(documentToSign, signatureParameters, signatureValue);
+
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(signedDocument);
+		validator.setCertificateVerifier(getCompleteCertificateVerifier());
+		Reports reports = validator.validateDocument();
+
+		DiagnosticData diagnosticData = reports.getDiagnosticData();
+		assertTrue(diagnosticData.isBLevelTechnicallyValid(diagnosticData.getFirstSignatureId()));
+	}
+
+	@Override
+	protected String getSigningAlias() {
+		return GOOD_USER;
+	}
+
+}
@@ -25,6 +25,7 @@ import java.awt.FontFormatException;
 import java.io.IOException;
 import java.io.InputStream;
 
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.model.DSSDocument;
 import eu.europa.esig.dss.model.DSSException;
 import eu.europa.esig.dss.model.InMemoryDocument;
@@ -41,6 +42,9 @@ public class DSSFileFont extends AbstractDSSFont {
 	
 	private DSSDocument fileFont;
 	
+	/* SHA-256 digest of the font file, computed on first use */
+	private String digest;
+	
 	public static DSSFileFont initializeDefault() {
 		return new DSSFileFont(DEFAULT_FONT);
 	}
@@ -85,6 +89,19 @@ public class DSSFileFont extends AbstractDSSFont {
 		return fileFont.getName();
 	}
 
+	/**
+	 * Returns the base64 encoded SHA-256 digest of the font file. The digest is
+	 * computed only once per instance.
+	 * 
+	 * @return the digest of the font file
+	 */
+	public String getDigest() {
+		if (digest == null) {
+			digest = fileFont.getDigest(DigestAlgorithm.SHA256);
+		}
+		return digest;
+	}
+
 	@Override
 	public void setSize(float size) {
 		this.size = size;
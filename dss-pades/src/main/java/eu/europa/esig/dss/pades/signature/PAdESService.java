@@ -53,6 +53,7 @@ import eu.europa.esig.dss.pdf.IPdfObjFactory;
 import eu.europa.esig.dss.pdf.PDFSignatureService;
 import eu.europa.esig.dss.pdf.ServiceLoaderPdfObjFactory;
 import eu.europa.esig.dss.signature.AbstractSignatureService;
+import eu.europa.esig.dss.signature.BulkSignatureExtensionService;
 import eu.europa.esig.dss.signature.SignatureExtension;
 import eu.europa.esig.dss.signature.SigningOperation;
 import eu.europa.esig.dss.spi.DSSASN1Utils;
@@ -165,12 +166,19 @@ public class PAdESService extends AbstractSignatureService<PAdESSignatureParamet
 		final SignatureLevel signatureLevel = parameters.getSignatureLevel();
 		final byte[] encodedData = generateCMSSignedData(toSignDocument, parameters, signatureValue);
 
+		final SignatureExtension<PAdESSignatureParameters> extension = getExtensionProfile(signatureLevel);
+		final boolean extend = (signatureLevel != SignatureLevel.PAdES_BASELINE_B) && (signatureLevel != SignatureLevel.PAdES_BASELINE_T)
+				&& (extension != null);
+
 		final PDFSignatureService pdfSignatureService = pdfObjFactory.newPAdESSignatureService();
+		if (!extend) {
+			// the signed document is the final result
+			pdfSignatureService.setDocumentFactory(documentFactory);
+		}
 		DSSDocument signature = pdfSignatureService.sign(toSignDocument, encodedData, parameters);
 
-		final SignatureExtension<PAdESSignatureParameters> extension = getExtensionProfile(signatureLevel);
-		if ((signatureLevel != SignatureLevel.PAdES_BASELINE_B) && (signatureLevel != SignatureLevel.PAdES_BASELINE_T) && (extension != null)) {
-			signature = extension.extendSignatures(signature, parameters);
+		if (extend) {
+			signature = documentFactory.create(extension.extendSignatures(signature, parameters));
 		}
 
 		parameters.reinitDeterministicId();
@@ -204,6 +212,22 @@ public class PAdESService extends AbstractSignatureService<PAdESSignatureParamet
 		return DSSASN1Utils.getDEREncoded(data);
 	}
 
+	/**
+	 * Returns a service which extends a large number of documents in parallel. The
+	 * validation pool and the revocation data are shared between the documents.
+	 * 
+	 * @return a new instance of {@code BulkSignatureExtensionService}
+	 */
+	public BulkSignatureExtensionService<PAdESSignatureParameters, PAdESTimestampParameters> getBulkExtensionService() {
+		return new BulkSignatureExtensionService<>(certificateVerifier, verifier -> {
+			PAdESService service = new PAdESService(verifier);
+			service.setTspSource(tspSource);
+			service.setPdfObjFactory(pdfObjFactory);
+			service.setDocumentFactory(documentFactory);
+			return service;
+		});
+	}
+
 	@Override
 	public DSSDocument extendDocument(final DSSDocument toExtendDocument, final PAdESSignatureParameters parameters) throws DSSException {
 		Objects.requireNonNull(toExtendDocument, "toExtendDocument is not defined!");
@@ -214,7 +238,7 @@ public class PAdESService extends AbstractSignatureService<PAdESSignatureParamet
 		
 		final SignatureExtension<PAdESSignatureParameters> extension = getExtensionProfile(parameters.getSignatureLevel());
 		if (extension != null) {
-			DSSDocument extended = extension.extendSignatures(toExtendDocument, parameters);
+			DSSDocument extended = documentFactory.create(extension.extendSignatures(toExtendDocument, parameters));
 			extended.setName(getFinalFileName(toExtendDocument, SigningOperation.EXTEND, parameters.getSignatureLevel()));
 			return extended;
 		}
@@ -249,7 +273,9 @@ public class PAdESService extends AbstractSignatureService<PAdESSignatureParamet
 
 	@Override
 	public DSSDocument timestamp(DSSDocument toTimestampDocument, PAdESTimestampParameters parameters) {
-		PAdESTimestampService timestampService = new PAdESTimestampService(tspSource, pdfObjFactory.newSignatureTimestampService());
+		PDFSignatureService pdfSignatureService = pdfObjFactory.newSignatureTimestampService();
+		pdfSignatureService.setDocumentFactory(documentFactory);
+		PAdESTimestampService timestampService = new PAdESTimestampService(tspSource, pdfSignatureService);
 		DSSDocument timestampedDocument = timestampService.timestampDocument(toTimestampDocument, parameters);
 		timestampedDocument.setName(getFinalFileName(toTimestampDocument, SigningOperation.TIMESTAMP, null));
 		return timestampedDocument;
@@ -27,6 +27,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -190,6 +191,12 @@ public class PAdESSignature extends CAdESSignature {
 		return Collections.emptyList();
 	}
 
+	@Override
+	public Set<DigestAlgorithm> getDetachedContentsDigestAlgorithms() {
+		/* Not applicable for PAdES (the signed content is extracted from the PDF) */
+		return Collections.emptySet();
+	}
+
 	@Override
 	public List<CertificateRef> getCertificateRefs() {
 		List<CertificateRef> refs = new ArrayList<>();
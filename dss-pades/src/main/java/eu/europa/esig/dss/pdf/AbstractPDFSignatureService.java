@@ -29,6 +29,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 
 import org.bouncycastle.cert.ocsp.BasicOCSPResp;
 import org.bouncycastle.cert.ocsp.OCSPResp;
@@ -37,7 +38,9 @@ import org.slf4j.LoggerFactory;
 
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DSSDocumentFactory;
 import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.InMemoryDocumentFactory;
 import eu.europa.esig.dss.model.x509.CertificateToken;
 import eu.europa.esig.dss.model.x509.Token;
 import eu.europa.esig.dss.pades.PAdESSignatureParameters;
@@ -56,6 +59,8 @@ public abstract class AbstractPDFSignatureService implements PDFSignatureService
 	protected final PDFServiceMode serviceMode;
 	protected final SignatureDrawerFactory signatureDrawerFactory;
 
+	protected DSSDocumentFactory documentFactory = new InMemoryDocumentFactory();
+
 	/**
 	 * Constructor for the PDFSignatureService
 	 * 
@@ -70,6 +75,12 @@ public abstract class AbstractPDFSignatureService implements PDFSignatureService
 		this.signatureDrawerFactory = signatureDrawerFactory;
 	}
 
+	@Override
+	public void setDocumentFactory(DSSDocumentFactory documentFactory) {
+		Objects.requireNonNull(documentFactory, "DocumentFactory cannot be null");
+		this.documentFactory = documentFactory;
+	}
+
 	protected boolean isDocumentTimestampLayer() {
 		// CONTENT_TIMESTAMP is part of the signature
 		return PDFServiceMode.SIGNATURE_TIMESTAMP == serviceMode || PDFServiceMode.ARCHIVE_TIMESTAMP == serviceMode;
@@ -23,6 +23,7 @@ package eu.europa.esig.dss.pdf;
 import java.util.List;
 
 import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DSSDocumentFactory;
 import eu.europa.esig.dss.model.DSSException;
 import eu.europa.esig.dss.pades.PAdESCommonParameters;
 import eu.europa.esig.dss.pades.SignatureFieldParameters;
@@ -109,4 +110,13 @@ public interface PDFSignatureService {
 	 */
 	DSSDocument addNewSignatureField(DSSDocument document, SignatureFieldParameters parameters);
 
+	/**
+	 * Sets the factory which creates the documents returned by {@link #sign(DSSDocument, byte[], PAdESCommonParameters)}
+	 * and {@link #addDssDictionary(DSSDocument, List)} (in memory by default)
+	 * 
+	 * @param documentFactory
+	 *            the {@link DSSDocumentFactory} to be used
+	 */
+	void setDocumentFactory(DSSDocumentFactory documentFactory);
+
 }
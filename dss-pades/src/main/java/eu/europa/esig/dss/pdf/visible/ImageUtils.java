@@ -63,6 +63,10 @@ public class ImageUtils {
 	
 	private static final int DEFAULT_DPI = 96;
 
+	private static final String METADATA_KEY_PREFIX = "image-metadata:";
+
+	private static final String DIMENSION_KEY_PREFIX = "image-dimension:";
+
 	static {
 		int[] imageAlphaTypes = new int[] { BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_4BYTE_ABGR_PRE, BufferedImage.TYPE_INT_ARGB,
 				BufferedImage.TYPE_INT_ARGB_PRE };
@@ -139,12 +143,26 @@ public class ImageUtils {
 	 * @throws IOException in case of image reading error
 	 */
 	public static ImageAndResolution readDisplayMetadata(DSSDocument image) throws IOException {
+		SignatureAppearanceCache cache = SignatureAppearanceCache.getInstance();
+		String key = cache.isEnabled() ? METADATA_KEY_PREFIX + SignatureAppearanceCache.getKey(image) : null;
+		if (key != null) {
+			ImageAndResolution cached = cache.get(key, ImageAndResolution.class);
+			if (cached != null) {
+				return new ImageAndResolution(image, cached.getxDpi(), cached.getyDpi());
+			}
+		}
+		ImageAndResolution imageAndResolution;
 		if (isImageWithContentType(image, MimeType.JPEG)) {
-			return readAndDisplayMetadataJPEG(image);
+			imageAndResolution = readAndDisplayMetadataJPEG(image);
 		} else if (isImageWithContentType(image, MimeType.PNG)) {
-			return readAndDisplayMetadataPNG(image);
+			imageAndResolution = readAndDisplayMetadataPNG(image);
+		} else {
+			throw new DSSException("Unsupported image type");
 		}
-		throw new DSSException("Unsupported image type");
+		if (key != null) {
+			cache.put(key, imageAndResolution);
+		}
+		return imageAndResolution;
 	}
 
 	private static boolean isImageWithContentType(DSSDocument image, MimeType expectedContentType) {
@@ -254,11 +272,9 @@ public class ImageUtils {
 			try {
 				DSSDocument docImage = imageParameters.getImage();
 				if (docImage != null) {
-					try (InputStream is = docImage.openStream()) {
-						BufferedImage bufferedImage = read(is);
-						width = bufferedImage.getWidth();
-						height = bufferedImage.getHeight();
-					}
+					Dimension imageDimension = readImageDimension(docImage);
+					width = (float) imageDimension.getWidth();
+					height = (float) imageDimension.getHeight();
 				}
 			} catch (IOException e) {
 				LOG.error("Cannot read the given image", e);
@@ -269,6 +285,26 @@ public class ImageUtils {
 		return dimension;
 	}
 	
+	private static Dimension readImageDimension(DSSDocument image) throws IOException {
+		SignatureAppearanceCache cache = SignatureAppearanceCache.getInstance();
+		String key = cache.isEnabled() ? DIMENSION_KEY_PREFIX + SignatureAppearanceCache.getKey(image) : null;
+		if (key != null) {
+			Dimension cached = cache.get(key, Dimension.class);
+			if (cached != null) {
+				return new Dimension(cached);
+			}
+		}
+		Dimension dimension;
+		try (InputStream is = image.openStream()) {
+			BufferedImage bufferedImage = read(is);
+			dimension = new Dimension(bufferedImage.getWidth(), bufferedImage.getHeight());
+		}
+		if (key != null) {
+			cache.put(key, new Dimension(dimension));
+		}
+		return dimension;
+	}
+
 	/**
 	 * Reads image from InputStream. Detects and converts CMYK images to RGB if needed
 	 * @param is {@link InputStream} to read the image from
@@ -0,0 +1,280 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pdf.visible;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.pades.DSSFileFont;
+import eu.europa.esig.dss.pades.DSSFont;
+import eu.europa.esig.dss.pades.SignatureImageParameters;
+import eu.europa.esig.dss.pades.SignatureImageTextParameters;
+
+/**
+ * This class keeps a process-wide, size-bounded cache of the resources used to
+ * draw visible signatures (decoded image metadata, parsed fonts, prebuilt
+ * appearance templates,...).
+ * 
+ * When the same image and text layout are applied to a lot of documents, the
+ * fonts and the images are parsed only once and the appearances built for an
+ * equivalent {@code SignatureImageParameters} are reused. The keys are computed
+ * from the content of the parameters (digest of the image and of the font file),
+ * not from the instances.
+ * 
+ * The least recently used entries are evicted when the maximum size is reached.
+ * 
+ * The cache is intended for bulk stamping : it is disabled by default and needs
+ * to be enabled with {@link #setEnabled(boolean)}.
+ */
+public final class SignatureAppearanceCache {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SignatureAppearanceCache.class);
+
+	private static final int DEFAULT_MAX_SIZE = 100;
+
+	private static final String SEPARATOR = "|";
+
+	private static final String EMPTY = "-";
+
+	private static final SignatureAppearanceCache INSTANCE = new SignatureAppearanceCache(DEFAULT_MAX_SIZE);
+
+	private final Map<String, Object> entries;
+
+	private volatile int maxSize;
+
+	private volatile boolean enabled = false;
+
+	private SignatureAppearanceCache(int maxSize) {
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<String, Object>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = -2384937203826475021L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+				return size() > SignatureAppearanceCache.this.maxSize;
+			}
+
+		};
+	}
+
+	/**
+	 * Returns the process-wide instance
+	 * 
+	 * @return the {@code SignatureAppearanceCache}
+	 */
+	public static SignatureAppearanceCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Sets the maximum number of kept entries (default : 100)
+	 * 
+	 * @param maxSize
+	 *                the maximum number of entries
+	 */
+	public void setMaxSize(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("The maximum size must be positive");
+		}
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Enables/disables the cache (disabled by default : the resources are computed
+	 * for each signature)
+	 * 
+	 * @param enabled
+	 *                true to reuse the computed resources
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		if (!enabled) {
+			clear();
+		}
+	}
+
+	/**
+	 * Returns true if the cache is enabled
+	 * 
+	 * @return true if the resources are reused
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Returns the cached value for the given key
+	 * 
+	 * @param key
+	 *              the key of the entry
+	 * @param clazz
+	 *              the expected type of the value
+	 * @return the cached value or null
+	 */
+	public <T> T get(String key, Class<T> clazz) {
+		Objects.requireNonNull(key, "The key must be defined");
+		if (!enabled) {
+			return null;
+		}
+		Object value;
+		synchronized (entries) {
+			value = entries.get(key);
+		}
+		if (clazz.isInstance(value)) {
+			LOG.trace("Appearance resource '{}' reused", key);
+			return clazz.cast(value);
+		}
+		return null;
+	}
+
+	/**
+	 * Stores the value for the given key and returns the kept value (the
+	 * previously stored one in case of concurrent computation)
+	 * 
+	 * @param key
+	 *              the key of the entry
+	 * @param value
+	 *              the value to store
+	 * @return the kept value
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T put(String key, T value) {
+		Objects.requireNonNull(key, "The key must be defined");
+		Objects.requireNonNull(value, "The value must be defined");
+		if (!enabled) {
+			return value;
+		}
+		synchronized (entries) {
+			Object existing = entries.get(key);
+			if (existing != null && existing.getClass().equals(value.getClass())) {
+				// concurrently added
+				return (T) existing;
+			}
+			entries.put(key, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the number of kept entries
+	 * 
+	 * @return the number of entries
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * Removes all the kept entries
+	 */
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	/**
+	 * Returns a key identifying the content of the given parameters : two
+	 * parameters with the same key produce the same visible signature
+	 * 
+	 * @param parameters
+	 *                   {@link SignatureImageParameters}
+	 * @return the key
+	 */
+	public static String getKey(SignatureImageParameters parameters) {
+		Objects.requireNonNull(parameters, "The image parameters must be defined");
+		StringBuilder sb = new StringBuilder();
+		sb.append(parameters.getImage() != null ? getKey(parameters.getImage()) : EMPTY).append(SEPARATOR);
+		sb.append(parameters.getPage()).append(SEPARATOR);
+		sb.append(parameters.getxAxis()).append(SEPARATOR);
+		sb.append(parameters.getyAxis()).append(SEPARATOR);
+		sb.append(parameters.getWidth()).append(SEPARATOR);
+		sb.append(parameters.getHeight()).append(SEPARATOR);
+		sb.append(parameters.getZoom()).append(SEPARATOR);
+		sb.append(getKey(parameters.getBackgroundColor())).append(SEPARATOR);
+		sb.append(parameters.getDpi()).append(SEPARATOR);
+		sb.append(parameters.getRotation()).append(SEPARATOR);
+		sb.append(parameters.getVisualSignatureAlignmentHorizontal()).append(SEPARATOR);
+		sb.append(parameters.getVisualSignatureAlignmentVertical());
+		SignatureImageTextParameters textParameters = parameters.getTextParameters();
+		if (textParameters != null) {
+			sb.append(SEPARATOR);
+			sb.append(textParameters.getSignerTextPosition()).append(SEPARATOR);
+			sb.append(textParameters.getSignerTextVerticalAlignment()).append(SEPARATOR);
+			sb.append(textParameters.getSignerTextHorizontalAlignment()).append(SEPARATOR);
+			sb.append(getKey(textParameters.getFont())).append(SEPARATOR);
+			sb.append(textParameters.getPadding()).append(SEPARATOR);
+			sb.append(getKey(textParameters.getTextColor())).append(SEPARATOR);
+			sb.append(getKey(textParameters.getBackgroundColor())).append(SEPARATOR);
+			sb.append(textParameters.getText());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Returns a key identifying the content of the given image
+	 * 
+	 * @param image
+	 *              {@link DSSDocument} image
+	 * @return the key
+	 */
+	public static String getKey(DSSDocument image) {
+		Objects.requireNonNull(image, "The image must be defined");
+		return image.getDigest(DigestAlgorithm.SHA256);
+	}
+
+	/**
+	 * Returns a key identifying the given font and its size. The digest of a font
+	 * file is computed once per {@code DSSFileFont} instance.
+	 * 
+	 * @param dssFont
+	 *                {@link DSSFont}
+	 * @return the key
+	 */
+	public static String getKey(DSSFont dssFont) {
+		Objects.requireNonNull(dssFont, "The font must be defined");
+		StringBuilder sb = new StringBuilder();
+		if (dssFont instanceof DSSFileFont) {
+			sb.append(((DSSFileFont) dssFont).getDigest());
+		} else {
+			Font javaFont = dssFont.getJavaFont();
+			sb.append(javaFont.getName()).append(SEPARATOR).append(javaFont.getStyle());
+		}
+		sb.append(SEPARATOR).append(dssFont.getSize());
+		return sb.toString();
+	}
+
+	private static String getKey(Color color) {
+		return color != null ? String.valueOf(color.getRGB()) : EMPTY;
+	}
+
+}
@@ -0,0 +1,122 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pades.extension.suite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.diagnostic.DiagnosticData;
+import eu.europa.esig.dss.enumerations.SignatureLevel;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import eu.europa.esig.dss.model.MimeType;
+import eu.europa.esig.dss.model.SignatureValue;
+import eu.europa.esig.dss.model.ToBeSigned;
+import eu.europa.esig.dss.pades.PAdESSignatureParameters;
+import eu.europa.esig.dss.pades.PAdESTimestampParameters;
+import eu.europa.esig.dss.pades.signature.PAdESService;
+import eu.europa.esig.dss.signature.BulkExtensionListener;
+import eu.europa.esig.dss.signature.BulkExtensionSummary;
+import eu.europa.esig.dss.signature.BulkSignatureExtensionService;
+import eu.europa.esig.dss.test.signature.PKIFactoryAccess;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+public class PAdESBulkExtensionTest extends PKIFactoryAccess {
+
+	@Test
+	public void test() {
+		PAdESService service = new PAdESService(getCompleteCertificateVerifier());
+		service.setTspSource(getGoodTsa());
+
+		List<DSSDocument> toExtendDocuments = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			toExtendDocuments.add(sign(service, new InMemoryDocument(PAdESBulkExtensionTest.class.getResourceAsStream("/sample.pdf"), "sample-" + i + ".pdf", MimeType.PDF)));
+		}
+		toExtendDocuments.add(new InMemoryDocument("Not a signature".getBytes()));
+
+		service.setTspSource(getAlternateGoodTsa());
+		BulkSignatureExtensionService<PAdESSignatureParameters, PAdESTimestampParameters> bulkService = service.getBulkExtensionService();
+		bulkService.setParallelism(3);
+		// the shared validation data is released every 2 documents
+		bulkService.setChunkSize(2);
+
+		final Map<Integer, DSSDocument> extendedDocuments = new HashMap<>();
+		final List<Integer> failures = new ArrayList<>();
+		BulkExtensionSummary summary = bulkService.extendDocuments(toExtendDocuments, doc -> {
+			PAdESSignatureParameters extensionParameters = new PAdESSignatureParameters();
+			extensionParameters.setSignatureLevel(SignatureLevel.PAdES_BASELINE_LT);
+			return extensionParameters;
+		}, new BulkExtensionListener() {
+
+			@Override
+			public void onExtended(int index, DSSDocument toExtendDocument, DSSDocument extendedDocument) {
+				extendedDocuments.put(index, extendedDocument);
+			}
+
+			@Override
+			public void onFailure(int index, DSSDocument toExtendDocument, Exception exception) {
+				failures.add(index);
+			}
+
+		});
+
+		assertEquals(6, summary.getNumberOfProcessedDocuments());
+		assertEquals(5, summary.getNumberOfExtendedDocuments());
+		assertEquals(1, summary.getNumberOfFailures());
+		assertEquals(5, extendedDocuments.size());
+		assertEquals(1, failures.size());
+		assertEquals(Integer.valueOf(5), failures.get(0));
+
+		for (DSSDocument extendedDocument : extendedDocuments.values()) {
+			SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(extendedDocument);
+			validator.setCertificateVerifier(getOfflineCertificateVerifier());
+			Reports reports = validator.validateDocument();
+			DiagnosticData diagnosticData = reports.getDiagnosticData();
+			assertNotNull(diagnosticData);
+			assertEquals(SignatureLevel.PAdES_BASELINE_LT, diagnosticData.getFirstSignatureFormat());
+		}
+	}
+
+	private DSSDocument sign(PAdESService service, DSSDocument toSignDocument) {
+		PAdESSignatureParameters signatureParameters = new PAdESSignatureParameters();
+		signatureParameters.setSigningCertificate(getSigningCert());
+		signatureParameters.setCertificateChain(getCertificateChain());
+		signatureParameters.setSignatureLevel(SignatureLevel.PAdES_BASELINE_T);
+
+		ToBeSigned dataToSign = service.getDataToSign(toSignDocument, signatureParameters);
+		SignatureValue signatureValue = getToken().sign(dataToSign, signatureParameters.getDigestAlgorithm(), getPrivateKeyEntry());
+		return service.signDocument(toSignDocument, signatureParameters, signatureValue);
+	}
+
+	@Override
+	protected String getSigningAlias() {
+		return GOOD_USER;
+	}
+
+}
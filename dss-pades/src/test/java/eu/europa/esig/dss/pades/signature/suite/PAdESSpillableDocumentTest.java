@@ -0,0 +1,126 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pades.signature.suite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import eu.europa.esig.dss.diagnostic.DiagnosticData;
+import eu.europa.esig.dss.enumerations.SignatureLevel;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import eu.europa.esig.dss.model.SignatureValue;
+import eu.europa.esig.dss.model.SpillableDocument;
+import eu.europa.esig.dss.model.SpillableDocumentFactory;
+import eu.europa.esig.dss.model.ToBeSigned;
+import eu.europa.esig.dss.pades.PAdESSignatureParameters;
+import eu.europa.esig.dss.pades.PAdESTimestampParameters;
+import eu.europa.esig.dss.pades.signature.PAdESService;
+import eu.europa.esig.dss.test.signature.PKIFactoryAccess;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+
+public class PAdESSpillableDocumentTest extends PKIFactoryAccess {
+
+	@TempDir
+	File tempDir;
+
+	private DSSDocument documentToSign;
+
+	@BeforeEach
+	public void init() {
+		documentToSign = new InMemoryDocument(PAdESSpillableDocumentTest.class.getResourceAsStream("/sample.pdf"));
+	}
+
+	@Test
+	public void signedDocumentInTemporaryFile() {
+		PAdESSignatureParameters parameters = new PAdESSignatureParameters();
+		parameters.setSigningCertificate(getSigningCert());
+		parameters.setCertificateChain(getCertificateChain());
+		parameters.setSignatureLevel(SignatureLevel.PAdES_BASELINE_B);
+
+		PAdESService service = new PAdESService(getCompleteCertificateVerifier());
+		try (SpillableDocumentFactory factory = new SpillableDocumentFactory(0, tempDir)) {
+			service.setDocumentFactory(factory);
+
+			ToBeSigned dataToSign = service.getDataToSign(documentToSign, parameters);
+			SignatureValue signatureValue = getToken().sign(dataToSign, parameters.getDigestAlgorithm(), getPrivateKeyEntry());
+			DSSDocument signedDocument = service.signDocument(documentToSign, parameters, signatureValue);
+
+			SpillableDocument spillableDocument = assertSpilled(signedDocument);
+
+			DiagnosticData diagnosticData = validate(spillableDocument);
+			assertEquals(SignatureLevel.PAdES_BASELINE_B, diagnosticData.getFirstSignatureFormat());
+			assertTrue(diagnosticData.getSignatureById(diagnosticData.getFirstSignatureId()).isSignatureIntact());
+			assertTrue(diagnosticData.getSignatureById(diagnosticData.getFirstSignatureId()).isSignatureValid());
+
+			spillableDocument.close();
+			assertEquals(0, tempDir.listFiles().length);
+			assertEquals(0, factory.getOpenFileCount());
+		}
+	}
+
+	@Test
+	public void timestampedDocumentInTemporaryFile() {
+		PAdESService service = new PAdESService(getCompleteCertificateVerifier());
+		service.setTspSource(getGoodTsa());
+		try (SpillableDocumentFactory factory = new SpillableDocumentFactory(0, tempDir)) {
+			service.setDocumentFactory(factory);
+
+			DSSDocument timestampedDocument = service.timestamp(documentToSign, new PAdESTimestampParameters());
+
+			SpillableDocument spillableDocument = assertSpilled(timestampedDocument);
+
+			DiagnosticData diagnosticData = validate(spillableDocument);
+			assertEquals(1, diagnosticData.getTimestampList().size());
+
+			spillableDocument.close();
+			assertEquals(0, tempDir.listFiles().length);
+			assertEquals(0, factory.getOpenFileCount());
+		}
+	}
+
+	private SpillableDocument assertSpilled(DSSDocument document) {
+		assertTrue(document instanceof SpillableDocument);
+		SpillableDocument spillableDocument = (SpillableDocument) document;
+		assertFalse(spillableDocument.isInMemory());
+		assertEquals(1, tempDir.listFiles().length);
+		return spillableDocument;
+	}
+
+	private DiagnosticData validate(DSSDocument document) {
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(document);
+		validator.setCertificateVerifier(getOfflineCertificateVerifier());
+		return validator.validateDocument().getDiagnosticData();
+	}
+
+	@Override
+	protected String getSigningAlias() {
+		return GOOD_USER;
+	}
+
+}
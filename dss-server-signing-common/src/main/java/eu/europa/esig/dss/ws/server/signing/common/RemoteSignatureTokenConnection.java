@@ -119,4 +119,33 @@ public interface RemoteSignatureTokenConnection {
 	 */
 	SignatureValueDTO signDigest(DigestDTO digest, MaskGenerationFunction mgf, String alias) throws DSSException;
 
+	/**
+	 * This method signs all the {@code digests} with the given {@code alias}.
+	 * 
+	 * @param digests
+	 *                The list of digested data that need to be signed
+	 * @param alias
+	 *                The key alias to be used
+	 * @return the signature values, in the same order as the {@code digests}
+	 * @throws DSSException
+	 *                      If there is any problem during the signature process
+	 */
+	List<SignatureValueDTO> signDigests(List<DigestDTO> digests, String alias) throws DSSException;
+
+	/**
+	 * This method signs all the {@code digests} with a mask {@code mgf} and the
+	 * given {@code alias}.
+	 * 
+	 * @param digests
+	 *                The list of digested data that need to be signed
+	 * @param mgf
+	 *                the mask generation function
+	 * @param alias
+	 *                The key alias to be used
+	 * @return the signature values, in the same order as the {@code digests}
+	 * @throws DSSException
+	 *                      If there is any problem during the signature process
+	 */
+	List<SignatureValueDTO> signDigests(List<DigestDTO> digests, MaskGenerationFunction mgf, String alias) throws DSSException;
+
 }
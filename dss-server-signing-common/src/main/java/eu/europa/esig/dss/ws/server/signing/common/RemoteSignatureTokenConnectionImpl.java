@@ -22,6 +22,10 @@ package eu.europa.esig.dss.ws.server.signing.common;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.enumerations.MaskGenerationFunction;
@@ -42,10 +46,24 @@ public class RemoteSignatureTokenConnectionImpl implements RemoteSignatureTokenC
 
 	private AbstractKeyStoreTokenConnection token;
 
+	private ExecutorService executorService;
+
 	public void setToken(AbstractKeyStoreTokenConnection token) {
 		this.token = token;
 	}
 
+	/**
+	 * Sets the executor service used to sign the digests of a batch in parallel.
+	 * If not defined, the digests are signed sequentially. The token must support
+	 * concurrent signatures. The executor service is not shutdown by this class.
+	 * 
+	 * @param executorService
+	 *                        the {@code ExecutorService} to use
+	 */
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
 	@Override
 	public List<RemoteKeyEntry> getKeys() throws DSSException {
 		List<RemoteKeyEntry> result = new ArrayList<>();
@@ -84,6 +102,56 @@ public class RemoteSignatureTokenConnectionImpl implements RemoteSignatureTokenC
 		return DTOConverter.toSignatureValueDTO(token.signDigest(DTOConverter.toDigest(digest), mgf, key));
 	}
 
+	@Override
+	public List<SignatureValueDTO> signDigests(List<DigestDTO> digests, String alias) throws DSSException {
+		return signDigests(digests, null, alias);
+	}
+
+	@Override
+	public List<SignatureValueDTO> signDigests(List<DigestDTO> digests, MaskGenerationFunction mgf, String alias) throws DSSException {
+		Objects.requireNonNull(digests, "The digests must be defined");
+		// the key is retrieved once for the whole batch
+		final DSSPrivateKeyEntry key = token.getKey(alias);
+		if (key == null) {
+			throw new DSSException(String.format("No key found for alias '%s'", alias));
+		}
+
+		List<SignatureValueDTO> result = new ArrayList<>();
+		if (executorService == null || digests.size() < 2) {
+			for (DigestDTO digest : digests) {
+				result.add(signDigest(digest, mgf, key));
+			}
+			return result;
+		}
+
+		List<Future<SignatureValueDTO>> futures = new ArrayList<>();
+		try {
+			for (DigestDTO digest : digests) {
+				futures.add(executorService.submit(() -> signDigest(digest, mgf, key)));
+			}
+			for (Future<SignatureValueDTO> future : futures) {
+				result.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSException("The batch signature has been interrupted", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof DSSException) {
+				throw (DSSException) e.getCause();
+			}
+			throw new DSSException("Unable to sign the digests", e.getCause());
+		} finally {
+			for (Future<SignatureValueDTO> future : futures) {
+				future.cancel(true);
+			}
+		}
+		return result;
+	}
+
+	private SignatureValueDTO signDigest(DigestDTO digest, MaskGenerationFunction mgf, DSSPrivateKeyEntry key) {
+		return DTOConverter.toSignatureValueDTO(token.signDigest(DTOConverter.toDigest(digest), mgf, key));
+	}
+
 	private RemoteKeyEntry convert(KSPrivateKeyEntry key) {
 		if (key == null) {
 			return null;
@@ -20,18 +20,26 @@
  */
 package eu.europa.esig.dss.token;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.security.KeyStore.PasswordProtection;
+import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.jupiter.api.Test;
 
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.ws.dto.DigestDTO;
 import eu.europa.esig.dss.ws.dto.SignatureValueDTO;
 import eu.europa.esig.dss.ws.dto.ToBeSignedDTO;
 import eu.europa.esig.dss.ws.server.signing.common.RemoteSignatureTokenConnectionImpl;
@@ -70,4 +78,44 @@ public class RemoteSignatureTokenConnectionImplTest {
 		assertEquals(SignatureAlgorithm.RSA_SHA256, signatureValue.getAlgorithm());
 	}
 
+	@Test
+	public void testBatchSignDigests() throws Exception {
+
+		Pkcs12SignatureToken serverToken = new Pkcs12SignatureToken("src/test/resources/good-user.p12",
+				new PasswordProtection("ks-password".toCharArray()));
+
+		RemoteSignatureTokenConnectionImpl exposedToken = new RemoteSignatureTokenConnectionImpl();
+		exposedToken.setToken(serverToken);
+
+		String alias = exposedToken.getKeys().get(0).getAlias();
+
+		List<DigestDTO> digests = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			byte[] data = new byte[] { 1, 2, 3, (byte) i };
+			digests.add(new DigestDTO(DigestAlgorithm.SHA256, MessageDigest.getInstance("SHA-256").digest(data)));
+		}
+
+		List<SignatureValueDTO> sequential = exposedToken.signDigests(digests, alias);
+		assertEquals(digests.size(), sequential.size());
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			exposedToken.setExecutorService(executor);
+			List<SignatureValueDTO> parallel = exposedToken.signDigests(digests, alias);
+			assertEquals(digests.size(), parallel.size());
+
+			for (int i = 0; i < digests.size(); i++) {
+				SignatureValueDTO single = exposedToken.signDigest(digests.get(i), alias);
+				assertEquals(SignatureAlgorithm.RSA_SHA256, parallel.get(i).getAlgorithm());
+				// RSA PKCS#1 v1.5 signatures are deterministic : the order is preserved
+				assertArrayEquals(single.getValue(), sequential.get(i).getValue());
+				assertArrayEquals(single.getValue(), parallel.get(i).getValue());
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertThrows(DSSException.class, () -> exposedToken.signDigests(digests, "unknown"));
+	}
+
 }
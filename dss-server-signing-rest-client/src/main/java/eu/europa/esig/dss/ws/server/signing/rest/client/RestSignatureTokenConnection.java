@@ -133,4 +133,35 @@ public interface RestSignatureTokenConnection extends Serializable {
 	@Path("sign-digest/{alias}/{mask}")
 	SignatureValueDTO signDigest(DigestDTO digest, @PathParam("mask") MaskGenerationFunction mgf, @PathParam("alias") String alias);
 
+	/**
+	 * 
+	 * This method signs all the {@code digests} with the given {@code alias}.
+	 * 
+	 * @param digests
+	 *                The list of digested data that need to be signed
+	 * @param alias
+	 *                The key alias to be used
+	 * @return the signature values, in the same order as the {@code digests}
+	 */
+	@POST
+	@Path("sign-digests/{alias}")
+	List<SignatureValueDTO> signDigests(List<DigestDTO> digests, @PathParam("alias") String alias);
+
+	/**
+	 * 
+	 * This method signs all the {@code digests} with a mask {@code mgf} and the
+	 * given {@code alias}.
+	 * 
+	 * @param digests
+	 *                The list of digested data that need to be signed
+	 * @param mgf
+	 *                the mask generation function
+	 * @param alias
+	 *                The key alias to be used
+	 * @return the signature values, in the same order as the {@code digests}
+	 */
+	@POST
+	@Path("sign-digests/{alias}/{mask}")
+	List<SignatureValueDTO> signDigests(List<DigestDTO> digests, @PathParam("mask") MaskGenerationFunction mgf, @PathParam("alias") String alias);
+
 }
@@ -71,4 +71,14 @@ public class RestSignatureTokenConnectionImpl implements RestSignatureTokenConne
 		return token.signDigest(digest, mgf, alias);
 	}
 
+	@Override
+	public List<SignatureValueDTO> signDigests(List<DigestDTO> digests, String alias) throws DSSException {
+		return token.signDigests(digests, alias);
+	}
+
+	@Override
+	public List<SignatureValueDTO> signDigests(List<DigestDTO> digests, MaskGenerationFunction mgf, String alias) throws DSSException {
+		return token.signDigests(digests, mgf, alias);
+	}
+
 }
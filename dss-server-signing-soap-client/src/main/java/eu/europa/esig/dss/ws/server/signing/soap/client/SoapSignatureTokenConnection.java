@@ -130,4 +130,36 @@ public interface SoapSignatureTokenConnection extends Serializable {
 	SignatureValueDTO signDigest(@WebParam(name = "digest") DigestDTO digest, @WebParam(name = "maskGenerationFunction") MaskGenerationFunction mgf,
 			@WebParam(name = "alias") String alias);
 
+	/**
+	 * 
+	 * This method signs all the {@code digests} with the given {@code alias}.
+	 * 
+	 * @param digests
+	 *                The list of digested data that need to be signed
+	 * @param alias
+	 *                The key alias to be used
+	 * @return the signature values, in the same order as the {@code digests}
+	 */
+	@WebMethod(operationName = "signDigests")
+	@WebResult(name = "response")
+	List<SignatureValueDTO> signDigests(@WebParam(name = "digests") List<DigestDTO> digests, @WebParam(name = "alias") String alias);
+
+	/**
+	 * 
+	 * This method signs all the {@code digests} with a mask {@code mgf} and the
+	 * given {@code alias}.
+	 * 
+	 * @param digests
+	 *                The list of digested data that need to be signed
+	 * @param mgf
+	 *                the mask generation function
+	 * @param alias
+	 *                The key alias to be used
+	 * @return the signature values, in the same order as the {@code digests}
+	 */
+	@WebMethod(operationName = "signDigestsWithMask")
+	@WebResult(name = "response")
+	List<SignatureValueDTO> signDigests(@WebParam(name = "digests") List<DigestDTO> digests,
+			@WebParam(name = "maskGenerationFunction") MaskGenerationFunction mgf, @WebParam(name = "alias") String alias);
+
 }
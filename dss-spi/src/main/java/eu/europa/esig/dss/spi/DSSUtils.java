@@ -83,6 +83,7 @@ import eu.europa.esig.dss.model.InMemoryDocument;
 import eu.europa.esig.dss.model.identifier.TokenIdentifier;
 import eu.europa.esig.dss.model.x509.CertificateToken;
 import eu.europa.esig.dss.spi.client.http.DataLoader;
+import eu.europa.esig.dss.spi.x509.AIACertificateCache;
 import eu.europa.esig.dss.utils.Utils;
 
 public final class DSSUtils {
@@ -296,18 +297,30 @@ public final class DSSUtils {
 			LOG.info("There is no AIA extension for certificate download.");
 			return Collections.emptyList();
 		}
+
 		if (loader == null) {
 			LOG.warn("There is no DataLoader defined to load Certificates from AIA extension (urls : {})", urls);
 			return Collections.emptyList();
 		}
 
+		final AIACertificateCache aiaCache = AIACertificateCache.getInstance();
 		for (String url : urls) {
+			List<CertificateToken> cachedCertificates = aiaCache.get(url, cert);
+			if (cachedCertificates != null) {
+				if (Utils.isCollectionNotEmpty(cachedCertificates)) {
+					LOG.debug("Certificate(s) from {} found in the AIA cache", url);
+					return cachedCertificates;
+				}
+				LOG.debug("The download from {} failed recently. Continue with other URLs...", url);
+				continue;
+			}
 			LOG.debug("Loading certificate(s) from {}", url);
 			byte[] bytes = null;
 			try {
 				bytes = loader.get(url);
 			} catch (Exception e) {
 				LOG.warn("Unable to download certificate from '{}': {}", url, e.getMessage());
+				aiaCache.put(url, cert, null);
 				continue;
 			}
 			if (Utils.isArrayNotEmpty(bytes)) {
@@ -315,13 +328,16 @@ public final class DSSUtils {
 					LOG.debug("Base64 content : {}", Utils.toBase64(bytes));
 				}
 				try (InputStream is = new ByteArrayInputStream(bytes)) {
-					return loadCertificates(is);
+					List<CertificateToken> certificates = loadCertificates(is);
+					aiaCache.put(url, cert, certificates);
+					return certificates;
 				} catch (Exception e) {
 					LOG.warn("Unable to parse certificate(s) from AIA (url: {}) : {}", url, e.getMessage());
 				}
 			} else {
 				LOG.warn("Empty content from {}.", url);
 			}
+			aiaCache.put(url, cert, null);
 		}
 
 		return Collections.emptyList();
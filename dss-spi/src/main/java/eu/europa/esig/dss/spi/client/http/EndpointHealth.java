@@ -0,0 +1,140 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.spi.client.http;
+
+import java.io.Serializable;
+
+/**
+ * This class keeps the health statistics of a remote endpoint (TSA, OCSP responder, CRL distribution point,...) : the
+ * average latency and the error rate (exponential moving averages) and the state of its circuit breaker. The circuit
+ * is opened for a cooldown period when the endpoint fails several times in a row.
+ */
+public class EndpointHealth implements Serializable {
+
+	private static final long serialVersionUID = -4515532862516394513L;
+
+	/* Weight of the last sample in the exponential moving averages */
+	private static final double ALPHA = 0.2;
+
+	private final int failureThreshold;
+	private final long cooldown;
+
+	private double averageLatency = -1;
+	private double errorRate;
+	private int consecutiveFailures;
+	private long openUntil;
+
+	/**
+	 * The default constructor
+	 * 
+	 * @param failureThreshold
+	 *                         the number of consecutive failures after which the
+	 *                         circuit is opened
+	 * @param cooldown
+	 *                         the duration (in milliseconds) during which the
+	 *                         circuit stays opened
+	 */
+	public EndpointHealth(int failureThreshold, long cooldown) {
+		this.failureThreshold = failureThreshold;
+		this.cooldown = cooldown;
+	}
+
+	/**
+	 * Records a successful call and closes the circuit
+	 * 
+	 * @param latency
+	 *                the duration of the call in milliseconds
+	 */
+	public synchronized void success(long latency) {
+		latency(latency);
+		errorRate = (1 - ALPHA) * errorRate;
+		consecutiveFailures = 0;
+		openUntil = 0;
+	}
+
+	/**
+	 * Records a failed call and opens the circuit if the failure threshold is
+	 * reached
+	 * 
+	 * @param latency
+	 *                the duration of the call in milliseconds
+	 */
+	public synchronized void failure(long latency) {
+		latency(latency);
+		errorRate = (1 - ALPHA) * errorRate + ALPHA;
+		consecutiveFailures++;
+		if (consecutiveFailures >= failureThreshold) {
+			openUntil = System.currentTimeMillis() + cooldown;
+		}
+	}
+
+	/**
+	 * Records only the latency of a call (eg : a cancelled call)
+	 * 
+	 * @param latency
+	 *                the duration of the call in milliseconds
+	 */
+	public synchronized void latency(long latency) {
+		averageLatency = averageLatency < 0 ? latency : (1 - ALPHA) * averageLatency + ALPHA * latency;
+	}
+
+	/**
+	 * Returns true if the circuit is opened (the endpoint must not be called)
+	 * 
+	 * @return true if the circuit is opened
+	 */
+	public synchronized boolean isOpen() {
+		return System.currentTimeMillis() < openUntil;
+	}
+
+	/**
+	 * Returns the average latency in milliseconds, or -1 if no call has been
+	 * recorded
+	 * 
+	 * @return the average latency
+	 */
+	public synchronized double getAverageLatency() {
+		return averageLatency;
+	}
+
+	/**
+	 * Returns the error rate (between 0 and 1)
+	 * 
+	 * @return the error rate
+	 */
+	public synchronized double getErrorRate() {
+		return errorRate;
+	}
+
+	/**
+	 * Returns a score which allows to order the endpoints (lower is better).
+	 * Endpoints without recorded calls come first in order to collect samples.
+	 * 
+	 * @return the score
+	 */
+	public synchronized double getScore() {
+		if (averageLatency < 0) {
+			return -1;
+		}
+		return (averageLatency + 1) * (1 + 10 * errorRate);
+	}
+
+}
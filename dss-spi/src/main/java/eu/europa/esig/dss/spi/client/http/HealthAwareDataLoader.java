@@ -0,0 +1,224 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.spi.client.http;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.spi.exception.DSSDataLoaderMultipleException;
+import eu.europa.esig.dss.utils.Utils;
+
+/**
+ * This {@code DataLoader} keeps health statistics per URL (latency and error rate) and opens a circuit on failing
+ * endpoints : calls to an URL are rejected without network access during a cooldown period after several consecutive
+ * failures. With a list of URLs, the healthiest ones are requested first.
+ * 
+ * The calls are delegated to the given {@code DataLoader}.
+ */
+public class HealthAwareDataLoader implements DataLoader {
+
+	private static final long serialVersionUID = -6380315440307367364L;
+
+	private static final Logger LOG = LoggerFactory.getLogger(HealthAwareDataLoader.class);
+
+	private final DataLoader dataLoader;
+
+	private int failureThreshold = 3;
+
+	private long cooldown = 60000;
+
+	/*
+	 * Immutable map, replaced as a whole when a new URL is requested (copy on write, the number of URLs is small) or
+	 * when the settings change
+	 */
+	private volatile Map<String, EndpointHealth> healthByUrl = Collections.emptyMap();
+
+	/**
+	 * The default constructor
+	 * 
+	 * @param dataLoader
+	 *                   the {@code DataLoader} which performs the calls
+	 */
+	public HealthAwareDataLoader(DataLoader dataLoader) {
+		Objects.requireNonNull(dataLoader, "DataLoader must be defined!");
+		this.dataLoader = dataLoader;
+	}
+
+	/**
+	 * Sets the number of consecutive failures after which an URL is excluded (default : 3)
+	 * 
+	 * @param failureThreshold
+	 *                         the number of consecutive failures
+	 */
+	public synchronized void setFailureThreshold(int failureThreshold) {
+		this.failureThreshold = failureThreshold;
+		this.healthByUrl = Collections.emptyMap();
+	}
+
+	/**
+	 * Sets the duration (in milliseconds) during which a failing URL is excluded (default : 60000 ms)
+	 * 
+	 * @param cooldown
+	 *                 the duration in milliseconds
+	 */
+	public synchronized void setCooldown(long cooldown) {
+		this.cooldown = cooldown;
+		this.healthByUrl = Collections.emptyMap();
+	}
+
+	/**
+	 * Returns the health statistics of the given URL
+	 * 
+	 * @param url
+	 *            the URL
+	 * @return the {@code EndpointHealth} (never null)
+	 */
+	public EndpointHealth getHealth(String url) {
+		EndpointHealth health = healthByUrl.get(url);
+		if (health == null) {
+			health = addHealth(url);
+		}
+		return health;
+	}
+
+	private synchronized EndpointHealth addHealth(String url) {
+		EndpointHealth health = healthByUrl.get(url);
+		if (health == null) {
+			health = new EndpointHealth(failureThreshold, cooldown);
+			Map<String, EndpointHealth> newHealths = new HashMap<>(healthByUrl);
+			newHealths.put(url, health);
+			healthByUrl = Collections.unmodifiableMap(newHealths);
+		}
+		return health;
+	}
+
+	@Override
+	public byte[] get(final String url) throws DSSException {
+		return call(url, getHealth(url), false, () -> dataLoader.get(url));
+	}
+
+	@Override
+	public byte[] get(String url, boolean refresh) throws DSSException {
+		return call(url, getHealth(url), false, () -> dataLoader.get(url, refresh));
+	}
+
+	@Override
+	public byte[] post(final String url, final byte[] content) throws DSSException {
+		return call(url, getHealth(url), false, () -> dataLoader.post(url, content));
+	}
+
+	@Override
+	public DataAndUrl get(final List<String> urlStrings) throws DSSException {
+		if (Utils.isCollectionEmpty(urlStrings)) {
+			throw new DSSException("Cannot process the GET call. List of URLs is empty!");
+		}
+
+		// the health of each URL is read once for the whole call
+		final Map<String, EndpointHealth> healths = new HashMap<>();
+		for (String urlString : urlStrings) {
+			healths.put(urlString, getHealth(urlString));
+		}
+		final List<String> orderedUrls = getOrderedUrls(urlStrings, healths);
+		// all the URLs are excluded : they are tried anyway
+		final boolean ignoreCircuit = healths.get(orderedUrls.get(0)).isOpen();
+
+		final Map<String, Throwable> exceptions = new HashMap<>();
+		for (String urlString : orderedUrls) {
+			try {
+				final byte[] bytes = call(urlString, healths.get(urlString), ignoreCircuit, () -> dataLoader.get(urlString));
+				if (Utils.isArrayEmpty(bytes)) {
+					LOG.debug("The retrieved content from URL [{}] is empty. Continue with other URLs...", urlString);
+					continue;
+				}
+				return new DataAndUrl(bytes, urlString);
+			} catch (Exception e) {
+				LOG.warn("Cannot obtain data using '{}' : {}", urlString, e.getMessage());
+				exceptions.put(urlString, e);
+			}
+		}
+		throw new DSSDataLoaderMultipleException(exceptions);
+	}
+
+	@Override
+	public void setContentType(String contentType) {
+		dataLoader.setContentType(contentType);
+	}
+
+	private List<String> getOrderedUrls(List<String> urlStrings, Map<String, EndpointHealth> healths) {
+		List<String> available = new ArrayList<>();
+		List<String> excluded = new ArrayList<>();
+		for (String urlString : urlStrings) {
+			if (healths.get(urlString).isOpen()) {
+				excluded.add(urlString);
+			} else {
+				available.add(urlString);
+			}
+		}
+		if (available.isEmpty()) {
+			LOG.warn("All URLs are excluded, trying them anyway : {}", excluded);
+			available = excluded;
+		}
+		// the scores are updated concurrently, the sort needs a stable snapshot
+		final Map<String, Double> scores = new HashMap<>();
+		for (String urlString : available) {
+			scores.put(urlString, healths.get(urlString).getScore());
+		}
+		Collections.sort(available, Comparator.comparingDouble(scores::get));
+		return available;
+	}
+
+	private byte[] call(String url, EndpointHealth health, boolean ignoreCircuit, DataLoaderCall call) {
+		if (!ignoreCircuit && health.isOpen()) {
+			throw new DSSException(String.format("The URL '%s' is excluded after consecutive failures", url));
+		}
+		long start = System.nanoTime();
+		try {
+			byte[] result = call.execute();
+			long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			if (Utils.isArrayEmpty(result)) {
+				health.failure(latency);
+			} else {
+				health.success(latency);
+			}
+			return result;
+		} catch (RuntimeException e) {
+			health.failure(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+			throw e;
+		}
+	}
+
+	private interface DataLoaderCall {
+
+		byte[] execute();
+
+	}
+
+}
@@ -25,6 +25,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,6 +47,8 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 
 	private Map<String, List<TrustProperties>> trustPropertiesByEntity = new HashMap<>();
 
+	private final AtomicLong snapshotVersion = new AtomicLong();
+
 	/**
 	 * The default constructor.
 	 */
@@ -59,6 +62,17 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 
 	public void setSummary(TLValidationJobSummary summary) {
 		this.summary = summary;
+		snapshotVersion.incrementAndGet();
+	}
+
+	/**
+	 * Returns the version of the trusted list snapshot. The version changes each time the trust properties or
+	 * the summary are replaced.
+	 * 
+	 * @return the snapshot version
+	 */
+	public long getSnapshotVersion() {
+		return snapshotVersion.get();
 	}
 
 	@Override
@@ -88,6 +102,7 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 		trustPropertiesByCerts.forEach((certificateToken, trustPropertiesList) -> {
 			addCertificate(certificateToken, trustPropertiesList);
 		});
+		snapshotVersion.incrementAndGet();
 	}
 	
 	private void addCertificate(CertificateToken certificateToken, List<TrustProperties> trustPropertiesList) {
@@ -0,0 +1,359 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.spi.x509;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.enumerations.CertificateSourceType;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSASN1Utils;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.utils.Utils;
+
+/**
+ * This class keeps a process-wide cache of the issuer certificates downloaded
+ * through the AIA extension (id-ad-caIssuers). The entries are identified by
+ * the AIA URL and the authority key identifier of the child certificate and
+ * hold the parsed {@code CertificateToken}s.
+ * 
+ * The entries expire after a time-to-live. Failed downloads can be cached too
+ * (negative caching) with a shorter time-to-live. When a cache directory is
+ * defined, the retrieved certificates are also stored on disk (PEM) and
+ * reloaded after a restart.
+ * 
+ * The cache is shared by all the {@code CertificateVerifier}s of the JVM and is
+ * consulted before their {@code DataLoader} : it is disabled by default and must
+ * only be enabled when all the verifiers may use the same downloaded
+ * certificates.
+ */
+public final class AIACertificateCache {
+
+	private static final Logger LOG = LoggerFactory.getLogger(AIACertificateCache.class);
+
+	private static final int DEFAULT_MAX_SIZE = 1000;
+
+	private static final AIACertificateCache INSTANCE = new AIACertificateCache();
+
+	private final Map<String, Entry> entries;
+
+	private volatile int maxSize = DEFAULT_MAX_SIZE;
+
+	private volatile boolean enabled = false;
+
+	/* 24 hours */
+	private volatile long ttl = 24 * 60 * 60 * 1000L;
+
+	/* negative caching disabled */
+	private volatile long negativeTtl = 0;
+
+	private volatile File cacheDirectory;
+
+	private AIACertificateCache() {
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = -2283726417616245338L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > AIACertificateCache.this.maxSize;
+			}
+
+		};
+	}
+
+	/**
+	 * Returns the process-wide instance
+	 * 
+	 * @return the {@code AIACertificateCache}
+	 */
+	public static AIACertificateCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Sets the maximum number of entries kept in memory (default : 1000)
+	 * 
+	 * @param maxSize
+	 *                the maximum number of entries
+	 */
+	public void setMaxSize(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("The maximum size must be positive");
+		}
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Enables/disables the cache (disabled by default : the certificates are
+	 * downloaded for each call)
+	 * 
+	 * @param enabled
+	 *                true to cache the certificates
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		if (!enabled) {
+			clear();
+		}
+	}
+
+	/**
+	 * Returns true if the cache is enabled
+	 * 
+	 * @return true if enabled
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Sets the time-to-live of the retrieved certificates in milliseconds
+	 * (default : 24 hours)
+	 * 
+	 * @param ttl
+	 *            the time-to-live in milliseconds
+	 */
+	public void setTtl(long ttl) {
+		this.ttl = ttl;
+	}
+
+	/**
+	 * Sets the time-to-live of the failed downloads in milliseconds (default : 0,
+	 * the failed downloads are not cached)
+	 * 
+	 * @param negativeTtl
+	 *                    the time-to-live in milliseconds
+	 */
+	public void setNegativeTtl(long negativeTtl) {
+		this.negativeTtl = negativeTtl;
+	}
+
+	/**
+	 * Sets the directory where the retrieved certificates are persisted (not
+	 * persisted by default)
+	 * 
+	 * @param cacheDirectory
+	 *                       the directory or null
+	 */
+	public void setCacheDirectory(File cacheDirectory) {
+		if (cacheDirectory != null && !cacheDirectory.exists() && !cacheDirectory.mkdirs()) {
+			throw new IllegalArgumentException("Unable to create the cache directory " + cacheDirectory.getAbsolutePath());
+		}
+		this.cacheDirectory = cacheDirectory;
+	}
+
+	/**
+	 * Returns the cached issuer certificates for the given AIA URL and child
+	 * certificate
+	 * 
+	 * @param url
+	 *                    the AIA URL
+	 * @param certificate
+	 *                    the certificate for which the issuer is sought
+	 * @return the list of certificates, an empty list if the download failed
+	 *         recently (negative entry) or null if nothing is cached
+	 */
+	public List<CertificateToken> get(final String url, final CertificateToken certificate) {
+		Objects.requireNonNull(url, "The url must be defined");
+		if (!enabled) {
+			return null;
+		}
+		final String key = getKey(url, certificate);
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(key);
+			if (entry != null && entry.isExpired()) {
+				entries.remove(key);
+				entry = null;
+			}
+		}
+		if (entry == null) {
+			entry = load(key);
+			if (entry != null) {
+				synchronized (entries) {
+					entries.put(key, entry);
+				}
+			}
+		}
+		return entry != null ? entry.certificates : null;
+	}
+
+	/**
+	 * Caches the issuer certificates retrieved from the given AIA URL
+	 * 
+	 * @param url
+	 *                     the AIA URL
+	 * @param certificate
+	 *                     the certificate for which the issuer is sought
+	 * @param certificates
+	 *                     the retrieved certificates (null or empty for a failed
+	 *                     download)
+	 */
+	public void put(final String url, final CertificateToken certificate, final List<CertificateToken> certificates) {
+		Objects.requireNonNull(url, "The url must be defined");
+		if (!enabled) {
+			return;
+		}
+		final String key = getKey(url, certificate);
+		final Entry entry;
+		if (Utils.isCollectionEmpty(certificates)) {
+			if (negativeTtl <= 0) {
+				return;
+			}
+			entry = new Entry(Collections.<CertificateToken> emptyList(), System.currentTimeMillis() + negativeTtl);
+		} else {
+			entry = new Entry(Collections.unmodifiableList(new ArrayList<>(certificates)), System.currentTimeMillis() + ttl);
+			store(key, certificates);
+		}
+		synchronized (entries) {
+			entries.put(key, entry);
+		}
+	}
+
+	/**
+	 * Imports all the cached issuer certificates in the given pool (with the
+	 * {@code CertificateSourceType.AIA} source)
+	 * 
+	 * @param certificatePool
+	 *                        the pool to populate
+	 */
+	public void importCertificates(final CertificatePool certificatePool) {
+		Objects.requireNonNull(certificatePool, "The certificate pool must be defined");
+		List<CertificateToken> certificates = new ArrayList<>();
+		synchronized (entries) {
+			for (Entry entry : entries.values()) {
+				if (!entry.isExpired()) {
+					certificates.addAll(entry.certificates);
+				}
+			}
+		}
+		for (CertificateToken certificateToken : certificates) {
+			certificatePool.getInstance(certificateToken, CertificateSourceType.AIA);
+		}
+	}
+
+	/**
+	 * Returns the number of entries kept in memory
+	 * 
+	 * @return the number of entries
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * Removes all the entries kept in memory (the persisted certificates are kept)
+	 */
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	private String getKey(String url, CertificateToken certificate) {
+		String aki = null;
+		if (certificate != null) {
+			try {
+				aki = DSSUtils.toHex(DSSASN1Utils.getAuthorityKeyIdentifier(certificate));
+			} catch (Exception e) {
+				LOG.debug("Unable to extract the authority key identifier : {}", e.getMessage());
+			}
+		}
+		return aki != null ? url + "#" + aki : url;
+	}
+
+	private File getFile(String key) {
+		final File directory = cacheDirectory;
+		if (directory == null) {
+			return null;
+		}
+		final String filename = Utils.toHex(DSSUtils.digest(DigestAlgorithm.SHA256, key.getBytes(StandardCharsets.UTF_8)));
+		return new File(directory, filename + ".pem");
+	}
+
+	private Entry load(String key) {
+		final File file = getFile(key);
+		if (file == null || !file.exists()) {
+			return null;
+		}
+		final long expiration = file.lastModified() + ttl;
+		if (expiration < System.currentTimeMillis()) {
+			LOG.debug("The persisted AIA certificate(s) '{}' are expired", file.getName());
+			return null;
+		}
+		try (InputStream is = new FileInputStream(file)) {
+			List<CertificateToken> certificates = new ArrayList<>(DSSUtils.loadCertificateFromP7c(is));
+			return new Entry(Collections.unmodifiableList(certificates), expiration);
+		} catch (Exception e) {
+			LOG.warn("Unable to load the persisted AIA certificate(s) '{}' : {}", file.getName(), e.getMessage());
+			return null;
+		}
+	}
+
+	private void store(String key, List<CertificateToken> certificates) {
+		final File file = getFile(key);
+		if (file == null) {
+			return;
+		}
+		try (OutputStream os = new FileOutputStream(file)) {
+			for (CertificateToken certificateToken : certificates) {
+				os.write(DSSUtils.convertToPEM(certificateToken).getBytes(StandardCharsets.UTF_8));
+			}
+		} catch (Exception e) {
+			LOG.warn("Unable to persist the AIA certificate(s) '{}' : {}", file.getName(), e.getMessage());
+		}
+	}
+
+	private static final class Entry {
+
+		private final List<CertificateToken> certificates;
+
+		private final long expiration;
+
+		private Entry(List<CertificateToken> certificates, long expiration) {
+			this.certificates = certificates;
+			this.expiration = expiration;
+		}
+
+		private boolean isExpired() {
+			return expiration < System.currentTimeMillis();
+		}
+
+	}
+
+}
@@ -21,17 +21,16 @@
 package eu.europa.esig.dss.spi.x509;
 
 import java.io.Serializable;
+import java.math.BigInteger;
 import java.security.PublicKey;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.security.auth.x500.X500Principal;
 
@@ -43,10 +42,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import eu.europa.esig.dss.enumerations.CertificateSourceType;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.DSSException;
 import eu.europa.esig.dss.model.identifier.EntityIdentifier;
 import eu.europa.esig.dss.model.x509.CertificateToken;
 import eu.europa.esig.dss.model.x509.Token;
 import eu.europa.esig.dss.spi.DSSASN1Utils;
+import eu.europa.esig.dss.spi.DSSUtils;
 import eu.europa.esig.dss.utils.Utils;
 
 /**
@@ -67,15 +69,35 @@ public class CertificatePool implements Serializable {
 	 * Map of entries, the key is a hash of the public key.
 	 * 
 	 * All entries share the same keypair
+	 * 
+	 * Concurrent maps are used, the pool can be shared between parallel validations
 	 */
-	private Map<String, CertificatePoolEntity> entriesByPublicKeyHash = new HashMap<>();
+	private Map<String, CertificatePoolEntity> entriesByPublicKeyHash = new ConcurrentHashMap<>();
 
 	/*
 	 * Map of tokens, the key is the canonicalized SubjectX500Principal
 	 * 
 	 * For a same SubjectX500Principal, different keypairs are possible
 	 */
-	private Map<String, Set<CertificateToken>> tokensBySubject = new HashMap<>();
+	private Map<String, Set<CertificateToken>> tokensBySubject = new ConcurrentHashMap<>();
+
+	/*
+	 * Map of entries, the key is the hex encoded SKI computed from the public key
+	 */
+	private Map<String, CertificatePoolEntity> entriesBySki = new ConcurrentHashMap<>();
+
+	/*
+	 * Map of entries, the key is a key identifier which can be used in a SignerId :
+	 * the SKI extension value, the computed SKI or the SHA-1 of the
+	 * SubjectPublicKeyInfo (when the SKI extension is missing)
+	 */
+	private Map<String, Set<CertificatePoolEntity>> entriesByKeyIdentifier = new ConcurrentHashMap<>();
+
+	/*
+	 * Map of entries, the key is the serial number of the certificates (the issuer
+	 * is checked on the few matching entries)
+	 */
+	private Map<BigInteger, Set<CertificatePoolEntity>> entriesBySerialNumber = new ConcurrentHashMap<>();
 
 	public CertificatePool() {
 		LOG.debug("New CertificatePool created");
@@ -105,18 +127,23 @@ public class CertificatePool implements Serializable {
 				LOG.trace("Public key {} is not in the pool", entityKey);
 				poolEntity = new CertificatePoolEntity(certificateToAdd, certSource);
 				entriesByPublicKeyHash.put(entityKey, poolEntity);
+				entriesBySki.put(Utils.toHex(poolEntity.getSki()), poolEntity);
+				indexKeyIdentifiers(poolEntity, certificateToAdd);
 			} else {
 				LOG.trace("Public key {} is already in the pool", entityKey);
-				poolEntity.addEquivalentCertificate(certificateToAdd);
+				if (poolEntity.addEquivalentCertificate(certificateToAdd)) {
+					indexKeyIdentifiers(poolEntity, certificateToAdd);
+				}
 				poolEntity.addSource(certSource);
 			}
+			addToIndex(entriesBySerialNumber, certificateToAdd.getSerialNumber(), poolEntity);
 		}
 		
 		synchronized (tokensBySubject) {
 			String canonicalizedSubject = certificateToAdd.getCanonicalizedSubject();
 			Set<CertificateToken> tokensSet = tokensBySubject.get(canonicalizedSubject);
 			if (tokensSet == null) {
-				tokensSet = new HashSet<>();
+				tokensSet = Collections.newSetFromMap(new ConcurrentHashMap<CertificateToken, Boolean>());
 				tokensBySubject.put(canonicalizedSubject, tokensSet);
 			}
 			tokensSet.add(certificateToAdd);
@@ -125,6 +152,32 @@ public class CertificatePool implements Serializable {
 		return certificateToAdd;
 	}
 
+	private void indexKeyIdentifiers(CertificatePoolEntity poolEntity, CertificateToken certificateToken) {
+		addToIndex(entriesByKeyIdentifier, Utils.toHex(poolEntity.getSki()), poolEntity);
+		byte[] skiExtension = null;
+		try {
+			skiExtension = DSSASN1Utils.getSki(certificateToken);
+		} catch (DSSException e) {
+			LOG.debug("Unable to read the SKI extension of the certificate {} : {}", certificateToken.getAbbreviation(), e.getMessage());
+		}
+		if (skiExtension != null) {
+			addToIndex(entriesByKeyIdentifier, Utils.toHex(skiExtension), poolEntity);
+		} else {
+			// BouncyCastle matches a SignerId with the SHA-1 of the SubjectPublicKeyInfo if the extension is missing
+			byte[] publicKeyInfoDigest = DSSUtils.digest(DigestAlgorithm.SHA1, certificateToken.getPublicKey().getEncoded());
+			addToIndex(entriesByKeyIdentifier, Utils.toHex(publicKeyInfoDigest), poolEntity);
+		}
+	}
+
+	private <K> void addToIndex(Map<K, Set<CertificatePoolEntity>> index, K key, CertificatePoolEntity poolEntity) {
+		Set<CertificatePoolEntity> entities = index.get(key);
+		if (entities == null) {
+			entities = Collections.newSetFromMap(new ConcurrentHashMap<CertificatePoolEntity, Boolean>());
+			index.put(key, entities);
+		}
+		entities.add(poolEntity);
+	}
+
 	public boolean isTrusted(CertificateToken cert) {
 		final CertificatePoolEntity poolEntity = getPoolEntry(cert);
 		return poolEntity != null && poolEntity.isTrusted();
@@ -249,9 +302,9 @@ public class CertificatePool implements Serializable {
 	 * @return If no match is found then an empty list is returned.
 	 */
 	public List<CertificateToken> getBySki(final byte[] expectedSki) {
-		Collection<CertificatePoolEntity> values = entriesByPublicKeyHash.values();
-		for (CertificatePoolEntity entity : values) {
-			if (Arrays.equals(expectedSki, entity.getSki())) {
+		if (expectedSki != null) {
+			CertificatePoolEntity entity = entriesBySki.get(Utils.toHex(expectedSki));
+			if (entity != null) {
 				return entity.getEquivalentCertificates();
 			}
 		}
@@ -265,22 +318,34 @@ public class CertificatePool implements Serializable {
 	 *                 expected signerId.
 	 * @return If no match is found then an empty list is returned.
 	 */
-	@SuppressWarnings("unchecked")
 	public List<CertificateToken> getBySignerId(SignerId signerId) {
-		Collection<CertificatePoolEntity> values = entriesByPublicKeyHash.values();
-		for (CertificatePoolEntity entity : values) {
-			List<CertificateToken> equivalentCertificates = entity.getEquivalentCertificates();
-			CertificateToken token = equivalentCertificates.iterator().next();
-			X509CertificateHolder x509CertificateHolder = DSSASN1Utils.getX509CertificateHolder(token);
-			Store<X509CertificateHolder> store = new CollectionStore<>(Collections.singleton(x509CertificateHolder));
-			Collection<X509CertificateHolder> matches = store.getMatches(signerId);
-			if (!matches.isEmpty()) {
-				return equivalentCertificates;
+		Set<CertificatePoolEntity> candidates = null;
+		if (signerId.getSerialNumber() != null) {
+			candidates = entriesBySerialNumber.get(signerId.getSerialNumber());
+		} else if (signerId.getSubjectKeyIdentifier() != null) {
+			candidates = entriesByKeyIdentifier.get(Utils.toHex(signerId.getSubjectKeyIdentifier()));
+		}
+		if (candidates != null) {
+			for (CertificatePoolEntity entity : candidates) {
+				List<CertificateToken> equivalentCertificates = entity.getEquivalentCertificates();
+				for (CertificateToken token : equivalentCertificates) {
+					if (isMatchingSignerId(token, signerId)) {
+						return equivalentCertificates;
+					}
+				}
 			}
 		}
 		return Collections.emptyList();
 	}
 
+	@SuppressWarnings("unchecked")
+	private boolean isMatchingSignerId(CertificateToken token, SignerId signerId) {
+		X509CertificateHolder x509CertificateHolder = DSSASN1Utils.getX509CertificateHolder(token);
+		Store<X509CertificateHolder> store = new CollectionStore<>(Collections.singleton(x509CertificateHolder));
+		Collection<X509CertificateHolder> matches = store.getMatches(signerId);
+		return !matches.isEmpty();
+	}
+
 	private CertificatePoolEntity getPoolEntry(CertificateToken cert) {
 		return entriesByPublicKeyHash.get(cert.getEntityKey());
 	}
@@ -21,12 +21,12 @@
 package eu.europa.esig.dss.spi.x509;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,12 +60,12 @@ class CertificatePoolEntity implements Serializable {
 	/**
 	 * Equivalent certificates (which have the same public key)
 	 */
-	private final List<CertificateToken> equivalentCertificates = new ArrayList<>();
+	private final List<CertificateToken> equivalentCertificates = new CopyOnWriteArrayList<>();
 
 	/**
 	 * This Set contains the different sources for this certificate.
 	 */
-	private final Set<CertificateSourceType> sources = new HashSet<>();
+	private final Set<CertificateSourceType> sources = Collections.newSetFromMap(new ConcurrentHashMap<CertificateSourceType, Boolean>());
 
 	CertificatePoolEntity(CertificateToken initialCert, CertificateSourceType source) {
 		id = initialCert.getEntityKey();
@@ -74,7 +74,14 @@ class CertificatePoolEntity implements Serializable {
 		sources.add(source);
 	}
 
-	void addEquivalentCertificate(CertificateToken token) {
+	/**
+	 * Adds an equivalent certificate
+	 * 
+	 * @param token
+	 *              the certificate with the same public key
+	 * @return true if the certificate has been added (not yet present)
+	 */
+	synchronized boolean addEquivalentCertificate(CertificateToken token) {
 		if (!equivalentCertificates.contains(token)) {
 			LOG.trace("Certificate with same public key detected : {}", token.getAbbreviation());
 			// we manually recompute the SKI (we had cases with wrongly encoded value in the
@@ -85,8 +92,10 @@ class CertificatePoolEntity implements Serializable {
 				LOG.warn("Token {} is skipped", token);
 			} else {
 				equivalentCertificates.add(token);
+				return true;
 			}
 		}
+		return false;
 	}
 	
 	byte[] getSki() {
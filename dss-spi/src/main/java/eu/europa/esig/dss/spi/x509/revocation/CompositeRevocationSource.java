@@ -20,14 +20,26 @@
  */
 package eu.europa.esig.dss.spi.x509.revocation;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.client.http.EndpointHealth;
 
+/**
+ * This class allows to retrieve revocation data with different sources. The sources are requested in the given order
+ * until a revocation token is found.
+ * 
+ * When the health-aware mode is enabled, the latency and the error rate of each source are tracked : the healthiest
+ * sources are requested first and a source which fails several times in a row is excluded during a cooldown period.
+ */
 public class CompositeRevocationSource<T extends RevocationToken> implements RevocationSource<T> {
 
 	private static final long serialVersionUID = 8870377682436878544L;
@@ -36,20 +48,93 @@ public class CompositeRevocationSource<T extends RevocationToken> implements Rev
 
 	private final List<RevocationSource<T>> revocationSources;
 
+	private volatile boolean healthAware = false;
+
+	private int failureThreshold = 3;
+
+	private long cooldown = 60000;
+
+	/* Immutable list, replaced as a whole when the settings change */
+	private volatile List<EndpointHealth> healths;
+
 	public CompositeRevocationSource(List<RevocationSource<T>> revocationSources) {
 		Objects.requireNonNull(revocationSources, "RevocationSources is null");
 		this.revocationSources = revocationSources;
+		initHealths();
+	}
+
+	/**
+	 * Enables the ordering of the sources by health and the exclusion of failing
+	 * sources (default : false)
+	 * 
+	 * @param healthAware
+	 *                    true to enable the health-aware mode
+	 */
+	public void setHealthAware(boolean healthAware) {
+		this.healthAware = healthAware;
+	}
+
+	/**
+	 * Sets the number of consecutive failures after which a source is excluded
+	 * (default : 3)
+	 * 
+	 * @param failureThreshold
+	 *                         the number of consecutive failures
+	 */
+	public void setFailureThreshold(int failureThreshold) {
+		this.failureThreshold = failureThreshold;
+		initHealths();
+	}
+
+	/**
+	 * Sets the duration (in milliseconds) during which a failing source is
+	 * excluded (default : 60000 ms)
+	 * 
+	 * @param cooldown
+	 *                 the duration in milliseconds
+	 */
+	public void setCooldown(long cooldown) {
+		this.cooldown = cooldown;
+		initHealths();
+	}
+
+	/**
+	 * Returns the health statistics of the source at the given position
+	 * 
+	 * @param index
+	 *              the position of the source
+	 * @return the {@code EndpointHealth}
+	 */
+	public EndpointHealth getHealth(int index) {
+		return healths.get(index);
+	}
+
+	private synchronized void initHealths() {
+		List<EndpointHealth> newHealths = new ArrayList<>();
+		for (int i = 0; i < revocationSources.size(); i++) {
+			newHealths.add(new EndpointHealth(failureThreshold, cooldown));
+		}
+		healths = Collections.unmodifiableList(newHealths);
 	}
 
 	@Override
 	public T getRevocationToken(final CertificateToken certificateToken, final CertificateToken issuerCertificateToken) {
-		for (RevocationSource<T> revocationSource : revocationSources) {
+		final List<EndpointHealth> currentHealths = healths;
+		for (int index : getOrderedIndexes(currentHealths)) {
+			RevocationSource<T> revocationSource = revocationSources.get(index);
+			EndpointHealth health = currentHealths.get(index);
+			long start = System.nanoTime();
 			try {
 				T revocationToken = revocationSource.getRevocationToken(certificateToken, issuerCertificateToken);
 				if (revocationToken != null) {
+					health.success(elapsedMillis(start));
+					LOG.debug("Revocation data for a certificate with Id [{}] obtained from the source of class [{}]",
+							certificateToken.getDSSIdAsString(), revocationSource.getClass());
 					return revocationToken;
 				}
+				health.latency(elapsedMillis(start));
 			} catch (Exception e) {
+				health.failure(elapsedMillis(start));
 				LOG.warn("Exception occurred when accessing revocation from the source of class [{}] for a certificate with Id: [{}]",
 						revocationSource.getClass(), certificateToken.getDSSIdAsString());
 			}
@@ -57,4 +142,34 @@ public class CompositeRevocationSource<T extends RevocationToken> implements Rev
 		return null;
 	}
 
+	private List<Integer> getOrderedIndexes(List<EndpointHealth> currentHealths) {
+		final boolean currentHealthAware = healthAware;
+		List<Integer> available = new ArrayList<>();
+		List<Integer> excluded = new ArrayList<>();
+		for (int i = 0; i < currentHealths.size(); i++) {
+			if (currentHealthAware && currentHealths.get(i).isOpen()) {
+				excluded.add(i);
+			} else {
+				available.add(i);
+			}
+		}
+		if (available.isEmpty()) {
+			LOG.warn("All revocation sources are excluded, trying them anyway");
+			available = excluded;
+		}
+		if (currentHealthAware) {
+			// the scores are updated concurrently, the sort needs a stable snapshot
+			final double[] scores = new double[currentHealths.size()];
+			for (int i = 0; i < scores.length; i++) {
+				scores[i] = currentHealths.get(i).getScore();
+			}
+			Collections.sort(available, Comparator.comparingDouble(i -> scores[i]));
+		}
+		return available;
+	}
+
+	private static long elapsedMillis(long startNanos) {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+	}
+
 }
@@ -0,0 +1,330 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.spi.x509.revocation.ocsp;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.bouncycastle.cert.ocsp.OCSPResp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.RevocationOrigin;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSRevocationUtils;
+import eu.europa.esig.dss.spi.x509.revocation.OnlineRevocationSource;
+import eu.europa.esig.dss.utils.Utils;
+
+/**
+ * OCSPSource which keeps the OCSP responses retrieved by the proxied online
+ * source in memory. The responses are identified by the OCSP CertID (issuer
+ * name hash, issuer key hash and serial number) and are reused until their
+ * nextUpdate (or thisUpdate + the default next update delay if nextUpdate is
+ * absent).
+ * 
+ * Responses bound to a nonce are not cached by default, because reusing them
+ * would defeat the replay protection.
+ * 
+ * The least recently used responses are evicted when the maximum size is
+ * reached.
+ */
+public class InMemoryCacheOCSPSource implements OCSPSource {
+
+	private static final long serialVersionUID = -3271568414578853617L;
+
+	private static final Logger LOG = LoggerFactory.getLogger(InMemoryCacheOCSPSource.class);
+
+	private static final int DEFAULT_MAX_SIZE = 1000;
+
+	private final OnlineRevocationSource<OCSPToken> proxiedSource;
+
+	private final Map<String, CachedResponse> responses;
+
+	private volatile int maxSize = DEFAULT_MAX_SIZE;
+
+	/**
+	 * Default cache delay in case of null nextUpdate in the OCSP response
+	 */
+	private Long defaultNextUpdateDelay;
+
+	/**
+	 * Maximum cache delay for the OCSP response
+	 */
+	private Long maxNextUpdateDelay;
+
+	/**
+	 * If true, the responses containing a nonce are cached too
+	 */
+	private boolean cacheNonceResponses = false;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	/**
+	 * The default constructor
+	 * 
+	 * @param proxiedSource
+	 *                      the online source to be called if the response is not
+	 *                      available in the cache
+	 */
+	public InMemoryCacheOCSPSource(final OnlineRevocationSource<OCSPToken> proxiedSource) {
+		Objects.requireNonNull(proxiedSource, "The proxied source must be defined");
+		this.proxiedSource = proxiedSource;
+		this.responses = new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 2405869271290339208L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+				boolean remove = size() > InMemoryCacheOCSPSource.this.maxSize;
+				if (remove) {
+					evictionCount.incrementAndGet();
+				}
+				return remove;
+			}
+
+		};
+	}
+
+	/**
+	 * Sets the maximum number of cached responses (default : 1000)
+	 * 
+	 * @param maxSize
+	 *                the maximum number of responses
+	 */
+	public void setMaxSize(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("The maximum size must be positive");
+		}
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Sets the default next update delay for the cached responses in seconds. If
+	 * the nextUpdate is not specified, the response is reused until thisUpdate +
+	 * defaultNextUpdateDelay. If not set (default), the responses without
+	 * nextUpdate are not cached.
+	 * 
+	 * @param defaultNextUpdateDelay
+	 *                               long value (seconds)
+	 */
+	public void setDefaultNextUpdateDelay(final Long defaultNextUpdateDelay) {
+		this.defaultNextUpdateDelay = defaultNextUpdateDelay == null ? null : defaultNextUpdateDelay * 1000; // to milliseconds
+	}
+
+	/**
+	 * Sets the maximum allowed nextUpdate delay for the cached responses in
+	 * seconds.
+	 * 
+	 * {@code
+	 *  If response.nextUpdate > response.thisUpdate + maxNextUpdateDelay, then nextUpdate = response.thisUpdate + maxNextUpdateDelay
+	 *}
+	 * 
+	 * @param maxNextUpdateDelay
+	 *                           long value (seconds)
+	 */
+	public void setMaxNextUpdateDelay(final Long maxNextUpdateDelay) {
+		this.maxNextUpdateDelay = maxNextUpdateDelay == null ? null : maxNextUpdateDelay * 1000; // to milliseconds
+	}
+
+	/**
+	 * Allows to cache the responses which contain a nonce (default : false)
+	 * 
+	 * @param cacheNonceResponses
+	 *                            true to cache the responses with a nonce
+	 */
+	public void setCacheNonceResponses(boolean cacheNonceResponses) {
+		this.cacheNonceResponses = cacheNonceResponses;
+	}
+
+	@Override
+	public OCSPToken getRevocationToken(final CertificateToken certificateToken, final CertificateToken issuerCertificateToken) {
+		return getRevocationToken(certificateToken, issuerCertificateToken, false);
+	}
+
+	/**
+	 * Retrieves an OCSP token for the given {@link CertificateToken}
+	 * 
+	 * @param certificateToken
+	 *                               {@link CertificateToken}
+	 * @param issuerCertificateToken
+	 *                               {@link CertificateToken} of the issuer of
+	 *                               certificateToken
+	 * @param forceRefresh
+	 *                               if true, explicitly skips the cache
+	 * @return the {@link OCSPToken} or null
+	 */
+	public OCSPToken getRevocationToken(final CertificateToken certificateToken, final CertificateToken issuerCertificateToken,
+			boolean forceRefresh) {
+		if ((certificateToken == null) || (issuerCertificateToken == null)) {
+			LOG.warn("Certificate token or issuer's certificate token is null. Cannot get a revocation token!");
+			return null;
+		}
+
+		final String key = getKey(certificateToken, issuerCertificateToken);
+		if (!forceRefresh) {
+			final OCSPToken cachedToken = getCachedToken(key, certificateToken, issuerCertificateToken);
+			if (cachedToken != null) {
+				hitCount.incrementAndGet();
+				LOG.debug("OCSP response for certificate '{}' is loaded from the memory cache", certificateToken.getDSSIdAsString());
+				return cachedToken;
+			}
+		}
+		missCount.incrementAndGet();
+
+		final OCSPToken newToken = proxiedSource.getRevocationToken(certificateToken, issuerCertificateToken);
+		if (newToken != null && newToken.isValid()) {
+			if (newToken.isUseNonce() && !cacheNonceResponses) {
+				LOG.debug("OCSP response for certificate '{}' contains a nonce and is not cached", certificateToken.getDSSIdAsString());
+			} else {
+				final Date nextUpdate = getNextUpdate(newToken);
+				if (nextUpdate != null && nextUpdate.after(new Date())) {
+					synchronized (responses) {
+						responses.put(key, new CachedResponse(newToken.getEncoded(), newToken.getSourceURL(), nextUpdate));
+					}
+				}
+			}
+		}
+		return newToken;
+	}
+
+	/**
+	 * Returns the number of requests served from the cache
+	 * 
+	 * @return the number of hits
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Returns the number of requests delegated to the proxied source
+	 * 
+	 * @return the number of misses
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * Returns the number of responses evicted because of the maximum size
+	 * 
+	 * @return the number of evictions
+	 */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	/**
+	 * Returns the number of cached responses
+	 * 
+	 * @return the number of responses
+	 */
+	public int size() {
+		synchronized (responses) {
+			return responses.size();
+		}
+	}
+
+	/**
+	 * Removes all the cached responses
+	 */
+	public void clear() {
+		synchronized (responses) {
+			responses.clear();
+		}
+	}
+
+	private OCSPToken getCachedToken(String key, CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+		final CachedResponse cachedResponse;
+		synchronized (responses) {
+			cachedResponse = responses.get(key);
+			if (cachedResponse == null) {
+				return null;
+			}
+			if (!cachedResponse.nextUpdate.after(new Date())) {
+				LOG.debug("Cached OCSP response is expired");
+				responses.remove(key);
+				return null;
+			}
+		}
+		try {
+			OCSPTokenBuilder ocspTokenBuilder = new OCSPTokenBuilder(new OCSPResp(cachedResponse.encoded), certificateToken,
+					issuerCertificateToken);
+			ocspTokenBuilder.setSourceURL(cachedResponse.sourceURL);
+			OCSPToken ocspToken = ocspTokenBuilder.build();
+			ocspToken.setOrigins(Collections.singleton(RevocationOrigin.CACHED));
+			OCSPTokenUtils.checkTokenValidity(ocspToken, certificateToken, issuerCertificateToken);
+			return ocspToken;
+		} catch (Exception e) {
+			LOG.warn("Unable to rebuild the cached OCSP response : {}", e.getMessage());
+			synchronized (responses) {
+				responses.remove(key);
+			}
+			return null;
+		}
+	}
+
+	private Date getNextUpdate(OCSPToken token) {
+		final Date thisUpdate = token.getThisUpdate();
+		Date nextUpdate = token.getNextUpdate();
+		if (nextUpdate == null && defaultNextUpdateDelay != null && thisUpdate != null) {
+			nextUpdate = new Date(thisUpdate.getTime() + defaultNextUpdateDelay);
+		}
+		if (nextUpdate != null && maxNextUpdateDelay != null && thisUpdate != null) {
+			Date maxNextUpdate = new Date(thisUpdate.getTime() + maxNextUpdateDelay);
+			if (nextUpdate.after(maxNextUpdate)) {
+				nextUpdate = maxNextUpdate;
+			}
+		}
+		return nextUpdate;
+	}
+
+	private String getKey(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+		final CertificateID certId = DSSRevocationUtils.getOCSPCertificateID(certificateToken, issuerCertificateToken, DigestAlgorithm.SHA1);
+		return Utils.toHex(certId.getIssuerNameHash()) + ":" + Utils.toHex(certId.getIssuerKeyHash()) + ":"
+				+ certId.getSerialNumber().toString(16);
+	}
+
+	private static final class CachedResponse {
+
+		private final byte[] encoded;
+
+		private final String sourceURL;
+
+		private final Date nextUpdate;
+
+		private CachedResponse(byte[] encoded, String sourceURL, Date nextUpdate) {
+			this.encoded = encoded;
+			this.sourceURL = sourceURL;
+			this.nextUpdate = nextUpdate;
+		}
+
+	}
+
+}
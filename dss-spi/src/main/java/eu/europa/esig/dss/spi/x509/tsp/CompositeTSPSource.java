@@ -20,8 +20,20 @@
  */
 package eu.europa.esig.dss.spi.x509.tsp;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +41,7 @@ import org.slf4j.LoggerFactory;
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.model.DSSException;
 import eu.europa.esig.dss.model.TimestampBinary;
+import eu.europa.esig.dss.spi.client.http.EndpointHealth;
 
 /**
  * This class allows to retrieve a timestamp with different sources. The composite will try all sources until to get a
@@ -36,6 +49,11 @@ import eu.europa.esig.dss.model.TimestampBinary;
  * 
  * Be careful, all given tspSources MUST accept the same digest algorithm.
  * 
+ * When an {@code ExecutorService} is provided, the sources are ordered by health (circuit state, error rate and
+ * average latency). If the current request does not complete within the hedge delay, a second request is sent to
+ * the next source and the first non-empty response is returned (the other requests are cancelled). A source which
+ * fails several times in a row is excluded during a cooldown period (circuit breaker).
+ * 
  */
 public class CompositeTSPSource implements TSPSource {
 
@@ -43,7 +61,18 @@ public class CompositeTSPSource implements TSPSource {
 
 	private static final Logger LOG = LoggerFactory.getLogger(CompositeTSPSource.class);
 
-	private Map<String, TSPSource> tspSources;
+	private volatile Map<String, TSPSource> tspSources;
+
+	private transient ExecutorService executorService;
+
+	private volatile long hedgeDelay = 1000;
+
+	private int failureThreshold = 3;
+
+	private long cooldown = 60000;
+
+	/* Immutable map, replaced as a whole when the settings change */
+	private volatile Map<String, EndpointHealth> healthBySource = Collections.emptyMap();
 
 	/**
 	 * This setter allows to provide multiple tspSources. Be careful, all given tspSources MUST accept the same digest
@@ -54,11 +83,69 @@ public class CompositeTSPSource implements TSPSource {
 	 */
 	public void setTspSources(Map<String, TSPSource> tspSources) {
 		this.tspSources = tspSources;
+		initHealths();
+	}
+
+	/**
+	 * This setter allows to enable the health-aware scheduling with hedged requests. The executor is not shutdown by
+	 * this class. If not set, the sources are requested one after another in the given order.
+	 * 
+	 * @param executorService
+	 *            the executor service used to request the sources
+	 */
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	/**
+	 * Sets the delay (in milliseconds) after which a hedged request is sent to the next source (default : 1000 ms)
+	 * 
+	 * @param hedgeDelay
+	 *            the delay in milliseconds
+	 */
+	public void setHedgeDelay(long hedgeDelay) {
+		this.hedgeDelay = hedgeDelay;
+	}
+
+	/**
+	 * Sets the number of consecutive failures after which a source is excluded (default : 3)
+	 * 
+	 * @param failureThreshold
+	 *            the number of consecutive failures
+	 */
+	public void setFailureThreshold(int failureThreshold) {
+		this.failureThreshold = failureThreshold;
+		initHealths();
+	}
+
+	/**
+	 * Sets the duration (in milliseconds) during which a failing source is excluded (default : 60000 ms)
+	 * 
+	 * @param cooldown
+	 *            the duration in milliseconds
+	 */
+	public void setCooldown(long cooldown) {
+		this.cooldown = cooldown;
+		initHealths();
+	}
+
+	private synchronized void initHealths() {
+		Map<String, EndpointHealth> newHealths = new HashMap<>();
+		if (tspSources != null) {
+			for (String sourceKey : tspSources.keySet()) {
+				newHealths.put(sourceKey, new EndpointHealth(failureThreshold, cooldown));
+			}
+		}
+		healthBySource = Collections.unmodifiableMap(newHealths);
 	}
 
 	@Override
 	public TimestampBinary getTimeStampResponse(DigestAlgorithm digestAlgorithm, byte[] digestValue) throws DSSException {
-		for (Entry<String, TSPSource> entry : tspSources.entrySet()) {
+		final Map<String, TSPSource> currentSources = tspSources;
+		if (executorService != null && !currentSources.isEmpty()) {
+			return getHedgedTimeStampResponse(currentSources, healthBySource, digestAlgorithm, digestValue);
+		}
+		for (Entry<String, TSPSource> entry : currentSources.entrySet()) {
 			String sourceKey = entry.getKey();
 			TSPSource source = entry.getValue();
 			LOG.debug("Trying to get timestamp with TSPSource '{}'", sourceKey);
@@ -72,7 +159,159 @@ public class CompositeTSPSource implements TSPSource {
 				LOG.warn("Unable to retrieve the timestamp with TSPSource '{}' : {}", sourceKey, e.getMessage());
 			}
 		}
-		throw new DSSException("Unable to retrieve the timestamp (" + tspSources.size() + " tries)");
+		throw new DSSException("Unable to retrieve the timestamp (" + currentSources.size() + " tries)");
+	}
+
+	private TimestampBinary getHedgedTimeStampResponse(Map<String, TSPSource> currentSources, Map<String, EndpointHealth> currentHealths,
+			DigestAlgorithm digestAlgorithm, byte[] digestValue) {
+		final Map<String, EndpointHealth> healths = getHealths(currentSources, currentHealths);
+		List<String> orderedKeys = getOrderedSourceKeys(healths);
+		CompletionService<TimestampBinary> completionService = new ExecutorCompletionService<>(executorService);
+		Map<Future<TimestampBinary>, String> pending = new HashMap<>();
+
+		int next = 0;
+		try {
+			String firstKey = orderedKeys.get(next++);
+			pending.put(submit(completionService, currentSources.get(firstKey), healths.get(firstKey), firstKey, digestAlgorithm, digestValue), firstKey);
+
+			while (!pending.isEmpty()) {
+				Future<TimestampBinary> completed;
+				if (next < orderedKeys.size()) {
+					completed = completionService.poll(hedgeDelay, TimeUnit.MILLISECONDS);
+				} else {
+					completed = completionService.take();
+				}
+
+				if (completed == null) {
+					String sourceKey = orderedKeys.get(next++);
+					LOG.debug("No timestamp after {} ms, sending a hedged request with TSPSource '{}'", hedgeDelay, sourceKey);
+					pending.put(submit(completionService, currentSources.get(sourceKey), healths.get(sourceKey), sourceKey, digestAlgorithm, digestValue), sourceKey);
+					continue;
+				}
+
+				String sourceKey = pending.remove(completed);
+				TimestampBinary timestampBinary = getResult(completed, sourceKey);
+				if (timestampBinary != null) {
+					LOG.debug("Successfully retrieved timestamp with TSPSource '{}'", sourceKey);
+					return timestampBinary;
+				}
+
+				if (next < orderedKeys.size()) {
+					String nextKey = orderedKeys.get(next++);
+					pending.put(submit(completionService, currentSources.get(nextKey), healths.get(nextKey), nextKey, digestAlgorithm, digestValue), nextKey);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSException("Interrupted while retrieving the timestamp", e);
+		} finally {
+			for (Future<TimestampBinary> future : pending.keySet()) {
+				future.cancel(true);
+			}
+		}
+		throw new DSSException("Unable to retrieve the timestamp (" + next + " tries)");
+	}
+
+	private Future<TimestampBinary> submit(CompletionService<TimestampBinary> completionService, final TSPSource source,
+			final EndpointHealth health, String sourceKey, DigestAlgorithm digestAlgorithm, byte[] digestValue) {
+		LOG.debug("Trying to get timestamp with TSPSource '{}'", sourceKey);
+		return completionService.submit(() -> {
+			long start = System.nanoTime();
+			try {
+				TimestampBinary timestampBinary = source.getTimeStampResponse(digestAlgorithm, digestValue);
+				if (timestampBinary != null) {
+					health.success(elapsedMillis(start));
+				} else {
+					health.failure(elapsedMillis(start));
+				}
+				return timestampBinary;
+			} catch (Exception e) {
+				if (Thread.currentThread().isInterrupted()) {
+					// cancelled hedged request : only the latency is meaningful
+					health.latency(elapsedMillis(start));
+				} else {
+					health.failure(elapsedMillis(start));
+				}
+				throw e;
+			}
+		});
+	}
+
+	private TimestampBinary getResult(Future<TimestampBinary> future, String sourceKey) throws InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause() != null ? e.getCause() : e;
+			LOG.warn("Unable to retrieve the timestamp with TSPSource '{}' : {}", sourceKey, cause.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the health of each source of the request. A source set after the health map was published (concurrent
+	 * call to setTspSources) gets a new health, which is not kept.
+	 */
+	private Map<String, EndpointHealth> getHealths(Map<String, TSPSource> currentSources, Map<String, EndpointHealth> currentHealths) {
+		Map<String, EndpointHealth> healths = new LinkedHashMap<>();
+		for (String sourceKey : currentSources.keySet()) {
+			EndpointHealth health = currentHealths.get(sourceKey);
+			healths.put(sourceKey, health != null ? health : new EndpointHealth(failureThreshold, cooldown));
+		}
+		return healths;
+	}
+
+	private List<String> getOrderedSourceKeys(Map<String, EndpointHealth> healths) {
+		List<String> available = new ArrayList<>();
+		List<String> excluded = new ArrayList<>();
+		for (Entry<String, EndpointHealth> entry : healths.entrySet()) {
+			if (entry.getValue().isOpen()) {
+				excluded.add(entry.getKey());
+			} else {
+				available.add(entry.getKey());
+			}
+		}
+		if (available.isEmpty()) {
+			LOG.warn("All TSPSources are excluded, trying them anyway");
+			available = excluded;
+		} else if (!excluded.isEmpty()) {
+			LOG.debug("TSPSources excluded by the circuit breaker : {}", excluded);
+		}
+		// the scores are updated concurrently, the sort needs a stable snapshot
+		final Map<String, Double> scores = new HashMap<>();
+		for (String sourceKey : available) {
+			scores.put(sourceKey, healths.get(sourceKey).getScore());
+		}
+		Collections.sort(available, Comparator.comparingDouble(scores::get));
+		return available;
+	}
+
+	private static long elapsedMillis(long startNanos) {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * Returns the average latency (in milliseconds) observed for the given source, or -1 if the source has not been
+	 * requested yet
+	 * 
+	 * @param sourceKey
+	 *            the label of the source
+	 * @return the average latency in milliseconds
+	 */
+	public double getAverageLatency(String sourceKey) {
+		EndpointHealth health = healthBySource.get(sourceKey);
+		return health != null ? health.getAverageLatency() : -1;
+	}
+
+	/**
+	 * Returns true if the given source is currently excluded by the circuit breaker
+	 * 
+	 * @param sourceKey
+	 *            the label of the source
+	 * @return true if the source is excluded
+	 */
+	public boolean isExcluded(String sourceKey) {
+		EndpointHealth health = healthBySource.get(sourceKey);
+		return health != null && health.isOpen();
 	}
 
 }
@@ -0,0 +1,156 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.spi.client.http;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.spi.client.http.DataLoader.DataAndUrl;
+
+public class HealthAwareDataLoaderTest {
+
+	private static final String DEAD_URL = "http://dead.example/ocsp";
+	private static final String GOOD_URL = "http://good.example/ocsp";
+
+	@Test
+	public void circuitOpenedAfterFailures() {
+		CountingDataLoader countingDataLoader = new CountingDataLoader();
+		HealthAwareDataLoader dataLoader = new HealthAwareDataLoader(countingDataLoader);
+		dataLoader.setFailureThreshold(2);
+
+		assertThrows(DSSException.class, () -> dataLoader.post(DEAD_URL, new byte[] { 1 }));
+		assertFalse(dataLoader.getHealth(DEAD_URL).isOpen());
+		assertThrows(DSSException.class, () -> dataLoader.post(DEAD_URL, new byte[] { 1 }));
+		assertTrue(dataLoader.getHealth(DEAD_URL).isOpen());
+		assertEquals(2, countingDataLoader.calls.get());
+
+		// rejected without calling the underlying data loader
+		assertThrows(DSSException.class, () -> dataLoader.post(DEAD_URL, new byte[] { 1 }));
+		assertEquals(2, countingDataLoader.calls.get());
+
+		assertArrayEquals(new byte[] { 1 }, dataLoader.post(GOOD_URL, new byte[] { 1 }));
+		assertFalse(dataLoader.getHealth(GOOD_URL).isOpen());
+	}
+
+	@Test
+	public void healthiestUrlFirst() {
+		CountingDataLoader countingDataLoader = new CountingDataLoader();
+		HealthAwareDataLoader dataLoader = new HealthAwareDataLoader(countingDataLoader);
+		dataLoader.setFailureThreshold(1);
+
+		DataAndUrl dataAndUrl = dataLoader.get(Arrays.asList(DEAD_URL, GOOD_URL));
+		assertEquals(GOOD_URL, dataAndUrl.getUrlString());
+		assertEquals(2, countingDataLoader.calls.get());
+
+		dataAndUrl = dataLoader.get(Arrays.asList(DEAD_URL, GOOD_URL));
+		assertEquals(GOOD_URL, dataAndUrl.getUrlString());
+		assertEquals(3, countingDataLoader.calls.get());
+	}
+
+	@Test
+	public void allExcludedUrlsAreTried() {
+		CountingDataLoader countingDataLoader = new CountingDataLoader();
+		HealthAwareDataLoader dataLoader = new HealthAwareDataLoader(countingDataLoader);
+		dataLoader.setFailureThreshold(1);
+
+		assertThrows(DSSException.class, () -> dataLoader.get(Arrays.asList(DEAD_URL)));
+		assertTrue(dataLoader.getHealth(DEAD_URL).isOpen());
+		assertThrows(DSSException.class, () -> dataLoader.get(Arrays.asList(DEAD_URL)));
+		assertEquals(2, countingDataLoader.calls.get());
+	}
+
+	@Test
+	public void settingsChangedConcurrently() throws Exception {
+		HealthAwareDataLoader dataLoader = new HealthAwareDataLoader(new CountingDataLoader());
+		dataLoader.setFailureThreshold(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				futures.add(executor.submit(() -> {
+					for (int j = 0; j < 500; j++) {
+						assertEquals(GOOD_URL, dataLoader.get(Arrays.asList(DEAD_URL, GOOD_URL, "http://other" + (j % 10) + ".example/ocsp")).getUrlString());
+					}
+				}));
+			}
+			futures.add(executor.submit(() -> {
+				for (int j = 0; j < 500; j++) {
+					dataLoader.setCooldown(j % 2);
+					dataLoader.setFailureThreshold(1 + j % 3);
+				}
+			}));
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class CountingDataLoader extends MemoryDataLoader {
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		CountingDataLoader() {
+			super(getData());
+		}
+
+		private static Map<String, byte[]> getData() {
+			Map<String, byte[]> data = new HashMap<>();
+			data.put(GOOD_URL, new byte[] { 1 });
+			return data;
+		}
+
+		@Override
+		public byte[] get(String url) {
+			calls.incrementAndGet();
+			if (DEAD_URL.equals(url)) {
+				throw new DSSException("Connection timed out");
+			}
+			return super.get(url);
+		}
+
+		@Override
+		public byte[] post(String url, byte[] content) {
+			return get(url);
+		}
+
+	}
+
+}
@@ -0,0 +1,167 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.spi.x509;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.client.http.MemoryDataLoader;
+
+public class AIACertificateCacheTest {
+
+	private static final String AIA_URL_1 = "http://eidrep1.disig.sk/svkeidaca/cert/svkeidaca.p7c";
+	private static final String AIA_URL_2 = "http://eidrep2.disig.sk/svkeidaca/cert/svkeidaca.p7c";
+
+	private static final CertificateToken CERTIFICATE_WITH_AIA = DSSUtils.loadCertificate(new File("src/test/resources/sk_user.cer"));
+
+	@TempDir
+	Path tempDir;
+
+	@BeforeEach
+	public void init() {
+		AIACertificateCache cache = AIACertificateCache.getInstance();
+		cache.clear();
+		cache.setEnabled(true);
+	}
+
+	@AfterEach
+	public void reset() {
+		AIACertificateCache cache = AIACertificateCache.getInstance();
+		cache.setCacheDirectory(null);
+		cache.setNegativeTtl(0);
+		cache.setEnabled(false);
+	}
+
+	@Test
+	public void notCachedWhenDisabled() {
+		AIACertificateCache.getInstance().setEnabled(false);
+		CountingDataLoader dataLoader = new CountingDataLoader(false);
+
+		assertFalse(DSSUtils.loadPotentialIssuerCertificates(CERTIFICATE_WITH_AIA, dataLoader).isEmpty());
+		assertFalse(DSSUtils.loadPotentialIssuerCertificates(CERTIFICATE_WITH_AIA, dataLoader).isEmpty());
+		assertEquals(2, dataLoader.calls);
+		assertNull(AIACertificateCache.getInstance().get(AIA_URL_1, CERTIFICATE_WITH_AIA));
+	}
+
+	@Test
+	public void downloadedOnce() {
+		CountingDataLoader dataLoader = new CountingDataLoader(false);
+
+		Collection<CertificateToken> issuers = DSSUtils.loadPotentialIssuerCertificates(CERTIFICATE_WITH_AIA, dataLoader);
+		assertFalse(issuers.isEmpty());
+		assertEquals(1, dataLoader.calls);
+
+		Collection<CertificateToken> cachedIssuers = DSSUtils.loadPotentialIssuerCertificates(CERTIFICATE_WITH_AIA, dataLoader);
+		assertEquals(new ArrayList<>(issuers), new ArrayList<>(cachedIssuers));
+		assertEquals(1, dataLoader.calls);
+
+		CertificatePool pool = new CertificatePool();
+		AIACertificateCache.getInstance().importCertificates(pool);
+		assertEquals(issuers.size(), pool.getNumberOfCertificates());
+	}
+
+	@Test
+	public void negativeCaching() {
+		AIACertificateCache.getInstance().setNegativeTtl(60000);
+		CountingDataLoader dataLoader = new CountingDataLoader(true);
+
+		assertFalse(DSSUtils.loadPotentialIssuerCertificates(CERTIFICATE_WITH_AIA, dataLoader).isEmpty());
+		assertEquals(2, dataLoader.calls);
+		assertTrue(AIACertificateCache.getInstance().get(AIA_URL_1, CERTIFICATE_WITH_AIA).isEmpty());
+
+		assertFalse(DSSUtils.loadPotentialIssuerCertificates(CERTIFICATE_WITH_AIA, dataLoader).isEmpty());
+		assertEquals(2, dataLoader.calls);
+	}
+
+	@Test
+	public void noNegativeCachingByDefault() {
+		CountingDataLoader dataLoader = new CountingDataLoader(true);
+
+		assertFalse(DSSUtils.loadPotentialIssuerCertificates(CERTIFICATE_WITH_AIA, dataLoader).isEmpty());
+		assertNull(AIACertificateCache.getInstance().get(AIA_URL_1, CERTIFICATE_WITH_AIA));
+	}
+
+	@Test
+	public void persisted() {
+		AIACertificateCache cache = AIACertificateCache.getInstance();
+		cache.setCacheDirectory(tempDir.toFile());
+		CountingDataLoader dataLoader = new CountingDataLoader(false);
+
+		Collection<CertificateToken> issuers = DSSUtils.loadPotentialIssuerCertificates(CERTIFICATE_WITH_AIA, dataLoader);
+		assertEquals(1, tempDir.toFile().listFiles().length);
+
+		cache.clear();
+
+		List<CertificateToken> persistedIssuers = cache.get(AIA_URL_1, CERTIFICATE_WITH_AIA);
+		assertEquals(new ArrayList<>(issuers), persistedIssuers);
+		assertEquals(1, dataLoader.calls);
+	}
+
+	@SuppressWarnings("serial")
+	private static class CountingDataLoader extends MemoryDataLoader {
+
+		private final boolean firstUrlDown;
+
+		private int calls;
+
+		CountingDataLoader(boolean firstUrlDown) {
+			super(getData());
+			this.firstUrlDown = firstUrlDown;
+		}
+
+		private static Map<String, byte[]> getData() {
+			byte[] p7c = DSSUtils.toByteArray(new File("src/test/resources/certchain.p7c"));
+			Map<String, byte[]> data = new HashMap<>();
+			data.put(AIA_URL_1, p7c);
+			data.put(AIA_URL_2, p7c);
+			return data;
+		}
+
+		@Override
+		public byte[] get(String url) {
+			calls++;
+			if (firstUrlDown && AIA_URL_1.equals(url)) {
+				throw new DSSException("Connection timed out");
+			}
+			return super.get(url);
+		}
+
+	}
+
+}
@@ -0,0 +1,107 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.spi.x509;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.util.List;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cms.SignerId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.enumerations.CertificateSourceType;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSASN1Utils;
+import eu.europa.esig.dss.spi.DSSUtils;
+
+public class CertificatePoolIndexTest {
+
+	private CertificatePool certificatePool;
+
+	private CertificateToken citizenCA;
+	private CertificateToken belgiumRS2;
+	private CertificateToken belgiumRS2Signed;
+
+	@BeforeEach
+	public void init() {
+		certificatePool = new CertificatePool();
+		certificatePool.getInstance(DSSUtils.loadCertificate(new File("src/test/resources/ecdsa.cer")), CertificateSourceType.OTHER);
+		certificatePool.getInstance(DSSUtils.loadCertificate(new File("src/test/resources/sk_ca.cer")), CertificateSourceType.OTHER);
+
+		citizenCA = certificatePool.getInstance(DSSUtils.loadCertificate(new File("src/test/resources/citizen_ca.cer")),
+				CertificateSourceType.OTHER);
+		// same public key
+		belgiumRS2 = certificatePool.getInstance(DSSUtils.loadCertificate(new File("src/test/resources/belgiumrs2.crt")),
+				CertificateSourceType.OTHER);
+		belgiumRS2Signed = certificatePool.getInstance(DSSUtils.loadCertificate(new File("src/test/resources/belgiumrs2-signed.crt")),
+				CertificateSourceType.OTHER);
+	}
+
+	@Test
+	public void getBySki() {
+		List<CertificateToken> result = certificatePool.getBySki(DSSASN1Utils.computeSkiFromCert(citizenCA));
+		assertEquals(1, result.size());
+		assertEquals(citizenCA, result.get(0));
+
+		result = certificatePool.getBySki(DSSASN1Utils.computeSkiFromCert(belgiumRS2Signed));
+		assertEquals(2, result.size());
+
+		assertTrue(certificatePool.getBySki(new byte[] { 1, 2, 3 }).isEmpty());
+		assertTrue(certificatePool.getBySki(null).isEmpty());
+	}
+
+	@Test
+	public void getBySignerIdIssuerSerial() {
+		SignerId signerId = new SignerId(X500Name.getInstance(citizenCA.getIssuerX500Principal().getEncoded()), citizenCA.getSerialNumber());
+		List<CertificateToken> result = certificatePool.getBySignerId(signerId);
+		assertEquals(1, result.size());
+		assertEquals(citizenCA, result.get(0));
+
+		// cross certificate : the second certificate of the entity matches
+		signerId = new SignerId(X500Name.getInstance(belgiumRS2Signed.getIssuerX500Principal().getEncoded()), belgiumRS2Signed.getSerialNumber());
+		result = certificatePool.getBySignerId(signerId);
+		assertEquals(2, result.size());
+		assertTrue(result.contains(belgiumRS2));
+
+		// wrong issuer
+		signerId = new SignerId(X500Name.getInstance(citizenCA.getSubjectX500Principal().getEncoded()), citizenCA.getSerialNumber());
+		assertTrue(certificatePool.getBySignerId(signerId).isEmpty());
+
+		signerId = new SignerId(X500Name.getInstance(citizenCA.getIssuerX500Principal().getEncoded()), BigInteger.TEN);
+		assertTrue(certificatePool.getBySignerId(signerId).isEmpty());
+	}
+
+	@Test
+	public void getBySignerIdSki() {
+		byte[] ski = DSSASN1Utils.getSki(citizenCA, true);
+		List<CertificateToken> result = certificatePool.getBySignerId(new SignerId(ski));
+		assertEquals(1, result.size());
+		assertEquals(citizenCA, result.get(0));
+
+		assertTrue(certificatePool.getBySignerId(new SignerId(new byte[] { 1, 2, 3 })).isEmpty());
+	}
+
+}
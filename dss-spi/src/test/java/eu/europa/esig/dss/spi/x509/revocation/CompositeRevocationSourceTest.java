@@ -0,0 +1,232 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.spi.x509.revocation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.crl.CRLBinary;
+import eu.europa.esig.dss.crl.CRLUtils;
+import eu.europa.esig.dss.crl.CRLValidity;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.FileDocument;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+
+public class CompositeRevocationSourceTest {
+
+	private static CertificateToken certificate;
+
+	private static CRLToken crlToken;
+
+	@BeforeAll
+	public static void init() throws IOException {
+		FileDocument crl = new FileDocument("src/test/resources/crl/belgium2.crl");
+		FileDocument caCert = new FileDocument("src/test/resources/belgiumrs2.crt");
+		FileDocument tsaCert = new FileDocument("src/test/resources/TSA_BE.cer");
+
+		CRLValidity crlValidity = CRLUtils.buildCRLValidity(new CRLBinary(DSSUtils.toByteArray(crl)), DSSUtils.loadCertificate(caCert.openStream()));
+		certificate = DSSUtils.loadCertificate(tsaCert.openStream());
+		crlToken = new CRLToken(certificate, crlValidity);
+	}
+
+	@Test
+	public void sourcesInGivenOrder() {
+		MockSource empty = new MockSource(Behaviour.EMPTY);
+		MockSource first = new MockSource(Behaviour.FOUND);
+		MockSource second = new MockSource(Behaviour.FOUND);
+
+		CompositeRevocationSource<CRLToken> composite = new CompositeRevocationSource<>(Arrays.asList(empty, first, second));
+		assertSame(crlToken, composite.getRevocationToken(certificate, null));
+		assertEquals(1, empty.getCalls());
+		assertEquals(1, first.getCalls());
+		assertEquals(0, second.getCalls());
+	}
+
+	@Test
+	public void healthiestSourceFirst() {
+		MockSource slowAndFailing = new MockSource(Behaviour.SLOW_FAILURE);
+		MockSource good = new MockSource(Behaviour.FOUND);
+
+		CompositeRevocationSource<CRLToken> composite = new CompositeRevocationSource<>(Arrays.asList(slowAndFailing, good));
+		composite.setHealthAware(true);
+		composite.setFailureThreshold(10);
+
+		// no statistics yet : the given order is kept
+		assertSame(crlToken, composite.getRevocationToken(certificate, null));
+		assertEquals(1, slowAndFailing.getCalls());
+		assertEquals(1, good.getCalls());
+
+		// the failing source is not excluded but comes after the healthy one
+		assertFalse(composite.getHealth(0).isOpen());
+		assertTrue(composite.getHealth(0).getScore() > composite.getHealth(1).getScore());
+		assertSame(crlToken, composite.getRevocationToken(certificate, null));
+		assertEquals(1, slowAndFailing.getCalls());
+		assertEquals(2, good.getCalls());
+	}
+
+	@Test
+	public void failingSourceExcluded() {
+		MockSource failing = new MockSource(Behaviour.FAILURE);
+		MockSource empty = new MockSource(Behaviour.EMPTY);
+
+		CompositeRevocationSource<CRLToken> composite = new CompositeRevocationSource<>(Arrays.asList(failing, empty));
+		composite.setHealthAware(true);
+		composite.setFailureThreshold(2);
+		composite.setCooldown(60000);
+
+		assertNull(composite.getRevocationToken(certificate, null));
+		assertFalse(composite.getHealth(0).isOpen());
+		assertNull(composite.getRevocationToken(certificate, null));
+		assertTrue(composite.getHealth(0).isOpen());
+		assertEquals(2, failing.getCalls());
+
+		assertNull(composite.getRevocationToken(certificate, null));
+		assertEquals(2, failing.getCalls());
+		assertEquals(3, empty.getCalls());
+	}
+
+	@Test
+	public void failingSourceRetriedAfterCooldown() throws InterruptedException {
+		MockSource failing = new MockSource(Behaviour.FAILURE);
+
+		CompositeRevocationSource<CRLToken> composite = new CompositeRevocationSource<>(Arrays.asList(failing, new MockSource(Behaviour.EMPTY)));
+		composite.setHealthAware(true);
+		composite.setFailureThreshold(1);
+		composite.setCooldown(50);
+
+		assertNull(composite.getRevocationToken(certificate, null));
+		assertTrue(composite.getHealth(0).isOpen());
+		Thread.sleep(100);
+		assertFalse(composite.getHealth(0).isOpen());
+		assertNull(composite.getRevocationToken(certificate, null));
+		assertEquals(2, failing.getCalls());
+	}
+
+	@Test
+	public void allSourcesExcluded() {
+		MockSource failing = new MockSource(Behaviour.FAILURE);
+		MockSource otherFailing = new MockSource(Behaviour.FAILURE);
+
+		CompositeRevocationSource<CRLToken> composite = new CompositeRevocationSource<>(Arrays.asList(failing, otherFailing));
+		composite.setHealthAware(true);
+		composite.setFailureThreshold(1);
+
+		assertNull(composite.getRevocationToken(certificate, null));
+		assertTrue(composite.getHealth(0).isOpen());
+		assertTrue(composite.getHealth(1).isOpen());
+
+		// every source is excluded : they are requested anyway
+		assertNull(composite.getRevocationToken(certificate, null));
+		assertEquals(2, failing.getCalls());
+		assertEquals(2, otherFailing.getCalls());
+	}
+
+	@Test
+	public void settingsChangedConcurrently() throws Exception {
+		CompositeRevocationSource<CRLToken> composite = new CompositeRevocationSource<>(
+				Arrays.asList(new MockSource(Behaviour.FAILURE), new MockSource(Behaviour.EMPTY), new MockSource(Behaviour.FOUND)));
+		composite.setHealthAware(true);
+		composite.setFailureThreshold(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				futures.add(executor.submit(() -> {
+					for (int j = 0; j < 500; j++) {
+						assertSame(crlToken, composite.getRevocationToken(certificate, null));
+					}
+				}));
+			}
+			futures.add(executor.submit(() -> {
+				for (int j = 0; j < 500; j++) {
+					composite.setCooldown(j % 2);
+					composite.setFailureThreshold(1 + j % 3);
+				}
+			}));
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private enum Behaviour {
+		FOUND, EMPTY, FAILURE, SLOW_FAILURE
+	}
+
+	private static class MockSource implements RevocationSource<CRLToken> {
+
+		private static final long serialVersionUID = -3914839201870924512L;
+
+		private final Behaviour behaviour;
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		MockSource(Behaviour behaviour) {
+			this.behaviour = behaviour;
+		}
+
+		@Override
+		public CRLToken getRevocationToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+			calls.incrementAndGet();
+			switch (behaviour) {
+			case FOUND:
+				return crlToken;
+			case EMPTY:
+				return null;
+			case SLOW_FAILURE:
+				try {
+					Thread.sleep(20);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				throw new DSSException("Unable to reach the source");
+			default:
+				throw new DSSException("Unable to reach the source");
+			}
+		}
+
+		int getCalls() {
+			return calls.get();
+		}
+
+	}
+
+}
@@ -0,0 +1,177 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.spi.x509.revocation.ocsp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Date;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.RespID;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.RevocationOrigin;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSRevocationUtils;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.client.http.DataLoader;
+import eu.europa.esig.dss.spi.x509.revocation.OnlineRevocationSource;
+
+public class InMemoryCacheOCSPSourceTest {
+
+	private static final long ONE_HOUR = 60 * 60 * 1000L;
+
+	private static X500Name caName;
+	private static KeyPair caKeys;
+	private static X509CertificateHolder caHolder;
+	private static CertificateToken caCertificate;
+	private static CertificateToken userCertificate;
+
+	@BeforeAll
+	public static void init() throws Exception {
+		KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+		keyPairGenerator.initialize(2048);
+		caKeys = keyPairGenerator.generateKeyPair();
+		KeyPair userKeys = keyPairGenerator.generateKeyPair();
+
+		Date notBefore = new Date(System.currentTimeMillis() - ONE_HOUR);
+		Date notAfter = new Date(System.currentTimeMillis() + 24 * ONE_HOUR);
+		caName = new X500Name("CN=Test CA");
+		caHolder = new JcaX509v3CertificateBuilder(caName, BigInteger.ONE, notBefore, notAfter, caName, caKeys.getPublic())
+				.build(getSigner());
+		X509CertificateHolder userHolder = new JcaX509v3CertificateBuilder(caName, BigInteger.valueOf(2), notBefore, notAfter,
+				new X500Name("CN=Test user"), userKeys.getPublic()).build(getSigner());
+
+		caCertificate = DSSUtils.loadCertificate(caHolder.getEncoded());
+		userCertificate = DSSUtils.loadCertificate(userHolder.getEncoded());
+	}
+
+	private static ContentSigner getSigner() throws Exception {
+		return new JcaContentSignerBuilder("SHA256withRSA").build(caKeys.getPrivate());
+	}
+
+	@Test
+	public void cachedUntilNextUpdate() {
+		MockOCSPSource onlineSource = new MockOCSPSource(new Date(System.currentTimeMillis() + ONE_HOUR), false);
+		InMemoryCacheOCSPSource ocspSource = new InMemoryCacheOCSPSource(onlineSource);
+
+		OCSPToken token = ocspSource.getRevocationToken(userCertificate, caCertificate);
+		assertNotNull(token);
+		assertTrue(token.isValid());
+		assertEquals(1, onlineSource.calls);
+
+		OCSPToken cachedToken = ocspSource.getRevocationToken(userCertificate, caCertificate);
+		assertNotNull(cachedToken);
+		assertTrue(cachedToken.isValid());
+		assertEquals(RevocationOrigin.CACHED, cachedToken.getFirstOrigin());
+		assertEquals(token.getThisUpdate(), cachedToken.getThisUpdate());
+		assertEquals(1, onlineSource.calls);
+		assertEquals(1, ocspSource.getHitCount());
+		assertEquals(1, ocspSource.getMissCount());
+		assertEquals(1, ocspSource.size());
+
+		ocspSource.getRevocationToken(userCertificate, caCertificate, true);
+		assertEquals(2, onlineSource.calls);
+	}
+
+	@Test
+	public void noNextUpdate() {
+		MockOCSPSource onlineSource = new MockOCSPSource(null, false);
+		InMemoryCacheOCSPSource ocspSource = new InMemoryCacheOCSPSource(onlineSource);
+
+		ocspSource.getRevocationToken(userCertificate, caCertificate);
+		ocspSource.getRevocationToken(userCertificate, caCertificate);
+		assertEquals(2, onlineSource.calls);
+
+		ocspSource.setDefaultNextUpdateDelay(60L);
+		ocspSource.getRevocationToken(userCertificate, caCertificate);
+		ocspSource.getRevocationToken(userCertificate, caCertificate);
+		assertEquals(3, onlineSource.calls);
+	}
+
+	@Test
+	public void nonceResponsesNotCached() {
+		MockOCSPSource onlineSource = new MockOCSPSource(new Date(System.currentTimeMillis() + ONE_HOUR), true);
+		InMemoryCacheOCSPSource ocspSource = new InMemoryCacheOCSPSource(onlineSource);
+
+		ocspSource.getRevocationToken(userCertificate, caCertificate);
+		ocspSource.getRevocationToken(userCertificate, caCertificate);
+		assertEquals(2, onlineSource.calls);
+		assertEquals(0, ocspSource.size());
+
+		ocspSource.setCacheNonceResponses(true);
+		ocspSource.getRevocationToken(userCertificate, caCertificate);
+		ocspSource.getRevocationToken(userCertificate, caCertificate);
+		assertEquals(3, onlineSource.calls);
+	}
+
+	@SuppressWarnings("serial")
+	private static class MockOCSPSource implements OnlineRevocationSource<OCSPToken> {
+
+		private final Date nextUpdate;
+		private final boolean useNonce;
+		private int calls;
+
+		MockOCSPSource(Date nextUpdate, boolean useNonce) {
+			this.nextUpdate = nextUpdate;
+			this.useNonce = useNonce;
+		}
+
+		@Override
+		public OCSPToken getRevocationToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+			calls++;
+			try {
+				CertificateID certId = DSSRevocationUtils.getOCSPCertificateID(certificateToken, issuerCertificateToken, DigestAlgorithm.SHA1);
+				BasicOCSPRespBuilder builder = new BasicOCSPRespBuilder(new RespID(caName));
+				builder.addResponse(certId, CertificateStatus.GOOD, new Date(), nextUpdate);
+				BasicOCSPResp basicOCSPResp = builder.build(getSigner(), new X509CertificateHolder[] { caHolder }, new Date());
+				OCSPToken ocspToken = new OCSPTokenBuilder(basicOCSPResp, certificateToken, issuerCertificateToken).build();
+				OCSPTokenUtils.checkTokenValidity(ocspToken, certificateToken, issuerCertificateToken);
+				ocspToken.setUseNonce(useNonce);
+				return ocspToken;
+			} catch (Exception e) {
+				throw new DSSException(e);
+			}
+		}
+
+		@Override
+		public void setDataLoader(DataLoader dataLoader) {
+		}
+
+	}
+
+}
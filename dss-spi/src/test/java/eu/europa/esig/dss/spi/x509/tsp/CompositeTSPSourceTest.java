@@ -0,0 +1,193 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.spi.x509.tsp;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.TimestampBinary;
+
+public class CompositeTSPSourceTest {
+
+	private static final byte[] DIGEST = new byte[32];
+
+	private ExecutorService executorService;
+
+	@BeforeEach
+	public void init() {
+		executorService = Executors.newFixedThreadPool(4);
+	}
+
+	@AfterEach
+	public void shutdown() {
+		executorService.shutdownNow();
+	}
+
+	@Test
+	public void sequential() {
+		Map<String, TSPSource> sources = new LinkedHashMap<>();
+		sources.put("failing", new MockTSPSource(0, null));
+		sources.put("good", new MockTSPSource(0, new byte[] { 2 }));
+
+		CompositeTSPSource tspSource = new CompositeTSPSource();
+		tspSource.setTspSources(sources);
+		assertArrayEquals(new byte[] { 2 }, tspSource.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST).getBytes());
+	}
+
+	@Test
+	public void hedgedRequest() {
+		Map<String, TSPSource> sources = new LinkedHashMap<>();
+		sources.put("slow", new MockTSPSource(5000, new byte[] { 1 }));
+		sources.put("fast", new MockTSPSource(0, new byte[] { 2 }));
+
+		CompositeTSPSource tspSource = new CompositeTSPSource();
+		tspSource.setTspSources(sources);
+		tspSource.setExecutorService(executorService);
+		tspSource.setHedgeDelay(100);
+
+		long start = System.currentTimeMillis();
+		TimestampBinary timestampBinary = tspSource.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST);
+		assertArrayEquals(new byte[] { 2 }, timestampBinary.getBytes());
+		assertTrue(System.currentTimeMillis() - start < 4000);
+	}
+
+	@Test
+	public void circuitBreaker() {
+		MockTSPSource failing = new MockTSPSource(0, null);
+		MockTSPSource good = new MockTSPSource(0, new byte[] { 2 });
+		Map<String, TSPSource> sources = new LinkedHashMap<>();
+		sources.put("failing", failing);
+		sources.put("good", good);
+
+		CompositeTSPSource tspSource = new CompositeTSPSource();
+		tspSource.setTspSources(sources);
+		tspSource.setExecutorService(executorService);
+		tspSource.setFailureThreshold(1);
+		tspSource.setCooldown(60000);
+
+		assertArrayEquals(new byte[] { 2 }, tspSource.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST).getBytes());
+		assertEquals(1, failing.calls.get());
+		assertTrue(tspSource.isExcluded("failing"));
+		assertFalse(tspSource.isExcluded("good"));
+
+		assertArrayEquals(new byte[] { 2 }, tspSource.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST).getBytes());
+		assertEquals(1, failing.calls.get());
+		assertEquals(2, good.calls.get());
+	}
+
+	@Test
+	public void allFailing() {
+		Map<String, TSPSource> sources = new LinkedHashMap<>();
+		sources.put("failing1", new MockTSPSource(0, null));
+		sources.put("failing2", new MockTSPSource(0, null));
+
+		CompositeTSPSource tspSource = new CompositeTSPSource();
+		tspSource.setTspSources(sources);
+		tspSource.setExecutorService(executorService);
+		assertThrows(DSSException.class, () -> tspSource.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST));
+	}
+
+	@Test
+	public void settingsChangedConcurrently() throws Exception {
+		Map<String, TSPSource> sources = new LinkedHashMap<>();
+		sources.put("failing", new MockTSPSource(0, null));
+		sources.put("good", new MockTSPSource(0, new byte[] { 2 }));
+
+		CompositeTSPSource tspSource = new CompositeTSPSource();
+		tspSource.setTspSources(sources);
+		tspSource.setExecutorService(executorService);
+		tspSource.setFailureThreshold(1);
+
+		ExecutorService callers = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				futures.add(callers.submit(() -> {
+					for (int j = 0; j < 200; j++) {
+						assertArrayEquals(new byte[] { 2 }, tspSource.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST).getBytes());
+					}
+				}));
+			}
+			futures.add(callers.submit(() -> {
+				for (int j = 0; j < 200; j++) {
+					tspSource.setCooldown(j % 2);
+					tspSource.setFailureThreshold(1 + j % 3);
+					tspSource.setTspSources(new LinkedHashMap<>(sources));
+				}
+			}));
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			callers.shutdown();
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class MockTSPSource implements TSPSource {
+
+		private final long delay;
+		private final byte[] response;
+		private final AtomicInteger calls = new AtomicInteger();
+
+		MockTSPSource(long delay, byte[] response) {
+			this.delay = delay;
+			this.response = response;
+		}
+
+		@Override
+		public TimestampBinary getTimeStampResponse(DigestAlgorithm digestAlgorithm, byte[] digestValue) {
+			calls.incrementAndGet();
+			if (delay > 0) {
+				try {
+					Thread.sleep(delay);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new DSSException("Interrupted");
+				}
+			}
+			if (response == null) {
+				throw new DSSException("No response");
+			}
+			return new TimestampBinary(response);
+		}
+
+	}
+
+}
@@ -0,0 +1,370 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.token;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.MaskGenerationFunction;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.Digest;
+import eu.europa.esig.dss.model.SignatureValue;
+import eu.europa.esig.dss.model.ToBeSigned;
+
+/**
+ * This class allows to use several sessions of the same token concurrently
+ * (eg : several logged-in PKCS#11 sessions on the same HSM slot).
+ * 
+ * Each session is a distinct {@code AbstractKeyStoreTokenConnection} created by
+ * the given {@code SessionFactory} (for PKCS#11, each {@code Pkcs11SignatureToken}
+ * instance uses its own provider and its own login). The sessions are created
+ * on demand, up to the pool size, and each signature is performed with an idle
+ * session. The private keys are identified by their alias : a key entry
+ * returned by any session (or by this connection) can be used with the pool.
+ * 
+ * The key entries are kept per session. When a signature fails and the session
+ * does not respond anymore, the session is closed, a new one is created (new
+ * login) and the signature is performed again.
+ */
+public class PooledSignatureTokenConnection implements SignatureTokenConnection {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PooledSignatureTokenConnection.class);
+
+	private static final long DEFAULT_BORROW_TIMEOUT = 30000;
+
+	/**
+	 * Creates a new session of the token
+	 */
+	public interface SessionFactory {
+
+		/**
+		 * Creates a new connection to the token
+		 * 
+		 * @return a new {@code AbstractKeyStoreTokenConnection}
+		 */
+		AbstractKeyStoreTokenConnection create();
+
+	}
+
+	private final SessionFactory sessionFactory;
+
+	private final int poolSize;
+
+	private final BlockingQueue<Session> idleSessions = new LinkedBlockingQueue<>();
+
+	private final AtomicInteger nbSessions = new AtomicInteger();
+
+	/* Key entries returned by the lookups, by alias */
+	private final Map<String, DSSPrivateKeyEntry> keysByAlias = new ConcurrentHashMap<>();
+
+	private long borrowTimeout = DEFAULT_BORROW_TIMEOUT;
+
+	private volatile boolean closed = false;
+
+	/**
+	 * The default constructor
+	 * 
+	 * @param sessionFactory
+	 *                       the factory which creates the sessions
+	 * @param poolSize
+	 *                       the maximum number of concurrent sessions
+	 */
+	public PooledSignatureTokenConnection(SessionFactory sessionFactory, int poolSize) {
+		Objects.requireNonNull(sessionFactory, "The session factory must be defined");
+		if (poolSize < 1) {
+			throw new IllegalArgumentException("The pool size must be positive");
+		}
+		this.sessionFactory = sessionFactory;
+		this.poolSize = poolSize;
+	}
+
+	/**
+	 * Sets the maximum time to wait for an idle session (default : 30 seconds)
+	 * 
+	 * @param borrowTimeout
+	 *                      the timeout in milliseconds
+	 */
+	public void setBorrowTimeout(long borrowTimeout) {
+		this.borrowTimeout = borrowTimeout;
+	}
+
+	/**
+	 * Returns the number of opened sessions
+	 * 
+	 * @return the number of sessions
+	 */
+	public int getNumberOfSessions() {
+		return nbSessions.get();
+	}
+
+	@Override
+	public List<DSSPrivateKeyEntry> getKeys() throws DSSException {
+		return execute(session -> {
+			List<DSSPrivateKeyEntry> keys = session.getKeys();
+			for (DSSPrivateKeyEntry key : keys) {
+				keysByAlias.put(((KSPrivateKeyEntry) key).getAlias(), key);
+			}
+			return keys;
+		});
+	}
+
+	/**
+	 * This method allows to retrieve a DSSPrivateKeyEntry by alias
+	 * 
+	 * @param alias
+	 *              the expected entry alias
+	 * 
+	 * @return the private key or null if the alias does not exist
+	 */
+	public DSSPrivateKeyEntry getKey(String alias) {
+		Objects.requireNonNull(alias, "The alias must be defined");
+		DSSPrivateKeyEntry key = keysByAlias.get(alias);
+		if (key == null) {
+			key = execute(session -> session.findKey(alias));
+			if (key != null) {
+				keysByAlias.put(alias, key);
+			}
+		}
+		return key;
+	}
+
+	@Override
+	public SignatureValue sign(ToBeSigned toBeSigned, DigestAlgorithm digestAlgorithm, DSSPrivateKeyEntry keyEntry) throws DSSException {
+		return sign(toBeSigned, digestAlgorithm, null, keyEntry);
+	}
+
+	@Override
+	public SignatureValue sign(ToBeSigned toBeSigned, DigestAlgorithm digestAlgorithm, MaskGenerationFunction mgf, DSSPrivateKeyEntry keyEntry)
+			throws DSSException {
+		final String alias = getAlias(keyEntry);
+		return execute(session -> session.getConnection().sign(toBeSigned, digestAlgorithm, mgf, session.getKey(alias)));
+	}
+
+	@Override
+	public SignatureValue signDigest(Digest digest, DSSPrivateKeyEntry keyEntry) throws DSSException {
+		return signDigest(digest, null, keyEntry);
+	}
+
+	@Override
+	public SignatureValue signDigest(Digest digest, MaskGenerationFunction mgf, DSSPrivateKeyEntry keyEntry) throws DSSException {
+		final String alias = getAlias(keyEntry);
+		return execute(session -> session.getConnection().signDigest(digest, mgf, session.getKey(alias)));
+	}
+
+	/**
+	 * Checks all the idle sessions and replaces the ones which do not respond
+	 * anymore
+	 * 
+	 * @return the number of replaced sessions
+	 */
+	public int checkSessions() {
+		int replaced = 0;
+		List<Session> sessions = new ArrayList<>();
+		idleSessions.drainTo(sessions);
+		for (Session session : sessions) {
+			if (session.isAlive()) {
+				release(session);
+			} else {
+				LOG.warn("An idle session does not respond anymore. A new session is opened.");
+				closeSession(session);
+				replaced++;
+				try {
+					nbSessions.incrementAndGet();
+					release(new Session(sessionFactory.create()));
+				} catch (RuntimeException e) {
+					nbSessions.decrementAndGet();
+					LOG.warn("Unable to open a new session : {}", e.getMessage());
+				}
+			}
+		}
+		return replaced;
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		List<Session> sessions = new ArrayList<>();
+		idleSessions.drainTo(sessions);
+		for (Session session : sessions) {
+			closeSession(session);
+		}
+		keysByAlias.clear();
+	}
+
+	private String getAlias(DSSPrivateKeyEntry keyEntry) {
+		if (!(keyEntry instanceof KSPrivateKeyEntry)) {
+			throw new IllegalArgumentException("Only KSPrivateKeyEntry are supported");
+		}
+		return ((KSPrivateKeyEntry) keyEntry).getAlias();
+	}
+
+	private <T> T execute(SessionOperation<T> operation) {
+		Session session = borrow();
+		try {
+			return operation.execute(session);
+		} catch (RuntimeException e) {
+			if (session.isAlive()) {
+				throw e;
+			}
+			LOG.warn("The session does not respond anymore ({}). A new session is opened.", e.getMessage());
+			Session failed = session;
+			session = null;
+			failed.close();
+			session = new Session(sessionFactory.create());
+			return operation.execute(session);
+		} finally {
+			if (session != null) {
+				release(session);
+			} else {
+				// the session was lost and cannot be replaced
+				nbSessions.decrementAndGet();
+			}
+		}
+	}
+
+	private Session borrow() {
+		if (closed) {
+			throw new DSSException("The connection is closed");
+		}
+		Session session = idleSessions.poll();
+		if (session != null) {
+			return session;
+		}
+		if (nbSessions.incrementAndGet() <= poolSize) {
+			try {
+				return new Session(sessionFactory.create());
+			} catch (RuntimeException e) {
+				nbSessions.decrementAndGet();
+				throw e;
+			}
+		}
+		nbSessions.decrementAndGet();
+		try {
+			session = idleSessions.poll(borrowTimeout, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSException("Interrupted while waiting for a session", e);
+		}
+		if (session == null) {
+			throw new DSSException(String.format("No session available after %s ms", borrowTimeout));
+		}
+		return session;
+	}
+
+	private void release(Session session) {
+		if (closed) {
+			closeSession(session);
+		} else {
+			idleSessions.add(session);
+		}
+	}
+
+	private void closeSession(Session session) {
+		session.close();
+		nbSessions.decrementAndGet();
+	}
+
+	private interface SessionOperation<T> {
+
+		T execute(Session session);
+
+	}
+
+	/**
+	 * A session is used by only one thread at a time
+	 */
+	private static final class Session {
+
+		private final AbstractKeyStoreTokenConnection connection;
+
+		/* Key entries (and their key handles) of this session, by alias */
+		private final Map<String, DSSPrivateKeyEntry> keys = new HashMap<>();
+
+		private Session(AbstractKeyStoreTokenConnection connection) {
+			Objects.requireNonNull(connection, "The session factory returned a null connection");
+			this.connection = connection;
+		}
+
+		private AbstractKeyStoreTokenConnection getConnection() {
+			return connection;
+		}
+
+		private List<DSSPrivateKeyEntry> getKeys() {
+			List<DSSPrivateKeyEntry> list = connection.getKeys();
+			for (DSSPrivateKeyEntry key : list) {
+				keys.put(((KSPrivateKeyEntry) key).getAlias(), key);
+			}
+			return list;
+		}
+
+		private DSSPrivateKeyEntry findKey(String alias) {
+			DSSPrivateKeyEntry key = keys.get(alias);
+			if (key == null) {
+				key = connection.getKey(alias);
+				if (key != null) {
+					keys.put(alias, key);
+				}
+			}
+			return key;
+		}
+
+		private DSSPrivateKeyEntry getKey(String alias) {
+			DSSPrivateKeyEntry key = findKey(alias);
+			if (key == null) {
+				throw new DSSException(String.format("No key found for alias '%s'", alias));
+			}
+			return key;
+		}
+
+		private boolean isAlive() {
+			try {
+				connection.getKeys();
+				return true;
+			} catch (RuntimeException e) {
+				LOG.debug("The session does not respond : {}", e.getMessage());
+				return false;
+			}
+		}
+
+		private void close() {
+			keys.clear();
+			try {
+				connection.close();
+			} catch (RuntimeException e) {
+				LOG.warn("Unable to close the session : {}", e.getMessage());
+			}
+		}
+
+	}
+
+}
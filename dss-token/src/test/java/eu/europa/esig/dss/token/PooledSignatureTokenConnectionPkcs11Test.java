@@ -0,0 +1,218 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.token;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.security.KeyStore.PasswordProtection;
+import java.security.Provider;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.SignatureValue;
+import eu.europa.esig.dss.model.ToBeSigned;
+
+/**
+ * Runs the pool against a SoftHSM token. The test is skipped when the library is not found or when no token is
+ * initialized (eg : softhsm2-util --init-token --free --label dss --pin 1234 --so-pin 1234).
+ * 
+ * The library, the pin and the slot list index can be set with the system properties {@code softhsm.library},
+ * {@code softhsm.pin} and {@code softhsm.slotListIndex}. When the token has no key, the key of user_a_rsa.p12 is
+ * imported.
+ */
+public class PooledSignatureTokenConnectionPkcs11Test {
+
+	private static final String[] SOFTHSM_LIBRARIES = { "/usr/lib/softhsm/libsofthsm2.so", "/usr/lib/x86_64-linux-gnu/softhsm/libsofthsm2.so",
+			"/usr/local/lib/softhsm/libsofthsm2.so", "/usr/lib64/pkcs11/libsofthsm2.so", "/usr/local/opt/softhsm/lib/softhsm/libsofthsm2.so" };
+
+	private static final String KEYSTORE = "src/test/resources/user_a_rsa.p12";
+
+	private static final PasswordProtection KEYSTORE_PASSWORD = new PasswordProtection("password".toCharArray());
+
+	private static String library;
+
+	private static PasswordProtection pin;
+
+	private static int slotListIndex;
+
+	private final List<LosableSession> createdSessions = new CopyOnWriteArrayList<>();
+
+	@BeforeAll
+	public static void init() throws Exception {
+		library = System.getProperty("softhsm.library");
+		if (library == null) {
+			for (String path : SOFTHSM_LIBRARIES) {
+				if (new File(path).exists()) {
+					library = path;
+					break;
+				}
+			}
+		}
+		assumeTrue(library != null && new File(library).exists(), "SoftHSM is not installed");
+		pin = new PasswordProtection(System.getProperty("softhsm.pin", "1234").toCharArray());
+		slotListIndex = Integer.parseInt(System.getProperty("softhsm.slotListIndex", "0"));
+
+		try (Pkcs11SignatureToken token = newToken()) {
+			List<DSSPrivateKeyEntry> keys = Collections.emptyList();
+			try {
+				keys = token.getKeys();
+			} catch (RuntimeException e) {
+				// no token or a wrong pin
+				assumeTrue(false, "No initialized SoftHSM token : " + e.getMessage());
+			}
+			if (keys.isEmpty()) {
+				importKey(token.getKeyStore());
+			}
+		}
+	}
+
+	private static Pkcs11SignatureToken newToken() {
+		return new Pkcs11SignatureToken(library, new PrefilledPasswordCallback(pin), -1, slotListIndex, null);
+	}
+
+	private static void importKey(KeyStore tokenKeyStore) throws Exception {
+		KeyStore keyStore = KeyStore.getInstance("PKCS12");
+		try (InputStream is = new FileInputStream(KEYSTORE)) {
+			keyStore.load(is, KEYSTORE_PASSWORD.getPassword());
+		}
+		String alias = keyStore.aliases().nextElement();
+		tokenKeyStore.setEntry(alias, keyStore.getEntry(alias, KEYSTORE_PASSWORD), null);
+	}
+
+	private AbstractKeyStoreTokenConnection createSession() {
+		LosableSession session = new LosableSession();
+		createdSessions.add(session);
+		return session;
+	}
+
+	@Test
+	public void concurrentSignatures() throws Exception {
+		try (PooledSignatureTokenConnection pool = new PooledSignatureTokenConnection(this::createSession, 2)) {
+			List<DSSPrivateKeyEntry> keys = pool.getKeys();
+			assertFalse(keys.isEmpty());
+			DSSPrivateKeyEntry entry = keys.get(0);
+
+			ExecutorService executor = Executors.newFixedThreadPool(4);
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				final byte[] data = ("Hello world " + i).getBytes("UTF-8");
+				results.add(executor.submit(() -> {
+					SignatureValue signatureValue = pool.sign(new ToBeSigned(data), DigestAlgorithm.SHA256, entry);
+					return verify(entry, data, signatureValue);
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				assertTrue(result.get());
+			}
+			executor.shutdown();
+
+			assertTrue(pool.getNumberOfSessions() <= 2);
+			assertTrue(createdSessions.size() <= 2);
+		}
+	}
+
+	@Test
+	public void lostSessionIsReplaced() throws Exception {
+		try (PooledSignatureTokenConnection pool = new PooledSignatureTokenConnection(this::createSession, 1)) {
+			DSSPrivateKeyEntry entry = pool.getKeys().get(0);
+			byte[] data = "Hello world".getBytes("UTF-8");
+			assertTrue(verify(entry, data, pool.sign(new ToBeSigned(data), DigestAlgorithm.SHA256, entry)));
+			assertEquals(1, createdSessions.size());
+
+			// the signature with the lost session fails, a new session is logged in and signs
+			createdSessions.get(0).lose();
+			SignatureValue signatureValue = pool.sign(new ToBeSigned(data), DigestAlgorithm.SHA256, entry);
+			assertTrue(verify(entry, data, signatureValue));
+			assertEquals(2, createdSessions.size());
+			assertEquals(1, pool.getNumberOfSessions());
+			assertEquals(0, pool.checkSessions());
+		}
+	}
+
+	@Test
+	public void lostIdleSessionIsReplaced() throws Exception {
+		try (PooledSignatureTokenConnection pool = new PooledSignatureTokenConnection(this::createSession, 1)) {
+			DSSPrivateKeyEntry entry = pool.getKeys().get(0);
+			createdSessions.get(0).lose();
+			assertEquals(1, pool.checkSessions());
+			assertEquals(2, createdSessions.size());
+			assertEquals(1, pool.getNumberOfSessions());
+
+			byte[] data = "Hello world".getBytes("UTF-8");
+			SignatureValue signatureValue = pool.sign(new ToBeSigned(data), DigestAlgorithm.SHA256, entry);
+			assertTrue(verify(entry, data, signatureValue));
+			assertEquals(2, createdSessions.size());
+		}
+	}
+
+	private boolean verify(DSSPrivateKeyEntry entry, byte[] data, SignatureValue signatureValue) throws Exception {
+		Signature signature = Signature.getInstance(signatureValue.getAlgorithm().getJCEId());
+		signature.initVerify(entry.getCertificate().getPublicKey());
+		signature.update(data);
+		return signature.verify(signatureValue.getValue());
+	}
+
+	/**
+	 * A SoftHSM session which can be lost : the login is closed and the library does not open a new one, as with a
+	 * removed token
+	 */
+	private static final class LosableSession extends Pkcs11SignatureToken {
+
+		private volatile boolean lost = false;
+
+		private LosableSession() {
+			super(library, new PrefilledPasswordCallback(pin), -1, slotListIndex, null);
+		}
+
+		private void lose() {
+			close();
+			lost = true;
+		}
+
+		@Override
+		protected Provider getProvider() {
+			if (lost) {
+				throw new DSSException("CKR_TOKEN_NOT_PRESENT");
+			}
+			return super.getProvider();
+		}
+
+	}
+
+}
@@ -0,0 +1,192 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.token;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.security.KeyStore.PasswordProtection;
+import java.security.KeyStore.PrivateKeyEntry;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.MaskGenerationFunction;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.Digest;
+import eu.europa.esig.dss.model.SignatureValue;
+import eu.europa.esig.dss.model.ToBeSigned;
+import eu.europa.esig.dss.spi.DSSUtils;
+
+public class PooledSignatureTokenConnectionTest {
+
+	private static final String KEYSTORE = "src/test/resources/user_a_rsa.p12";
+
+	private static final PasswordProtection PASSWORD = new PasswordProtection("password".toCharArray());
+
+	private final AtomicInteger createdSessions = new AtomicInteger();
+
+	private AbstractKeyStoreTokenConnection createSession() {
+		createdSessions.incrementAndGet();
+		try {
+			return new Pkcs12SignatureToken(KEYSTORE, PASSWORD);
+		} catch (IOException e) {
+			throw new DSSException(e);
+		}
+	}
+
+	@Test
+	public void concurrentSignatures() throws Exception {
+		try (PooledSignatureTokenConnection pool = new PooledSignatureTokenConnection(this::createSession, 3)) {
+			List<DSSPrivateKeyEntry> keys = pool.getKeys();
+			assertFalse(keys.isEmpty());
+			DSSPrivateKeyEntry entry = keys.get(0);
+
+			ExecutorService executor = Executors.newFixedThreadPool(8);
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < 50; i++) {
+				final byte[] data = ("Hello world " + i).getBytes("UTF-8");
+				results.add(executor.submit(() -> {
+					SignatureValue signatureValue = pool.sign(new ToBeSigned(data), DigestAlgorithm.SHA256, entry);
+					return verify(entry, data, signatureValue);
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				assertTrue(result.get());
+			}
+			executor.shutdown();
+
+			assertTrue(pool.getNumberOfSessions() <= 3);
+			assertTrue(createdSessions.get() <= 3);
+		}
+	}
+
+	@Test
+	public void signDigest() throws Exception {
+		try (PooledSignatureTokenConnection pool = new PooledSignatureTokenConnection(this::createSession, 2);
+				Pkcs12SignatureToken token = new Pkcs12SignatureToken(KEYSTORE, PASSWORD)) {
+			// an entry from another connection is identified by its alias
+			DSSPrivateKeyEntry entry = token.getKeys().get(0);
+
+			byte[] data = "Hello world".getBytes("UTF-8");
+			Digest digest = new Digest(DigestAlgorithm.SHA256, DSSUtils.digest(DigestAlgorithm.SHA256, data));
+			SignatureValue signatureValue = pool.signDigest(digest, entry);
+			assertTrue(verify(entry, data, signatureValue));
+		}
+	}
+
+	@Test
+	public void getKeyByAlias() throws Exception {
+		try (PooledSignatureTokenConnection pool = new PooledSignatureTokenConnection(this::createSession, 2)) {
+			KSPrivateKeyEntry entry = (KSPrivateKeyEntry) pool.getKeys().get(0);
+			assertNotNull(pool.getKey(entry.getAlias()));
+			assertNull(pool.getKey("unknown"));
+
+			KeyStore keyStore = KeyStore.getInstance("PKCS12");
+			try (InputStream is = new FileInputStream(KEYSTORE)) {
+				keyStore.load(is, PASSWORD.getPassword());
+			}
+			PrivateKeyEntry privateKeyEntry = (PrivateKeyEntry) keyStore.getEntry(entry.getAlias(), PASSWORD);
+			KSPrivateKeyEntry unknown = new KSPrivateKeyEntry("unknown", privateKeyEntry);
+			assertThrows(DSSException.class, () -> pool.sign(new ToBeSigned(new byte[] { 1 }), DigestAlgorithm.SHA256, unknown));
+			// the session is still alive
+			assertEquals(1, createdSessions.get());
+		}
+	}
+
+	@Test
+	public void lostSessionIsReplaced() throws Exception {
+		final AtomicBoolean lost = new AtomicBoolean(true);
+		PooledSignatureTokenConnection.SessionFactory factory = () -> {
+			createdSessions.incrementAndGet();
+			try {
+				if (lost.getAndSet(false)) {
+					// the first session is lost after the key lookup
+					return new Pkcs12SignatureToken(KEYSTORE, PASSWORD) {
+
+						private int nbCalls = 0;
+
+						@Override
+						public List<DSSPrivateKeyEntry> getKeys() {
+							if (nbCalls++ > 0) {
+								throw new DSSException("CKR_SESSION_HANDLE_INVALID");
+							}
+							return super.getKeys();
+						}
+
+						@Override
+						public SignatureValue sign(ToBeSigned toBeSigned, DigestAlgorithm digestAlgorithm,
+								MaskGenerationFunction mgf, DSSPrivateKeyEntry keyEntry) {
+							throw new DSSException("CKR_SESSION_HANDLE_INVALID");
+						}
+
+					};
+				}
+				return new Pkcs12SignatureToken(KEYSTORE, PASSWORD);
+			} catch (IOException e) {
+				throw new DSSException(e);
+			}
+		};
+
+		try (PooledSignatureTokenConnection pool = new PooledSignatureTokenConnection(factory, 1)) {
+			DSSPrivateKeyEntry entry = pool.getKeys().get(0);
+			byte[] data = "Hello world".getBytes("UTF-8");
+			SignatureValue signatureValue = pool.sign(new ToBeSigned(data), DigestAlgorithm.SHA256, entry);
+			assertTrue(verify(entry, data, signatureValue));
+			assertEquals(2, createdSessions.get());
+			assertEquals(1, pool.getNumberOfSessions());
+			assertEquals(0, pool.checkSessions());
+		}
+	}
+
+	@Test
+	public void closedPool() {
+		PooledSignatureTokenConnection pool = new PooledSignatureTokenConnection(this::createSession, 1);
+		pool.getKeys();
+		pool.close();
+		assertEquals(0, pool.getNumberOfSessions());
+		assertThrows(DSSException.class, () -> pool.getKeys());
+	}
+
+	private boolean verify(DSSPrivateKeyEntry entry, byte[] data, SignatureValue signatureValue) throws Exception {
+		Signature signature = Signature.getInstance(signatureValue.getAlgorithm().getJCEId());
+		signature.initVerify(entry.getCertificate().getPublicKey());
+		signature.update(data);
+		return signature.verify(signatureValue.getValue());
+	}
+
+}
@@ -48,6 +48,7 @@ import eu.europa.esig.dss.tsl.source.LOTLSource;
 import eu.europa.esig.dss.tsl.source.TLSource;
 import eu.europa.esig.dss.tsl.summary.ValidationJobSummaryBuilder;
 import eu.europa.esig.dss.utils.Utils;
+import eu.europa.esig.dss.validation.process.qualification.certificate.CertificateQualificationCache;
 
 public class TrustedListCertificateSourceSynchronizer {
 
@@ -95,6 +96,8 @@ public class TrustedListCertificateSourceSynchronizer {
 
 			if (isCertificateSyncNeeded(summary)) {
 				synchronizeCertificates(summary);
+				// a new snapshot of the trusted lists is published
+				CertificateQualificationCache.getInstance().invalidate();
 			}
 
 			syncCache(summary);
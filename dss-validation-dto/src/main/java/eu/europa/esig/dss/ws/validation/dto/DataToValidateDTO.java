@@ -47,6 +47,11 @@ public class DataToValidateDTO {
 	 */
 	private String signatureId;
 
+	/**
+	 * The report types to be returned (all the reports if not defined)
+	 */
+	private List<ReportType> reportTypes;
+
 	public DataToValidateDTO() {
 	}
 
@@ -101,4 +106,12 @@ public class DataToValidateDTO {
 		this.signatureId = signatureId;
 	}
 
+	public List<ReportType> getReportTypes() {
+		return reportTypes;
+	}
+
+	public void setReportTypes(List<ReportType> reportTypes) {
+		this.reportTypes = reportTypes;
+	}
+
 }
@@ -28,7 +28,9 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.ws.dto.RemoteDocument;
 import eu.europa.esig.dss.ws.validation.dto.DataToValidateDTO;
 import eu.europa.esig.dss.ws.validation.dto.WSReportsDTO;
@@ -48,15 +50,39 @@ public interface RestDocumentValidationService extends Serializable {
 	 * 
 	 * @param dataToValidate
 	 *                       a {@code DataToValidateDTO} which contains the
-	 *                       signature, the optional original document(s) and the
-	 *                       optional validation policy
+	 *                       signature, the optional original document(s), the
+	 *                       optional validation policy and the optional report
+	 *                       types to return
 	 * @return a {@code ReportsDTO} with  4 reports : the diagnostic data, the
 	 *         detailed report, the simple report and the ETSI validation report
+	 *         (only the requested ones if report types are defined)
 	 */
 	@POST
 	@Path("validateSignature")
 	WSReportsDTO validateSignature(DataToValidateDTO dataToValidate);
 
+	/**
+	 * This method validates the signed file and streams the reports as a XML
+	 * document. Each requested report is marshalled directly into the response.
+	 * The document is described by the schema xsd/WSReports.xsd (module
+	 * dss-validation-server-common) : a root element "Reports" in the namespace
+	 * http://dss.esig.europa.eu/validation/ws-reports which contains, in this
+	 * order, the diagnostic data, the simple report, the detailed report and the
+	 * ETSI validation report (only the requested ones), each one in its own
+	 * namespace.
+	 * 
+	 * @param dataToValidate
+	 *                       a {@code DataToValidateDTO} which contains the
+	 *                       signature, the optional original document(s), the
+	 *                       optional validation policy and the optional report
+	 *                       types to return
+	 * @return a {@code Response} with the XML document
+	 */
+	@POST
+	@Path("validateSignatureAsStream")
+	@Produces(MediaType.APPLICATION_XML)
+	Response validateSignatureAsStream(DataToValidateDTO dataToValidate);
+
 	/**
 	 * This method returns the original document(s) for the given signed file and
 	 * optionally the signatureId.
@@ -71,4 +97,18 @@ public interface RestDocumentValidationService extends Serializable {
 	@Path("getOriginalDocuments")
 	List<RemoteDocument> getOriginalDocuments(DataToValidateDTO dataToValidate);
 
+	/**
+	 * This method returns the digest algorithms required to verify the detached
+	 * contents of the signed file. The client can send the original document(s)
+	 * as digests computed with these algorithms (DocHashOnly validation).
+	 * 
+	 * @param dataToValidate
+	 *                       a {@code DataToValidateDTO} which contains the
+	 *                       signature
+	 * @return a List of {@code DigestAlgorithm}
+	 */
+	@POST
+	@Path("getDetachedContentsDigestAlgorithms")
+	List<DigestAlgorithm> getDetachedContentsDigestAlgorithms(DataToValidateDTO dataToValidate);
+
 }
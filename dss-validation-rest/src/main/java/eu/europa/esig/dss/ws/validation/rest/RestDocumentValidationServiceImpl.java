@@ -22,9 +22,17 @@ package eu.europa.esig.dss.ws.validation.rest;
 
 import java.util.List;
 
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.validation.reports.Reports;
 import eu.europa.esig.dss.ws.dto.RemoteDocument;
 import eu.europa.esig.dss.ws.validation.common.RemoteDocumentValidationService;
+import eu.europa.esig.dss.ws.validation.common.WSReportsStreamWriter;
 import eu.europa.esig.dss.ws.validation.dto.DataToValidateDTO;
+import eu.europa.esig.dss.ws.validation.dto.ReportType;
 import eu.europa.esig.dss.ws.validation.dto.WSReportsDTO;
 import eu.europa.esig.dss.ws.validation.rest.client.RestDocumentValidationService;
 
@@ -32,6 +40,8 @@ import eu.europa.esig.dss.ws.validation.rest.client.RestDocumentValidationServic
 public class RestDocumentValidationServiceImpl implements RestDocumentValidationService {
 	
 	private RemoteDocumentValidationService validationService;
+
+	private final WSReportsStreamWriter reportsWriter = new WSReportsStreamWriter();
 	
 	public void setValidationService(RemoteDocumentValidationService validationService) {
 		this.validationService = validationService;
@@ -39,7 +49,18 @@ public class RestDocumentValidationServiceImpl implements RestDocumentValidation
 	
 	@Override
 	public WSReportsDTO validateSignature(DataToValidateDTO dataToValidate) {
-		return validationService.validateDocument(dataToValidate.getSignedDocument(), dataToValidate.getOriginalDocuments(), dataToValidate.getPolicy());
+		return validationService.validateDocument(dataToValidate.getSignedDocument(), dataToValidate.getOriginalDocuments(), dataToValidate.getPolicy(),
+				dataToValidate.getReportTypes());
+	}
+
+	@Override
+	public Response validateSignatureAsStream(DataToValidateDTO dataToValidate) {
+		// the validation is performed before the response is sent, the reports are marshalled while streaming
+		final List<ReportType> reportTypes = dataToValidate.getReportTypes();
+		final Reports reports = validationService.getReports(dataToValidate.getSignedDocument(), dataToValidate.getOriginalDocuments(),
+				dataToValidate.getPolicy(), reportTypes);
+		StreamingOutput output = os -> reportsWriter.write(reports, reportTypes, os);
+		return Response.ok(output, MediaType.APPLICATION_XML).build();
 	}
 
 	@Override
@@ -47,4 +68,9 @@ public class RestDocumentValidationServiceImpl implements RestDocumentValidation
 		return validationService.getOriginalDocuments(dataToValidate.getSignedDocument(), dataToValidate.getOriginalDocuments(),
 				dataToValidate.getSignatureId());
 	}
+
+	@Override
+	public List<DigestAlgorithm> getDetachedContentsDigestAlgorithms(DataToValidateDTO dataToValidate) {
+		return validationService.getDetachedContentsDigestAlgorithms(dataToValidate.getSignedDocument());
+	}
 }
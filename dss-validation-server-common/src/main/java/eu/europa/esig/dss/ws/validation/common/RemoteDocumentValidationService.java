@@ -21,15 +21,20 @@
 package eu.europa.esig.dss.ws.validation.common;
 
 import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import eu.europa.esig.dss.detailedreport.jaxb.XmlDetailedReport;
+import eu.europa.esig.dss.diagnostic.jaxb.XmlDiagnosticData;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.model.DSSDocument;
 import eu.europa.esig.dss.model.DSSException;
 import eu.europa.esig.dss.policy.ValidationPolicy;
 import eu.europa.esig.dss.policy.ValidationPolicyFacade;
+import eu.europa.esig.dss.simplereport.jaxb.XmlSimpleReport;
 import eu.europa.esig.dss.utils.Utils;
 import eu.europa.esig.dss.validation.AdvancedSignature;
 import eu.europa.esig.dss.validation.CertificateVerifier;
@@ -37,7 +42,9 @@ import eu.europa.esig.dss.validation.SignedDocumentValidator;
 import eu.europa.esig.dss.validation.reports.Reports;
 import eu.europa.esig.dss.ws.converter.RemoteDocumentConverter;
 import eu.europa.esig.dss.ws.dto.RemoteDocument;
+import eu.europa.esig.dss.ws.validation.dto.ReportType;
 import eu.europa.esig.dss.ws.validation.dto.WSReportsDTO;
+import eu.europa.esig.validationreport.jaxb.ValidationReportType;
 
 public class RemoteDocumentValidationService {
 
@@ -50,8 +57,60 @@ public class RemoteDocumentValidationService {
 	}
 
 	public WSReportsDTO validateDocument(RemoteDocument signedFile, List<RemoteDocument> originalFiles, RemoteDocument policy) {
+		return validateDocument(signedFile, originalFiles, policy, null);
+	}
+
+	/**
+	 * Validates the signed file and returns the requested reports only
+	 * 
+	 * @param signedFile
+	 *                      the signed file to validate
+	 * @param originalFiles
+	 *                      the original file(s) in case of detached signature
+	 * @param policy
+	 *                      the custom validation policy (optional)
+	 * @param reportTypes
+	 *                      the report types to return (all the reports if null or
+	 *                      empty)
+	 * @return the {@code WSReportsDTO} which contains the requested reports
+	 */
+	public WSReportsDTO validateDocument(RemoteDocument signedFile, List<RemoteDocument> originalFiles, RemoteDocument policy,
+			List<ReportType> reportTypes) {
+		Reports reports = getReports(signedFile, originalFiles, policy, reportTypes);
+
+		XmlDiagnosticData diagnosticData = isRequested(reportTypes, ReportType.DIAGNOSTIC_DATA) ? reports.getDiagnosticDataJaxb() : null;
+		XmlSimpleReport simpleReport = isRequested(reportTypes, ReportType.SIMPLE_REPORT) ? reports.getSimpleReportJaxb() : null;
+		XmlDetailedReport detailedReport = isRequested(reportTypes, ReportType.DETAILED_REPORT) ? reports.getDetailedReportJaxb() : null;
+		ValidationReportType etsiValidationReport = isRequested(reportTypes, ReportType.ETSI_VALIDATION_REPORT) ? reports.getEtsiValidationReportJaxb()
+				: null;
+
+		if (etsiValidationReport != null) {
+			return new WSReportsDTO(diagnosticData, simpleReport, detailedReport, etsiValidationReport);
+		} else {
+			return new WSReportsDTO(diagnosticData, simpleReport, detailedReport);
+		}
+	}
+
+	/**
+	 * Validates the signed file and returns the {@code Reports}, without converting them into a
+	 * {@code WSReportsDTO}. The ETSI validation report is only built if it is requested. The requested reports can
+	 * then be written one by one with a {@code WSReportsStreamWriter}.
+	 * 
+	 * @param signedFile
+	 *                      the signed file to validate
+	 * @param originalFiles
+	 *                      the original file(s) in case of detached signature
+	 * @param policy
+	 *                      the custom validation policy (optional)
+	 * @param reportTypes
+	 *                      the report types to return (all the reports if null or
+	 *                      empty)
+	 * @return the {@code Reports}
+	 */
+	public Reports getReports(RemoteDocument signedFile, List<RemoteDocument> originalFiles, RemoteDocument policy, List<ReportType> reportTypes) {
 		LOG.info("ValidateDocument in process...");
 		SignedDocumentValidator validator = initValidator(signedFile, originalFiles);
+		validator.setEnableEtsiValidationReport(isRequested(reportTypes, ReportType.ETSI_VALIDATION_REPORT));
 
 		Reports reports = null;
 		if (policy == null) {
@@ -59,11 +118,12 @@ public class RemoteDocumentValidationService {
 		} else {
 			reports = validator.validateDocument(getValidationPolicy(policy));
 		}
-
-		WSReportsDTO reportsDTO = new WSReportsDTO(reports.getDiagnosticDataJaxb(), reports.getSimpleReportJaxb(), 
-				reports.getDetailedReportJaxb(), reports.getEtsiValidationReportJaxb());
 		LOG.info("ValidateDocument is finished");
-		return reportsDTO;
+		return reports;
+	}
+
+	static boolean isRequested(List<ReportType> reportTypes, ReportType reportType) {
+		return Utils.isCollectionEmpty(reportTypes) || reportTypes.contains(reportType);
 	}
 
 	private ValidationPolicy getValidationPolicy(RemoteDocument policy) {
@@ -92,6 +152,14 @@ public class RemoteDocumentValidationService {
 		return remoteDocuments;
 	}
 
+	public List<DigestAlgorithm> getDetachedContentsDigestAlgorithms(RemoteDocument signedFile) {
+		LOG.info("GetDetachedContentsDigestAlgorithms in process...");
+		SignedDocumentValidator validator = initValidator(signedFile, null);
+		List<DigestAlgorithm> digestAlgorithms = new ArrayList<>(validator.getDetachedContentsDigestAlgorithms());
+		LOG.info("GetDetachedContentsDigestAlgorithms is finished");
+		return digestAlgorithms;
+	}
+
 	private SignedDocumentValidator initValidator(RemoteDocument signedFile, List<RemoteDocument> originalFiles) {
 		DSSDocument signedDocument = RemoteDocumentConverter.toDSSDocument(signedFile);
 		SignedDocumentValidator signedDocValidator = SignedDocumentValidator.fromDocument(signedDocument);
@@ -0,0 +1,125 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.ws.validation.common;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import eu.europa.esig.dss.detailedreport.DetailedReportFacade;
+import eu.europa.esig.dss.diagnostic.DiagnosticDataFacade;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.simplereport.SimpleReportFacade;
+import eu.europa.esig.dss.validation.reports.Reports;
+import eu.europa.esig.dss.ws.validation.dto.ReportType;
+import eu.europa.esig.validationreport.ValidationReportFacade;
+import eu.europa.esig.validationreport.jaxb.ValidationReportType;
+
+/**
+ * This class writes the requested reports of a validation as a XML document
+ * directly into an {@code OutputStream}. Each report is marshalled into the
+ * stream as soon as it is retrieved from the {@code Reports}, no
+ * {@code WSReportsDTO} is built.
+ * 
+ * The document is described by the schema {@value #SCHEMA_LOCATION} : a root
+ * element "Reports" in the namespace {@value #NAMESPACE} which contains, in
+ * this order, the DiagnosticData, the SimpleReport, the DetailedReport and the
+ * ETSI ValidationReport, each one with its own namespace and schema. The
+ * reports which are not requested are skipped.
+ */
+public class WSReportsStreamWriter {
+
+	public static final String NAMESPACE = "http://dss.esig.europa.eu/validation/ws-reports";
+
+	public static final String SCHEMA_LOCATION = "/xsd/WSReports.xsd";
+
+	public static final String ROOT_ELEMENT = "Reports";
+
+	private static final String ENCODING = StandardCharsets.UTF_8.name();
+
+	/**
+	 * Writes the requested reports into the given {@code OutputStream}. The stream
+	 * is not closed.
+	 * 
+	 * @param reports
+	 *                    the reports of the validation
+	 * @param reportTypes
+	 *                    the report types to write (all the reports if null or
+	 *                    empty)
+	 * @param os
+	 *                    the {@code OutputStream} to write into
+	 */
+	public void write(Reports reports, List<ReportType> reportTypes, OutputStream os) {
+		Objects.requireNonNull(reports, "The reports must be defined");
+		Objects.requireNonNull(os, "The OutputStream must be defined");
+
+		XMLStreamWriter writer = null;
+		try {
+			writer = XMLOutputFactory.newFactory().createXMLStreamWriter(os, ENCODING);
+			writer.writeStartDocument(ENCODING, "1.0");
+			writer.setDefaultNamespace(NAMESPACE);
+			writer.writeStartElement(NAMESPACE, ROOT_ELEMENT);
+			writer.writeDefaultNamespace(NAMESPACE);
+
+			if (RemoteDocumentValidationService.isRequested(reportTypes, ReportType.DIAGNOSTIC_DATA)) {
+				DiagnosticDataFacade.newFacade().marshall(reports.getDiagnosticDataJaxb(), writer, false);
+			}
+			if (RemoteDocumentValidationService.isRequested(reportTypes, ReportType.SIMPLE_REPORT)) {
+				SimpleReportFacade.newFacade().marshall(reports.getSimpleReportJaxb(), writer, false);
+			}
+			if (RemoteDocumentValidationService.isRequested(reportTypes, ReportType.DETAILED_REPORT)) {
+				DetailedReportFacade.newFacade().marshall(reports.getDetailedReportJaxb(), writer, false);
+			}
+			if (RemoteDocumentValidationService.isRequested(reportTypes, ReportType.ETSI_VALIDATION_REPORT)) {
+				// built on demand, null if disabled in the validator
+				ValidationReportType etsiValidationReport = reports.getEtsiValidationReportJaxb();
+				if (etsiValidationReport != null) {
+					ValidationReportFacade.newFacade().marshall(etsiValidationReport, writer, false);
+				}
+			}
+
+			writer.writeEndElement();
+			writer.writeEndDocument();
+			writer.flush();
+		} catch (Exception e) {
+			throw new DSSException("Unable to write the reports", e);
+		} finally {
+			close(writer);
+		}
+	}
+
+	private void close(XMLStreamWriter writer) {
+		if (writer != null) {
+			try {
+				// does not close the underlying stream
+				writer.close();
+			} catch (XMLStreamException e) {
+				throw new DSSException("Unable to close the XMLStreamWriter", e);
+			}
+		}
+	}
+
+}
@@ -23,14 +23,28 @@ package eu.europa.esig.dss.ws.validation.common;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
 
+import eu.europa.esig.dss.DomUtils;
 import eu.europa.esig.dss.diagnostic.DiagnosticData;
 import eu.europa.esig.dss.diagnostic.SignatureWrapper;
 import eu.europa.esig.dss.diagnostic.jaxb.XmlDigestMatcher;
@@ -38,12 +52,15 @@ import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.enumerations.Indication;
 import eu.europa.esig.dss.enumerations.SignatureLevel;
 import eu.europa.esig.dss.model.FileDocument;
+import eu.europa.esig.dss.simplereport.SimpleReportFacade;
+import eu.europa.esig.dss.simplereport.jaxb.XmlSimpleReport;
 import eu.europa.esig.dss.spi.DSSUtils;
 import eu.europa.esig.dss.utils.Utils;
 import eu.europa.esig.dss.validation.CommonCertificateVerifier;
 import eu.europa.esig.dss.validation.reports.Reports;
 import eu.europa.esig.dss.ws.converter.RemoteDocumentConverter;
 import eu.europa.esig.dss.ws.dto.RemoteDocument;
+import eu.europa.esig.dss.ws.validation.dto.ReportType;
 import eu.europa.esig.dss.ws.validation.dto.WSReportsDTO;
 
 public class RemoteDocumentValidationServiceTest {
@@ -207,4 +224,73 @@ public class RemoteDocumentValidationServiceTest {
 		assertTrue(signature.isBLevelTechnicallyValid());
 	}
 
+	@Test
+	public void testWithSelectedReports() throws Exception {
+		RemoteDocument signedFile = RemoteDocumentConverter.toRemoteDocument(new FileDocument("src/test/resources/xadesLTA.xml"));
+
+		WSReportsDTO result = validationService.validateDocument(signedFile, null, null, Arrays.asList(ReportType.SIMPLE_REPORT));
+		assertNotNull(result.getSimpleReport());
+		assertNull(result.getDiagnosticData());
+		assertNull(result.getDetailedReport());
+		assertNull(result.getValidationReport());
+
+		result = validationService.validateDocument(signedFile, null, null, Arrays.asList(ReportType.DIAGNOSTIC_DATA, ReportType.ETSI_VALIDATION_REPORT));
+		assertNotNull(result.getDiagnosticData());
+		assertNotNull(result.getValidationReport());
+		assertNull(result.getSimpleReport());
+		assertNull(result.getDetailedReport());
+	}
+
+	@Test
+	public void testStreamWriter() throws Exception {
+		RemoteDocument signedFile = RemoteDocumentConverter.toRemoteDocument(new FileDocument("src/test/resources/xadesLTA.xml"));
+		Reports reports = validationService.getReports(signedFile, null, null, null);
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		new WSReportsStreamWriter().write(reports, null, baos);
+
+		Element root = validateStreamedReports(baos.toByteArray());
+		assertEquals(Arrays.asList("DiagnosticData", "SimpleReport", "DetailedReport", "ValidationReport"), getChildNames(root));
+
+		XmlSimpleReport simpleReport = SimpleReportFacade.newFacade().unmarshall(
+				DomUtils.xmlToString(DomUtils.getElement(root, "./*[local-name()='SimpleReport']")));
+		assertEquals(reports.getSimpleReportJaxb().getSignaturesCount(), simpleReport.getSignaturesCount());
+	}
+
+	@Test
+	public void testStreamWriterWithSelectedReports() throws Exception {
+		RemoteDocument signedFile = RemoteDocumentConverter.toRemoteDocument(new FileDocument("src/test/resources/xadesLTA.xml"));
+		List<ReportType> reportTypes = Arrays.asList(ReportType.SIMPLE_REPORT, ReportType.ETSI_VALIDATION_REPORT);
+		Reports reports = validationService.getReports(signedFile, null, null, reportTypes);
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		new WSReportsStreamWriter().write(reports, reportTypes, baos);
+
+		Element root = validateStreamedReports(baos.toByteArray());
+		assertEquals(Arrays.asList("SimpleReport", "ValidationReport"), getChildNames(root));
+	}
+
+	private Element validateStreamedReports(byte[] bytes) throws Exception {
+		SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+		Schema schema = schemaFactory.newSchema(new StreamSource(getClass().getResourceAsStream(WSReportsStreamWriter.SCHEMA_LOCATION)));
+		schema.newValidator().validate(new StreamSource(new ByteArrayInputStream(bytes)));
+
+		Document document = DomUtils.buildDOM(bytes);
+		Element root = document.getDocumentElement();
+		assertEquals(WSReportsStreamWriter.NAMESPACE, root.getNamespaceURI());
+		assertEquals(WSReportsStreamWriter.ROOT_ELEMENT, root.getLocalName());
+		return root;
+	}
+
+	private List<String> getChildNames(Element root) {
+		List<String> names = new ArrayList<>();
+		NodeList childNodes = root.getChildNodes();
+		for (int i = 0; i < childNodes.getLength(); i++) {
+			if (childNodes.item(i).getNodeType() == Node.ELEMENT_NODE) {
+				names.add(childNodes.item(i).getLocalName());
+			}
+		}
+		return names;
+	}
+
 }
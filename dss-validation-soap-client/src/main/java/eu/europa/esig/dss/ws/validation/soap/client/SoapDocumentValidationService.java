@@ -27,6 +27,7 @@ import javax.jws.WebParam;
 import javax.jws.WebResult;
 import javax.jws.WebService;
 
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.ws.dto.RemoteDocument;
 import eu.europa.esig.dss.ws.validation.dto.DataToValidateDTO;
 import eu.europa.esig.dss.ws.validation.dto.WSReportsDTO;
@@ -46,10 +47,12 @@ public interface SoapDocumentValidationService extends Serializable {
 	 * 
 	 * @param dataToValidate
 	 *                       a {@code DataToValidateDTO} which contains the
-	 *                       signature, the optional original document(s) and the
-	 *                       optional validation policy
+	 *                       signature, the optional original document(s), the
+	 *                       optional validation policy and the optional report
+	 *                       types to return
 	 * @return a {@code WSReportsDTO} with the 4 reports : the diagnostic data, the
 	 *         detailed report, the simple report and the ETSI validation report
+	 *         (only the requested ones if report types are defined)
 	 */
 	@WebResult(name = "WSReportsDTO")
 	WSReportsDTO validateSignature(@WebParam(name = "dataToValidateDTO") DataToValidateDTO dataToValidate);
@@ -67,4 +70,17 @@ public interface SoapDocumentValidationService extends Serializable {
 	@WebResult(name = "OriginalDocuments")
 	List<RemoteDocument> getOriginalDocuments(@WebParam(name = "dataToValidateDTO") DataToValidateDTO dataToValidate);
 
+	/**
+	 * This method returns the digest algorithms required to verify the detached
+	 * contents of the signed file. The client can send the original document(s)
+	 * as digests computed with these algorithms (DocHashOnly validation).
+	 * 
+	 * @param dataToValidate
+	 *                       a {@code DataToValidateDTO} which contains the
+	 *                       signature
+	 * @return a List of {@code DigestAlgorithm}
+	 */
+	@WebResult(name = "DigestAlgorithms")
+	List<DigestAlgorithm> getDetachedContentsDigestAlgorithms(@WebParam(name = "dataToValidateDTO") DataToValidateDTO dataToValidate);
+
 }
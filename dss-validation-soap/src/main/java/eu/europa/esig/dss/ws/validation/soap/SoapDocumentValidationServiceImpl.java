@@ -22,6 +22,7 @@ package eu.europa.esig.dss.ws.validation.soap;
 
 import java.util.List;
 
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.ws.dto.RemoteDocument;
 import eu.europa.esig.dss.ws.validation.common.RemoteDocumentValidationService;
 import eu.europa.esig.dss.ws.validation.dto.DataToValidateDTO;
@@ -40,7 +41,7 @@ public class SoapDocumentValidationServiceImpl implements SoapDocumentValidation
 	@Override
 	public WSReportsDTO validateSignature(DataToValidateDTO dataToValidate) {
 		WSReportsDTO reportsDTO = validationService.validateDocument(dataToValidate.getSignedDocument(), dataToValidate.getOriginalDocuments(),
-				dataToValidate.getPolicy());
+				dataToValidate.getPolicy(), dataToValidate.getReportTypes());
 		return reportsDTO;
 	}
 
@@ -50,4 +51,9 @@ public class SoapDocumentValidationServiceImpl implements SoapDocumentValidation
 				dataToValidate.getSignatureId());
 	}
 
+	@Override
+	public List<DigestAlgorithm> getDetachedContentsDigestAlgorithms(DataToValidateDTO dataToValidate) {
+		return validationService.getDetachedContentsDigestAlgorithms(dataToValidate.getSignedDocument());
+	}
+
 }
@@ -0,0 +1,625 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.xml.XMLConstants;
+import javax.xml.crypto.dsig.XMLSignature;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.xml.security.c14n.Canonicalizer;
+
+import eu.europa.esig.dss.DomUtils;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.spi.DSSUtils;
+
+/**
+ * Canonicalizes a whole XML document (or one of its subtrees) from a StAX event stream, without building a DOM.
+ * 
+ * The output is the same as the one of the Santuario canonicalizers applied to the document node (same-document
+ * reference with an empty URI) or to an element (same-document reference "#Id"). It is used to compute the digest of
+ * very large enveloped documents. Optionally, all ds:Signature elements can be removed from the output (enveloped
+ * signature transform).
+ * 
+ * Supported algorithms are Canonical XML 1.0 and 1.1 and Exclusive Canonical XML 1.0 without InclusiveNamespaces
+ * prefix list, with or without comments.
+ */
+public class StreamingCanonicalizer {
+
+	private static final Set<String> INCLUSIVE_ALGORITHMS = new HashSet<>(Arrays.asList(Canonicalizer.ALGO_ID_C14N_OMIT_COMMENTS,
+			Canonicalizer.ALGO_ID_C14N_WITH_COMMENTS, Canonicalizer.ALGO_ID_C14N11_OMIT_COMMENTS, Canonicalizer.ALGO_ID_C14N11_WITH_COMMENTS));
+
+	private static final Set<String> EXCLUSIVE_ALGORITHMS = new HashSet<>(
+			Arrays.asList(Canonicalizer.ALGO_ID_C14N_EXCL_OMIT_COMMENTS, Canonicalizer.ALGO_ID_C14N_EXCL_WITH_COMMENTS));
+
+	private static final Set<String> C14N_10_ALGORITHMS = new HashSet<>(
+			Arrays.asList(Canonicalizer.ALGO_ID_C14N_OMIT_COMMENTS, Canonicalizer.ALGO_ID_C14N_WITH_COMMENTS));
+
+	private static final Set<String> WITH_COMMENTS_ALGORITHMS = new HashSet<>(Arrays.asList(Canonicalizer.ALGO_ID_C14N_WITH_COMMENTS,
+			Canonicalizer.ALGO_ID_C14N11_WITH_COMMENTS, Canonicalizer.ALGO_ID_C14N_EXCL_WITH_COMMENTS));
+
+	/* xml:* attributes inherited by the apex of a subtree with Canonical XML 1.1 (xml:base requires a fixup) */
+	private static final Set<String> C14N_11_INHERITED_XML_ATTRIBUTES = new HashSet<>(Arrays.asList("lang", "space"));
+
+	private static final String XML_BASE_ATTRIBUTE = "base";
+
+	private static final String SIGNATURE_ELEMENT = "Signature";
+
+	private static final String DEFAULT_PREFIX = XMLConstants.DEFAULT_NS_PREFIX;
+
+	private final boolean exclusive;
+
+	private final boolean withComments;
+
+	private final boolean c14n10;
+
+	private boolean excludeSignatures = false;
+
+	/**
+	 * The default constructor
+	 * 
+	 * @param canonicalizationMethod
+	 *                               the canonicalization algorithm URI
+	 */
+	public StreamingCanonicalizer(String canonicalizationMethod) {
+		if (!isSupported(canonicalizationMethod)) {
+			throw new DSSException(String.format("The canonicalization method '%s' is not supported in streaming mode", canonicalizationMethod));
+		}
+		this.exclusive = EXCLUSIVE_ALGORITHMS.contains(canonicalizationMethod);
+		this.withComments = WITH_COMMENTS_ALGORITHMS.contains(canonicalizationMethod);
+		this.c14n10 = C14N_10_ALGORITHMS.contains(canonicalizationMethod);
+	}
+
+	/**
+	 * Checks if the given canonicalization algorithm can be processed in streaming mode
+	 * 
+	 * @param canonicalizationMethod
+	 *                               the canonicalization algorithm URI
+	 * @return true if the algorithm is supported
+	 */
+	public static boolean isSupported(String canonicalizationMethod) {
+		return INCLUSIVE_ALGORITHMS.contains(canonicalizationMethod) || EXCLUSIVE_ALGORITHMS.contains(canonicalizationMethod);
+	}
+
+	/**
+	 * Checks if the current event of the reader is the start of a ds:Signature element
+	 * 
+	 * @param reader
+	 *               the StAX reader positioned on a START_ELEMENT event
+	 * @return true if the element is a ds:Signature
+	 */
+	public static boolean isSignatureElement(XMLStreamReader reader) {
+		return XMLSignature.XMLNS.equals(reader.getNamespaceURI()) && SIGNATURE_ELEMENT.equals(reader.getLocalName());
+	}
+
+	/**
+	 * Allows to remove all ds:Signature elements (and their content) from the output. This is the result of the XPath
+	 * filters "not(ancestor-or-self::ds:Signature)" (XPath and XPath Filter 2.0 enveloped transforms), which are
+	 * processed as node-sets by Santuario : in that case, with Canonical XML 1.0, the inherited xml:* attributes are
+	 * rendered again on each element which defines its own xml:* attribute.
+	 * 
+	 * @param excludeSignatures
+	 *                          true if ds:Signature elements must be skipped (default : false)
+	 */
+	public void setExcludeSignatures(boolean excludeSignatures) {
+		this.excludeSignatures = excludeSignatures;
+	}
+
+	/**
+	 * Returns true if all ds:Signature elements are removed from the output
+	 * 
+	 * @return true if ds:Signature elements are skipped
+	 */
+	public boolean isExcludeSignatures() {
+		return excludeSignatures;
+	}
+
+	/**
+	 * Canonicalizes the XML document read from the input stream and writes the UTF-8 result to the output stream. The
+	 * streams are not closed.
+	 * 
+	 * @param is
+	 *           the XML document to canonicalize
+	 * @param os
+	 *           the stream to write the canonical form to
+	 */
+	public void canonicalize(InputStream is, OutputStream os) {
+		XMLStreamReader reader = null;
+		try {
+			reader = DomUtils.getSecureXMLInputFactory().createXMLStreamReader(is);
+			CanonicalWriter writer = newDocumentWriter(os);
+			int skippedDepth = 0;
+			while (reader.hasNext()) {
+				int event = reader.next();
+				if (XMLStreamConstants.START_ELEMENT == event && (skippedDepth > 0 || (excludeSignatures && isSignatureElement(reader)))) {
+					skippedDepth++;
+				} else if (XMLStreamConstants.END_ELEMENT == event && skippedDepth > 0) {
+					skippedDepth--;
+				} else if (skippedDepth == 0) {
+					writer.write(reader);
+				}
+			}
+			writer.flush();
+		} catch (XMLStreamException | IOException e) {
+			throw new DSSException("Unable to canonicalize the XML stream", e);
+		} finally {
+			closeQuietly(reader);
+		}
+	}
+
+	/**
+	 * Computes the digest of the canonical form of the given XML document, without keeping the canonicalized bytes in
+	 * memory.
+	 * 
+	 * @param digestAlgorithm
+	 *                        the digest algorithm to use
+	 * @param document
+	 *                        the XML document to canonicalize
+	 * @return the digest value
+	 */
+	public byte[] digest(DigestAlgorithm digestAlgorithm, DSSDocument document) {
+		final MessageDigest messageDigest = DSSUtils.getMessageDigest(digestAlgorithm);
+		try (InputStream is = document.openStream(); OutputStream os = new DigestOutputStream(new NullOutputStream(), messageDigest)) {
+			canonicalize(is, os);
+		} catch (IOException e) {
+			throw new DSSException("Unable to compute the digest of the canonicalized document", e);
+		}
+		return messageDigest.digest();
+	}
+
+	/**
+	 * Returns a writer for the events of a whole document. The events of the skipped nodes (e.g. ds:Signature
+	 * elements) must not be transmitted to the writer.
+	 * 
+	 * @param os
+	 *           the stream to write the canonical form to
+	 * @return {@link CanonicalWriter}
+	 */
+	public CanonicalWriter newDocumentWriter(OutputStream os) {
+		return new CanonicalWriter(os, Collections.<String, String> emptyMap(), Collections.<String, Attribute> emptyMap());
+	}
+
+	/**
+	 * Returns a writer for the events of a subtree, from the start of its apex element to the end of this element.
+	 * 
+	 * @param os
+	 *                                the stream to write the canonical form to
+	 * @param inScopeNamespaces
+	 *                                the namespaces declared by the ancestors of the apex element (prefix -> URI)
+	 * @param inheritedXmlAttributes
+	 *                                the xml:* attributes in scope of the parent of the apex element (local name ->
+	 *                                value)
+	 * @return {@link CanonicalWriter}
+	 */
+	public CanonicalWriter newSubtreeWriter(OutputStream os, Map<String, String> inScopeNamespaces, Map<String, String> inheritedXmlAttributes) {
+		Map<String, Attribute> xmlAttributes = new HashMap<>();
+		if (!exclusive) {
+			for (Map.Entry<String, String> entry : inheritedXmlAttributes.entrySet()) {
+				String localName = entry.getKey();
+				if (c14n10 || C14N_11_INHERITED_XML_ATTRIBUTES.contains(localName)) {
+					xmlAttributes.put(localName, new Attribute(XMLConstants.XML_NS_URI, localName, XMLConstants.XML_NS_PREFIX + ":" + localName,
+							entry.getValue()));
+				} else if (XML_BASE_ATTRIBUTE.equals(localName)) {
+					throw new DSSException("The inherited xml:base attribute is not supported in streaming mode");
+				}
+			}
+		}
+		return new CanonicalWriter(os, exclusive ? Collections.<String, String> emptyMap() : inScopeNamespaces, xmlAttributes);
+	}
+
+	private void closeQuietly(XMLStreamReader reader) {
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (XMLStreamException e) {
+				// ignore
+			}
+		}
+	}
+
+	/**
+	 * Writes the canonical form of the events read by a StAX reader. The same reader can feed several writers.
+	 */
+	public final class CanonicalWriter {
+
+		private final Writer writer;
+
+		private final Deque<ElementContext> contexts = new ArrayDeque<>();
+
+		/* namespaces in scope of the apex element (inclusive canonicalization of a subtree) */
+		private final Map<String, String> apexNamespaces;
+
+		/* xml:* attributes inherited by the apex element (inclusive canonicalization of a subtree) */
+		private final Map<String, Attribute> apexXmlAttributes;
+
+		private int depth = 0;
+
+		private boolean rootProcessed = false;
+
+		private CanonicalWriter(OutputStream os, Map<String, String> apexNamespaces, Map<String, Attribute> apexXmlAttributes) {
+			this.writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+			this.apexNamespaces = apexNamespaces;
+			this.apexXmlAttributes = apexXmlAttributes;
+			this.contexts.push(new ElementContext(Collections.<String, String> emptyMap(), Collections.<String, Attribute> emptyMap()));
+		}
+
+		/**
+		 * Writes the current event of the reader
+		 * 
+		 * @param reader
+		 *               the StAX reader
+		 * @throws IOException
+		 *                     if an error occurred while writing
+		 */
+		public void write(XMLStreamReader reader) throws IOException {
+			switch (reader.getEventType()) {
+			case XMLStreamConstants.START_ELEMENT:
+				contexts.push(writeStartElement(reader, contexts.peek()));
+				depth++;
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				writeEndElement(reader);
+				contexts.pop();
+				depth--;
+				if (depth == 0) {
+					rootProcessed = true;
+				}
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.SPACE:
+				if (depth > 0) {
+					writeText(reader);
+				}
+				break;
+			case XMLStreamConstants.COMMENT:
+				if (withComments) {
+					writeBeforeNode();
+					writer.write("<!--");
+					writer.write(reader.getText());
+					writer.write("-->");
+					writeAfterNode();
+				}
+				break;
+			case XMLStreamConstants.PROCESSING_INSTRUCTION:
+				writeBeforeNode();
+				writer.write("<?");
+				writer.write(reader.getPITarget());
+				String data = reader.getPIData();
+				if (data != null && !data.isEmpty()) {
+					writer.write(' ');
+					writer.write(data);
+				}
+				writer.write("?>");
+				writeAfterNode();
+				break;
+			case XMLStreamConstants.DTD:
+			case XMLStreamConstants.ENTITY_REFERENCE:
+				throw new DSSException("DTD and entity references are not supported in streaming canonicalization");
+			default:
+				// START_DOCUMENT, END_DOCUMENT, ATTRIBUTE, NAMESPACE : nothing to write
+				break;
+			}
+		}
+
+		/**
+		 * Flushes the pending canonicalized bytes to the output stream (which is not closed)
+		 * 
+		 * @throws IOException
+		 *                     if an error occurred while writing
+		 */
+		public void flush() throws IOException {
+			writer.flush();
+		}
+
+		private void writeBeforeNode() throws IOException {
+			if (depth == 0 && rootProcessed) {
+				writer.write('\n');
+			}
+		}
+
+		private void writeAfterNode() throws IOException {
+			if (depth == 0 && !rootProcessed) {
+				writer.write('\n');
+			}
+		}
+
+		private ElementContext writeStartElement(XMLStreamReader reader, ElementContext parentContext) throws IOException {
+			writer.write('<');
+			writer.write(getQualifiedName(reader.getPrefix(), reader.getLocalName()));
+
+			Map<String, String> parentRendered = parentContext.renderedNamespaces;
+			Map<String, String> namespacesToRender = exclusive ? getVisiblyUtilizedNamespaces(reader, parentRendered)
+					: getDeclaredNamespaces(reader, parentRendered);
+			Map<String, String> rendered = parentRendered;
+			if (!namespacesToRender.isEmpty()) {
+				rendered = new HashMap<>(parentRendered);
+				for (Map.Entry<String, String> entry : namespacesToRender.entrySet()) {
+					writer.write(" xmlns");
+					if (!DEFAULT_PREFIX.equals(entry.getKey())) {
+						writer.write(':');
+						writer.write(entry.getKey());
+					}
+					writer.write("=\"");
+					writeEscapedAttributeValue(entry.getValue());
+					writer.write('"');
+					rendered.put(entry.getKey(), entry.getValue());
+				}
+			}
+
+			Collection<Attribute> attributes = getSortedAttributes(reader);
+			Map<String, Attribute> xmlAttributes = parentContext.xmlAttributes;
+			if (depth == 0 && !apexXmlAttributes.isEmpty()) {
+				// the apex of a subtree renders the inherited xml:* attributes
+				attributes = new TreeSet<>(attributes);
+				attributes.addAll(apexXmlAttributes.values());
+			} else if (excludeSignatures && c14n10) {
+				xmlAttributes = getInScopeXmlAttributes(attributes, parentContext.xmlAttributes);
+				if (xmlAttributes != parentContext.xmlAttributes) {
+					// own xml:* attributes are present : the inherited ones are rendered too
+					attributes = new TreeSet<>(attributes);
+					attributes.addAll(xmlAttributes.values());
+				}
+			}
+
+			for (Attribute attribute : attributes) {
+				writer.write(' ');
+				writer.write(attribute.qualifiedName);
+				writer.write("=\"");
+				writeEscapedAttributeValue(attribute.value);
+				writer.write('"');
+			}
+			writer.write('>');
+			return new ElementContext(rendered, xmlAttributes);
+		}
+
+		/**
+		 * Inclusive canonicalization : all declarations of the element (and the ones in scope for the apex of a
+		 * subtree), except the superfluous ones
+		 */
+		private Map<String, String> getDeclaredNamespaces(XMLStreamReader reader, Map<String, String> parentRendered) {
+			Map<String, String> declared = new TreeMap<>();
+			if (depth == 0) {
+				declared.putAll(apexNamespaces);
+			}
+			for (int i = 0; i < reader.getNamespaceCount(); i++) {
+				declared.put(nullToEmpty(reader.getNamespacePrefix(i)), nullToEmpty(reader.getNamespaceURI(i)));
+			}
+			Map<String, String> result = new TreeMap<>();
+			for (Map.Entry<String, String> entry : declared.entrySet()) {
+				addIfNotRendered(result, parentRendered, entry.getKey(), entry.getValue());
+			}
+			return result;
+		}
+
+		/**
+		 * Exclusive canonicalization : only the namespaces visibly utilized by the element and its attributes
+		 */
+		private Map<String, String> getVisiblyUtilizedNamespaces(XMLStreamReader reader, Map<String, String> parentRendered) {
+			Map<String, String> result = new TreeMap<>();
+			addIfNotRendered(result, parentRendered, nullToEmpty(reader.getPrefix()), nullToEmpty(reader.getNamespaceURI()));
+			for (int i = 0; i < reader.getAttributeCount(); i++) {
+				String prefix = nullToEmpty(reader.getAttributePrefix(i));
+				if (!DEFAULT_PREFIX.equals(prefix)) {
+					addIfNotRendered(result, parentRendered, prefix, nullToEmpty(reader.getAttributeNamespace(i)));
+				}
+			}
+			return result;
+		}
+
+		private void addIfNotRendered(Map<String, String> result, Map<String, String> parentRendered, String prefix, String uri) {
+			if (XMLConstants.XML_NS_PREFIX.equals(prefix)) {
+				return;
+			}
+			String renderedUri = parentRendered.get(prefix);
+			if (DEFAULT_PREFIX.equals(prefix) && renderedUri == null) {
+				// an absent default namespace is equivalent to xmlns=""
+				renderedUri = DEFAULT_PREFIX;
+			}
+			if (!uri.equals(renderedUri)) {
+				result.put(prefix, uri);
+			}
+		}
+
+		private Map<String, Attribute> getInScopeXmlAttributes(Collection<Attribute> attributes, Map<String, Attribute> inherited) {
+			Map<String, Attribute> result = inherited;
+			for (Attribute attribute : attributes) {
+				if (XMLConstants.XML_NS_URI.equals(attribute.namespaceURI)) {
+					if (result == inherited) {
+						result = new HashMap<>(inherited);
+					}
+					result.put(attribute.localName, attribute);
+				}
+			}
+			return result;
+		}
+
+		private Collection<Attribute> getSortedAttributes(XMLStreamReader reader) {
+			int count = reader.getAttributeCount();
+			if (count == 0) {
+				return Collections.emptyList();
+			}
+			Set<Attribute> attributes = new TreeSet<>();
+			for (int i = 0; i < count; i++) {
+				attributes.add(new Attribute(nullToEmpty(reader.getAttributeNamespace(i)), reader.getAttributeLocalName(i),
+						getQualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)), reader.getAttributeValue(i)));
+			}
+			return attributes;
+		}
+
+		private void writeEndElement(XMLStreamReader reader) throws IOException {
+			writer.write("</");
+			writer.write(getQualifiedName(reader.getPrefix(), reader.getLocalName()));
+			writer.write('>');
+		}
+
+		private void writeText(XMLStreamReader reader) throws IOException {
+			char[] characters = reader.getTextCharacters();
+			int end = reader.getTextStart() + reader.getTextLength();
+			for (int i = reader.getTextStart(); i < end; i++) {
+				char c = characters[i];
+				switch (c) {
+				case '&':
+					writer.write("&amp;");
+					break;
+				case '<':
+					writer.write("&lt;");
+					break;
+				case '>':
+					writer.write("&gt;");
+					break;
+				case '\r':
+					writer.write("&#xD;");
+					break;
+				default:
+					writer.write(c);
+					break;
+				}
+			}
+		}
+
+		private void writeEscapedAttributeValue(String value) throws IOException {
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				switch (c) {
+				case '&':
+					writer.write("&amp;");
+					break;
+				case '<':
+					writer.write("&lt;");
+					break;
+				case '"':
+					writer.write("&quot;");
+					break;
+				case '\t':
+					writer.write("&#x9;");
+					break;
+				case '\n':
+					writer.write("&#xA;");
+					break;
+				case '\r':
+					writer.write("&#xD;");
+					break;
+				default:
+					writer.write(c);
+					break;
+				}
+			}
+		}
+
+		private String getQualifiedName(String prefix, String localName) {
+			if (prefix == null || prefix.isEmpty()) {
+				return localName;
+			}
+			return prefix + ":" + localName;
+		}
+
+		private String nullToEmpty(String value) {
+			return value == null ? DEFAULT_PREFIX : value;
+		}
+
+	}
+
+	private static final class NullOutputStream extends OutputStream {
+
+		@Override
+		public void write(int b) {
+			// only the digest is computed
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			// only the digest is computed
+		}
+
+	}
+
+	/**
+	 * The state of an output element needed by its descendants
+	 */
+	private static final class ElementContext {
+
+		/* namespaces already rendered by the element or its output ancestors (prefix -> URI) */
+		private final Map<String, String> renderedNamespaces;
+
+		/* xml:* attributes in scope (local name -> attribute) */
+		private final Map<String, Attribute> xmlAttributes;
+
+		private ElementContext(Map<String, String> renderedNamespaces, Map<String, Attribute> xmlAttributes) {
+			this.renderedNamespaces = renderedNamespaces;
+			this.xmlAttributes = xmlAttributes;
+		}
+
+	}
+
+	/**
+	 * Attributes are sorted by namespace URI (no namespace first), then by local name
+	 */
+	private static final class Attribute implements Comparable<Attribute> {
+
+		private final String namespaceURI;
+		private final String localName;
+		private final String qualifiedName;
+		private final String value;
+
+		private Attribute(String namespaceURI, String localName, String qualifiedName, String value) {
+			this.namespaceURI = namespaceURI;
+			this.localName = localName;
+			this.qualifiedName = qualifiedName;
+			this.value = value;
+		}
+
+		@Override
+		public int compareTo(Attribute o) {
+			int result = namespaceURI.compareTo(o.namespaceURI);
+			if (result == 0) {
+				result = localName.compareTo(o.localName);
+			}
+			return result;
+		}
+
+	}
+
+}
@@ -120,6 +120,18 @@ public class XAdESSignatureParameters extends AbstractSignatureParameters<XAdEST
 	 */
 	private boolean prettyPrint = false;
 
+	/**
+	 * If true, an enveloped signature is created without loading the document to sign in memory : the digest of the
+	 * document is computed from a StAX stream and the signature is inserted into a copy of the original bytes. This
+	 * copy is written through the DSSDocumentFactory of the service, which keeps it in memory by default : use
+	 * {@code service.setDocumentFactory(new SpillableDocumentFactory())} to write it to a temporary file. Only the whole
+	 * document reference (URI="") with an enveloped (or XPath enveloped) transform optionally followed by a
+	 * canonicalization is supported and the signature is always added to the root element.
+	 * 
+	 * Remark : the extension of the signature (-T level and higher) still parses the whole document.
+	 */
+	private boolean streamingEnveloped = false;
+
 	/**
 	 * XMLDSig definition
 	 */
@@ -333,6 +345,14 @@ public class XAdESSignatureParameters extends AbstractSignatureParameters<XAdEST
 		this.prettyPrint = prettyPrint;
 	}
 
+	public boolean isStreamingEnveloped() {
+		return streamingEnveloped;
+	}
+
+	public void setStreamingEnveloped(boolean streamingEnveloped) {
+		this.streamingEnveloped = streamingEnveloped;
+	}
+
 	public DSSNamespace getXmldsigNamespace() {
 		return xmldsigNamespace;
 	}
@@ -37,6 +37,7 @@ import org.w3c.dom.NodeList;
 
 import eu.europa.esig.dss.DomUtils;
 import eu.europa.esig.dss.definition.xmldsig.XMLDSigAttribute;
+import eu.europa.esig.dss.model.Digest;
 import eu.europa.esig.dss.utils.Utils;
 import eu.europa.esig.dss.validation.ReferenceValidation;
 import eu.europa.esig.dss.xades.DSSXMLUtils;
@@ -72,6 +73,8 @@ public class XAdESReferenceValidation extends ReferenceValidation {
 	private final String id;
 	/* For XAdES : reference uri */
 	private final String uri;
+	/* The digest of the referenced content, when it has been computed while streaming the signed document */
+	private Digest originalContentDigest;
 
 	public XAdESReferenceValidation(Reference reference) {
 		this.reference = reference;
@@ -106,6 +109,20 @@ public class XAdESReferenceValidation extends ReferenceValidation {
 		return DSSXMLUtils.getReferenceOriginalContentBytes(reference);
 	}
 
+	/**
+	 * Returns the digest of the referenced content computed while streaming the signed document (null if the content
+	 * was dereferenced from a DOM)
+	 * 
+	 * @return {@link Digest}
+	 */
+	public Digest getOriginalContentDigest() {
+		return originalContentDigest;
+	}
+
+	public void setOriginalContentDigest(Digest originalContentDigest) {
+		this.originalContentDigest = originalContentDigest;
+	}
+
 	@Override
 	public String getName() {
 		if (Utils.isStringNotBlank(id)) {
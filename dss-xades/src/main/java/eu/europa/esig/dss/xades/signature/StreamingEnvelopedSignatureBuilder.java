@@ -0,0 +1,423 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.signature;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.apache.xml.security.c14n.Canonicalizer;
+import org.apache.xml.security.transforms.Transforms;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import eu.europa.esig.dss.DomUtils;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.DigestDocument;
+import eu.europa.esig.dss.model.MimeType;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.utils.Utils;
+import eu.europa.esig.dss.validation.CertificateVerifier;
+import eu.europa.esig.dss.xades.DSSXMLUtils;
+import eu.europa.esig.dss.xades.ProfileParameters.Operation;
+import eu.europa.esig.dss.xades.StreamingCanonicalizer;
+import eu.europa.esig.dss.xades.XAdESSignatureParameters;
+import eu.europa.esig.dss.xades.reference.DSSReference;
+import eu.europa.esig.dss.xades.reference.DSSTransform;
+import eu.europa.esig.dss.xades.reference.XPath2FilterEnvelopedSignatureTransform;
+import eu.europa.esig.dss.xades.reference.XPathEnvelopedSignatureTransform;
+
+/**
+ * This class creates an enveloped XML signature without building the DOM of the document to sign.
+ * 
+ * The digest of the document is computed from a StAX stream ({@code StreamingCanonicalizer}) and the signature is
+ * built in a "shell" document which only contains a copy of the root element (same name, namespace declarations and
+ * attributes), so the canonicalization of SignedInfo and SignedProperties is the same as in the final document. The
+ * signed document is then obtained by copying the original bytes and by inserting the serialized signature before the
+ * end tag of the root element.
+ */
+class StreamingEnvelopedSignatureBuilder extends EnvelopedSignatureBuilder {
+
+	/* Size of the first block read at the end of the document to find the root end tag */
+	private static final int TAIL_BUFFER_SIZE = 8192;
+
+	/* Used to check that the encoding of the document is compatible with a byte-level search of the markup */
+	private static final String ASCII_PROBE = "<?xml/>-!?:_ \"AZaz09";
+
+	private String rootQualifiedName;
+
+	private Charset charset;
+
+	/**
+	 * The default constructor for StreamingEnvelopedSignatureBuilder.
+	 * 
+	 * @param params
+	 *            The set of parameters relating to the structure and process of the creation or extension of the
+	 *            electronic signature.
+	 * @param origDoc
+	 *            The original document to sign.
+	 * @param certificateVerifier
+	 */
+	public StreamingEnvelopedSignatureBuilder(final XAdESSignatureParameters params, final DSSDocument origDoc,
+			final CertificateVerifier certificateVerifier) {
+		super(params, origDoc, certificateVerifier);
+		if (Utils.isStringNotEmpty(params.getXPathLocationString())) {
+			throw new DSSException("The XPath location of the signature is not supported in streaming mode (the signature is added to the root element)");
+		}
+	}
+
+	/**
+	 * Only the start tag of the root element is read : the returned document contains an empty copy of the root
+	 * element, with the same namespace declarations and attributes.
+	 */
+	@Override
+	protected Document buildRootDocumentDom() {
+		XMLStreamReader reader = null;
+		try (InputStream is = detachedDocument.openStream()) {
+			reader = DomUtils.getSecureXMLInputFactory().createXMLStreamReader(is);
+			while (reader.hasNext()) {
+				int event = reader.next();
+				if (XMLStreamConstants.START_ELEMENT == event) {
+					charset = getCharset(reader);
+					return buildShellDocument(reader);
+				} else if (XMLStreamConstants.DTD == event) {
+					throw new DSSException("DTD is not supported in streaming mode");
+				}
+			}
+			throw new DSSException("The document to sign does not contain a root element");
+		} catch (XMLStreamException | IOException e) {
+			throw new DSSException("Unable to read the document to sign (XML expected)", e);
+		} finally {
+			closeQuietly(reader);
+		}
+	}
+
+	private Charset getCharset(XMLStreamReader reader) {
+		String encoding = reader.getCharacterEncodingScheme();
+		if (Utils.isStringEmpty(encoding)) {
+			encoding = reader.getEncoding();
+		}
+		Charset result = Utils.isStringEmpty(encoding) ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+		if (!Arrays.equals(ASCII_PROBE.getBytes(StandardCharsets.US_ASCII), ASCII_PROBE.getBytes(result))) {
+			throw new DSSException(String.format("The encoding '%s' is not supported in streaming mode", encoding));
+		}
+		return result;
+	}
+
+	private Document buildShellDocument(XMLStreamReader reader) {
+		Document document = DomUtils.buildDOM();
+		rootQualifiedName = getQualifiedName(reader.getPrefix(), reader.getLocalName());
+		Element root = document.createElementNS(emptyToNull(reader.getNamespaceURI()), rootQualifiedName);
+		for (int i = 0; i < reader.getNamespaceCount(); i++) {
+			String prefix = reader.getNamespacePrefix(i);
+			String qualifiedName = Utils.isStringEmpty(prefix) ? XMLConstants.XMLNS_ATTRIBUTE : XMLConstants.XMLNS_ATTRIBUTE + ":" + prefix;
+			String uri = reader.getNamespaceURI(i);
+			root.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, qualifiedName, uri == null ? "" : uri);
+		}
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			root.setAttributeNS(emptyToNull(reader.getAttributeNamespace(i)),
+					getQualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)), reader.getAttributeValue(i));
+		}
+		document.appendChild(root);
+		return document;
+	}
+
+	/**
+	 * The digest of the whole document is computed in streaming mode. Supported transforms are an enveloped signature
+	 * transform (or its XPath equivalents) optionally followed by a canonicalization.
+	 */
+	@Override
+	protected DSSDocument transformReference(final DSSReference reference) {
+		if (!"".equals(reference.getUri())) {
+			throw new DSSException(String.format("The reference with URI '%s' is not supported in streaming mode (URI=\"\" expected)", reference.getUri()));
+		}
+		final StreamingCanonicalizer canonicalizer = getCanonicalizer(reference.getTransforms());
+		final DigestAlgorithm digestAlgorithm = reference.getDigestMethodAlgorithm();
+		final byte[] digest = canonicalizer.digest(digestAlgorithm, reference.getContents());
+		return new DigestDocument(digestAlgorithm, Utils.toBase64(digest));
+	}
+
+	private StreamingCanonicalizer getCanonicalizer(List<DSSTransform> transforms) {
+		if (Utils.isCollectionEmpty(transforms) || transforms.size() > 2) {
+			throw new DSSException("An enveloped transform optionally followed by a canonicalization is expected in streaming mode");
+		}
+		final DSSTransform envelopedTransform = transforms.get(0);
+		final boolean excludeSignatures;
+		if (envelopedTransform instanceof XPathEnvelopedSignatureTransform || envelopedTransform instanceof XPath2FilterEnvelopedSignatureTransform) {
+			excludeSignatures = true;
+		} else if (Transforms.TRANSFORM_ENVELOPED_SIGNATURE.equals(envelopedTransform.getAlgorithm())) {
+			// only the signature being created is removed (it is not present in the original document)
+			excludeSignatures = false;
+		} else {
+			throw new DSSException(String.format("The transform '%s' is not supported in streaming mode", envelopedTransform.getAlgorithm()));
+		}
+
+		// XMLDSIG 4.4.3.3 : a node-set is converted with Canonical XML 1.0 (omits comments)
+		String canonicalizationMethod = Canonicalizer.ALGO_ID_C14N_OMIT_COMMENTS;
+		if (transforms.size() == 2) {
+			canonicalizationMethod = getOmitCommentsMethod(transforms.get(1).getAlgorithm());
+			if (!StreamingCanonicalizer.isSupported(canonicalizationMethod)) {
+				throw new DSSException(String.format("The transform '%s' is not supported in streaming mode", canonicalizationMethod));
+			}
+		}
+		StreamingCanonicalizer canonicalizer = new StreamingCanonicalizer(canonicalizationMethod);
+		canonicalizer.setExcludeSignatures(excludeSignatures);
+		return canonicalizer;
+	}
+
+	/**
+	 * The same-document reference (URI="") removes the comments before the transforms
+	 */
+	private String getOmitCommentsMethod(String canonicalizationMethod) {
+		if (Canonicalizer.ALGO_ID_C14N_WITH_COMMENTS.equals(canonicalizationMethod)) {
+			return Canonicalizer.ALGO_ID_C14N_OMIT_COMMENTS;
+		} else if (Canonicalizer.ALGO_ID_C14N11_WITH_COMMENTS.equals(canonicalizationMethod)) {
+			return Canonicalizer.ALGO_ID_C14N11_OMIT_COMMENTS;
+		} else if (Canonicalizer.ALGO_ID_C14N_EXCL_WITH_COMMENTS.equals(canonicalizationMethod)) {
+			return Canonicalizer.ALGO_ID_C14N_EXCL_OMIT_COMMENTS;
+		}
+		return canonicalizationMethod;
+	}
+
+	/**
+	 * Writes the original document through the {@code DSSDocumentFactory} and inserts the signature before the end tag
+	 * of the root element. The returned document can be closed when the factory stores it in a temporary file.
+	 */
+	@Override
+	protected DSSDocument createXmlDocument() {
+		final byte[] signatureBytes = serializeSignature();
+		final ByteArrayOutputStream end = new ByteArrayOutputStream();
+		final long rootEndTagOffset = writeEnd(DSSUtils.getFileByteSize(detachedDocument), signatureBytes, end);
+		return documentFactory.create(os -> {
+			try (InputStream is = detachedDocument.openStream()) {
+				copy(is, os, rootEndTagOffset);
+			}
+			end.writeTo(os);
+		}, MimeType.XML);
+	}
+
+	private byte[] serializeSignature() {
+		Node signature = signatureDom;
+		if (Operation.SIGNING.equals(params.getContext().getOperationKind()) && params.isPrettyPrint()) {
+			alignNodes();
+			Document indentedDocument = DSSXMLUtils.getDocWithIndentedSignatures(documentDom, params.getDeterministicId(), getNotIndentedObjectIds());
+			// the shell root element only contains the new signature
+			signature = indentedDocument.getDocumentElement().getLastChild();
+		}
+		try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+			Transformer transformer = DomUtils.getSecureTransformer();
+			transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+			transformer.setOutputProperty(OutputKeys.ENCODING, charset.name());
+			transformer.transform(new DOMSource(signature), new StreamResult(bos));
+			return bos.toByteArray();
+		} catch (Exception e) {
+			throw new DSSException("An error occurred during the signature serialization.", e);
+		}
+	}
+
+	/**
+	 * Writes the signature followed by the end of the document (from the root end tag)
+	 * 
+	 * @return the offset of the root end tag in the original document
+	 */
+	private long writeEnd(long length, byte[] signatureBytes, OutputStream os) {
+		long size = TAIL_BUFFER_SIZE;
+		while (true) {
+			int toRead = (int) Math.min(length, size);
+			byte[] tail = readTail(length - toRead, toRead);
+
+			int index = getRootEndTagIndex(tail);
+			if (index >= 0) {
+				try {
+					if (tail[index] == '/') {
+						// <root/> becomes <root><ds:Signature/></root>
+						os.write(">".getBytes(charset));
+						os.write(signatureBytes);
+						os.write(("</" + rootQualifiedName + ">").getBytes(charset));
+						os.write(tail, index + 2, toRead - index - 2);
+					} else {
+						os.write(signatureBytes);
+						os.write(tail, index, toRead - index);
+					}
+				} catch (IOException e) {
+					throw new DSSException("Unable to insert the signature", e);
+				}
+				return length - toRead + index;
+			}
+			if (toRead == length) {
+				throw new DSSException("Unable to find the end of the root element");
+			}
+			size *= 2;
+		}
+	}
+
+	private byte[] readTail(long offset, int length) {
+		try (InputStream is = detachedDocument.openStream()) {
+			skip(is, offset);
+			byte[] tail = new byte[length];
+			int read = 0;
+			while (read < length) {
+				int n = is.read(tail, read, length - read);
+				if (n < 0) {
+					throw new DSSException("Unexpected end of the document to sign");
+				}
+				read += n;
+			}
+			return tail;
+		} catch (IOException e) {
+			throw new DSSException("Unable to read the document to sign", e);
+		}
+	}
+
+	private void skip(InputStream is, long count) throws IOException {
+		long remaining = count;
+		while (remaining > 0) {
+			long skipped = is.skip(remaining);
+			if (skipped <= 0) {
+				if (is.read() < 0) {
+					throw new DSSException("Unexpected end of the document to sign");
+				}
+				skipped = 1;
+			}
+			remaining -= skipped;
+		}
+	}
+
+	private void copy(InputStream is, OutputStream os, long count) throws IOException {
+		byte[] buffer = new byte[TAIL_BUFFER_SIZE];
+		long remaining = count;
+		while (remaining > 0) {
+			int n = is.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+			if (n < 0) {
+				throw new DSSException("Unexpected end of the document to sign");
+			}
+			os.write(buffer, 0, n);
+			remaining -= n;
+		}
+	}
+
+	/**
+	 * Reads the end of the document backward (trailing whitespaces, comments and processing instructions) to find the
+	 * root end tag (or the end of an empty root element).
+	 * 
+	 * @param tail
+	 *             the last bytes of the document
+	 * @return the index of the root end tag in the tail or -1 if more bytes are needed
+	 */
+	private int getRootEndTagIndex(byte[] tail) {
+		int i = tail.length;
+		while (true) {
+			while (i > 0 && isWhitespace(tail[i - 1])) {
+				i--;
+			}
+			if (i < 2) {
+				return -1;
+			}
+			if (endsWith(tail, i, "-->")) {
+				i = lastIndexOf(tail, "<!--", i - 3);
+			} else if (endsWith(tail, i, "?>")) {
+				i = lastIndexOf(tail, "<?", i - 2);
+			} else if (endsWith(tail, i, "/>")) {
+				return i - 2;
+			} else if (tail[i - 1] == '>') {
+				int start = lastIndexOf(tail, "</", i - 1);
+				if (start < 0) {
+					return -1;
+				}
+				String name = new String(tail, start + 2, i - 1 - (start + 2), charset).trim();
+				if (!rootQualifiedName.equals(name)) {
+					throw new DSSException(String.format("Unexpected end tag '%s' (root element '%s')", name, rootQualifiedName));
+				}
+				return start;
+			} else {
+				throw new DSSException("Unexpected content after the root element");
+			}
+			if (i < 0) {
+				return -1;
+			}
+		}
+	}
+
+	private boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+	}
+
+	private boolean endsWith(byte[] bytes, int end, String suffix) {
+		int length = suffix.length();
+		if (end < length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (bytes[end - length + i] != suffix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int lastIndexOf(byte[] bytes, String pattern, int end) {
+		for (int start = end - pattern.length(); start >= 0; start--) {
+			if (endsWith(bytes, start + pattern.length(), pattern)) {
+				return start;
+			}
+		}
+		return -1;
+	}
+
+	private String getQualifiedName(String prefix, String localName) {
+		if (Utils.isStringEmpty(prefix)) {
+			return localName;
+		}
+		return prefix + ":" + localName;
+	}
+
+	private String emptyToNull(String value) {
+		return Utils.isStringEmpty(value) ? null : value;
+	}
+
+	private void closeQuietly(XMLStreamReader reader) {
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (XMLStreamException e) {
+				// ignore
+			}
+		}
+	}
+
+}
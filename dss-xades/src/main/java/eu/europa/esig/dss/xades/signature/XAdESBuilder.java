@@ -313,7 +313,7 @@ public abstract class XAdESBuilder {
 	 * Returns list of object ids that must not be indented in any case
 	 * @return list of object ids to no indent
 	 */
-	private List<String> getNotIndentedObjectIds() {
+	protected List<String> getNotIndentedObjectIds() {
 		List<String> ids = new ArrayList<>();
 		List<DSSReference> dssReferences = params.getReferences();
 		if (dssReferences != null) {
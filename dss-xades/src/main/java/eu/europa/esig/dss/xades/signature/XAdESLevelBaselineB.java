@@ -20,8 +20,12 @@
  */
 package eu.europa.esig.dss.xades.signature;
 
+import java.util.Objects;
+
 import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DSSDocumentFactory;
 import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.InMemoryDocumentFactory;
 import eu.europa.esig.dss.validation.CertificateVerifier;
 import eu.europa.esig.dss.xades.SantuarioInitializer;
 import eu.europa.esig.dss.xades.SignatureBuilder;
@@ -45,6 +49,11 @@ public class XAdESLevelBaselineB implements SignatureProfile {
 	 */
 	private CertificateVerifier certificateVerifier;
 
+	/**
+	 * Creates the signed document when it is written in streaming mode
+	 */
+	private DSSDocumentFactory documentFactory = new InMemoryDocumentFactory();
+
 	/**
 	 * The default constructor for XAdESLevelBaselineB.
 	 *
@@ -55,6 +64,24 @@ public class XAdESLevelBaselineB implements SignatureProfile {
 		this.certificateVerifier = certificateVerifier;
 	}
 
+	/**
+	 * Sets the factory which creates the signed document when it is written in
+	 * streaming mode (see {@code XAdESSignatureParameters.setStreamingEnveloped})
+	 * 
+	 * @param documentFactory
+	 *                        the {@link DSSDocumentFactory} to be used
+	 */
+	public void setDocumentFactory(final DSSDocumentFactory documentFactory) {
+		Objects.requireNonNull(documentFactory, "DocumentFactory cannot be null !");
+		this.documentFactory = documentFactory;
+	}
+
+	private XAdESSignatureBuilder getSignatureBuilder(final DSSDocument dssDocument, final XAdESSignatureParameters parameters) {
+		final XAdESSignatureBuilder signatureBuilder = XAdESSignatureBuilder.getSignatureBuilder(parameters, dssDocument, certificateVerifier);
+		signatureBuilder.setDocumentFactory(documentFactory);
+		return signatureBuilder;
+	}
+
 	/**
 	 * Returns the canonicalized ds:SignedInfo XML segment under the form of InputStream
 	 *
@@ -67,7 +94,7 @@ public class XAdESLevelBaselineB implements SignatureProfile {
 	 *             if an error occurred
 	 */
 	public byte[] getDataToSign(final DSSDocument dssDocument, final XAdESSignatureParameters parameters) throws DSSException {
-		final XAdESSignatureBuilder signatureBuilder = XAdESSignatureBuilder.getSignatureBuilder(parameters, dssDocument, certificateVerifier);
+		final XAdESSignatureBuilder signatureBuilder = getSignatureBuilder(dssDocument, parameters);
 		parameters.getContext().setBuilder(signatureBuilder);
 		final byte[] dataToSign = signatureBuilder.build();
 		return dataToSign;
@@ -92,7 +119,7 @@ public class XAdESLevelBaselineB implements SignatureProfile {
 		if (builder != null) {
 			builder = parameters.getContext().getBuilder();
 		} else {
-			builder = XAdESSignatureBuilder.getSignatureBuilder(parameters, document, certificateVerifier);
+			builder = getSignatureBuilder(document, parameters);
 		}
 		final DSSDocument dssDocument = builder.signDocument(signatureValue);
 		parameters.getContext().setBuilder(builder);
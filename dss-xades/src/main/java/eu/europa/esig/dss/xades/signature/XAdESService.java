@@ -20,6 +20,7 @@
  */
 package eu.europa.esig.dss.xades.signature;
 
+import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -34,6 +35,7 @@ import eu.europa.esig.dss.model.DSSException;
 import eu.europa.esig.dss.model.SignatureValue;
 import eu.europa.esig.dss.model.ToBeSigned;
 import eu.europa.esig.dss.signature.AbstractSignatureService;
+import eu.europa.esig.dss.signature.BulkSignatureExtensionService;
 import eu.europa.esig.dss.signature.MultipleDocumentsSignatureService;
 import eu.europa.esig.dss.signature.SignatureExtension;
 import eu.europa.esig.dss.signature.SigningOperation;
@@ -97,6 +99,7 @@ public class XAdESService extends AbstractSignatureService<XAdESSignatureParamet
 		
 		assertSigningDateInCertificateValidityRange(parameters);
 		final XAdESLevelBaselineB levelBaselineB = new XAdESLevelBaselineB(certificateVerifier);
+		levelBaselineB.setDocumentFactory(documentFactory);
 		final byte[] dataToSign = levelBaselineB.getDataToSign(toSignDocument, parameters);
 		if (LOG.isTraceEnabled()) {
 			LOG.trace("Data to sign: ");
@@ -143,7 +146,9 @@ public class XAdESService extends AbstractSignatureService<XAdESSignatureParamet
 		if (context.getProfile() != null) {
 			profile = context.getProfile();
 		} else {
-			profile = new XAdESLevelBaselineB(certificateVerifier);
+			final XAdESLevelBaselineB levelBaselineB = new XAdESLevelBaselineB(certificateVerifier);
+			levelBaselineB.setDocumentFactory(documentFactory);
+			profile = levelBaselineB;
 		}
 		final DSSDocument signedDoc = profile.signDocument(toSignDocument, parameters, signatureValue.getValue());
 		final SignatureExtension<XAdESSignatureParameters> extension = getExtensionProfile(parameters);
@@ -153,7 +158,11 @@ public class XAdESService extends AbstractSignatureService<XAdESSignatureParamet
 				detachedContents.add(toSignDocument);
 				parameters.setDetachedContents(detachedContents);
 			}
-			final DSSDocument dssExtendedDocument = extension.extendSignatures(signedDoc, parameters);
+			final DSSDocument dssExtendedDocument = documentFactory.create(extension.extendSignatures(signedDoc, parameters));
+			if (signedDoc != dssExtendedDocument && signedDoc instanceof Closeable) {
+				// intermediate document written in streaming mode
+				Utils.closeQuietly((Closeable) signedDoc);
+			}
 			// The deterministic id is reset between two consecutive signing operations. It prevents having two
 			// signatures with the same Id within the same document.
 			parameters.reinitDeterministicId();
@@ -162,8 +171,9 @@ public class XAdESService extends AbstractSignatureService<XAdESSignatureParamet
 		}
 
 		parameters.reinitDeterministicId();
-		signedDoc.setName(getFinalFileName(toSignDocument, SigningOperation.SIGN, parameters.getSignatureLevel()));
-		return signedDoc;
+		final DSSDocument signature = documentFactory.create(signedDoc);
+		signature.setName(getFinalFileName(toSignDocument, SigningOperation.SIGN, parameters.getSignatureLevel()));
+		return signature;
 	}
 
 	@Override
@@ -177,6 +187,21 @@ public class XAdESService extends AbstractSignatureService<XAdESSignatureParamet
 		return signDocument(firstDoc, parameters, signatureValue);
 	}
 
+	/**
+	 * Returns a service which extends a large number of documents in parallel. The
+	 * validation pool and the revocation data are shared between the documents.
+	 * 
+	 * @return a new instance of {@code BulkSignatureExtensionService}
+	 */
+	public BulkSignatureExtensionService<XAdESSignatureParameters, XAdESTimestampParameters> getBulkExtensionService() {
+		return new BulkSignatureExtensionService<>(certificateVerifier, verifier -> {
+			XAdESService service = new XAdESService(verifier);
+			service.setTspSource(tspSource);
+			service.setDocumentFactory(documentFactory);
+			return service;
+		});
+	}
+
 	@Override
 	public DSSDocument extendDocument(final DSSDocument toExtendDocument, final XAdESSignatureParameters parameters) throws DSSException {
 		Objects.requireNonNull(toExtendDocument, "toExtendDocument is not defined!");
@@ -186,7 +211,7 @@ public class XAdESService extends AbstractSignatureService<XAdESSignatureParamet
 		parameters.getContext().setOperationKind(Operation.EXTENDING);
 		final SignatureExtension<XAdESSignatureParameters> extension = getExtensionProfile(parameters);
 		if (extension != null) {
-			final DSSDocument dssDocument = extension.extendSignatures(toExtendDocument, parameters);
+			final DSSDocument dssDocument = documentFactory.create(extension.extendSignatures(toExtendDocument, parameters));
 			dssDocument.setName(getFinalFileName(toExtendDocument, SigningOperation.EXTEND, parameters.getSignatureLevel()));
 			return dssDocument;
 		}
@@ -51,7 +51,9 @@ import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
 import eu.europa.esig.dss.enumerations.SignaturePackaging;
 import eu.europa.esig.dss.enumerations.TimestampType;
 import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DSSDocumentFactory;
 import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.InMemoryDocumentFactory;
 import eu.europa.esig.dss.model.MimeType;
 import eu.europa.esig.dss.model.Policy;
 import eu.europa.esig.dss.model.SignerLocation;
@@ -86,6 +88,11 @@ public abstract class XAdESSignatureBuilder extends XAdESBuilder implements Sign
 	 * This is the reference to the original document to sign
 	 */
 	protected DSSDocument detachedDocument;
+
+	/**
+	 * Creates the signed document when it is written without building its DOM (streaming mode)
+	 */
+	protected DSSDocumentFactory documentFactory = new InMemoryDocumentFactory();
 	
 	/**
 	 * The default Canonicalization method.
@@ -141,6 +148,9 @@ public abstract class XAdESSignatureBuilder extends XAdESBuilder implements Sign
 		
 		switch (params.getSignaturePackaging()) {
 			case ENVELOPED:
+				if (params.isStreamingEnveloped()) {
+					return new StreamingEnvelopedSignatureBuilder(params, document, certificateVerifier);
+				}
 				return new EnvelopedSignatureBuilder(params, document, certificateVerifier);
 			case ENVELOPING:
 				return new EnvelopingSignatureBuilder(params, document, certificateVerifier);
@@ -173,6 +183,17 @@ public abstract class XAdESSignatureBuilder extends XAdESBuilder implements Sign
 		this.deterministicId = params.getDeterministicId();
 	}
 
+	/**
+	 * Sets the factory which creates the signed document written in streaming mode
+	 * 
+	 * @param documentFactory
+	 *                        the {@link DSSDocumentFactory} to be used
+	 */
+	void setDocumentFactory(final DSSDocumentFactory documentFactory) {
+		Objects.requireNonNull(documentFactory, "DocumentFactory cannot be null !");
+		this.documentFactory = documentFactory;
+	}
+
 	protected void setCanonicalizationMethods(final XAdESSignatureParameters params, final String canonicalizationMethod) {
 
 		keyInfoCanonicalizationMethod = getCanonicalizationMethod(params.getKeyInfoCanonicalizationMethod(), canonicalizationMethod);
@@ -20,6 +20,8 @@
  */
 package eu.europa.esig.dss.xades.validation;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import org.apache.xml.security.signature.XMLSignatureInput;
@@ -27,7 +29,11 @@ import org.apache.xml.security.utils.resolver.ResourceResolverContext;
 import org.apache.xml.security.utils.resolver.ResourceResolverException;
 import org.apache.xml.security.utils.resolver.ResourceResolverSpi;
 import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
 
+import eu.europa.esig.dss.DomUtils;
+import eu.europa.esig.dss.definition.xmldsig.XMLDSigPaths;
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.model.DSSDocument;
 import eu.europa.esig.dss.model.DigestDocument;
@@ -54,16 +60,27 @@ public class DetachedSignatureResolver extends ResourceResolverSpi {
 	public XMLSignatureInput engineResolveURI(ResourceResolverContext context) throws ResourceResolverException {
 		DSSDocument document = getCurrentDocument(context);
 		if (document instanceof DigestDocument) {
+			if (context.attr != null && !isReferenceWithoutTransforms(context)) {
+				// the transforms cannot be applied on a digest
+				Object[] exArgs = { "A DigestDocument cannot be used for a reference with transforms (detached signature)" };
+				throw new ResourceResolverException("generic.EmptyMessage", exArgs, context.uriToResolve, context.baseUri);
+			}
 			DigestDocument digestDoc = (DigestDocument) document;
 			return new XMLSignatureInput(digestDoc.getDigest(digestAlgorithm));
 		} else {
-			return createFromCommonDocument(document);
+			return createFromCommonDocument(document, isReferenceWithoutTransforms(context));
 		}
 	}
 
-	private XMLSignatureInput createFromCommonDocument(DSSDocument document) {
-		// Full binaries are required
-		final XMLSignatureInput result = new XMLSignatureInput(DSSUtils.toByteArray(document));
+	private XMLSignatureInput createFromCommonDocument(DSSDocument document, boolean withoutTransforms) {
+		final XMLSignatureInput result;
+		if (withoutTransforms) {
+			// The digest is computed on the octet stream : the document is streamed to the digester
+			result = new XMLSignatureInput(new DocumentInputStream(document));
+		} else {
+			// Full binaries are required
+			result = new XMLSignatureInput(DSSUtils.toByteArray(document));
+		}
 		final MimeType mimeType = document.getMimeType();
 		if (mimeType != null) {
 			result.setMIMEType(mimeType.getMimeTypeString());
@@ -72,25 +89,67 @@ public class DetachedSignatureResolver extends ResourceResolverSpi {
 	}
 
 	private DSSDocument getCurrentDocument(ResourceResolverContext context) throws ResourceResolverException {
-		if (definedFilename(context) && isDocumentNamesDefined()) {
-			Attr uriAttr = context.attr;
-			String uriValue = DSSUtils.decodeUrl(uriAttr.getNodeValue());
+		String uriValue = definedFilename(context) ? context.attr.getNodeValue() : null;
+		DSSDocument document = getDocument(documents, uriValue);
+		if (document != null) {
+			return document;
+		}
+
+		if (uriValue != null && isDocumentNamesDefined(documents)) {
+			String decodedUri = DSSUtils.decodeUrl(uriValue);
+			Object[] exArgs = { "Unable to find document '" + decodedUri + "' (detached signature)" };
+			throw new ResourceResolverException("generic.EmptyMessage", exArgs, decodedUri, context.baseUri);
+		}
+
+		Object[] exArgs = { "Unable to find document (detached signature)" };
+		throw new ResourceResolverException("generic.EmptyMessage", exArgs, null, context.baseUri);
+
+	}
+
+	/**
+	 * Returns the detached document pointed by the given reference URI
+	 * 
+	 * @param documents
+	 *                  the detached contents
+	 * @param uri
+	 *                  the URI of the reference (a filename) or null
+	 * @return the matching {@code DSSDocument} or null
+	 */
+	static DSSDocument getDocument(final List<DSSDocument> documents, final String uri) {
+		if (uri != null && isDocumentNamesDefined(documents)) {
+			String uriValue = DSSUtils.decodeUrl(uri);
 			for (DSSDocument dssDocument : documents) {
 				if (Utils.areStringsEqual(dssDocument.getName(), uriValue)) {
 					return dssDocument;
 				}
 			}
-			Object[] exArgs = { "Unable to find document '" + uriValue + "' (detached signature)" };
-			throw new ResourceResolverException("generic.EmptyMessage", exArgs, uriValue, context.baseUri);
+			return null;
 		}
 
 		if (Utils.collectionSize(documents) == 1) {
 			return documents.get(0);
 		}
+		return null;
+	}
 
-		Object[] exArgs = { "Unable to find document (detached signature)" };
-		throw new ResourceResolverException("generic.EmptyMessage", exArgs, null, context.baseUri);
+	/**
+	 * Checks if the given ds:Reference element does not define any transformation
+	 * 
+	 * @param referenceElement
+	 *                         the ds:Reference element
+	 * @return TRUE if no ds:Transform is present
+	 */
+	static boolean isWithoutTransforms(final Element referenceElement) {
+		NodeList transforms = DomUtils.getNodeList(referenceElement, XMLDSigPaths.TRANSFORMS_TRANSFORM_PATH);
+		return transforms == null || transforms.getLength() == 0;
+	}
 
+	private boolean isReferenceWithoutTransforms(ResourceResolverContext context) {
+		if (context.attr != null) {
+			Element referenceElement = context.attr.getOwnerElement();
+			return referenceElement != null && isWithoutTransforms(referenceElement);
+		}
+		return false;
 	}
 
 	@Override
@@ -107,7 +166,7 @@ public class DetachedSignatureResolver extends ResourceResolverSpi {
 		return uriAttr != null && Utils.isStringNotBlank(uriAttr.getNodeValue()) && !uriAttr.getNodeValue().startsWith("#");
 	}
 
-	private boolean isDocumentNamesDefined() {
+	private static boolean isDocumentNamesDefined(List<DSSDocument> documents) {
 		if (Utils.isCollectionNotEmpty(documents)) {
 			for (final DSSDocument dssDocument : documents) {
 				if (Utils.isStringNotEmpty(dssDocument.getName())) {
@@ -118,4 +177,65 @@ public class DetachedSignatureResolver extends ResourceResolverSpi {
 		return false;
 	}
 
+	/**
+	 * This InputStream opens the document stream on the first read and closes it
+	 * at the end of the data. Santuario does not close the streams of the
+	 * resolved inputs, and some of them are never read (eg : existence check).
+	 */
+	private static class DocumentInputStream extends InputStream {
+
+		private final DSSDocument document;
+
+		private InputStream is;
+
+		private boolean closed = false;
+
+		DocumentInputStream(DSSDocument document) {
+			this.document = document;
+		}
+
+		@Override
+		public int read() throws IOException {
+			InputStream current = getStream();
+			if (current == null) {
+				return -1;
+			}
+			int b = current.read();
+			if (b == -1) {
+				close();
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			InputStream current = getStream();
+			if (current == null) {
+				return -1;
+			}
+			int count = current.read(b, off, len);
+			if (count == -1) {
+				close();
+			}
+			return count;
+		}
+
+		@Override
+		public void close() throws IOException {
+			closed = true;
+			if (is != null) {
+				is.close();
+				is = null;
+			}
+		}
+
+		private InputStream getStream() {
+			if (is == null && !closed) {
+				is = document.openStream();
+			}
+			return is;
+		}
+
+	}
+
 }
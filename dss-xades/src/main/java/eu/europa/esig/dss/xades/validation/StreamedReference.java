@@ -0,0 +1,125 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.validation;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.Digest;
+import eu.europa.esig.dss.xades.StreamingCanonicalizer;
+
+/**
+ * A same-document reference (whole document or element with an Id outside of the signature) whose content is
+ * canonicalized and digested while streaming the signed document
+ */
+final class StreamedReference {
+
+	/* The referenced Id (null for the whole document) */
+	private final String id;
+
+	private final StreamingCanonicalizer canonicalizer;
+
+	/* The position of the ds:Signature removed by an enveloped signature transform (-1 if none) */
+	private final int excludedSignature;
+
+	private final DigestAlgorithm digestAlgorithm;
+
+	private final DigestAlgorithm contentDigestAlgorithm;
+
+	private byte[] digestValue;
+
+	private Digest contentDigest;
+
+	private int occurrences;
+
+	/**
+	 * The default constructor
+	 * 
+	 * @param id
+	 *                               the referenced Id (null for the whole document)
+	 * @param canonicalizer
+	 *                               the canonicalizer which applies the transforms of the reference
+	 * @param excludedSignature
+	 *                               the position (in document order, within all ds:Signature elements) of the
+	 *                               signature removed by an enveloped signature transform, -1 if none
+	 * @param digestAlgorithm
+	 *                               the digest algorithm of the reference
+	 * @param contentDigestAlgorithm
+	 *                               the digest algorithm used to identify the signed content (signature scope)
+	 */
+	StreamedReference(String id, StreamingCanonicalizer canonicalizer, int excludedSignature, DigestAlgorithm digestAlgorithm,
+			DigestAlgorithm contentDigestAlgorithm) {
+		this.id = id;
+		this.canonicalizer = canonicalizer;
+		this.excludedSignature = excludedSignature;
+		this.digestAlgorithm = digestAlgorithm;
+		this.contentDigestAlgorithm = contentDigestAlgorithm;
+	}
+
+	String getId() {
+		return id;
+	}
+
+	StreamingCanonicalizer getCanonicalizer() {
+		return canonicalizer;
+	}
+
+	int getExcludedSignature() {
+		return excludedSignature;
+	}
+
+	DigestAlgorithm getDigestAlgorithm() {
+		return digestAlgorithm;
+	}
+
+	DigestAlgorithm getContentDigestAlgorithm() {
+		return contentDigestAlgorithm;
+	}
+
+	byte[] getDigestValue() {
+		return digestValue;
+	}
+
+	void setDigestValue(byte[] digestValue) {
+		this.digestValue = digestValue;
+	}
+
+	Digest getContentDigest() {
+		return contentDigest;
+	}
+
+	void setContentDigest(Digest contentDigest) {
+		this.contentDigest = contentDigest;
+	}
+
+	void setOccurrences(int occurrences) {
+		this.occurrences = occurrences;
+	}
+
+	/**
+	 * The referenced content is found if it has been digested and if the referenced Id is unique in the document
+	 * (protection against XML Signature Wrapping attacks)
+	 * 
+	 * @return true if the referenced content is found
+	 */
+	boolean isFound() {
+		return digestValue != null && (id == null || occurrences == 1);
+	}
+
+}
@@ -0,0 +1,355 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.validation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import eu.europa.esig.dss.DomUtils;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.Digest;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.xades.StreamingCanonicalizer;
+import eu.europa.esig.dss.xades.StreamingCanonicalizer.CanonicalWriter;
+
+/**
+ * Computes, in one StAX pass, the digests of all streamed references (whole document and subtrees identified by an
+ * Id) and counts the occurrences of the referenced Ids
+ */
+class StreamedReferenceDigester {
+
+	private static final String ID_ATTRIBUTE = "Id";
+
+	private final DSSDocument document;
+
+	private final Collection<StreamedReference> references;
+
+	private final Map<String, Integer> occurrences = new HashMap<>();
+
+	/**
+	 * The default constructor
+	 * 
+	 * @param document
+	 *                     the signed XML document
+	 * @param references
+	 *                     the references to digest
+	 * @param referencedIds
+	 *                     the Ids whose occurrences must be counted (including the ones of the streamed references)
+	 */
+	StreamedReferenceDigester(DSSDocument document, Collection<StreamedReference> references, Set<String> referencedIds) {
+		this.document = document;
+		this.references = references;
+		for (String id : referencedIds) {
+			occurrences.put(id, 0);
+		}
+		for (StreamedReference reference : references) {
+			if (reference.getId() != null) {
+				occurrences.put(reference.getId(), 0);
+			}
+		}
+	}
+
+	/**
+	 * Streams the document and sets the digests and the number of occurrences of the streamed references
+	 */
+	void digest() {
+		final List<Target> pending = new ArrayList<>();
+		final List<Target> active = new ArrayList<>();
+		for (StreamedReference reference : references) {
+			if (reference.getId() == null) {
+				active.add(new Target(reference));
+			} else {
+				pending.add(new Target(reference));
+			}
+		}
+
+		XMLStreamReader reader = null;
+		try (InputStream is = document.openStream()) {
+			reader = DomUtils.getSecureXMLInputFactory().createXMLStreamReader(is);
+			for (Target target : active) {
+				target.start(null, null);
+			}
+
+			final Deque<Map<String, String>> namespaces = new ArrayDeque<>();
+			namespaces.push(Collections.<String, String> emptyMap());
+			final Deque<Map<String, String>> xmlAttributes = new ArrayDeque<>();
+			xmlAttributes.push(Collections.<String, String> emptyMap());
+			int signatureCount = 0;
+
+			while (reader.hasNext()) {
+				final int event = reader.next();
+				if (XMLStreamConstants.START_ELEMENT == event) {
+					int signaturePosition = -1;
+					if (StreamingCanonicalizer.isSignatureElement(reader)) {
+						signaturePosition = signatureCount++;
+					}
+					activateTargets(reader, pending, active, namespaces.peek(), xmlAttributes.peek());
+					for (Target target : active) {
+						target.startElement(reader, signaturePosition);
+					}
+					namespaces.push(getInScopeNamespaces(reader, namespaces.peek()));
+					xmlAttributes.push(getInScopeXmlAttributes(reader, xmlAttributes.peek()));
+
+				} else if (XMLStreamConstants.END_ELEMENT == event) {
+					namespaces.pop();
+					xmlAttributes.pop();
+					final Iterator<Target> iterator = active.iterator();
+					while (iterator.hasNext()) {
+						Target target = iterator.next();
+						if (target.endElement(reader)) {
+							target.finish();
+							iterator.remove();
+						}
+					}
+
+				} else {
+					for (Target target : active) {
+						target.write(reader);
+					}
+				}
+			}
+
+			// whole document references
+			for (Target target : active) {
+				target.finish();
+			}
+		} catch (XMLStreamException | IOException e) {
+			throw new DSSException("Unable to digest the references of the XML stream", e);
+		} finally {
+			closeQuietly(reader);
+		}
+
+		for (StreamedReference reference : references) {
+			if (reference.getId() != null) {
+				reference.setOccurrences(occurrences.get(reference.getId()));
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of occurrences of the given Id in the document
+	 * 
+	 * @param id
+	 *           a referenced Id
+	 * @return the number of elements with this Id
+	 */
+	int getOccurrences(String id) {
+		Integer result = occurrences.get(id);
+		return result == null ? 0 : result;
+	}
+
+	private void activateTargets(XMLStreamReader reader, List<Target> pending, List<Target> active, Map<String, String> inScopeNamespaces,
+			Map<String, String> inheritedXmlAttributes) {
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			if (!ID_ATTRIBUTE.equalsIgnoreCase(reader.getAttributeLocalName(i))) {
+				continue;
+			}
+			final String id = reader.getAttributeValue(i);
+			final Integer count = occurrences.get(id);
+			if (count == null) {
+				continue;
+			}
+			occurrences.put(id, count + 1);
+			if (count == 0) {
+				// only the first occurrence is digested (the reference is not found if the Id is not unique)
+				final Iterator<Target> iterator = pending.iterator();
+				while (iterator.hasNext()) {
+					Target target = iterator.next();
+					if (id.equals(target.reference.getId())) {
+						target.start(inScopeNamespaces, inheritedXmlAttributes);
+						active.add(target);
+						iterator.remove();
+					}
+				}
+			}
+		}
+	}
+
+	private Map<String, String> getInScopeNamespaces(XMLStreamReader reader, Map<String, String> parentNamespaces) {
+		if (reader.getNamespaceCount() == 0) {
+			return parentNamespaces;
+		}
+		final Map<String, String> result = new HashMap<>(parentNamespaces);
+		for (int i = 0; i < reader.getNamespaceCount(); i++) {
+			result.put(nullToEmpty(reader.getNamespacePrefix(i)), nullToEmpty(reader.getNamespaceURI(i)));
+		}
+		return result;
+	}
+
+	private Map<String, String> getInScopeXmlAttributes(XMLStreamReader reader, Map<String, String> parentXmlAttributes) {
+		Map<String, String> result = parentXmlAttributes;
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			if (XMLConstants.XML_NS_URI.equals(reader.getAttributeNamespace(i))) {
+				if (result == parentXmlAttributes) {
+					result = new HashMap<>(parentXmlAttributes);
+				}
+				result.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+			}
+		}
+		return result;
+	}
+
+	private String nullToEmpty(String value) {
+		return value == null ? XMLConstants.DEFAULT_NS_PREFIX : value;
+	}
+
+	private void closeQuietly(XMLStreamReader reader) {
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (XMLStreamException e) {
+				// ignore
+			}
+		}
+	}
+
+	/**
+	 * The canonicalization of the content of one reference
+	 */
+	private static final class Target {
+
+		private final StreamedReference reference;
+
+		private final MessageDigest messageDigest;
+
+		/* null if the content digest is computed with the digest algorithm of the reference */
+		private final MessageDigest contentMessageDigest;
+
+		private CanonicalWriter writer;
+
+		private int depth = 0;
+
+		private int skippedDepth = 0;
+
+		private Target(StreamedReference reference) {
+			this.reference = reference;
+			this.messageDigest = DSSUtils.getMessageDigest(reference.getDigestAlgorithm());
+			if (reference.getDigestAlgorithm() == reference.getContentDigestAlgorithm()) {
+				this.contentMessageDigest = null;
+			} else {
+				this.contentMessageDigest = DSSUtils.getMessageDigest(reference.getContentDigestAlgorithm());
+			}
+		}
+
+		private void start(Map<String, String> inScopeNamespaces, Map<String, String> inheritedXmlAttributes) {
+			final OutputStream os = new DigestsOutputStream(messageDigest, contentMessageDigest);
+			if (reference.getId() == null) {
+				writer = reference.getCanonicalizer().newDocumentWriter(os);
+			} else {
+				writer = reference.getCanonicalizer().newSubtreeWriter(os, inScopeNamespaces, inheritedXmlAttributes);
+			}
+		}
+
+		private void startElement(XMLStreamReader reader, int signaturePosition) throws IOException {
+			if (skippedDepth > 0) {
+				skippedDepth++;
+			} else if ((signaturePosition != -1 && reference.getCanonicalizer().isExcludeSignatures())
+					|| (signaturePosition != -1 && signaturePosition == reference.getExcludedSignature())) {
+				skippedDepth = 1;
+			} else {
+				writer.write(reader);
+				depth++;
+			}
+		}
+
+		/**
+		 * Returns true if the end of the referenced subtree is reached
+		 */
+		private boolean endElement(XMLStreamReader reader) throws IOException {
+			if (skippedDepth > 0) {
+				skippedDepth--;
+				return false;
+			}
+			writer.write(reader);
+			depth--;
+			return depth == 0 && reference.getId() != null;
+		}
+
+		private void write(XMLStreamReader reader) throws IOException {
+			if (skippedDepth == 0) {
+				writer.write(reader);
+			}
+		}
+
+		private void finish() throws IOException {
+			writer.flush();
+			final byte[] digestValue = messageDigest.digest();
+			reference.setDigestValue(digestValue);
+			if (contentMessageDigest == null) {
+				reference.setContentDigest(new Digest(reference.getContentDigestAlgorithm(), digestValue));
+			} else {
+				reference.setContentDigest(new Digest(reference.getContentDigestAlgorithm(), contentMessageDigest.digest()));
+			}
+		}
+
+	}
+
+	/**
+	 * Updates one or two message digests with the canonicalized bytes
+	 */
+	private static final class DigestsOutputStream extends OutputStream {
+
+		private final MessageDigest first;
+
+		private final MessageDigest second;
+
+		private DigestsOutputStream(MessageDigest first, MessageDigest second) {
+			this.first = first;
+			this.second = second;
+		}
+
+		@Override
+		public void write(int b) {
+			first.update((byte) b);
+			if (second != null) {
+				second.update((byte) b);
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			first.update(b, off, len);
+			if (second != null) {
+				second.update(b, off, len);
+			}
+		}
+
+	}
+
+}
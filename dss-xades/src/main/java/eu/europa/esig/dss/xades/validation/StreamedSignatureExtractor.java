@@ -0,0 +1,219 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.validation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import eu.europa.esig.dss.DomUtils;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.utils.Utils;
+import eu.europa.esig.dss.xades.StreamingCanonicalizer;
+import eu.europa.esig.dss.xades.definition.xades132.XAdES132Element;
+
+/**
+ * Extracts the ds:Signature elements of an XML document in one StAX pass. Each signature is copied in its own small
+ * DOM, below a copy of the start tags of its ancestors (namespace declarations and attributes, without any other
+ * content).
+ */
+class StreamedSignatureExtractor {
+
+	private final DSSDocument document;
+
+	/**
+	 * The default constructor
+	 * 
+	 * @param document
+	 *                 the signed XML document
+	 */
+	StreamedSignatureExtractor(DSSDocument document) {
+		this.document = document;
+	}
+
+	/**
+	 * Extracts the signatures
+	 * 
+	 * @return the extracted ds:Signature elements (in document order) with their position within all ds:Signature
+	 *         elements of the document (including the counter signatures)
+	 */
+	Map<Element, Integer> extract() {
+		final Map<Element, Integer> result = new LinkedHashMap<>();
+		XMLStreamReader reader = null;
+		try (InputStream is = document.openStream()) {
+			reader = DomUtils.getSecureXMLInputFactory().createXMLStreamReader(is);
+			final Deque<StartTag> ancestors = new ArrayDeque<>();
+			Element signatureElement = null;
+			Element current = null;
+			int signatureCount = 0;
+			while (reader.hasNext()) {
+				switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					final boolean isSignature = StreamingCanonicalizer.isSignatureElement(reader);
+					if (current != null) {
+						if (isSignature) {
+							if (!XAdES132Element.COUNTER_SIGNATURE.isSameTagName(current.getLocalName())) {
+								throw new DSSException("A ds:Signature embedded in another signature is only supported as a counter signature");
+							}
+							signatureCount++;
+						}
+						current = (Element) current.appendChild(new StartTag(reader).toElement(current.getOwnerDocument()));
+					} else if (isSignature) {
+						signatureElement = createSignatureElement(reader, ancestors);
+						current = signatureElement;
+						result.put(signatureElement, signatureCount++);
+					} else {
+						ancestors.push(new StartTag(reader));
+					}
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					if (current == signatureElement && current != null) {
+						current = null;
+						signatureElement = null;
+					} else if (current != null) {
+						current = (Element) current.getParentNode();
+					} else {
+						ancestors.pop();
+					}
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.SPACE:
+					if (current != null) {
+						current.appendChild(current.getOwnerDocument().createTextNode(reader.getText()));
+					}
+					break;
+				case XMLStreamConstants.CDATA:
+					if (current != null) {
+						current.appendChild(current.getOwnerDocument().createCDATASection(reader.getText()));
+					}
+					break;
+				case XMLStreamConstants.COMMENT:
+					if (current != null) {
+						current.appendChild(current.getOwnerDocument().createComment(reader.getText()));
+					}
+					break;
+				case XMLStreamConstants.PROCESSING_INSTRUCTION:
+					if (current != null) {
+						current.appendChild(current.getOwnerDocument().createProcessingInstruction(reader.getPITarget(), reader.getPIData()));
+					}
+					break;
+				case XMLStreamConstants.DTD:
+				case XMLStreamConstants.ENTITY_REFERENCE:
+					throw new DSSException("DTD and entity references are not supported in streaming mode");
+				default:
+					break;
+				}
+			}
+		} catch (XMLStreamException | IOException e) {
+			throw new DSSException("Unable to extract the signatures from the XML stream", e);
+		} finally {
+			closeQuietly(reader);
+		}
+		return result;
+	}
+
+	private Element createSignatureElement(XMLStreamReader reader, Deque<StartTag> ancestors) {
+		final Document signatureDocument = DomUtils.buildDOM();
+		Node parent = signatureDocument;
+		// the deque is iterated from the root element
+		final Iterator<StartTag> iterator = ancestors.descendingIterator();
+		while (iterator.hasNext()) {
+			parent = parent.appendChild(iterator.next().toElement(signatureDocument));
+		}
+		return (Element) parent.appendChild(new StartTag(reader).toElement(signatureDocument));
+	}
+
+	private void closeQuietly(XMLStreamReader reader) {
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (XMLStreamException e) {
+				// ignore
+			}
+		}
+	}
+
+	/**
+	 * The copy of a start tag : name, namespace declarations and attributes
+	 */
+	private static final class StartTag {
+
+		private final String namespaceURI;
+		private final String qualifiedName;
+		private final List<String[]> namespaces = new ArrayList<>();
+		private final List<String[]> attributes = new ArrayList<>();
+
+		private StartTag(XMLStreamReader reader) {
+			this.namespaceURI = emptyToNull(reader.getNamespaceURI());
+			this.qualifiedName = getQualifiedName(reader.getPrefix(), reader.getLocalName());
+			for (int i = 0; i < reader.getNamespaceCount(); i++) {
+				String prefix = reader.getNamespacePrefix(i);
+				String name = Utils.isStringEmpty(prefix) ? XMLConstants.XMLNS_ATTRIBUTE : XMLConstants.XMLNS_ATTRIBUTE + ":" + prefix;
+				String uri = reader.getNamespaceURI(i);
+				namespaces.add(new String[] { name, uri == null ? "" : uri });
+			}
+			for (int i = 0; i < reader.getAttributeCount(); i++) {
+				attributes.add(new String[] { emptyToNull(reader.getAttributeNamespace(i)),
+						getQualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)), reader.getAttributeValue(i) });
+			}
+		}
+
+		private Element toElement(Document document) {
+			final Element element = document.createElementNS(namespaceURI, qualifiedName);
+			for (String[] namespace : namespaces) {
+				element.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, namespace[0], namespace[1]);
+			}
+			for (String[] attribute : attributes) {
+				element.setAttributeNS(attribute[0], attribute[1], attribute[2]);
+			}
+			return element;
+		}
+
+		private static String getQualifiedName(String prefix, String localName) {
+			if (Utils.isStringEmpty(prefix)) {
+				return localName;
+			}
+			return prefix + ":" + localName;
+		}
+
+		private static String emptyToNull(String value) {
+			return Utils.isStringEmpty(value) ? null : value;
+		}
+
+	}
+
+}
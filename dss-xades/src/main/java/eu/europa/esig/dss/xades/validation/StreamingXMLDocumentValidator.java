@@ -0,0 +1,345 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.validation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.crypto.dsig.XMLSignature;
+
+import org.apache.xml.security.c14n.Canonicalizer;
+import org.apache.xml.security.transforms.Transforms;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import eu.europa.esig.dss.DomUtils;
+import eu.europa.esig.dss.definition.xmldsig.XMLDSigAttribute;
+import eu.europa.esig.dss.definition.xmldsig.XMLDSigElement;
+import eu.europa.esig.dss.definition.xmldsig.XMLDSigPaths;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.utils.Utils;
+import eu.europa.esig.dss.validation.AdvancedSignature;
+import eu.europa.esig.dss.xades.StreamingCanonicalizer;
+import eu.europa.esig.dss.xades.definition.XAdESPaths;
+
+/**
+ * Validator of XML signed documents which does not build the DOM of the whole document.
+ * 
+ * The ds:Signature elements are extracted in small DOMs (first StAX pass), then the same-document references (whole
+ * document and elements with an Id outside of the signatures) are canonicalized and digested in a second StAX pass.
+ * The cryptographic and policy checks are performed on these results. When a signature requires the DOM of the
+ * document (XPointer, unsupported transform, timestamp over the signed data,...), this validator falls back to the
+ * behavior of {@link XMLDocumentValidator}.
+ */
+public class StreamingXMLDocumentValidator extends XMLDocumentValidator {
+
+	private static final Logger LOG = LoggerFactory.getLogger(StreamingXMLDocumentValidator.class);
+
+	/* Timestamps which are computed over the signed data objects (the DOM is required) */
+	private static final Set<String> DATA_TIMESTAMPS = new HashSet<>(
+			Arrays.asList("AllDataObjectsTimeStamp", "IndividualDataObjectsTimeStamp", "ArchiveTimeStamp"));
+
+	private static final String XPATH_ENVELOPED_EXPRESSION = "not(ancestor-or-self::ds:Signature)";
+
+	private static final String XPATH2_ENVELOPED_EXPRESSION = "/descendant::ds:Signature";
+
+	private static final String XPATH2_SUBTRACT_FILTER = "subtract";
+
+	private static final String XPATH2_FILTER_ATTRIBUTE = "Filter";
+
+	private static final String XMLDSIG_PREFIX = "ds";
+
+	private static final String INCLUSIVE_NAMESPACES = "InclusiveNamespaces";
+
+	private static final String ID_ATTRIBUTE = "Id";
+
+	private static final String TYPE_ATTRIBUTE = "Type";
+
+	private List<AdvancedSignature> signatures;
+
+	private boolean streamed = false;
+
+	/**
+	 * The default constructor for StreamingXMLDocumentValidator. The DOM of the document is not built.
+	 *
+	 * @param dssDocument
+	 *                    The instance of {@code DSSDocument} to validate
+	 */
+	public StreamingXMLDocumentValidator(final DSSDocument dssDocument) {
+		super(dssDocument, null);
+	}
+
+	@Override
+	public List<AdvancedSignature> getSignatures() {
+		if (signatures != null) {
+			return signatures;
+		}
+		try {
+			signatures = getStreamedSignatures();
+			streamed = true;
+		} catch (DSSException e) {
+			LOG.info("The document cannot be validated in streaming mode, its DOM is built : {}", e.getMessage());
+			rootElement = DomUtils.buildDOM(document);
+			signatures = super.getSignatures();
+		}
+		return signatures;
+	}
+
+	private List<AdvancedSignature> getStreamedSignatures() {
+		final Map<Element, Integer> signatureElements = new StreamedSignatureExtractor(document).extract();
+
+		final Map<Element, Map<Element, StreamedReference>> streamedReferences = new HashMap<>();
+		final List<StreamedReference> allStreamedReferences = new ArrayList<>();
+		final Set<String> inSignatureIds = new HashSet<>();
+		for (Map.Entry<Element, Integer> entry : signatureElements.entrySet()) {
+			Map<Element, StreamedReference> signatureReferences = getStreamedReferences(entry.getKey(), entry.getValue(), inSignatureIds);
+			streamedReferences.put(entry.getKey(), signatureReferences);
+			allStreamedReferences.addAll(signatureReferences.values());
+		}
+
+		if (!allStreamedReferences.isEmpty() || !inSignatureIds.isEmpty()) {
+			final StreamedReferenceDigester digester = new StreamedReferenceDigester(document, allStreamedReferences, inSignatureIds);
+			digester.digest();
+			for (String id : inSignatureIds) {
+				if (digester.getOccurrences(id) > 1) {
+					throw new DSSException(String.format("The Id '%s' is not unique in the document", id));
+				}
+			}
+		}
+
+		final List<AdvancedSignature> result = new ArrayList<>();
+		for (Element signatureElement : signatureElements.keySet()) {
+			final XAdESSignature xadesSignature = buildSignature(signatureElement);
+			xadesSignature.setStreamedReferences(streamedReferences.get(signatureElement));
+			result.add(xadesSignature);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the references of the signature which are digested while streaming the document (whole document and
+	 * elements outside of the signature). The other references are dereferenced by Santuario from the signature DOM or
+	 * from the detached contents.
+	 */
+	private Map<Element, StreamedReference> getStreamedReferences(Element signatureElement, int signaturePosition, Set<String> inSignatureIds) {
+		for (String timestamp : DATA_TIMESTAMPS) {
+			if (signatureElement.getElementsByTagNameNS("*", timestamp).getLength() > 0) {
+				throw new DSSException(String.format("The %s requires the DOM of the document", timestamp));
+			}
+		}
+
+		final Map<Element, StreamedReference> result = new HashMap<>();
+		final NodeList referenceNodes = DomUtils.getNodeList(signatureElement, XMLDSigPaths.SIGNED_INFO_REFERENCE_PATH);
+		for (int i = 0; i < referenceNodes.getLength(); i++) {
+			final Element reference = (Element) referenceNodes.item(i);
+			if (!reference.hasAttribute(XMLDSigAttribute.URI.getAttributeName())) {
+				// detached content
+				continue;
+			}
+			final String uri = reference.getAttribute(XMLDSigAttribute.URI.getAttributeName());
+			if (DomUtils.isXPointerQuery(uri)) {
+				throw new DSSException(String.format("The XPointer reference '%s' requires the DOM of the document", uri));
+			}
+
+			String id = null;
+			if (DomUtils.isElementReference(uri)) {
+				id = DomUtils.getId(uri);
+				if (containsId(signatureElement, id)) {
+					// dereferenced from the signature DOM
+					inSignatureIds.add(id);
+					continue;
+				}
+				checkReferenceType(reference);
+			} else if (Utils.isStringNotEmpty(uri)) {
+				// detached content
+				continue;
+			}
+			result.put(reference, buildStreamedReference(reference, id, signaturePosition));
+		}
+		return result;
+	}
+
+	private boolean containsId(Element element, String id) {
+		final NamedNodeMap attributes = element.getAttributes();
+		for (int i = 0; i < attributes.getLength(); i++) {
+			Node attribute = attributes.item(i);
+			if (ID_ATTRIBUTE.equalsIgnoreCase(attribute.getLocalName()) && id.equals(attribute.getNodeValue())) {
+				return true;
+			}
+		}
+		for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if (Node.ELEMENT_NODE == child.getNodeType() && containsId((Element) child, id)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The typed references (ds:Object, ds:Manifest, SignedProperties) are expected within the signature
+	 */
+	private void checkReferenceType(Element reference) {
+		final String type = reference.getAttribute(TYPE_ATTRIBUTE);
+		boolean typed = XMLDSigPaths.OBJECT_TYPE.equals(type) || XMLDSigPaths.MANIFEST_TYPE.equals(type);
+		for (XAdESPaths xadesPaths : getXAdESPathsHolder()) {
+			typed = typed || xadesPaths.getSignedPropertiesUri().equals(type);
+		}
+		if (typed) {
+			throw new DSSException(String.format("The reference of type '%s' to an element outside of the signature is not supported", type));
+		}
+	}
+
+	/**
+	 * Supported transforms are an enveloped signature transform (for the whole document : or its XPath equivalents)
+	 * optionally followed by a canonicalization
+	 */
+	private StreamedReference buildStreamedReference(Element reference, String id, int signaturePosition) {
+		final NodeList transformNodes = DomUtils.getNodeList(reference, XMLDSigPaths.TRANSFORMS_TRANSFORM_PATH);
+		final List<Element> transforms = new ArrayList<>();
+		for (int i = 0; i < transformNodes.getLength(); i++) {
+			transforms.add((Element) transformNodes.item(i));
+		}
+
+		int index = 0;
+		int excludedSignature = -1;
+		boolean excludeSignatures = false;
+		if (index < transforms.size() && Transforms.TRANSFORM_ENVELOPED_SIGNATURE.equals(getAlgorithm(transforms.get(index)))) {
+			excludedSignature = signaturePosition;
+			index++;
+		} else if (index < transforms.size() && id == null && isXPathEnvelopedTransform(transforms.get(index))) {
+			excludeSignatures = true;
+			index++;
+		}
+
+		// XMLDSIG 4.4.3.3 : a node-set is converted with Canonical XML 1.0 (omits comments)
+		String canonicalizationMethod = Canonicalizer.ALGO_ID_C14N_OMIT_COMMENTS;
+		if (index < transforms.size()) {
+			final Element transform = transforms.get(index);
+			canonicalizationMethod = getOmitCommentsMethod(getAlgorithm(transform));
+			if (!StreamingCanonicalizer.isSupported(canonicalizationMethod) || getChildElement(transform, INCLUSIVE_NAMESPACES) != null) {
+				throw new DSSException(String.format("The transform '%s' is not supported in streaming mode", getAlgorithm(transform)));
+			}
+			index++;
+		}
+		if (index < transforms.size()) {
+			throw new DSSException(String.format("The transform '%s' is not supported in streaming mode", getAlgorithm(transforms.get(index))));
+		}
+
+		final StreamingCanonicalizer canonicalizer = new StreamingCanonicalizer(canonicalizationMethod);
+		canonicalizer.setExcludeSignatures(excludeSignatures);
+		final DigestAlgorithm digestAlgorithm = DigestAlgorithm.forXML(DomUtils.getValue(reference, XMLDSigPaths.DIGEST_METHOD_ALGORITHM_PATH));
+		return new StreamedReference(id, canonicalizer, excludedSignature, digestAlgorithm, getContentDigestAlgorithm());
+	}
+
+	private boolean isXPathEnvelopedTransform(Element transform) {
+		final String algorithm = getAlgorithm(transform);
+		final Element xPath = getChildElement(transform, XMLDSigElement.XPATH.getTagName());
+		if (xPath == null || !XMLSignature.XMLNS.equals(xPath.lookupNamespaceURI(XMLDSIG_PREFIX))) {
+			return false;
+		}
+		final String expression = Utils.trim(xPath.getTextContent());
+		if (Transforms.TRANSFORM_XPATH.equals(algorithm)) {
+			return XPATH_ENVELOPED_EXPRESSION.equals(expression);
+		} else if (Transforms.TRANSFORM_XPATH2FILTER.equals(algorithm)) {
+			return XPATH2_ENVELOPED_EXPRESSION.equals(expression) && XPATH2_SUBTRACT_FILTER.equals(xPath.getAttribute(XPATH2_FILTER_ATTRIBUTE));
+		}
+		return false;
+	}
+
+	private String getAlgorithm(Element transform) {
+		return transform.getAttribute(XMLDSigAttribute.ALGORITHM.getAttributeName());
+	}
+
+	private Element getChildElement(Element element, String localName) {
+		for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if (Node.ELEMENT_NODE == child.getNodeType() && localName.equals(child.getLocalName())) {
+				return (Element) child;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * The same-document references remove the comments before the transforms
+	 */
+	private String getOmitCommentsMethod(String canonicalizationMethod) {
+		if (Canonicalizer.ALGO_ID_C14N_WITH_COMMENTS.equals(canonicalizationMethod)) {
+			return Canonicalizer.ALGO_ID_C14N_OMIT_COMMENTS;
+		} else if (Canonicalizer.ALGO_ID_C14N11_WITH_COMMENTS.equals(canonicalizationMethod)) {
+			return Canonicalizer.ALGO_ID_C14N11_OMIT_COMMENTS;
+		} else if (Canonicalizer.ALGO_ID_C14N_EXCL_WITH_COMMENTS.equals(canonicalizationMethod)) {
+			return Canonicalizer.ALGO_ID_C14N_EXCL_OMIT_COMMENTS;
+		}
+		return canonicalizationMethod;
+	}
+
+	/**
+	 * The digest algorithm used to identify the signed data in the signature scopes
+	 */
+	private DigestAlgorithm getContentDigestAlgorithm() {
+		if (certificateVerifier != null) {
+			return getDefaultDigestAlgorithm();
+		}
+		return DigestAlgorithm.SHA256;
+	}
+
+	/**
+	 * The signed data of a streamed signature are extracted from the DOM of the document
+	 */
+	@Override
+	public List<DSSDocument> getOriginalDocuments(AdvancedSignature advancedSignature) {
+		if (!streamed) {
+			return super.getOriginalDocuments(advancedSignature);
+		}
+		final int index = getSignatures().indexOf(advancedSignature);
+		if (index == -1) {
+			throw new DSSException("The signature does not belong to the validated document");
+		}
+		final XMLDocumentValidator domValidator = new XMLDocumentValidator(document);
+		domValidator.setDetachedContents(detachedContents);
+		domValidator.setContainerContents(containerContents);
+		return domValidator.getOriginalDocuments(domValidator.getSignatures().get(index));
+	}
+
+	/**
+	 * The DOM of the document is built on demand
+	 */
+	@Override
+	public Document getRootElement() {
+		if (rootElement == null) {
+			rootElement = DomUtils.buildDOM(document);
+		}
+		return rootElement;
+	}
+
+}
@@ -0,0 +1,111 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.validation;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.w3c.dom.Node;
+
+import eu.europa.esig.dss.utils.Utils;
+import eu.europa.esig.dss.xades.DSSXMLUtils;
+
+/**
+ * This class keeps the canonicalized (or serialized) values of the nodes of a
+ * signature for the duration of its validation. With several timestamps (eg :
+ * archive timestamps), the same elements (ds:SignedInfo, ds:SignatureValue,
+ * ds:KeyInfo, previous unsigned properties,...) are canonicalized only once per
+ * canonicalization method.
+ * 
+ * The nodes are identified by reference : the cache must be cleared as soon as
+ * the DOM is modified.
+ */
+class XAdESCanonicalizationCache {
+
+	/**
+	 * Key used for the serialized value (no canonicalization method)
+	 */
+	private static final String SERIALIZATION = "";
+
+	private final Map<Node, Map<String, byte[]>> valuesByNode = new IdentityHashMap<>();
+
+	/**
+	 * Returns the canonicalized value of the node
+	 * 
+	 * @param canonicalizationMethod
+	 *                               the canonicalization method
+	 * @param node
+	 *                               the node to be canonicalized
+	 * @return array of canonicalized bytes
+	 */
+	byte[] canonicalizeSubtree(final String canonicalizationMethod, final Node node) {
+		Map<String, byte[]> values = getValues(node);
+		byte[] value = values.get(canonicalizationMethod);
+		if (value == null) {
+			value = DSSXMLUtils.canonicalizeSubtree(canonicalizationMethod, node);
+			values.put(canonicalizationMethod, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the canonicalized value of the node or its serialization if the
+	 * canonicalization method is not defined (see
+	 * {@link DSSXMLUtils#canonicalizeOrSerializeSubtree(String, Node)})
+	 * 
+	 * @param canonicalizationMethod
+	 *                               the canonicalization method or null
+	 * @param node
+	 *                               the node to be canonicalized/serialized
+	 * @return array of bytes
+	 */
+	byte[] canonicalizeOrSerializeSubtree(final String canonicalizationMethod, final Node node) {
+		if (Utils.isStringEmpty(canonicalizationMethod)) {
+			Map<String, byte[]> values = getValues(node);
+			byte[] value = values.get(SERIALIZATION);
+			if (value == null) {
+				value = DSSXMLUtils.serializeNode(node);
+				values.put(SERIALIZATION, value);
+			}
+			return value;
+		} else {
+			return canonicalizeSubtree(canonicalizationMethod, node);
+		}
+	}
+
+	/**
+	 * Removes all the cached values
+	 */
+	void clear() {
+		valuesByNode.clear();
+	}
+
+	private Map<String, byte[]> getValues(final Node node) {
+		Map<String, byte[]> values = valuesByNode.get(node);
+		if (values == null) {
+			values = new HashMap<>();
+			valuesByNode.put(node, values);
+		}
+		return values;
+	}
+
+}
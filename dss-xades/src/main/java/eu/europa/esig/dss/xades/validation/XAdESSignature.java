@@ -26,8 +26,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import javax.security.auth.x500.X500Principal;
 import javax.xml.crypto.dsig.CanonicalizationMethod;
@@ -66,6 +69,7 @@ import eu.europa.esig.dss.enumerations.SignatureLevel;
 import eu.europa.esig.dss.model.DSSDocument;
 import eu.europa.esig.dss.model.DSSException;
 import eu.europa.esig.dss.model.Digest;
+import eu.europa.esig.dss.model.DigestDocument;
 import eu.europa.esig.dss.model.identifier.TokenIdentifier;
 import eu.europa.esig.dss.model.x509.CertificateToken;
 import eu.europa.esig.dss.spi.DSSUtils;
@@ -150,6 +154,11 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 	 */
 	private transient List<Reference> references;
 
+	/**
+	 * The references whose content has been digested while streaming the signed document (by ds:Reference element)
+	 */
+	private transient Map<Element, StreamedReference> streamedReferences;
+
 	static {
 
 		SantuarioInitializer.init();
@@ -227,6 +236,17 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 		this.disableXSWProtection = disableXSWProtection;
 	}
 
+	/**
+	 * Sets the references whose content has been canonicalized and digested while streaming the signed document.
+	 * These references are not dereferenced by Santuario.
+	 * 
+	 * @param streamedReferences
+	 *                           the streamed references by ds:Reference element
+	 */
+	void setStreamedReferences(Map<Element, StreamedReference> streamedReferences) {
+		this.streamedReferences = streamedReferences;
+	}
+
 	/**
 	 * This method is called when creating a new instance of the {@code XAdESSignature} with unknown schema.
 	 */
@@ -907,57 +927,76 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 							DigestAlgorithm.forXML(reference.getMessageDigestAlgorithm().getAlgorithmURI()));
 					validation.setDigest(digest);
 
-					try {
-						found = reference.getContentsBeforeTransformation() != null;
-					} catch (ReferenceNotInitializedException e) {
-						if (LOG.isDebugEnabled()) {
-							LOG.debug(String.format("Cannot get the pointed bytes by a reference with uri='%s'. Reason : [%s]", 
-									reference.getURI(), e.getMessage()));
-						}
-						// continue, exception will be catched later
-					}
-					
 					final String uri = validation.getUri();
 
-					boolean noDuplicateIdFound = true;
-					// empty URI means enveloped signature
-					if (Utils.isStringNotEmpty(uri)) {
-						noDuplicateIdFound = XMLUtils.protectAgainstWrappingAttack(currentSantuarioSignature.getDocument(), DomUtils.getId(uri));
-					}
-					
-					boolean isElementReference = DomUtils.isElementReference(uri);
-							
-					if (isElementReference && DSSXMLUtils.isSignedProperties(reference, xadesPaths)) {
-						validation.setType(DigestMatcherType.SIGNED_PROPERTIES);
-						found = found && (noDuplicateIdFound && (disableXSWProtection || findSignedPropertiesById(uri)));
-						
-					} else if (DomUtils.isXPointerQuery(uri)) {
-						validation.setType(DigestMatcherType.XPOINTER);
-						found = found && noDuplicateIdFound;
-						
-					} else if (isElementReference && DSSXMLUtils.isKeyInfoReference(reference, currentSantuarioSignature.getElement())) {
-						validation.setType(DigestMatcherType.KEY_INFO);
-						found = true; // we check it in prior inside "isKeyInfoReference" method
+					final StreamedReference streamedReference = getStreamedReference(reference);
+					if (streamedReference != null) {
+						// the referenced content has been canonicalized and digested while streaming the signed document
+						found = streamedReference.isFound();
+						intact = found && Arrays.equals(digest.getValue(), streamedReference.getDigestValue());
+						validation.setOriginalContentDigest(streamedReference.getContentDigest());
 						
-					} else if (isElementReference && reference.typeIsReferenceToObject()) {
-						validation.setType(DigestMatcherType.OBJECT);
-						found = found && (noDuplicateIdFound && (disableXSWProtection || findObjectById(uri)));
-						
-					} else if (isElementReference && reference.typeIsReferenceToManifest()) {
-						validation.setType(DigestMatcherType.MANIFEST);
-						Node manifestNode = getManifestById(uri);
-						found = found && (noDuplicateIdFound && (disableXSWProtection || (manifestNode != null)));
-						if (manifestNode != null) {
-							validation.getDependentValidations().addAll(getManifestReferences(manifestNode));
+					} else {
+						// detached document which can be verified without santuario (no stream is opened)
+						final DSSDocument detachedDocument = getDetachedDocumentWithoutTransforms(reference, uri);
+						if (detachedDocument != null) {
+							found = true;
+						} else {
+							try {
+								found = reference.getContentsBeforeTransformation() != null;
+							} catch (ReferenceNotInitializedException e) {
+								if (LOG.isDebugEnabled()) {
+									LOG.debug(String.format("Cannot get the pointed bytes by a reference with uri='%s'. Reason : [%s]", 
+											reference.getURI(), e.getMessage()));
+								}
+								// continue, exception will be catched later
+							}
+						}
+
+						boolean noDuplicateIdFound = true;
+						// empty URI means enveloped signature
+						if (Utils.isStringNotEmpty(uri)) {
+							noDuplicateIdFound = XMLUtils.protectAgainstWrappingAttack(currentSantuarioSignature.getDocument(), DomUtils.getId(uri));
 						}
 						
-					} else {
-						found = found && noDuplicateIdFound;
+						boolean isElementReference = DomUtils.isElementReference(uri);
+								
+						if (isElementReference && DSSXMLUtils.isSignedProperties(reference, xadesPaths)) {
+							validation.setType(DigestMatcherType.SIGNED_PROPERTIES);
+							found = found && (noDuplicateIdFound && (disableXSWProtection || findSignedPropertiesById(uri)));
+							
+						} else if (DomUtils.isXPointerQuery(uri)) {
+							validation.setType(DigestMatcherType.XPOINTER);
+							found = found && noDuplicateIdFound;
+							
+						} else if (isElementReference && DSSXMLUtils.isKeyInfoReference(reference, currentSantuarioSignature.getElement())) {
+							validation.setType(DigestMatcherType.KEY_INFO);
+							found = true; // we check it in prior inside "isKeyInfoReference" method
+							
+						} else if (isElementReference && reference.typeIsReferenceToObject()) {
+							validation.setType(DigestMatcherType.OBJECT);
+							found = found && (noDuplicateIdFound && (disableXSWProtection || findObjectById(uri)));
+							
+						} else if (isElementReference && reference.typeIsReferenceToManifest()) {
+							validation.setType(DigestMatcherType.MANIFEST);
+							Node manifestNode = getManifestById(uri);
+							found = found && (noDuplicateIdFound && (disableXSWProtection || (manifestNode != null)));
+							if (manifestNode != null) {
+								validation.getDependentValidations().addAll(getManifestReferences(manifestNode));
+							}
+							
+						} else {
+							found = found && noDuplicateIdFound;
+							
+						}
 						
-					}
-					
-					if (found) {
-						intact = reference.verify();
+						if (found) {
+							if (detachedDocument != null) {
+								intact = isDetachedDocumentIntact(detachedDocument, digest);
+							} else {
+								intact = reference.verify();
+							}
+						}
 					}
 					
 				} catch (Exception e) {
@@ -1015,6 +1054,13 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 		return mv.validate();
 	}
 
+	private StreamedReference getStreamedReference(Reference reference) {
+		if (streamedReferences == null) {
+			return null;
+		}
+		return streamedReferences.get(reference.getElement());
+	}
+
 	private boolean findSignedPropertiesById(String uri) {
 		return getSignedPropertiesById(uri) != null;
 	}
@@ -1089,6 +1135,67 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 		return null;
 	}
 
+	/**
+	 * Returns the detached document pointed by the reference if its digest can be
+	 * computed directly on the octet stream (no transformation)
+	 * 
+	 * @param reference
+	 *                  the santuario reference
+	 * @param uri
+	 *                  the reference URI
+	 * @return the detached {@code DSSDocument} or null
+	 */
+	private DSSDocument getDetachedDocumentWithoutTransforms(Reference reference, String uri) {
+		if (Utils.isCollectionEmpty(detachedContents)) {
+			return null;
+		}
+		if (!isDetachedReferenceUri(uri) || !DetachedSignatureResolver.isWithoutTransforms(reference.getElement())) {
+			return null;
+		}
+		return DetachedSignatureResolver.getDocument(detachedContents, uri);
+	}
+
+	/**
+	 * Compares the digest of the reference with the one of the detached document.
+	 * The digest is computed on the document stream (and cached by the document),
+	 * a {@code DigestDocument} only provides its precomputed digests.
+	 */
+	private boolean isDetachedDocumentIntact(DSSDocument detachedDocument, Digest referenceDigest) {
+		DigestAlgorithm digestAlgorithm = referenceDigest.getAlgorithm();
+		if (detachedDocument instanceof DigestDocument && !((DigestDocument) detachedDocument).isDigestPresent(digestAlgorithm)) {
+			LOG.warn("The digest document does not contain a digest value for the algorithm {}", digestAlgorithm);
+			return false;
+		}
+		return Arrays.equals(referenceDigest.getValue(), Utils.fromBase64(detachedDocument.getDigest(digestAlgorithm)));
+	}
+
+	/**
+	 * Only the detached references without transforms can be verified with a
+	 * {@code DigestDocument} : the other ones require the complete document.
+	 */
+	@Override
+	public Set<DigestAlgorithm> getDetachedContentsDigestAlgorithms() {
+		Set<DigestAlgorithm> digestAlgorithms = new HashSet<>();
+		for (Reference reference : getReferences()) {
+			String uri = DSSXMLUtils.getAttribute(reference.getElement(), XMLDSigAttribute.URI.getAttributeName());
+			if (isDetachedReferenceUri(uri) && DetachedSignatureResolver.isWithoutTransforms(reference.getElement())) {
+				try {
+					digestAlgorithms.add(DigestAlgorithm.forXML(reference.getMessageDigestAlgorithm().getAlgorithmURI()));
+				} catch (XMLSignatureException e) {
+					LOG.warn("Unable to retrieve reference digest algorithm {}", reference.getId(), e);
+				}
+			}
+		}
+		return digestAlgorithms;
+	}
+
+	/**
+	 * Only null URI or a filename are resolved from the detached contents
+	 */
+	private boolean isDetachedReferenceUri(String uri) {
+		return uri == null || (Utils.isStringNotBlank(uri) && !uri.startsWith("#"));
+	}
+
 	private void initDetachedSignatureResolvers(List<DSSDocument> detachedContents) {
 		List<Reference> currentReferences = getReferences();
 		for (Reference reference : currentReferences) {
@@ -60,6 +60,12 @@ public class XAdESTimestampDataBuilder implements TimestampDataBuilder {
 	
 	private final XAdESPaths xadesPaths;
 
+	/**
+	 * The canonicalized values computed for the validation of the signature
+	 * timestamps (cleared when a new timestamp is created)
+	 */
+	private final XAdESCanonicalizationCache canonicalizationCache = new XAdESCanonicalizationCache();
+
 	public XAdESTimestampDataBuilder(final Element signature, final List<Reference> references, final XAdESPaths xadesPaths) {
 		this.signature = signature;
 		this.references = references;
@@ -164,7 +170,13 @@ public class XAdESTimestampDataBuilder implements TimestampDataBuilder {
 	 * @return timestamp data
 	 */
 	public byte[] getSignatureTimestampData(final String canonicalizationMethod) {
-		return getSignatureTimestampData(null, canonicalizationMethod);
+		// the signature is being extended
+		clearCache();
+		try {
+			return getSignatureTimestampData(null, canonicalizationMethod);
+		} finally {
+			clearCache();
+		}
 	}
 
 	protected byte[] getSignatureTimestampData(final TimestampToken timestampToken, String canonicalizationMethod) {
@@ -193,7 +205,13 @@ public class XAdESTimestampDataBuilder implements TimestampDataBuilder {
 	 * @return timestamp data
 	 */
 	public byte[] getTimestampX1Data(final String canonicalizationMethod) {
-		return getTimestampX1Data(null, canonicalizationMethod);
+		// the signature is being extended
+		clearCache();
+		try {
+			return getTimestampX1Data(null, canonicalizationMethod);
+		} finally {
+			clearCache();
+		}
 	}
 
 	protected byte[] getTimestampX1Data(final TimestampToken timestampToken, String canonicalizationMethod) {
@@ -204,7 +222,7 @@ public class XAdESTimestampDataBuilder implements TimestampDataBuilder {
 			if (signatureTimeStampNode != null) {
 				for (int ii = 0; ii < signatureTimeStampNode.getLength(); ii++) {
 					final Node item = signatureTimeStampNode.item(ii);
-					final byte[] canonicalizedValue = DSSXMLUtils.canonicalizeSubtree(canonicalizationMethod, item);
+					final byte[] canonicalizedValue = canonicalizationCache.canonicalizeSubtree(canonicalizationMethod, item);
 					buffer.write(canonicalizedValue);
 				}
 			}
@@ -232,7 +250,13 @@ public class XAdESTimestampDataBuilder implements TimestampDataBuilder {
 	 * @return timestamp data
 	 */
 	public byte[] getTimestampX2Data(final String canonicalizationMethod) {
-		return getTimestampX2Data(null, canonicalizationMethod);
+		// the signature is being extended
+		clearCache();
+		try {
+			return getTimestampX2Data(null, canonicalizationMethod);
+		} finally {
+			clearCache();
+		}
 	}
 
 	protected byte[] getTimestampX2Data(final TimestampToken timestampToken, String canonicalizationMethod) {
@@ -264,7 +288,13 @@ public class XAdESTimestampDataBuilder implements TimestampDataBuilder {
 	 * @return timestamp data
 	 */
 	public byte[] getArchiveTimestampData(final String canonicalizationMethod) {
-		return getArchiveTimestampData(null, canonicalizationMethod);
+		// the signature is being extended
+		clearCache();
+		try {
+			return getArchiveTimestampData(null, canonicalizationMethod);
+		} finally {
+			clearCache();
+		}
 	}
 
 	/**
@@ -375,7 +405,7 @@ public class XAdESTimestampDataBuilder implements TimestampDataBuilder {
 	private void writeCanonicalizedValue(final String xPathString, final String canonicalizationMethod, final ByteArrayOutputStream buffer) throws IOException {
 		final Element element = DomUtils.getElement(signature, xPathString);
 		if (element != null) {
-			buffer.write(DSSXMLUtils.canonicalizeOrSerializeSubtree(canonicalizationMethod, element));
+			buffer.write(canonicalizationCache.canonicalizeOrSerializeSubtree(canonicalizationMethod, element));
 		}
 	}
 
@@ -458,7 +488,7 @@ public class XAdESTimestampDataBuilder implements TimestampDataBuilder {
 				final byte[] bytesToCanonicalize = DSSXMLUtils.serializeNode(node);
 				canonicalizedValue = DSSXMLUtils.canonicalize(canonicalizationMethod, bytesToCanonicalize);
 			} else {
-				canonicalizedValue = DSSXMLUtils.canonicalizeOrSerializeSubtree(canonicalizationMethod, node);
+				canonicalizedValue = canonicalizationCache.canonicalizeOrSerializeSubtree(canonicalizationMethod, node);
 			}
 			if (LOG.isTraceEnabled()) {
 				LOG.trace("{}: Canonicalization: {} : \n{}", localName, canonicalizationMethod,
@@ -512,10 +542,14 @@ public class XAdESTimestampDataBuilder implements TimestampDataBuilder {
 					continue;
 				}
 			}
-			byte[] canonicalizedValue = DSSXMLUtils.canonicalizeOrSerializeSubtree(canonicalizationMethod, node);
+			byte[] canonicalizedValue = canonicalizationCache.canonicalizeOrSerializeSubtree(canonicalizationMethod, node);
 			buffer.write(canonicalizedValue);
 		}
 		
 	}
 
+	private void clearCache() {
+		canonicalizationCache.clear();
+	}
+
 }
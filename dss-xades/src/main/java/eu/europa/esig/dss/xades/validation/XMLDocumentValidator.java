@@ -79,10 +79,22 @@ public class XMLDocumentValidator extends SignedDocumentValidator {
 	 *                    The instance of {@code DSSDocument} to validate
 	 */
 	public XMLDocumentValidator(final DSSDocument dssDocument) {
+		this(dssDocument, DomUtils.buildDOM(dssDocument));
+	}
+
+	/**
+	 * The constructor for sub-classes which provide (or build later) the DOM of the document
+	 *
+	 * @param dssDocument
+	 *                    The instance of {@code DSSDocument} to validate
+	 * @param rootElement
+	 *                    the DOM of the document (can be null)
+	 */
+	protected XMLDocumentValidator(final DSSDocument dssDocument, final Document rootElement) {
 
 		super(new XAdESSignatureScopeFinder());
 		this.document = dssDocument;
-		this.rootElement = DomUtils.buildDOM(dssDocument);
+		this.rootElement = rootElement;
 
 		xadesPathsHolders = new ArrayList<>();
 		xadesPathsHolders.add(new XAdES111Paths());
@@ -118,17 +130,28 @@ public class XMLDocumentValidator extends SignedDocumentValidator {
 		for (int ii = 0; ii < signatureNodeList.getLength(); ii++) {
 
 			final Element signatureEl = (Element) signatureNodeList.item(ii);
-			final XAdESSignature xadesSignature = new XAdESSignature(signatureEl, xadesPathsHolders, validationCertPool);
-			xadesSignature.setSignatureFilename(document.getName());
-			xadesSignature.setDetachedContents(detachedContents);
-			xadesSignature.setContainerContents(containerContents);
-			xadesSignature.setProvidedSigningCertificateToken(providedSigningCertificateToken);
-			xadesSignature.setDisableXSWProtection(disableXSWProtection);
-			signatures.add(xadesSignature);
+			signatures.add(buildSignature(signatureEl));
 		}
 		return signatures;
 	}
 
+	/**
+	 * Instantiates and configures the {@code XAdESSignature} of the given ds:Signature element
+	 *
+	 * @param signatureElement
+	 *                         the ds:Signature element
+	 * @return the configured {@code XAdESSignature}
+	 */
+	protected XAdESSignature buildSignature(final Element signatureElement) {
+		final XAdESSignature xadesSignature = new XAdESSignature(signatureElement, xadesPathsHolders, validationCertPool);
+		xadesSignature.setSignatureFilename(document.getName());
+		xadesSignature.setDetachedContents(detachedContents);
+		xadesSignature.setContainerContents(containerContents);
+		xadesSignature.setProvidedSigningCertificateToken(providedSigningCertificateToken);
+		xadesSignature.setDisableXSWProtection(disableXSWProtection);
+		return xadesSignature;
+	}
+
 	/**
 	 * Retrieves a signature based on its Id
 	 *
@@ -100,6 +100,14 @@ public class XAdESSignatureScopeFinder extends AbstractSignatureScopeFinder<XAdE
 					}
 				}
 				
+			} else if (xadesReferenceValidation.isFound() && xadesReferenceValidation.getOriginalContentDigest() != null) {
+				// the content has been digested while streaming the signed document
+				if (Utils.EMPTY_STRING.equals(uri) || isEverythingCovered(xadesSignature, xmlIdOfSignedElement)) {
+					result.add(new XmlRootSignatureScope(transformations, xadesReferenceValidation.getOriginalContentDigest()));
+				} else {
+					result.add(new XmlElementSignatureScope(xmlIdOfSignedElement, transformations, xadesReferenceValidation.getOriginalContentDigest()));
+				}
+				
 			} else if (xadesReferenceValidation.isFound() && Utils.EMPTY_STRING.equals(uri)) {
 				byte[] originalContentBytes = xadesReferenceValidation.getOriginalContentBytes();
 				if (originalContentBytes != null) {
@@ -0,0 +1,260 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.xml.security.c14n.Canonicalizer;
+import org.apache.xml.security.signature.XMLSignatureInput;
+import org.apache.xml.security.transforms.Transforms;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import eu.europa.esig.dss.DomUtils;
+import eu.europa.esig.dss.definition.xmldsig.XMLDSigElement;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.FileDocument;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.xades.definition.XAdESNamespaces;
+import eu.europa.esig.dss.xades.reference.CanonicalizationTransform;
+import eu.europa.esig.dss.xades.reference.DSSTransform;
+import eu.europa.esig.dss.xades.reference.XPath2FilterEnvelopedSignatureTransform;
+import eu.europa.esig.dss.xades.reference.XPathEnvelopedSignatureTransform;
+
+/**
+ * Compares the output of the {@link StreamingCanonicalizer} with the canonicalization of Santuario
+ */
+public class StreamingCanonicalizerTest {
+
+	private static final List<String> CANONICALIZATION_METHODS = Arrays.asList(Canonicalizer.ALGO_ID_C14N_OMIT_COMMENTS,
+			Canonicalizer.ALGO_ID_C14N_WITH_COMMENTS, Canonicalizer.ALGO_ID_C14N11_OMIT_COMMENTS, Canonicalizer.ALGO_ID_C14N11_WITH_COMMENTS,
+			Canonicalizer.ALGO_ID_C14N_EXCL_OMIT_COMMENTS, Canonicalizer.ALGO_ID_C14N_EXCL_WITH_COMMENTS);
+
+	private static final List<String> FILES = Arrays.asList("src/test/resources/c14n/namespaces.xml", "src/test/resources/c14n/xml-attributes.xml",
+			"src/test/resources/c14n/xml-base.xml", "src/test/resources/c14n/signatures.xml", "src/test/resources/c14n/empty-root.xml",
+			"src/test/resources/validation/dss-signed.xml");
+
+	private static final String ID_ATTRIBUTE = "Id";
+
+	@BeforeAll
+	public static void init() {
+		SantuarioInitializer.init();
+	}
+
+	public static Stream<Arguments> data() {
+		List<Arguments> arguments = new ArrayList<>();
+		for (String filePath : FILES) {
+			for (String canonicalizationMethod : CANONICALIZATION_METHODS) {
+				arguments.add(Arguments.of(filePath, canonicalizationMethod));
+			}
+		}
+		return arguments.stream();
+	}
+
+	@ParameterizedTest(name = "Document {index} : {0} - {1}")
+	@MethodSource("data")
+	public void document(String filePath, String canonicalizationMethod) throws Exception {
+		FileDocument document = new FileDocument(filePath);
+		byte[] expected = Canonicalizer.getInstance(canonicalizationMethod).canonicalizeSubtree(DomUtils.buildDOM(document));
+
+		StreamingCanonicalizer canonicalizer = new StreamingCanonicalizer(canonicalizationMethod);
+		assertFalse(canonicalizer.isExcludeSignatures());
+		assertArrayEquals(expected, canonicalize(canonicalizer, DSSUtils.toByteArray(document)));
+		assertArrayEquals(DSSUtils.digest(DigestAlgorithm.SHA256, expected), canonicalizer.digest(DigestAlgorithm.SHA256, document));
+	}
+
+	@ParameterizedTest(name = "XPath enveloped {index} : {0} - {1}")
+	@MethodSource("data")
+	public void xPathEnvelopedTransform(String filePath, String canonicalizationMethod) throws Exception {
+		assertExcludeSignatures(filePath, new XPathEnvelopedSignatureTransform(), canonicalizationMethod);
+	}
+
+	@ParameterizedTest(name = "XPath2 enveloped {index} : {0} - {1}")
+	@MethodSource("data")
+	public void xPath2EnvelopedTransform(String filePath, String canonicalizationMethod) throws Exception {
+		assertExcludeSignatures(filePath, new XPath2FilterEnvelopedSignatureTransform(), canonicalizationMethod);
+	}
+
+	@ParameterizedTest(name = "Subtree {index} : {0} - {1}")
+	@MethodSource("data")
+	public void subtree(String filePath, String canonicalizationMethod) throws Exception {
+		byte[] bytes = DSSUtils.toByteArray(new FileDocument(filePath));
+		Document dom = DomUtils.buildDOM(bytes);
+		Canonicalizer santuarioCanonicalizer = Canonicalizer.getInstance(canonicalizationMethod);
+		StreamingCanonicalizer canonicalizer = new StreamingCanonicalizer(canonicalizationMethod);
+
+		List<Element> targets = getElementsWithId(dom);
+		assertFalse(targets.isEmpty());
+		for (Element target : targets) {
+			String id = target.getAttribute(ID_ATTRIBUTE);
+			if (isInheritedXmlBaseRejected(target, canonicalizationMethod)) {
+				// Santuario resolves the inherited xml:base against the ones of the ancestors
+				assertThrows(DSSException.class, () -> canonicalizeSubtree(canonicalizer, bytes, id));
+			} else {
+				assertArrayEquals(santuarioCanonicalizer.canonicalizeSubtree(target), canonicalizeSubtree(canonicalizer, bytes, id), id);
+			}
+		}
+	}
+
+	private void assertExcludeSignatures(String filePath, DSSTransform envelopedTransform, String canonicalizationMethod) throws Exception {
+		byte[] bytes = DSSUtils.toByteArray(new FileDocument(filePath));
+
+		Document transformsDocument = DomUtils.buildDOM();
+		Element transformsElement = DomUtils.createElementNS(transformsDocument, XAdESNamespaces.XMLDSIG, XMLDSigElement.TRANSFORMS);
+		transformsElement.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, XMLConstants.XMLNS_ATTRIBUTE + ":" + XAdESNamespaces.XMLDSIG.getPrefix(),
+				XAdESNamespaces.XMLDSIG.getUri());
+		transformsDocument.appendChild(transformsElement);
+		envelopedTransform.createTransform(transformsDocument, transformsElement);
+		new CanonicalizationTransform(canonicalizationMethod).createTransform(transformsDocument, transformsElement);
+
+		// the node-set produced by the XPath filter is directly processed by the canonicalization transform
+		Transforms transforms = new Transforms(transformsElement, null);
+		XMLSignatureInput output = transforms.performTransforms(new XMLSignatureInput(DomUtils.buildDOM(bytes)));
+		byte[] expected = output.getBytes();
+
+		StreamingCanonicalizer canonicalizer = new StreamingCanonicalizer(canonicalizationMethod);
+		canonicalizer.setExcludeSignatures(true);
+		assertArrayEquals(expected, canonicalize(canonicalizer, bytes));
+	}
+
+	private byte[] canonicalize(StreamingCanonicalizer canonicalizer, byte[] bytes) {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		canonicalizer.canonicalize(new ByteArrayInputStream(bytes), baos);
+		return baos.toByteArray();
+	}
+
+	/**
+	 * Drives the subtree writer the same way as the validation of the references in streaming mode
+	 */
+	private byte[] canonicalizeSubtree(StreamingCanonicalizer canonicalizer, byte[] bytes, String id) throws Exception {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		XMLStreamReader reader = DomUtils.getSecureXMLInputFactory().createXMLStreamReader(new ByteArrayInputStream(bytes));
+		try {
+			Deque<Map<String, String>> namespaces = new ArrayDeque<>();
+			namespaces.push(Collections.<String, String> emptyMap());
+			Deque<Map<String, String>> xmlAttributes = new ArrayDeque<>();
+			xmlAttributes.push(Collections.<String, String> emptyMap());
+
+			StreamingCanonicalizer.CanonicalWriter writer = null;
+			int depth = 0;
+			while (reader.hasNext() && (writer == null || depth > 0)) {
+				int event = reader.next();
+				if (XMLStreamConstants.START_ELEMENT == event) {
+					if (writer == null && id.equals(reader.getAttributeValue(null, ID_ATTRIBUTE))) {
+						writer = canonicalizer.newSubtreeWriter(baos, namespaces.peek(), xmlAttributes.peek());
+					}
+					if (writer != null) {
+						writer.write(reader);
+						depth++;
+					}
+					namespaces.push(getInScopeNamespaces(reader, namespaces.peek()));
+					xmlAttributes.push(getInScopeXmlAttributes(reader, xmlAttributes.peek()));
+				} else if (XMLStreamConstants.END_ELEMENT == event) {
+					namespaces.pop();
+					xmlAttributes.pop();
+					if (writer != null) {
+						writer.write(reader);
+						depth--;
+					}
+				} else if (writer != null) {
+					writer.write(reader);
+				}
+			}
+			assertNotNull(writer, id);
+			writer.flush();
+		} finally {
+			reader.close();
+		}
+		return baos.toByteArray();
+	}
+
+	private Map<String, String> getInScopeNamespaces(XMLStreamReader reader, Map<String, String> parentNamespaces) {
+		Map<String, String> result = new HashMap<>(parentNamespaces);
+		for (int i = 0; i < reader.getNamespaceCount(); i++) {
+			String prefix = reader.getNamespacePrefix(i);
+			String uri = reader.getNamespaceURI(i);
+			result.put(prefix == null ? XMLConstants.DEFAULT_NS_PREFIX : prefix, uri == null ? XMLConstants.NULL_NS_URI : uri);
+		}
+		return result;
+	}
+
+	private Map<String, String> getInScopeXmlAttributes(XMLStreamReader reader, Map<String, String> parentXmlAttributes) {
+		Map<String, String> result = new HashMap<>(parentXmlAttributes);
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			if (XMLConstants.XML_NS_URI.equals(reader.getAttributeNamespace(i))) {
+				result.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+			}
+		}
+		return result;
+	}
+
+	private List<Element> getElementsWithId(Document dom) {
+		List<Element> result = new ArrayList<>();
+		NodeList elements = dom.getElementsByTagNameNS("*", "*");
+		for (int i = 0; i < elements.getLength(); i++) {
+			Element element = (Element) elements.item(i);
+			if (element.hasAttribute(ID_ATTRIBUTE)) {
+				result.add(element);
+			}
+		}
+		return result;
+	}
+
+	private boolean isInheritedXmlBaseRejected(Element target, String canonicalizationMethod) {
+		if (!Canonicalizer.ALGO_ID_C14N11_OMIT_COMMENTS.equals(canonicalizationMethod)
+				&& !Canonicalizer.ALGO_ID_C14N11_WITH_COMMENTS.equals(canonicalizationMethod)) {
+			return false;
+		}
+		for (Node parent = target.getParentNode(); parent instanceof Element; parent = parent.getParentNode()) {
+			if (((Element) parent).hasAttributeNS(XMLConstants.XML_NS_URI, "base")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
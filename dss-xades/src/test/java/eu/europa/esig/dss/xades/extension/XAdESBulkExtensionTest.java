@@ -0,0 +1,123 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.extension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.diagnostic.DiagnosticData;
+import eu.europa.esig.dss.enumerations.SignatureLevel;
+import eu.europa.esig.dss.enumerations.SignaturePackaging;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import eu.europa.esig.dss.model.SignatureValue;
+import eu.europa.esig.dss.model.ToBeSigned;
+import eu.europa.esig.dss.signature.BulkExtensionListener;
+import eu.europa.esig.dss.signature.BulkExtensionSummary;
+import eu.europa.esig.dss.signature.BulkSignatureExtensionService;
+import eu.europa.esig.dss.test.signature.PKIFactoryAccess;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.reports.Reports;
+import eu.europa.esig.dss.xades.XAdESSignatureParameters;
+import eu.europa.esig.dss.xades.XAdESTimestampParameters;
+import eu.europa.esig.dss.xades.signature.XAdESService;
+
+public class XAdESBulkExtensionTest extends PKIFactoryAccess {
+
+	@Test
+	public void test() {
+		XAdESService service = new XAdESService(getCompleteCertificateVerifier());
+		service.setTspSource(getGoodTsa());
+
+		List<DSSDocument> toExtendDocuments = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			toExtendDocuments.add(sign(service, new InMemoryDocument(("<root>Hello world " + i + "</root>").getBytes())));
+		}
+		toExtendDocuments.add(new InMemoryDocument("Not a signature".getBytes()));
+
+		service.setTspSource(getAlternateGoodTsa());
+		BulkSignatureExtensionService<XAdESSignatureParameters, XAdESTimestampParameters> bulkService = service.getBulkExtensionService();
+		bulkService.setParallelism(3);
+		// the shared validation data is released every 2 documents
+		bulkService.setChunkSize(2);
+
+		final Map<Integer, DSSDocument> extendedDocuments = new HashMap<>();
+		final List<Integer> failures = new ArrayList<>();
+		BulkExtensionSummary summary = bulkService.extendDocuments(toExtendDocuments, doc -> {
+			XAdESSignatureParameters extensionParameters = new XAdESSignatureParameters();
+			extensionParameters.setSignatureLevel(SignatureLevel.XAdES_BASELINE_LT);
+			return extensionParameters;
+		}, new BulkExtensionListener() {
+
+			@Override
+			public void onExtended(int index, DSSDocument toExtendDocument, DSSDocument extendedDocument) {
+				extendedDocuments.put(index, extendedDocument);
+			}
+
+			@Override
+			public void onFailure(int index, DSSDocument toExtendDocument, Exception exception) {
+				failures.add(index);
+			}
+
+		});
+
+		assertEquals(6, summary.getNumberOfProcessedDocuments());
+		assertEquals(5, summary.getNumberOfExtendedDocuments());
+		assertEquals(1, summary.getNumberOfFailures());
+		assertEquals(5, extendedDocuments.size());
+		assertEquals(1, failures.size());
+		assertEquals(Integer.valueOf(5), failures.get(0));
+
+		for (DSSDocument extendedDocument : extendedDocuments.values()) {
+			SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(extendedDocument);
+			validator.setCertificateVerifier(getOfflineCertificateVerifier());
+			Reports reports = validator.validateDocument();
+			DiagnosticData diagnosticData = reports.getDiagnosticData();
+			assertNotNull(diagnosticData);
+			assertEquals(SignatureLevel.XAdES_BASELINE_LT, diagnosticData.getFirstSignatureFormat());
+		}
+	}
+
+	private DSSDocument sign(XAdESService service, DSSDocument toSignDocument) {
+		XAdESSignatureParameters signatureParameters = new XAdESSignatureParameters();
+		signatureParameters.setSigningCertificate(getSigningCert());
+		signatureParameters.setCertificateChain(getCertificateChain());
+		signatureParameters.setSignaturePackaging(SignaturePackaging.ENVELOPED);
+		signatureParameters.setSignatureLevel(SignatureLevel.XAdES_BASELINE_T);
+
+		ToBeSigned dataToSign = service.getDataToSign(toSignDocument, signatureParameters);
+		SignatureValue signatureValue = getToken().sign(dataToSign, signatureParameters.getDigestAlgorithm(), getPrivateKeyEntry());
+		return service.signDocument(toSignDocument, signatureParameters, signatureValue);
+	}
+
+	@Override
+	protected String getSigningAlias() {
+		return GOOD_USER;
+	}
+
+}
@@ -0,0 +1,228 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.signature;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.xml.crypto.dsig.CanonicalizationMethod;
+
+import org.apache.xml.security.c14n.Canonicalizer;
+import org.apache.xml.security.transforms.Transforms;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import eu.europa.esig.dss.diagnostic.DiagnosticData;
+import eu.europa.esig.dss.diagnostic.SignatureWrapper;
+import eu.europa.esig.dss.diagnostic.jaxb.XmlDigestMatcher;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.SignatureLevel;
+import eu.europa.esig.dss.enumerations.SignaturePackaging;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.FileDocument;
+import eu.europa.esig.dss.model.SignatureValue;
+import eu.europa.esig.dss.model.SpillableDocument;
+import eu.europa.esig.dss.model.SpillableDocumentFactory;
+import eu.europa.esig.dss.model.ToBeSigned;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.signature.DocumentSignatureService;
+import eu.europa.esig.dss.xades.XAdESSignatureParameters;
+import eu.europa.esig.dss.xades.XAdESTimestampParameters;
+import eu.europa.esig.dss.xades.reference.CanonicalizationTransform;
+import eu.europa.esig.dss.xades.reference.DSSReference;
+import eu.europa.esig.dss.xades.reference.DSSTransform;
+import eu.europa.esig.dss.xades.reference.EnvelopedSignatureTransform;
+import eu.europa.esig.dss.xades.reference.XPath2FilterEnvelopedSignatureTransform;
+import eu.europa.esig.dss.xades.reference.XPathEnvelopedSignatureTransform;
+import eu.europa.esig.dss.xades.validation.XMLDocumentValidator;
+
+public class XAdESLevelBStreamingEnvelopedTest extends AbstractXAdESTestSignature {
+
+	private DocumentSignatureService<XAdESSignatureParameters, XAdESTimestampParameters> service;
+	private XAdESSignatureParameters signatureParameters;
+	private DSSDocument documentToSign;
+	private Date signingDate;
+
+	@TempDir
+	File tempDir;
+
+	@BeforeEach
+	public void init() throws Exception {
+		documentToSign = new FileDocument(new File("src/test/resources/sample.xml"));
+		signingDate = new Date();
+
+		signatureParameters = createParameters(true);
+
+		service = new XAdESService(getCompleteCertificateVerifier());
+	}
+
+	private XAdESSignatureParameters createParameters(boolean streaming) {
+		XAdESSignatureParameters parameters = new XAdESSignatureParameters();
+		parameters.bLevel().setSigningDate(signingDate);
+		parameters.setSigningCertificate(getSigningCert());
+		parameters.setCertificateChain(getCertificateChain());
+		parameters.setSignaturePackaging(SignaturePackaging.ENVELOPED);
+		parameters.setSignatureLevel(SignatureLevel.XAdES_BASELINE_B);
+		// inclusive canonicalization depends on the namespaces of the root element
+		parameters.setSignedInfoCanonicalizationMethod(CanonicalizationMethod.INCLUSIVE);
+		parameters.setSignedPropertiesCanonicalizationMethod(CanonicalizationMethod.INCLUSIVE);
+		parameters.setStreamingEnveloped(streaming);
+		return parameters;
+	}
+
+	@Test
+	public void sameDataToSignAsDomBuilder() {
+		ToBeSigned streamingDataToSign = service.getDataToSign(documentToSign, createParameters(true));
+		ToBeSigned domDataToSign = service.getDataToSign(documentToSign, createParameters(false));
+		assertArrayEquals(domDataToSign.getBytes(), streamingDataToSign.getBytes());
+	}
+
+	@Test
+	public void signedDocumentInTemporaryFile() {
+		XAdESService spillingService = new XAdESService(getCompleteCertificateVerifier());
+		try (SpillableDocumentFactory factory = new SpillableDocumentFactory(0, tempDir)) {
+			spillingService.setDocumentFactory(factory);
+
+			XAdESSignatureParameters parameters = createParameters(true);
+			ToBeSigned dataToSign = spillingService.getDataToSign(documentToSign, parameters);
+			SignatureValue signatureValue = getToken().sign(dataToSign, parameters.getDigestAlgorithm(), getPrivateKeyEntry());
+			DSSDocument signedDocument = spillingService.signDocument(documentToSign, parameters, signatureValue);
+
+			assertTrue(signedDocument instanceof SpillableDocument);
+			SpillableDocument spillableDocument = (SpillableDocument) signedDocument;
+			assertFalse(spillableDocument.isInMemory());
+			assertEquals(1, tempDir.listFiles().length);
+
+			// same content as the document created in memory
+			XAdESSignatureParameters inMemoryParameters = createParameters(true);
+			DSSDocument inMemoryDocument = service.signDocument(documentToSign, inMemoryParameters, signatureValue);
+			assertArrayEquals(DSSUtils.toByteArray(inMemoryDocument), DSSUtils.toByteArray(spillableDocument));
+
+			spillableDocument.close();
+			assertEquals(0, tempDir.listFiles().length);
+			assertEquals(0, factory.getOpenFileCount());
+		}
+	}
+
+	public static Stream<Arguments> transforms() {
+		List<String> filePaths = Arrays.asList("src/test/resources/sample.xml", "src/test/resources/c14n/namespaces.xml",
+				"src/test/resources/c14n/xml-attributes.xml", "src/test/resources/c14n/empty-root.xml", "src/test/resources/validation/dss-signed.xml");
+		List<Arguments> arguments = new ArrayList<>();
+		for (String filePath : filePaths) {
+			arguments.add(Arguments.of(filePath, Transforms.TRANSFORM_ENVELOPED_SIGNATURE, null));
+			arguments.add(Arguments.of(filePath, Transforms.TRANSFORM_ENVELOPED_SIGNATURE, Canonicalizer.ALGO_ID_C14N_EXCL_OMIT_COMMENTS));
+			arguments.add(Arguments.of(filePath, Transforms.TRANSFORM_XPATH, Canonicalizer.ALGO_ID_C14N11_OMIT_COMMENTS));
+			arguments.add(Arguments.of(filePath, Transforms.TRANSFORM_XPATH, Canonicalizer.ALGO_ID_C14N_WITH_COMMENTS));
+			arguments.add(Arguments.of(filePath, Transforms.TRANSFORM_XPATH2FILTER, Canonicalizer.ALGO_ID_C14N_EXCL_OMIT_COMMENTS));
+			arguments.add(Arguments.of(filePath, Transforms.TRANSFORM_XPATH2FILTER, Canonicalizer.ALGO_ID_C14N_OMIT_COMMENTS));
+		}
+		return arguments.stream();
+	}
+
+	@ParameterizedTest(name = "Transforms {index} : {0} - {1} - {2}")
+	@MethodSource("transforms")
+	public void validSignatureWithTransforms(String filePath, String envelopedTransform, String canonicalizationMethod) {
+		DSSDocument document = new FileDocument(filePath);
+		XAdESSignatureParameters parameters = createParameters(true);
+		parameters.setReferences(Arrays.asList(createReference(document, parameters, envelopedTransform, canonicalizationMethod)));
+
+		ToBeSigned dataToSign = service.getDataToSign(document, parameters);
+		SignatureValue signatureValue = getToken().sign(dataToSign, parameters.getDigestAlgorithm(), getPrivateKeyEntry());
+		DSSDocument signedDocument = service.signDocument(document, parameters, signatureValue);
+
+		// the references are validated by Santuario on the DOM of the signed document
+		XMLDocumentValidator validator = new XMLDocumentValidator(signedDocument);
+		validator.setCertificateVerifier(getOfflineCertificateVerifier());
+		DiagnosticData diagnosticData = validator.validateDocument().getDiagnosticData();
+
+		SignatureWrapper signature = null;
+		for (SignatureWrapper signatureWrapper : diagnosticData.getSignatures()) {
+			if (("id-" + parameters.getDeterministicId()).equals(signatureWrapper.getDAIdentifier())) {
+				signature = signatureWrapper;
+			}
+		}
+		assertNotNull(signature);
+		assertTrue(signature.isSignatureIntact());
+		assertTrue(signature.isSignatureValid());
+		for (XmlDigestMatcher digestMatcher : signature.getDigestMatchers()) {
+			assertTrue(digestMatcher.isDataFound());
+			assertTrue(digestMatcher.isDataIntact());
+		}
+	}
+
+	private DSSReference createReference(DSSDocument document, XAdESSignatureParameters parameters, String envelopedTransform,
+			String canonicalizationMethod) {
+		List<DSSTransform> transforms = new ArrayList<>();
+		if (Transforms.TRANSFORM_XPATH.equals(envelopedTransform)) {
+			transforms.add(new XPathEnvelopedSignatureTransform());
+		} else if (Transforms.TRANSFORM_XPATH2FILTER.equals(envelopedTransform)) {
+			transforms.add(new XPath2FilterEnvelopedSignatureTransform());
+		} else {
+			transforms.add(new EnvelopedSignatureTransform());
+		}
+		if (canonicalizationMethod != null) {
+			transforms.add(new CanonicalizationTransform(canonicalizationMethod));
+		}
+
+		DSSReference reference = new DSSReference();
+		reference.setContents(document);
+		reference.setId("r-" + parameters.getDeterministicId() + "-1");
+		reference.setUri("");
+		reference.setDigestMethodAlgorithm(DigestAlgorithm.SHA256);
+		reference.setTransforms(transforms);
+		return reference;
+	}
+
+	@Override
+	protected String getSigningAlias() {
+		return GOOD_USER;
+	}
+
+	@Override
+	protected DocumentSignatureService<XAdESSignatureParameters, XAdESTimestampParameters> getService() {
+		return service;
+	}
+
+	@Override
+	protected XAdESSignatureParameters getSignatureParameters() {
+		return signatureParameters;
+	}
+
+	@Override
+	protected DSSDocument getDocumentToSign() {
+		return documentToSign;
+	}
+
+}
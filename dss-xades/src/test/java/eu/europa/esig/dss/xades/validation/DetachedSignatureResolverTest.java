@@ -20,22 +20,29 @@
  */
 package eu.europa.esig.dss.xades.validation;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
 import java.util.Collections;
 
+import org.apache.xml.security.signature.XMLSignatureInput;
 import org.apache.xml.security.utils.resolver.ResourceResolverContext;
 import org.apache.xml.security.utils.resolver.ResourceResolverException;
 import org.junit.jupiter.api.Test;
 import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 
+import eu.europa.esig.dss.DomUtils;
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.model.DSSDocument;
 import eu.europa.esig.dss.model.DigestDocument;
@@ -255,4 +262,45 @@ public class DetachedSignatureResolverTest {
 		assertNotNull(resolver.engineResolveURI(context));
 	}
 
+	@Test
+	public void referenceWithoutTransformsIsStreamed() throws Exception {
+		byte[] content = new byte[] { 1, 2, 3 };
+		DetachedSignatureResolver resolver = new DetachedSignatureResolver(
+				Arrays.<DSSDocument>asList(new InMemoryDocument(content, "sample.bin", MimeType.BINARY)), DigestAlgorithm.SHA256);
+
+		Document dom = DomUtils.buildDOM("<ds:Reference xmlns:ds=\"http://www.w3.org/2000/09/xmldsig#\" URI=\"sample.bin\" />");
+		Element reference = dom.getDocumentElement();
+		assertTrue(DetachedSignatureResolver.isWithoutTransforms(reference));
+
+		ResourceResolverContext context = new ResourceResolverContext(reference.getAttributeNode("URI"), null, false);
+		assertTrue(resolver.engineCanResolveURI(context));
+
+		XMLSignatureInput input = resolver.engineResolveURI(context);
+		assertTrue(input.isOctetStream());
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		input.updateOutputStream(baos);
+		assertArrayEquals(content, baos.toByteArray());
+	}
+
+	@Test
+	public void referenceWithTransforms() {
+		Document dom = DomUtils.buildDOM("<ds:Reference xmlns:ds=\"http://www.w3.org/2000/09/xmldsig#\" URI=\"sample.xml\"><ds:Transforms>"
+				+ "<ds:Transform Algorithm=\"http://www.w3.org/2001/10/xml-exc-c14n#\" /></ds:Transforms></ds:Reference>");
+		assertFalse(DetachedSignatureResolver.isWithoutTransforms(dom.getDocumentElement()));
+	}
+
+	@Test
+	public void getDocument() {
+		DSSDocument doc1 = new InMemoryDocument(new byte[] { 1, 2, 3 }, "sample.xml", MimeType.XML);
+		DSSDocument doc2 = new InMemoryDocument(new byte[] { 2, 3 }, "sample 2.xml", MimeType.XML);
+
+		assertEquals(doc1, DetachedSignatureResolver.getDocument(Arrays.asList(doc1), null));
+		assertEquals(doc1, DetachedSignatureResolver.getDocument(Arrays.asList(doc1, doc2), "sample.xml"));
+		assertEquals(doc2, DetachedSignatureResolver.getDocument(Arrays.asList(doc1, doc2), "sample%202.xml"));
+		assertNull(DetachedSignatureResolver.getDocument(Arrays.asList(doc1, doc2), null));
+		assertNull(DetachedSignatureResolver.getDocument(Arrays.asList(doc1, doc2), "toto.xml"));
+		assertNull(DetachedSignatureResolver.getDocument(Collections.<DSSDocument>emptyList(), "sample.xml"));
+	}
+
 }
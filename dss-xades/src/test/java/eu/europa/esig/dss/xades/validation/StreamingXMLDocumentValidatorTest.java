@@ -0,0 +1,106 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import eu.europa.esig.dss.diagnostic.DiagnosticData;
+import eu.europa.esig.dss.diagnostic.SignatureWrapper;
+import eu.europa.esig.dss.diagnostic.jaxb.XmlDigestMatcher;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.FileDocument;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+public class StreamingXMLDocumentValidatorTest {
+
+	public static Stream<Arguments> data() {
+		return Stream.of(Arguments.of("src/test/resources/validation/dss-signed.xml"),
+				Arguments.of("src/test/resources/validation/dss-signed-altered-refRemoved.xml"),
+				Arguments.of("src/test/resources/validation/valid-xades.xml"),
+				Arguments.of("src/test/resources/validation/xades-x-level.xml"),
+				Arguments.of("src/test/resources/validation/doubleSignedTest.xml"),
+				Arguments.of("src/test/resources/validation/qes-xades111-filter2.xml"),
+				Arguments.of("src/test/resources/validation/dss1770/dss1770.xml"),
+				Arguments.of("src/test/resources/validation/dss1770/dss1770rootAndRefs.xml"),
+				Arguments.of("src/test/resources/validation/xsw/XSW-enveloped-fake-content.xml"),
+				Arguments.of("src/test/resources/validation/xsw/XSW-enveloped-fake-content-two-same-id.xml"),
+				Arguments.of("src/test/resources/validation/xsw/XSW-enveloped-fake-signedProperties.xml"));
+	}
+
+	@ParameterizedTest(name = "Validation {index} : {0}")
+	@MethodSource("data")
+	public void sameResultsAsDomValidation(String filePath) {
+		DSSDocument document = new FileDocument(filePath);
+
+		DiagnosticData domDiagnosticData = validate(new XMLDocumentValidator(document)).getDiagnosticData();
+		DiagnosticData streamingDiagnosticData = validate(new StreamingXMLDocumentValidator(document)).getDiagnosticData();
+
+		List<SignatureWrapper> domSignatures = domDiagnosticData.getSignatures();
+		List<SignatureWrapper> streamingSignatures = streamingDiagnosticData.getSignatures();
+		assertEquals(domSignatures.size(), streamingSignatures.size());
+		for (int i = 0; i < domSignatures.size(); i++) {
+			SignatureWrapper domSignature = domSignatures.get(i);
+			SignatureWrapper streamingSignature = streamingSignatures.get(i);
+			assertEquals(domSignature.getId(), streamingSignature.getId());
+			assertEquals(domSignature.isSignatureIntact(), streamingSignature.isSignatureIntact());
+			assertEquals(domSignature.isSignatureValid(), streamingSignature.isSignatureValid());
+			assertEquals(domSignature.getSignatureScopes().size(), streamingSignature.getSignatureScopes().size());
+
+			List<XmlDigestMatcher> domDigestMatchers = domSignature.getDigestMatchers();
+			List<XmlDigestMatcher> streamingDigestMatchers = streamingSignature.getDigestMatchers();
+			assertEquals(domDigestMatchers.size(), streamingDigestMatchers.size());
+			for (int j = 0; j < domDigestMatchers.size(); j++) {
+				assertEquals(domDigestMatchers.get(j).getType(), streamingDigestMatchers.get(j).getType());
+				assertEquals(domDigestMatchers.get(j).isDataFound(), streamingDigestMatchers.get(j).isDataFound());
+				assertEquals(domDigestMatchers.get(j).isDataIntact(), streamingDigestMatchers.get(j).isDataIntact());
+			}
+		}
+	}
+
+	@Test
+	public void domIsNotBuilt() {
+		StreamingXMLDocumentValidator validator = new StreamingXMLDocumentValidator(new FileDocument("src/test/resources/validation/dss-signed.xml"));
+		Reports reports = validate(validator);
+		assertEquals(1, reports.getDiagnosticData().getSignatures().size());
+		// the enveloped content is digested while streaming
+		assertNull(validator.rootElement);
+
+		assertNotNull(validator.getRootElement());
+	}
+
+	private Reports validate(SignedDocumentValidator validator) {
+		validator.setCertificateVerifier(new CommonCertificateVerifier());
+		return validator.validateDocument();
+	}
+
+}
@@ -0,0 +1,159 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import java.io.File;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.diagnostic.DiagnosticData;
+import eu.europa.esig.dss.diagnostic.SignatureWrapper;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.FileDocument;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.x509.CommonTrustedCertificateSource;
+import eu.europa.esig.dss.validation.CertificateVerifier;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.ValidationResultCache;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+public class ValidationResultCacheTest {
+
+	private static final DSSDocument DOCUMENT = new FileDocument("src/test/resources/validation/dss-signed.xml");
+
+	private static final DSSDocument ALTERED_DOCUMENT = new FileDocument("src/test/resources/validation/dss-signed-altered-refRemoved.xml");
+
+	@Test
+	public void revalidationReusesDiagnosticData() {
+		ValidationResultCache cache = new ValidationResultCache();
+
+		Date firstTime = new Date(1500000000000L);
+		Reports firstReports = validate(DOCUMENT, cache, firstTime);
+		assertEquals(0, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.size());
+
+		Date secondTime = new Date(1600000000000L);
+		Reports secondReports = validate(DOCUMENT, cache, secondTime);
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+
+		DiagnosticData firstDiagnosticData = firstReports.getDiagnosticData();
+		DiagnosticData secondDiagnosticData = secondReports.getDiagnosticData();
+		assertNotSame(firstReports.getDiagnosticDataJaxb(), secondReports.getDiagnosticDataJaxb());
+		assertEquals(firstTime, firstDiagnosticData.getValidationDate());
+		assertEquals(secondTime, secondDiagnosticData.getValidationDate());
+
+		List<SignatureWrapper> firstSignatures = firstDiagnosticData.getSignatures();
+		List<SignatureWrapper> secondSignatures = secondDiagnosticData.getSignatures();
+		assertEquals(firstSignatures.size(), secondSignatures.size());
+		for (int i = 0; i < firstSignatures.size(); i++) {
+			String signatureId = firstSignatures.get(i).getId();
+			assertEquals(signatureId, secondSignatures.get(i).getId());
+			assertEquals(firstSignatures.get(i).isSignatureIntact(), secondSignatures.get(i).isSignatureIntact());
+			assertEquals(firstSignatures.get(i).isSignatureValid(), secondSignatures.get(i).isSignatureValid());
+			assertEquals(firstReports.getSimpleReport().getIndication(signatureId), secondReports.getSimpleReport().getIndication(signatureId));
+			assertEquals(firstReports.getSimpleReport().getSubIndication(signatureId), secondReports.getSimpleReport().getSubIndication(signatureId));
+		}
+	}
+
+	@Test
+	public void otherDocumentIsValidated() {
+		ValidationResultCache cache = new ValidationResultCache();
+		validate(DOCUMENT, cache, new Date());
+		Reports reports = validate(ALTERED_DOCUMENT, cache, new Date());
+		assertEquals(0, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+		assertEquals(2, cache.size());
+
+		// the altered document is not reported with the results of the original one
+		SignatureWrapper signature = reports.getDiagnosticData().getSignatures().get(0);
+		assertFalse(signature.getDigestMatchers().stream().allMatch(digestMatcher -> digestMatcher.isDataIntact()));
+	}
+
+	@Test
+	public void invalidate() {
+		ValidationResultCache cache = new ValidationResultCache();
+		validate(DOCUMENT, cache, new Date());
+		cache.invalidate();
+		assertEquals(0, cache.size());
+		validate(DOCUMENT, cache, new Date());
+		assertEquals(0, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void sizeIsBounded() {
+		ValidationResultCache cache = new ValidationResultCache(1);
+		validate(DOCUMENT, cache, new Date());
+		validate(ALTERED_DOCUMENT, cache, new Date());
+		assertEquals(1, cache.size());
+		validate(DOCUMENT, cache, new Date());
+		assertEquals(0, cache.getHitCount());
+	}
+
+	@Test
+	public void replacedTrustedCertificate() {
+		CertificateToken otherCertificate = DSSUtils.loadCertificate(new File("src/test/resources/validation/dss1788/signCert.cer"));
+		SignedDocumentValidator documentValidator = SignedDocumentValidator.fromDocument(DOCUMENT);
+		documentValidator.setCertificateVerifier(new CommonCertificateVerifier());
+		CertificateToken signingCertificate = documentValidator.getSignatures().get(0).getCertificates().get(0);
+
+		CommonTrustedCertificateSource trustedCertSource = new CommonTrustedCertificateSource();
+		trustedCertSource.addCertificate(otherCertificate);
+		CommonCertificateVerifier certificateVerifier = new CommonCertificateVerifier();
+		certificateVerifier.setTrustedCertSource(trustedCertSource);
+
+		ValidationResultCache cache = new ValidationResultCache();
+		validate(DOCUMENT, cache, certificateVerifier, new Date());
+
+		// same number of trusted certificates, but another trust anchor
+		trustedCertSource.removeCertificate(otherCertificate);
+		trustedCertSource.addCertificate(signingCertificate);
+		validate(DOCUMENT, cache, certificateVerifier, new Date());
+		assertEquals(0, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+
+		validate(DOCUMENT, cache, certificateVerifier, new Date());
+		assertEquals(1, cache.getHitCount());
+	}
+
+	private Reports validate(DSSDocument document, ValidationResultCache cache, Date validationTime) {
+		return validate(document, cache, new CommonCertificateVerifier(), validationTime);
+	}
+
+	private Reports validate(DSSDocument document, ValidationResultCache cache, CertificateVerifier certificateVerifier, Date validationTime) {
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(document);
+		validator.setCertificateVerifier(certificateVerifier);
+		validator.setValidationResultCache(cache);
+		validator.setValidationTime(validationTime);
+		return validator.validateDocument();
+	}
+
+}
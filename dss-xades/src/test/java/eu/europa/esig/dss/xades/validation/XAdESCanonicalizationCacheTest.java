@@ -0,0 +1,74 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.validation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import javax.xml.crypto.dsig.CanonicalizationMethod;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import eu.europa.esig.dss.DomUtils;
+import eu.europa.esig.dss.definition.xmldsig.XMLDSigPaths;
+import eu.europa.esig.dss.model.FileDocument;
+import eu.europa.esig.dss.xades.DSSXMLUtils;
+import eu.europa.esig.dss.xades.SantuarioInitializer;
+import eu.europa.esig.dss.xades.definition.XAdESNamespaces;
+
+public class XAdESCanonicalizationCacheTest {
+
+	private static Element signatureValue;
+
+	@BeforeAll
+	public static void init() {
+		SantuarioInitializer.init();
+		XAdESNamespaces.registerNamespaces();
+		Document document = DomUtils.buildDOM(new FileDocument("src/test/resources/validation/dss-signed.xml"));
+		Element signature = (Element) DomUtils.getNodeList(document, XMLDSigPaths.ALL_SIGNATURES_PATH).item(0);
+		signatureValue = DomUtils.getElement(signature, XMLDSigPaths.SIGNATURE_VALUE_PATH);
+	}
+
+	@Test
+	public void canonicalize() {
+		XAdESCanonicalizationCache cache = new XAdESCanonicalizationCache();
+
+		byte[] exclusive = cache.canonicalizeSubtree(CanonicalizationMethod.EXCLUSIVE, signatureValue);
+		assertArrayEquals(DSSXMLUtils.canonicalizeSubtree(CanonicalizationMethod.EXCLUSIVE, signatureValue), exclusive);
+		assertSame(exclusive, cache.canonicalizeSubtree(CanonicalizationMethod.EXCLUSIVE, signatureValue));
+		assertSame(exclusive, cache.canonicalizeOrSerializeSubtree(CanonicalizationMethod.EXCLUSIVE, signatureValue));
+
+		byte[] inclusive = cache.canonicalizeSubtree(CanonicalizationMethod.INCLUSIVE, signatureValue);
+		assertArrayEquals(DSSXMLUtils.canonicalizeSubtree(CanonicalizationMethod.INCLUSIVE, signatureValue), inclusive);
+
+		byte[] serialized = cache.canonicalizeOrSerializeSubtree(null, signatureValue);
+		assertArrayEquals(DSSXMLUtils.serializeNode(signatureValue), serialized);
+		assertSame(serialized, cache.canonicalizeOrSerializeSubtree("", signatureValue));
+
+		cache.clear();
+		assertNotSame(exclusive, cache.canonicalizeSubtree(CanonicalizationMethod.EXCLUSIVE, signatureValue));
+	}
+
+}
@@ -0,0 +1,148 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.crypto.dsig.CanonicalizationMethod;
+
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.diagnostic.DiagnosticData;
+import eu.europa.esig.dss.diagnostic.SignatureWrapper;
+import eu.europa.esig.dss.diagnostic.jaxb.XmlDigestMatcher;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.SignatureLevel;
+import eu.europa.esig.dss.enumerations.SignaturePackaging;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DigestDocument;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import eu.europa.esig.dss.model.MimeType;
+import eu.europa.esig.dss.model.SignatureValue;
+import eu.europa.esig.dss.model.ToBeSigned;
+import eu.europa.esig.dss.test.signature.PKIFactoryAccess;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.reports.Reports;
+import eu.europa.esig.dss.xades.XAdESSignatureParameters;
+import eu.europa.esig.dss.xades.reference.CanonicalizationTransform;
+import eu.europa.esig.dss.xades.reference.DSSReference;
+import eu.europa.esig.dss.xades.reference.DSSTransform;
+import eu.europa.esig.dss.xades.signature.XAdESService;
+
+public class XAdESDocHashOnlyValidationTest extends PKIFactoryAccess {
+
+	// already canonicalized : same digest with or without the transform
+	private static final DSSDocument ORIGINAL_DOCUMENT = new InMemoryDocument("<root>Hello World</root>".getBytes(), "hello.xml", MimeType.XML);
+
+	@Test
+	public void requiredDigestAlgorithms() {
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(sign(false));
+		validator.setCertificateVerifier(getOfflineCertificateVerifier());
+		assertEquals(Collections.singleton(DigestAlgorithm.SHA256), validator.getDetachedContentsDigestAlgorithms());
+	}
+
+	@Test
+	public void validDigest() {
+		SignatureWrapper signature = validate(sign(false), getDigestDocument(DigestAlgorithm.SHA256));
+		assertTrue(signature.isBLevelTechnicallyValid());
+		for (XmlDigestMatcher digestMatcher : signature.getDigestMatchers()) {
+			assertTrue(digestMatcher.isDataFound());
+			assertTrue(digestMatcher.isDataIntact());
+		}
+	}
+
+	@Test
+	public void missingDigestAlgorithm() {
+		SignatureWrapper signature = validate(sign(false), getDigestDocument(DigestAlgorithm.SHA512));
+		assertFalse(signature.isBLevelTechnicallyValid());
+	}
+
+	@Test
+	public void referenceWithTransforms() {
+		DSSDocument signedDocument = sign(true);
+
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(signedDocument);
+		validator.setCertificateVerifier(getOfflineCertificateVerifier());
+		// the transformed content cannot be verified with a digest
+		assertTrue(validator.getDetachedContentsDigestAlgorithms().isEmpty());
+
+		SignatureWrapper signature = validate(signedDocument, getDigestDocument(DigestAlgorithm.SHA256));
+		assertFalse(signature.isBLevelTechnicallyValid());
+
+		signature = validate(signedDocument, ORIGINAL_DOCUMENT);
+		assertTrue(signature.isBLevelTechnicallyValid());
+	}
+
+	private DSSDocument sign(boolean withTransforms) {
+		XAdESSignatureParameters signatureParameters = new XAdESSignatureParameters();
+		signatureParameters.setSigningCertificate(getSigningCert());
+		signatureParameters.setCertificateChain(getCertificateChain());
+		signatureParameters.setSignaturePackaging(SignaturePackaging.DETACHED);
+		signatureParameters.setSignatureLevel(SignatureLevel.XAdES_BASELINE_B);
+		signatureParameters.setDigestAlgorithm(DigestAlgorithm.SHA256);
+
+		if (withTransforms) {
+			List<DSSTransform> transforms = new ArrayList<>();
+			transforms.add(new CanonicalizationTransform(CanonicalizationMethod.EXCLUSIVE));
+
+			DSSReference reference = new DSSReference();
+			reference.setId("r-hello");
+			reference.setUri(ORIGINAL_DOCUMENT.getName());
+			reference.setContents(ORIGINAL_DOCUMENT);
+			reference.setDigestMethodAlgorithm(DigestAlgorithm.SHA256);
+			reference.setTransforms(transforms);
+			signatureParameters.setReferences(Arrays.asList(reference));
+		}
+
+		XAdESService service = new XAdESService(getOfflineCertificateVerifier());
+		ToBeSigned dataToSign = service.getDataToSign(ORIGINAL_DOCUMENT, signatureParameters);
+		SignatureValue signatureValue = getToken().sign(dataToSign, signatureParameters.getDigestAlgorithm(), getPrivateKeyEntry());
+		return service.signDocument(ORIGINAL_DOCUMENT, signatureParameters, signatureValue);
+	}
+
+	private DigestDocument getDigestDocument(DigestAlgorithm digestAlgorithm) {
+		DigestDocument digestDocument = new DigestDocument(digestAlgorithm, ORIGINAL_DOCUMENT.getDigest(digestAlgorithm));
+		digestDocument.setName(ORIGINAL_DOCUMENT.getName());
+		return digestDocument;
+	}
+
+	private SignatureWrapper validate(DSSDocument signedDocument, DSSDocument detachedContent) {
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(signedDocument);
+		validator.setCertificateVerifier(getOfflineCertificateVerifier());
+		validator.setDetachedContents(Arrays.<DSSDocument>asList(detachedContent));
+		Reports reports = validator.validateDocument();
+		DiagnosticData diagnosticData = reports.getDiagnosticData();
+		return diagnosticData.getSignatureById(diagnosticData.getFirstSignatureId());
+	}
+
+	@Override
+	protected String getSigningAlias() {
+		return GOOD_USER;
+	}
+
+}
@@ -25,6 +25,7 @@ import java.util.Locale;
 import java.util.Objects;
 
 import eu.europa.esig.dss.diagnostic.jaxb.XmlDiagnosticData;
+import eu.europa.esig.dss.i18n.DeferredI18nProvider;
 import eu.europa.esig.dss.i18n.I18nProvider;
 import eu.europa.esig.dss.policy.ValidationPolicy;
 
@@ -34,7 +35,9 @@ public class AbstractProcessExecutor {
 	protected ValidationPolicy policy;
 	protected XmlDiagnosticData jaxbDiagnosticData;
 	
+	private Locale locale = Locale.getDefault();
 	private I18nProvider i18nProvider;
+	private boolean lazyMessages = false;
 
 	public void setCurrentTime(Date currentTime) {
 		this.currentTime = currentTime;
@@ -58,12 +61,21 @@ public class AbstractProcessExecutor {
 
 	public void setLocale(Locale locale) {
 		Objects.requireNonNull(locale, "Locale cannot be null!");
+		this.locale = locale;
 		i18nProvider = new I18nProvider(locale);
 	}
+
+	public void setLazyMessages(boolean lazyMessages) {
+		this.lazyMessages = lazyMessages;
+	}
 	
 	protected I18nProvider getI18nProvider() {
+		if (lazyMessages) {
+			// the pending messages belong to the report being built
+			return new DeferredI18nProvider(locale);
+		}
 		if (i18nProvider == null) {
-			i18nProvider = new I18nProvider(Locale.getDefault());
+			i18nProvider = new I18nProvider(locale);
 		}
 		return i18nProvider;
 	}
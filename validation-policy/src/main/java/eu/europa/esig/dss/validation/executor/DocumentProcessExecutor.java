@@ -40,4 +40,13 @@ public interface DocumentProcessExecutor extends ProcessExecutor<Reports> {
 	 */
 	void setEnableEtsiValidationReport(boolean enableEtsiValidationReport);
 
+	/**
+	 * Specifies if the detailed, simple and ETSI Validation reports must be built
+	 * on first access instead of during the execution. The built reports are
+	 * memoised.
+	 * 
+	 * @param lazyReports
+	 */
+	void setLazyReports(boolean lazyReports);
+
 }
@@ -75,6 +75,15 @@ public interface ProcessExecutor<R extends AbstractReports> {
 	 */
 	void setLocale(Locale locale);
 
+	/**
+	 * Allows to postpone the rendering of the constraint names, titles and additional
+	 * information of the detailed report until its first access (false by default)
+	 * 
+	 * @param lazyMessages
+	 *                     true if the messages have to be rendered on demand
+	 */
+	void setLazyMessages(boolean lazyMessages);
+
 	/**
 	 * This method allows to run the validation process.
 	 *
@@ -24,6 +24,7 @@ import java.util.Objects;
 
 import eu.europa.esig.dss.detailedreport.jaxb.XmlDetailedReport;
 import eu.europa.esig.dss.diagnostic.DiagnosticData;
+import eu.europa.esig.dss.i18n.I18nProvider;
 import eu.europa.esig.dss.simplecertificatereport.jaxb.XmlSimpleCertificateReport;
 import eu.europa.esig.dss.validation.executor.AbstractProcessExecutor;
 import eu.europa.esig.dss.validation.reports.CertificateReports;
@@ -44,15 +45,18 @@ public class DefaultCertificateProcessExecutor extends AbstractProcessExecutor i
 
 		DiagnosticData diagnosticData = new DiagnosticData(jaxbDiagnosticData);
 
+		I18nProvider i18nProvider = getI18nProvider();
 		DetailedReportForCertificateBuilder detailedReportBuilder = new DetailedReportForCertificateBuilder(
-				getI18nProvider(), diagnosticData, policy, currentTime, certificateId);
+				i18nProvider, diagnosticData, policy, currentTime, certificateId);
 		XmlDetailedReport detailedReport = detailedReportBuilder.build();
 
 		SimpleReportForCertificateBuilder simpleReportBuilder = new SimpleReportForCertificateBuilder(diagnosticData,
 				new eu.europa.esig.dss.detailedreport.DetailedReport(detailedReport), currentTime, certificateId);
 		XmlSimpleCertificateReport simpleReport = simpleReportBuilder.build();
 
-		return new CertificateReports(jaxbDiagnosticData, detailedReport, simpleReport);
+		CertificateReports reports = new CertificateReports(jaxbDiagnosticData, detailedReport, simpleReport);
+		reports.setI18nProvider(i18nProvider);
+		return reports;
 	}
 
 }
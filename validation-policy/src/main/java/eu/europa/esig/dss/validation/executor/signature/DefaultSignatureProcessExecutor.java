@@ -25,6 +25,7 @@ import java.util.Objects;
 import eu.europa.esig.dss.detailedreport.DetailedReport;
 import eu.europa.esig.dss.detailedreport.jaxb.XmlDetailedReport;
 import eu.europa.esig.dss.diagnostic.DiagnosticData;
+import eu.europa.esig.dss.i18n.I18nProvider;
 import eu.europa.esig.dss.simplereport.jaxb.XmlSimpleReport;
 import eu.europa.esig.dss.validation.executor.AbstractProcessExecutor;
 import eu.europa.esig.dss.validation.executor.DocumentProcessExecutor;
@@ -35,12 +36,15 @@ import eu.europa.esig.validationreport.jaxb.ValidationReportType;
 /**
  * This class executes a signature validation process and produces
  * SimpleReport, DetailedReport and ETSI Validation report
+ * 
+ * When lazy reports are enabled, the reports are only built on first access.
  *
  */
 public class DefaultSignatureProcessExecutor extends AbstractProcessExecutor implements DocumentProcessExecutor {
 
 	protected ValidationLevel validationLevel = ValidationLevel.ARCHIVAL_DATA;
 	protected boolean enableEtsiValidationReport = true;
+	protected boolean lazyReports = false;
 
 	@Override
 	public void setValidationLevel(ValidationLevel validationLevel) {
@@ -51,11 +55,19 @@ public class DefaultSignatureProcessExecutor extends AbstractProcessExecutor imp
 	public void setEnableEtsiValidationReport(boolean enableEtsiValidationReport) {
 		this.enableEtsiValidationReport = enableEtsiValidationReport;
 	}
+
+	@Override
+	public void setLazyReports(boolean lazyReports) {
+		this.lazyReports = lazyReports;
+	}
 	
 	@Override
 	public Reports execute() {
 		assertConfigurationValid();
 		Objects.requireNonNull(validationLevel, "The validation level is missing");
+		if (lazyReports) {
+			return new LazyReports(jaxbDiagnosticData, getI18nProvider(), currentTime, policy, validationLevel, enableEtsiValidationReport);
+		}
 		DiagnosticData diagnosticData = getDiagnosticData();
 		return buildReports(diagnosticData);
 	}
@@ -66,7 +78,8 @@ public class DefaultSignatureProcessExecutor extends AbstractProcessExecutor imp
 	
 	protected Reports buildReports(final DiagnosticData diagnosticData) {
 		
-		DetailedReportBuilder detailedReportBuilder = new DetailedReportBuilder(getI18nProvider(), currentTime, policy, validationLevel, diagnosticData);
+		I18nProvider i18nProvider = getI18nProvider();
+		DetailedReportBuilder detailedReportBuilder = new DetailedReportBuilder(i18nProvider, currentTime, policy, validationLevel, diagnosticData);
 		XmlDetailedReport jaxbDetailedReport = detailedReportBuilder.build();
 
 		DetailedReport detailedReportWrapper = new DetailedReport(jaxbDetailedReport);
@@ -81,7 +94,9 @@ public class DefaultSignatureProcessExecutor extends AbstractProcessExecutor imp
 			validationReport = etsiValidationReportBuilder.build();
 		}
 
-		return new Reports(jaxbDiagnosticData, jaxbDetailedReport, simpleReport, validationReport);
+		Reports reports = new Reports(jaxbDiagnosticData, jaxbDetailedReport, simpleReport, validationReport);
+		reports.setI18nProvider(i18nProvider);
+		return reports;
 	}
 
 }
@@ -0,0 +1,82 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation.executor.signature;
+
+import java.util.Date;
+
+import eu.europa.esig.dss.detailedreport.jaxb.XmlDetailedReport;
+import eu.europa.esig.dss.diagnostic.jaxb.XmlDiagnosticData;
+import eu.europa.esig.dss.i18n.I18nProvider;
+import eu.europa.esig.dss.policy.ValidationPolicy;
+import eu.europa.esig.dss.simplereport.jaxb.XmlSimpleReport;
+import eu.europa.esig.dss.validation.executor.ValidationLevel;
+import eu.europa.esig.dss.validation.reports.Reports;
+import eu.europa.esig.validationreport.jaxb.ValidationReportType;
+
+/**
+ * This class keeps the diagnostic data and the validation policy and builds
+ * the detailed report, the simple report and the ETSI Validation report on
+ * first access. The detailed report is built once and shared by the two
+ * other reports.
+ */
+class LazyReports extends Reports {
+
+	private final I18nProvider i18nProvider;
+	private final Date currentTime;
+	private final ValidationPolicy policy;
+	private final ValidationLevel validationLevel;
+	private final boolean enableEtsiValidationReport;
+
+	LazyReports(XmlDiagnosticData diagnosticDataJaxb, I18nProvider i18nProvider, Date currentTime, ValidationPolicy policy,
+			ValidationLevel validationLevel, boolean enableEtsiValidationReport) {
+		super(diagnosticDataJaxb);
+		this.i18nProvider = i18nProvider;
+		this.currentTime = currentTime;
+		this.policy = policy;
+		this.validationLevel = validationLevel;
+		this.enableEtsiValidationReport = enableEtsiValidationReport;
+		setI18nProvider(i18nProvider);
+	}
+
+	@Override
+	protected XmlDetailedReport buildDetailedReport() {
+		DetailedReportBuilder detailedReportBuilder = new DetailedReportBuilder(i18nProvider, currentTime, policy, validationLevel,
+				getDiagnosticData());
+		return detailedReportBuilder.build();
+	}
+
+	@Override
+	protected XmlSimpleReport buildSimpleReport() {
+		SimpleReportBuilder simpleReportBuilder = new SimpleReportBuilder(currentTime, policy, getDiagnosticData(), getDetailedReport());
+		return simpleReportBuilder.build();
+	}
+
+	@Override
+	protected ValidationReportType buildEtsiValidationReport() {
+		if (enableEtsiValidationReport) {
+			ETSIValidationReportBuilder etsiValidationReportBuilder = new ETSIValidationReportBuilder(currentTime, getDiagnosticData(),
+					getDetailedReport());
+			return etsiValidationReportBuilder.build();
+		}
+		return null;
+	}
+
+}
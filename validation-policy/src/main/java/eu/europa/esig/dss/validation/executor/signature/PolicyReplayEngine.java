@@ -0,0 +1,289 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation.executor.signature;
+
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.diagnostic.DiagnosticData;
+import eu.europa.esig.dss.diagnostic.DiagnosticDataFacade;
+import eu.europa.esig.dss.diagnostic.jaxb.XmlCertificate;
+import eu.europa.esig.dss.diagnostic.jaxb.XmlDiagnosticData;
+import eu.europa.esig.dss.diagnostic.jaxb.XmlDigestAlgoAndValue;
+import eu.europa.esig.dss.diagnostic.jaxb.XmlOrphanToken;
+import eu.europa.esig.dss.diagnostic.jaxb.XmlRevocation;
+import eu.europa.esig.dss.diagnostic.jaxb.XmlTimestamp;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.utils.Utils;
+import eu.europa.esig.dss.validation.reports.DSSReportException;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+/**
+ * This class re-runs the validation process over a stored diagnostic data, without re-parsing the signed document.
+ * 
+ * The diagnostic data is loaded once and its wrapper (with the signatures, timestamps and certificates indexed by
+ * id) is shared between all the runs. Several validation policies, validation times and validation levels can be
+ * evaluated in parallel with {@link #replayAll(List)}.
+ * 
+ * The shared diagnostic data must not be modified while the engine is used.
+ */
+public class PolicyReplayEngine {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PolicyReplayEngine.class);
+
+	private final XmlDiagnosticData jaxbDiagnosticData;
+
+	private final DiagnosticData diagnosticData;
+
+	/**
+	 * The executor service which runs the scenarios. If not defined, a fixed thread pool is created for each call of
+	 * {@link #replayAll(List)}
+	 */
+	private ExecutorService executorService;
+
+	/**
+	 * The number of scenarios evaluated at the same time (default : number of available processors)
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	private Locale locale;
+
+	private boolean enableEtsiValidationReport = true;
+
+	/**
+	 * The default constructor
+	 * 
+	 * @param jaxbDiagnosticData
+	 *                           the diagnostic data to replay
+	 */
+	public PolicyReplayEngine(XmlDiagnosticData jaxbDiagnosticData) {
+		Objects.requireNonNull(jaxbDiagnosticData, "The diagnostic data is missing");
+		this.jaxbDiagnosticData = jaxbDiagnosticData;
+		this.diagnosticData = new DiagnosticData(jaxbDiagnosticData);
+		// built before the wrapper is shared between the threads
+		this.diagnosticData.initializeIndexes();
+	}
+
+	/**
+	 * Loads a diagnostic data in a compact form : the XML is not validated against the XSD and the binaries of the
+	 * certificates, revocation data, timestamps and orphan tokens are replaced by their SHA-256 digest (the
+	 * validation process does not use them).
+	 * 
+	 * @param is
+	 *           the {@code InputStream} of the diagnostic data XML
+	 * @return the replay engine
+	 */
+	public static PolicyReplayEngine fromXml(InputStream is) {
+		Objects.requireNonNull(is, "The InputStream is missing");
+		try {
+			XmlDiagnosticData jaxbDiagnosticData = DiagnosticDataFacade.newFacade().unmarshall(is, false);
+			compact(jaxbDiagnosticData);
+			return new PolicyReplayEngine(jaxbDiagnosticData);
+		} catch (DSSReportException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new DSSReportException("Unable to load the diagnostic data", e);
+		}
+	}
+
+	/**
+	 * Sets the executor service to be used. The executor service is not shutdown by this class.
+	 * 
+	 * @param executorService
+	 *                        the {@code ExecutorService} to use
+	 */
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	/**
+	 * Sets the number of scenarios to be evaluated at the same time
+	 * 
+	 * @param parallelism
+	 *                    a positive number
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("The parallelism must be positive");
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Sets the locale of the messages of the reports
+	 * 
+	 * @param locale
+	 *               the {@code Locale} to use
+	 */
+	public void setLocale(Locale locale) {
+		this.locale = locale;
+	}
+
+	/**
+	 * Enables/disables the build of the ETSI validation report (enabled by default)
+	 * 
+	 * @param enableEtsiValidationReport
+	 *                                   true if the ETSI validation report needs to be built
+	 */
+	public void setEnableEtsiValidationReport(boolean enableEtsiValidationReport) {
+		this.enableEtsiValidationReport = enableEtsiValidationReport;
+	}
+
+	/**
+	 * Returns the shared diagnostic data
+	 * 
+	 * @return the {@code DiagnosticData}
+	 */
+	public DiagnosticData getDiagnosticData() {
+		return diagnosticData;
+	}
+
+	/**
+	 * Runs the validation process for the given scenario
+	 * 
+	 * @param scenario
+	 *                 the policy, time and level to apply
+	 * @return the reports
+	 */
+	public Reports replay(ReplayScenario scenario) {
+		Objects.requireNonNull(scenario, "The scenario is missing");
+		ReplayProcessExecutor executor = new ReplayProcessExecutor(diagnosticData);
+		executor.setDiagnosticData(jaxbDiagnosticData);
+		executor.setValidationPolicy(scenario.getPolicy());
+		executor.setCurrentTime(scenario.getValidationTime());
+		executor.setValidationLevel(scenario.getValidationLevel());
+		executor.setEnableEtsiValidationReport(enableEtsiValidationReport);
+		if (locale != null) {
+			executor.setLocale(locale);
+		}
+		return executor.execute();
+	}
+
+	/**
+	 * Runs the validation process for all the given scenarios, in parallel
+	 * 
+	 * @param scenarios
+	 *                  the scenarios to evaluate
+	 * @return the reports, in the order of the scenarios
+	 */
+	public List<Reports> replayAll(List<ReplayScenario> scenarios) {
+		Objects.requireNonNull(scenarios, "The scenarios are missing");
+		if (Utils.isCollectionEmpty(scenarios)) {
+			return Collections.emptyList();
+		}
+		if (scenarios.size() == 1) {
+			return Collections.singletonList(replay(scenarios.get(0)));
+		}
+
+		ExecutorService executor = executorService;
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(Math.min(parallelism, scenarios.size()));
+		}
+
+		try {
+			List<Future<Reports>> futures = new ArrayList<>();
+			for (ReplayScenario scenario : scenarios) {
+				futures.add(executor.submit(() -> replay(scenario)));
+			}
+			List<Reports> result = new ArrayList<>();
+			for (Future<Reports> future : futures) {
+				result.add(future.get());
+			}
+			LOG.debug("{} scenarios replayed", result.size());
+			return result;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSReportException("The replay has been interrupted", e);
+		} catch (ExecutionException e) {
+			throw new DSSReportException("Unable to replay the validation", e.getCause());
+		} finally {
+			if (executorService == null) {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	private static void compact(XmlDiagnosticData jaxbDiagnosticData) throws NoSuchAlgorithmException {
+		for (XmlCertificate certificate : jaxbDiagnosticData.getUsedCertificates()) {
+			if (certificate.getBase64Encoded() != null) {
+				certificate.setDigestAlgoAndValue(getDigestAlgoAndValue(certificate.getBase64Encoded()));
+				certificate.setBase64Encoded(null);
+			}
+		}
+		for (XmlRevocation revocation : jaxbDiagnosticData.getUsedRevocations()) {
+			if (revocation.getBase64Encoded() != null) {
+				revocation.setDigestAlgoAndValue(getDigestAlgoAndValue(revocation.getBase64Encoded()));
+				revocation.setBase64Encoded(null);
+			}
+		}
+		for (XmlTimestamp timestamp : jaxbDiagnosticData.getUsedTimestamps()) {
+			if (timestamp.getBase64Encoded() != null) {
+				timestamp.setDigestAlgoAndValue(getDigestAlgoAndValue(timestamp.getBase64Encoded()));
+				timestamp.setBase64Encoded(null);
+			}
+		}
+		for (XmlOrphanToken orphanToken : jaxbDiagnosticData.getOrphanTokens()) {
+			if (orphanToken.getBase64Encoded() != null) {
+				orphanToken.setDigestAlgoAndValue(getDigestAlgoAndValue(orphanToken.getBase64Encoded()));
+				orphanToken.setBase64Encoded(null);
+			}
+		}
+	}
+
+	private static XmlDigestAlgoAndValue getDigestAlgoAndValue(byte[] binaries) throws NoSuchAlgorithmException {
+		XmlDigestAlgoAndValue digestAlgoAndValue = new XmlDigestAlgoAndValue();
+		digestAlgoAndValue.setDigestMethod(DigestAlgorithm.SHA256);
+		digestAlgoAndValue.setDigestValue(MessageDigest.getInstance(DigestAlgorithm.SHA256.getJavaName()).digest(binaries));
+		return digestAlgoAndValue;
+	}
+
+	/**
+	 * An executor which uses the shared {@code DiagnosticData} instead of creating a new wrapper
+	 */
+	private static class ReplayProcessExecutor extends DefaultSignatureProcessExecutor {
+
+		private final DiagnosticData sharedDiagnosticData;
+
+		ReplayProcessExecutor(DiagnosticData sharedDiagnosticData) {
+			this.sharedDiagnosticData = sharedDiagnosticData;
+		}
+
+		@Override
+		protected DiagnosticData getDiagnosticData() {
+			return sharedDiagnosticData;
+		}
+
+	}
+
+}
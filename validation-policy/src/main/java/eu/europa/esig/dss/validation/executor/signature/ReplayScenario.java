@@ -0,0 +1,89 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation.executor.signature;
+
+import java.util.Date;
+import java.util.Objects;
+
+import eu.europa.esig.dss.policy.ValidationPolicy;
+import eu.europa.esig.dss.validation.executor.ValidationLevel;
+
+/**
+ * This class defines one run of the {@code PolicyReplayEngine} : the validation policy, the validation time and the
+ * validation level to be applied on the stored diagnostic data.
+ */
+public class ReplayScenario {
+
+	private final ValidationPolicy policy;
+
+	private final Date validationTime;
+
+	private final ValidationLevel validationLevel;
+
+	/**
+	 * Creates a scenario with the {@code ValidationLevel.ARCHIVAL_DATA} level
+	 * 
+	 * @param policy
+	 *                       the validation policy to apply
+	 * @param validationTime
+	 *                       the validation time
+	 */
+	public ReplayScenario(ValidationPolicy policy, Date validationTime) {
+		this(policy, validationTime, ValidationLevel.ARCHIVAL_DATA);
+	}
+
+	/**
+	 * The default constructor
+	 * 
+	 * @param policy
+	 *                        the validation policy to apply
+	 * @param validationTime
+	 *                        the validation time
+	 * @param validationLevel
+	 *                        the validation level
+	 */
+	public ReplayScenario(ValidationPolicy policy, Date validationTime, ValidationLevel validationLevel) {
+		Objects.requireNonNull(policy, "The validation policy is missing");
+		Objects.requireNonNull(validationTime, "The validation time is missing");
+		Objects.requireNonNull(validationLevel, "The validation level is missing");
+		this.policy = policy;
+		this.validationTime = new Date(validationTime.getTime());
+		this.validationLevel = validationLevel;
+	}
+
+	public ValidationPolicy getPolicy() {
+		return policy;
+	}
+
+	public Date getValidationTime() {
+		return new Date(validationTime.getTime());
+	}
+
+	public ValidationLevel getValidationLevel() {
+		return validationLevel;
+	}
+
+	@Override
+	public String toString() {
+		return "ReplayScenario [validationTime=" + validationTime + ", validationLevel=" + validationLevel + "]";
+	}
+
+}
@@ -86,7 +86,10 @@ public abstract class Chain<T extends XmlConstraintsConclusion> {
 			firstItem.execute();
 		}
 		
-		result.setTitle(ValidationProcessUtils.buildStringMessage(i18nProvider, getTitle()));
+		MessageTag title = getTitle();
+		if (title != null) {
+			i18nProvider.applyMessage(title, result::setTitle);
+		}
 
 		if (result.getConclusion() == null) {
 			XmlConclusion conclusion = new XmlConclusion();
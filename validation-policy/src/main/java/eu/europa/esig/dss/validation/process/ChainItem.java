@@ -208,7 +208,7 @@ public abstract class ChainItem<T extends XmlConstraintsConclusion> {
 
 	private void recordConstraint(XmlStatus status) {
 		XmlConstraint xmlConstraint = new XmlConstraint();
-		xmlConstraint.setName(buildXmlName(getMessageTag()));
+		xmlConstraint.setName(buildDeferredXmlName(getMessageTag()));
 		xmlConstraint.setStatus(status);
 		xmlConstraint.setId(bbbId);
 		if (XmlStatus.NOT_OK.equals(status) || XmlStatus.WARNING.equals(status) || XmlStatus.INFORMATION.equals(status)) {
@@ -221,7 +221,10 @@ public abstract class ChainItem<T extends XmlConstraintsConclusion> {
 			}
 		}
 		if (!XmlStatus.IGNORED.equals(status)) {
-			xmlConstraint.setAdditionalInfo(ValidationProcessUtils.buildStringMessage(i18nProvider, getAdditionalInfo()));
+			MessageTag additionalInfo = getAdditionalInfo();
+			if (additionalInfo != null) {
+				i18nProvider.applyMessage(additionalInfo, xmlConstraint::setAdditionalInfo);
+			}
 		}
 		addConstraint(xmlConstraint);
 	}
@@ -246,6 +249,18 @@ public abstract class ChainItem<T extends XmlConstraintsConclusion> {
 		return xmlName;
 	}
 
+	/*
+	 * The value is only read when the report is marshalled, so its rendering can be
+	 * postponed by the provider (errors/warnings/infos are copied to the conclusions
+	 * and must be rendered immediately)
+	 */
+	private XmlName buildDeferredXmlName(MessageTag messageTag) {
+		XmlName xmlName = new XmlName();
+		xmlName.setNameId(messageTag.getId());
+		i18nProvider.applyMessage(messageTag, xmlName::setValue);
+		return xmlName;
+	}
+
 	/**
 	 * This method skips next elements
 	 */
@@ -109,6 +109,30 @@ public class CertQualificationAtTimeBlock extends Chain<XmlValidationCertificate
 		return message.setArgs(param);
 	}
 
+	@Override
+	public XmlValidationCertificateQualification execute() {
+		CertificateQualificationCache cache = CertificateQualificationCache.getInstance();
+		if (!cache.isEnabled()) {
+			return super.execute();
+		}
+
+		TrustedServiceFilter filterByDate = TrustedServicesFilterFactory.createFilterByDate(date);
+		String key = cache.getKey(i18nProvider, validationTime, signingCertificate, filterByDate.filter(caqcServices));
+		XmlValidationCertificateQualification cachedResult = cache.get(key);
+		if (cachedResult != null) {
+			// only the date differs between the validations sharing the same key
+			cachedResult.setDateTime(date);
+			certificateQualification = cachedResult.getCertificateQualification();
+			return cachedResult;
+		}
+
+		XmlValidationCertificateQualification computedResult = super.execute();
+		// the cached copy must not miss the messages deferred by the provider
+		i18nProvider.renderMessages();
+		cache.put(key, computedResult);
+		return computedResult;
+	}
+
 	@Override
 	protected void initChain() {
 
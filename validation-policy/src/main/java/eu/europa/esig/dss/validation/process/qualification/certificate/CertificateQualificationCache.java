@@ -0,0 +1,315 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation.process.qualification.certificate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.detailedreport.jaxb.XmlValidationCertificateQualification;
+import eu.europa.esig.dss.diagnostic.CertificateWrapper;
+import eu.europa.esig.dss.diagnostic.TrustedServiceWrapper;
+import eu.europa.esig.dss.diagnostic.jaxb.XmlDigestAlgoAndValue;
+import eu.europa.esig.dss.diagnostic.jaxb.XmlTrustedList;
+import eu.europa.esig.dss.enumerations.ValidationTime;
+import eu.europa.esig.dss.i18n.I18nProvider;
+import eu.europa.esig.dss.utils.Utils;
+
+/**
+ * This class keeps a process-wide, size-bounded memo of the certificate qualification results
+ * ({@code CertQualificationAtTimeBlock}).
+ * 
+ * For a given certificate, trusted list snapshot and set of trust services applicable at the qualification
+ * date, the result does not change between the validations. The key is computed from the certificate
+ * binaries, the validation time type, the language of the messages and the content of the trust services
+ * applicable at the date (including the sequence number and the issue date of their trusted list). The
+ * qualification does not depend on the validation policy: its constraints have fixed levels.
+ * 
+ * The memo is disabled by default. It is cleared by {@link #invalidate()}, which is called when a new
+ * trusted list snapshot is published.
+ */
+public final class CertificateQualificationCache {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CertificateQualificationCache.class);
+
+	private static final int DEFAULT_MAX_SIZE = 10000;
+
+	private static final String SEPARATOR = "|";
+
+	private static final CertificateQualificationCache INSTANCE = new CertificateQualificationCache(DEFAULT_MAX_SIZE);
+
+	/* Serialized results, the key is the hex encoded SHA-256 digest of the inputs */
+	private final Map<String, byte[]> results;
+
+	private final AtomicLong snapshotVersion = new AtomicLong();
+
+	private volatile int maxSize;
+
+	private volatile boolean enabled = false;
+
+	private CertificateQualificationCache(int maxSize) {
+		this.maxSize = maxSize;
+		this.results = new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = -3473285470392837431L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+				return size() > CertificateQualificationCache.this.maxSize;
+			}
+
+		};
+	}
+
+	/**
+	 * Returns the process-wide instance
+	 * 
+	 * @return the {@code CertificateQualificationCache}
+	 */
+	public static CertificateQualificationCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Sets the maximum number of kept results (default : 10000)
+	 * 
+	 * @param maxSize
+	 *                the maximum number of results
+	 */
+	public void setMaxSize(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("The maximum size must be positive");
+		}
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Enables the memoisation of the certificate qualification results (default : false)
+	 * 
+	 * @param enabled
+	 *                true to reuse the results between the validations
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		if (!enabled) {
+			clear();
+		}
+	}
+
+	/**
+	 * Returns true if the memoisation is enabled
+	 * 
+	 * @return true if enabled
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Drops all the kept results. To be called when a new trusted list snapshot is published.
+	 */
+	public void invalidate() {
+		long version = snapshotVersion.incrementAndGet();
+		clear();
+		LOG.debug("Certificate qualification results invalidated (snapshot version {})", version);
+	}
+
+	/**
+	 * Returns the version of the trusted list snapshot, incremented by each {@link #invalidate()}
+	 * 
+	 * @return the snapshot version
+	 */
+	public long getSnapshotVersion() {
+		return snapshotVersion.get();
+	}
+
+	/**
+	 * Returns the number of kept results
+	 * 
+	 * @return the number of results
+	 */
+	public int size() {
+		synchronized (results) {
+			return results.size();
+		}
+	}
+
+	/**
+	 * Removes all the kept results
+	 */
+	public void clear() {
+		synchronized (results) {
+			results.clear();
+		}
+	}
+
+	/**
+	 * Computes the key of a qualification result
+	 * 
+	 * @param i18nProvider
+	 *                          the {@link I18nProvider} used for the messages
+	 * @param validationTime
+	 *                          the {@link ValidationTime} type
+	 * @param certificate
+	 *                          the qualified certificate
+	 * @param trustServicesAtTime
+	 *                          the trust services applicable at the qualification date
+	 * @return the key
+	 */
+	String getKey(I18nProvider i18nProvider, ValidationTime validationTime, CertificateWrapper certificate,
+			List<TrustedServiceWrapper> trustServicesAtTime) {
+		MessageDigest digest = getMessageDigest();
+		update(digest, snapshotVersion.get());
+		update(digest, i18nProvider.getLocale());
+		update(digest, validationTime);
+		updateCertificate(digest, certificate);
+		for (TrustedServiceWrapper trustedService : trustServicesAtTime) {
+			updateTrustedList(digest, trustedService.getTrustedList());
+			updateTrustedList(digest, trustedService.getListOfTrustedLists());
+			update(digest, trustedService.getCountryCode());
+			update(digest, trustedService.getTspNames());
+			update(digest, trustedService.getServiceNames());
+			update(digest, trustedService.getType());
+			update(digest, trustedService.getStatus());
+			update(digest, getTime(trustedService.getStartDate()));
+			update(digest, getTime(trustedService.getEndDate()));
+			update(digest, trustedService.getCapturedQualifiers());
+			update(digest, trustedService.getAdditionalServiceInfos());
+			updateCertificate(digest, trustedService.getServiceDigitalIdentifier());
+		}
+		return Utils.toHex(digest.digest());
+	}
+
+	/**
+	 * Returns a copy of the kept result
+	 * 
+	 * @param key
+	 *            the key computed with {@link #getKey}
+	 * @return a copy of the result or null
+	 */
+	XmlValidationCertificateQualification get(String key) {
+		byte[] serialized;
+		synchronized (results) {
+			serialized = results.get(key);
+		}
+		if (serialized == null) {
+			return null;
+		}
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+			return (XmlValidationCertificateQualification) ois.readObject();
+		} catch (IOException | ClassNotFoundException e) {
+			LOG.warn("Unable to restore the certificate qualification result : {}", e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Keeps a copy of the result
+	 * 
+	 * @param key
+	 *               the key computed with {@link #getKey}
+	 * @param result
+	 *               the result to keep
+	 */
+	void put(String key, XmlValidationCertificateQualification result) {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+			oos.writeObject(result);
+		} catch (IOException e) {
+			LOG.warn("Unable to keep the certificate qualification result : {}", e.getMessage());
+			return;
+		}
+		synchronized (results) {
+			results.put(key, baos.toByteArray());
+		}
+	}
+
+	private void updateCertificate(MessageDigest digest, CertificateWrapper certificate) {
+		if (certificate == null) {
+			update(digest, (String) null);
+			return;
+		}
+		byte[] binaries = certificate.getBinaries();
+		if (binaries != null) {
+			digest.update(binaries);
+			update(digest, SEPARATOR);
+			return;
+		}
+		XmlDigestAlgoAndValue digestAlgoAndValue = certificate.getDigestAlgoAndValue();
+		if (digestAlgoAndValue != null && digestAlgoAndValue.getDigestValue() != null) {
+			update(digest, digestAlgoAndValue.getDigestMethod());
+			update(digest, Utils.toHex(digestAlgoAndValue.getDigestValue()));
+		} else {
+			update(digest, certificate.getId());
+		}
+	}
+
+	private void updateTrustedList(MessageDigest digest, XmlTrustedList trustedList) {
+		if (trustedList == null) {
+			update(digest, (String) null);
+			return;
+		}
+		update(digest, trustedList.getUrl());
+		update(digest, trustedList.getSequenceNumber());
+		update(digest, getTime(trustedList.getIssueDate()));
+		update(digest, trustedList.isWellSigned());
+	}
+
+	private void update(MessageDigest digest, List<String> values) {
+		if (values != null) {
+			for (String value : values) {
+				update(digest, value);
+			}
+		}
+		update(digest, SEPARATOR);
+	}
+
+	private void update(MessageDigest digest, Object value) {
+		digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+		digest.update(SEPARATOR.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private Long getTime(Date date) {
+		return date != null ? date.getTime() : null;
+	}
+
+	private MessageDigest getMessageDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+}
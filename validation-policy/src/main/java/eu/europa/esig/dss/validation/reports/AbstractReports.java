@@ -32,6 +32,7 @@ import eu.europa.esig.dss.detailedreport.jaxb.XmlDetailedReport;
 import eu.europa.esig.dss.diagnostic.DiagnosticData;
 import eu.europa.esig.dss.diagnostic.DiagnosticDataFacade;
 import eu.europa.esig.dss.diagnostic.jaxb.XmlDiagnosticData;
+import eu.europa.esig.dss.i18n.I18nProvider;
 
 /**
  * This class is a container for all reports generated by the validation
@@ -42,9 +43,10 @@ public abstract class AbstractReports {
 	protected boolean validateXml = false;
 
 	private final DiagnosticData diagnosticDataWrapper;
-	private final DetailedReport detailedReportWrapper;
+	private DetailedReport detailedReportWrapper;
 	private String xmlDiagnosticData;
 	private String xmlDetailedReport;
+	private I18nProvider i18nProvider;
 
 	/**
 	 * This is the default constructor to instantiate this container.
@@ -60,10 +62,33 @@ public abstract class AbstractReports {
 		this.detailedReportWrapper = new DetailedReport(detailedReport);
 	}
 
+	/**
+	 * This constructor instantiates a container where the detailed report is
+	 * built on first access (see {@link #buildDetailedReport()}).
+	 *
+	 * @param diagnosticDataJaxb
+	 *                           the JAXB {@code XmlDiagnosticData}
+	 */
+	protected AbstractReports(final XmlDiagnosticData diagnosticDataJaxb) {
+		this.diagnosticDataWrapper = new DiagnosticData(diagnosticDataJaxb);
+	}
+
 	public void setValidateXml(boolean validateXml) {
 		this.validateXml = validateXml;
 	}
 
+	/**
+	 * Sets the internationalization provider used to build the detailed report. The
+	 * messages deferred by the provider are rendered on the first access to the
+	 * detailed report.
+	 * 
+	 * @param i18nProvider
+	 *                     the {@code I18nProvider} used during the validation
+	 */
+	public void setI18nProvider(I18nProvider i18nProvider) {
+		this.i18nProvider = i18nProvider;
+	}
+
 	/**
 	 * This method returns the reference to the diagnostic data object generated
 	 * during the validation process.
@@ -79,10 +104,27 @@ public abstract class AbstractReports {
 	 * 
 	 * @return the wrapper {@code DetailedReport}
 	 */
-	public DetailedReport getDetailedReport() {
+	public synchronized DetailedReport getDetailedReport() {
+		if (detailedReportWrapper == null) {
+			detailedReportWrapper = new DetailedReport(buildDetailedReport());
+		}
+		if (i18nProvider != null) {
+			i18nProvider.renderMessages();
+		}
 		return detailedReportWrapper;
 	}
 
+	/**
+	 * Builds the JAXB DetailedReport when it was not provided at the instantiation
+	 * of the container. The method is called at most once.
+	 * 
+	 * @return the JAXB {@code XmlDetailedReport}
+	 * @throws DSSReportException - if the report cannot be built
+	 */
+	protected XmlDetailedReport buildDetailedReport() {
+		throw new DSSReportException("The detailed report is not available");
+	}
+
 	/**
 	 * This method returns the JAXB DiagnosticData
 	 * 
@@ -98,7 +140,7 @@ public abstract class AbstractReports {
 	 * @return the JAXB {@code XmlDetailedReport}
 	 */
 	public XmlDetailedReport getDetailedReportJaxb() {
-		return detailedReportWrapper.getJAXBModel();
+		return getDetailedReport().getJAXBModel();
 	}
 
 	/**
@@ -40,11 +40,13 @@ import eu.europa.esig.validationreport.jaxb.ValidationReportType;
  */
 public class Reports extends AbstractReports {
 
-	private final SimpleReport simpleReportWrapper;
+	private SimpleReport simpleReportWrapper;
 
 	private String xmlSimpleReport;
 	
-	private final ValidationReportType etsiValidationReport;
+	private ValidationReportType etsiValidationReport;
+
+	private boolean etsiValidationReportBuilt;
 	
 	private String xmlEtsiValidationReport;
 
@@ -66,6 +68,20 @@ public class Reports extends AbstractReports {
 		super(diagnosticDataJaxb, detailedReport);
 		this.simpleReportWrapper = new SimpleReport(simpleReport);
 		this.etsiValidationReport = validationReport;
+		this.etsiValidationReportBuilt = true;
+	}
+
+	/**
+	 * This constructor instantiates a container where the detailed report, the
+	 * simple report and the ETSI Validation report are built on first access and
+	 * memoised (see {@link #buildDetailedReport()}, {@link #buildSimpleReport()}
+	 * and {@link #buildEtsiValidationReport()}).
+	 *
+	 * @param diagnosticDataJaxb
+	 *                           the JAXB {@code XmlDiagnosticData}
+	 */
+	protected Reports(final XmlDiagnosticData diagnosticDataJaxb) {
+		super(diagnosticDataJaxb);
 	}
 
 	/**
@@ -73,17 +89,42 @@ public class Reports extends AbstractReports {
 	 * 
 	 * @return the wrapper {@code SimpleReport}
 	 */
-	public SimpleReport getSimpleReport() {
+	public synchronized SimpleReport getSimpleReport() {
+		if (simpleReportWrapper == null) {
+			simpleReportWrapper = new SimpleReport(buildSimpleReport());
+		}
 		return simpleReportWrapper;
 	}
 
+	/**
+	 * Builds the JAXB SimpleReport when it was not provided at the instantiation of
+	 * the container. The method is called at most once.
+	 * 
+	 * @return the JAXB {@code XmlSimpleReport}
+	 * @throws DSSReportException - if the report cannot be built
+	 */
+	protected XmlSimpleReport buildSimpleReport() {
+		throw new DSSReportException("The simple report is not available");
+	}
+
+	/**
+	 * Builds the JAXB EtsiValidationReport when it was not provided at the
+	 * instantiation of the container. The method is called at most once.
+	 * 
+	 * @return the JAXB {@code ValidationReportType} or null if the ETSI Validation
+	 *         report is disabled
+	 */
+	protected ValidationReportType buildEtsiValidationReport() {
+		return null;
+	}
+
 	/**
 	 * This method returns the JAXB SimpleReport
 	 * 
 	 * @return the JAXB {@code XmlSimpleReport}
 	 */
 	public XmlSimpleReport getSimpleReportJaxb() {
-		return simpleReportWrapper.getJaxbModel();
+		return getSimpleReport().getJaxbModel();
 	}
 
 	/**
@@ -91,7 +132,11 @@ public class Reports extends AbstractReports {
 	 * 
 	 * @return the JAXB {@code ValidationReportType}
 	 */
-	public ValidationReportType getEtsiValidationReportJaxb() {
+	public synchronized ValidationReportType getEtsiValidationReportJaxb() {
+		if (!etsiValidationReportBuilt) {
+			etsiValidationReport = buildEtsiValidationReport();
+			etsiValidationReportBuilt = true;
+		}
 		return etsiValidationReport;
 	}
 	
@@ -141,7 +186,7 @@ public class Reports extends AbstractReports {
 		System.out.println("----------------Simple report-------------------");
 		System.out.println(getXmlSimpleReport());
 		System.out.println("----------------ETSI validation report-------------------");
-		if (etsiValidationReport != null) {
+		if (getEtsiValidationReportJaxb() != null) {
 			System.out.println(getXmlValidationReport());
 		} else {
 			System.out.println("---------- ETSI validation report is disabled -----------");
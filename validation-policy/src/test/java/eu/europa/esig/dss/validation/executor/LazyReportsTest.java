@@ -0,0 +1,113 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.diagnostic.DiagnosticDataFacade;
+import eu.europa.esig.dss.diagnostic.jaxb.XmlDiagnosticData;
+import eu.europa.esig.dss.simplereport.SimpleReport;
+import eu.europa.esig.dss.validation.executor.signature.DefaultSignatureProcessExecutor;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+public class LazyReportsTest extends AbstractTestValidationExecutor {
+
+	@Test
+	public void sameResultAsEagerReports() throws Exception {
+		XmlDiagnosticData diagnosticData = DiagnosticDataFacade.newFacade().unmarshall(new File("src/test/resources/algo.xml"));
+		assertNotNull(diagnosticData);
+
+		Reports eagerReports = execute(diagnosticData, false, true);
+		Reports lazyReports = execute(diagnosticData, true, true);
+
+		SimpleReport eagerSimpleReport = eagerReports.getSimpleReport();
+		SimpleReport lazySimpleReport = lazyReports.getSimpleReport();
+		String signatureId = eagerSimpleReport.getFirstSignatureId();
+		assertEquals(signatureId, lazySimpleReport.getFirstSignatureId());
+		assertEquals(eagerSimpleReport.getIndication(signatureId), lazySimpleReport.getIndication(signatureId));
+		assertEquals(eagerSimpleReport.getSubIndication(signatureId), lazySimpleReport.getSubIndication(signatureId));
+		assertEquals(eagerSimpleReport.getSignatureQualification(signatureId), lazySimpleReport.getSignatureQualification(signatureId));
+		assertEquals(eagerReports.getXmlDetailedReport(), lazyReports.getXmlDetailedReport());
+
+		// memoised
+		assertSame(lazySimpleReport, lazyReports.getSimpleReport());
+		assertSame(lazyReports.getDetailedReport(), lazyReports.getDetailedReport());
+		assertNotNull(lazyReports.getEtsiValidationReportJaxb());
+		assertSame(lazyReports.getEtsiValidationReportJaxb(), lazyReports.getEtsiValidationReportJaxb());
+
+		checkReports(lazyReports);
+	}
+
+	@Test
+	public void etsiValidationReportDisabled() throws Exception {
+		XmlDiagnosticData diagnosticData = DiagnosticDataFacade.newFacade().unmarshall(new File("src/test/resources/algo.xml"));
+		assertNotNull(diagnosticData);
+
+		Reports reports = execute(diagnosticData, true, false);
+		assertNotNull(reports.getSimpleReport());
+		assertNull(reports.getEtsiValidationReportJaxb());
+	}
+
+	@Test
+	public void lazyMessages() throws Exception {
+		XmlDiagnosticData diagnosticData = DiagnosticDataFacade.newFacade().unmarshall(new File("src/test/resources/algo.xml"));
+		assertNotNull(diagnosticData);
+
+		Reports eagerReports = execute(diagnosticData, false, true);
+		Reports lazyMessagesReports = execute(diagnosticData, false, true, true);
+		Reports lazyReports = execute(diagnosticData, true, true, true);
+
+		SimpleReport eagerSimpleReport = eagerReports.getSimpleReport();
+		String signatureId = eagerSimpleReport.getFirstSignatureId();
+		assertEquals(eagerSimpleReport.getIndication(signatureId), lazyMessagesReports.getSimpleReport().getIndication(signatureId));
+		assertEquals(eagerSimpleReport.getErrors(signatureId), lazyMessagesReports.getSimpleReport().getErrors(signatureId));
+		assertEquals(eagerSimpleReport.getWarnings(signatureId), lazyMessagesReports.getSimpleReport().getWarnings(signatureId));
+		assertEquals(eagerReports.getXmlDetailedReport(), lazyMessagesReports.getXmlDetailedReport());
+		assertEquals(eagerReports.getXmlDetailedReport(), lazyReports.getXmlDetailedReport());
+
+		checkReports(lazyMessagesReports);
+	}
+
+	private Reports execute(XmlDiagnosticData diagnosticData, boolean lazyReports, boolean enableEtsiValidationReport)
+			throws Exception {
+		return execute(diagnosticData, lazyReports, enableEtsiValidationReport, false);
+	}
+
+	private Reports execute(XmlDiagnosticData diagnosticData, boolean lazyReports, boolean enableEtsiValidationReport,
+			boolean lazyMessages) throws Exception {
+		DefaultSignatureProcessExecutor executor = new DefaultSignatureProcessExecutor();
+		executor.setDiagnosticData(diagnosticData);
+		executor.setValidationPolicy(loadDefaultPolicy());
+		executor.setCurrentTime(diagnosticData.getValidationDate());
+		executor.setEnableEtsiValidationReport(enableEtsiValidationReport);
+		executor.setLazyReports(lazyReports);
+		executor.setLazyMessages(lazyMessages);
+		return executor.execute();
+	}
+
+}
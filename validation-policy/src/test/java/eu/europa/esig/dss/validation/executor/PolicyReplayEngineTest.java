@@ -0,0 +1,156 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.diagnostic.CertificateWrapper;
+import eu.europa.esig.dss.diagnostic.DiagnosticData;
+import eu.europa.esig.dss.diagnostic.DiagnosticDataFacade;
+import eu.europa.esig.dss.diagnostic.jaxb.XmlDiagnosticData;
+import eu.europa.esig.dss.policy.ValidationPolicy;
+import eu.europa.esig.dss.simplereport.SimpleReport;
+import eu.europa.esig.dss.validation.executor.signature.DefaultSignatureProcessExecutor;
+import eu.europa.esig.dss.validation.executor.signature.PolicyReplayEngine;
+import eu.europa.esig.dss.validation.executor.signature.ReplayScenario;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+public class PolicyReplayEngineTest extends AbstractTestValidationExecutor {
+
+	@Test
+	public void sameResultAsExecutor() throws Exception {
+		XmlDiagnosticData diagnosticData = DiagnosticDataFacade.newFacade().unmarshall(new File("src/test/resources/algo.xml"));
+		assertNotNull(diagnosticData);
+
+		ValidationPolicy defaultPolicy = loadDefaultPolicy();
+		ValidationPolicy noCryptoPolicy = loadPolicy("src/test/resources/policy/no-crypto-constraint-policy.xml");
+
+		List<ReplayScenario> scenarios = new ArrayList<>();
+		for (ValidationPolicy policy : Arrays.asList(defaultPolicy, noCryptoPolicy)) {
+			for (Date validationTime : Arrays.asList(diagnosticData.getValidationDate(), addYears(diagnosticData.getValidationDate(), 10))) {
+				for (ValidationLevel validationLevel : Arrays.asList(ValidationLevel.BASIC_SIGNATURES, ValidationLevel.ARCHIVAL_DATA)) {
+					scenarios.add(new ReplayScenario(policy, validationTime, validationLevel));
+				}
+			}
+		}
+
+		PolicyReplayEngine engine = new PolicyReplayEngine(diagnosticData);
+		engine.setParallelism(3);
+		List<Reports> replayed = engine.replayAll(scenarios);
+		assertEquals(scenarios.size(), replayed.size());
+
+		for (int i = 0; i < scenarios.size(); i++) {
+			Reports expected = execute(diagnosticData, scenarios.get(i));
+			Reports reports = replayed.get(i);
+			assertSameIndications(expected, reports);
+			assertEquals(expected.getXmlDetailedReport(), reports.getXmlDetailedReport());
+			checkReports(reports);
+		}
+	}
+
+	@Test
+	public void compactLoading() throws Exception {
+		XmlDiagnosticData diagnosticData = DiagnosticDataFacade.newFacade().unmarshall(new File("src/test/resources/algo.xml"));
+		assertNotNull(diagnosticData);
+
+		PolicyReplayEngine engine;
+		try (InputStream is = new FileInputStream("src/test/resources/algo.xml")) {
+			engine = PolicyReplayEngine.fromXml(is);
+		}
+		for (CertificateWrapper certificate : engine.getDiagnosticData().getUsedCertificates()) {
+			assertNull(certificate.getBinaries());
+			assertNotNull(certificate.getDigestAlgoAndValue());
+		}
+
+		ReplayScenario scenario = new ReplayScenario(loadDefaultPolicy(), diagnosticData.getValidationDate());
+		Reports reports = engine.replay(scenario);
+		assertSameIndications(execute(diagnosticData, scenario), reports);
+		assertNotNull(reports.getEtsiValidationReportJaxb());
+		checkReports(reports);
+	}
+
+	@Test
+	public void sharedIndexes() throws Exception {
+		XmlDiagnosticData diagnosticData = DiagnosticDataFacade.newFacade().unmarshall(new File("src/test/resources/algo.xml"));
+		PolicyReplayEngine engine = new PolicyReplayEngine(diagnosticData);
+
+		DiagnosticData wrapper = engine.getDiagnosticData();
+		assertTrue(wrapper.getUsedCertificates().size() > 0);
+		for (CertificateWrapper certificate : wrapper.getUsedCertificates()) {
+			assertSame(certificate, wrapper.getUsedCertificateById(certificate.getId()));
+		}
+		String signatureId = wrapper.getFirstSignatureId();
+		assertSame(wrapper.getSignatures().get(0), wrapper.getSignatureById(signatureId));
+		assertNull(wrapper.getSignatureById("unknown"));
+		assertNull(wrapper.getUsedCertificateById("unknown"));
+		assertNull(wrapper.getTimestampById("unknown"));
+	}
+
+	@Test
+	public void invalidParallelism() {
+		PolicyReplayEngine engine = new PolicyReplayEngine(new XmlDiagnosticData());
+		assertThrows(IllegalArgumentException.class, () -> engine.setParallelism(0));
+		assertTrue(engine.replayAll(new ArrayList<>()).isEmpty());
+	}
+
+	private void assertSameIndications(Reports expected, Reports reports) {
+		SimpleReport expectedSimpleReport = expected.getSimpleReport();
+		SimpleReport simpleReport = reports.getSimpleReport();
+		String signatureId = expectedSimpleReport.getFirstSignatureId();
+		assertEquals(signatureId, simpleReport.getFirstSignatureId());
+		assertEquals(expectedSimpleReport.getIndication(signatureId), simpleReport.getIndication(signatureId));
+		assertEquals(expectedSimpleReport.getSubIndication(signatureId), simpleReport.getSubIndication(signatureId));
+		assertEquals(expectedSimpleReport.getSignatureQualification(signatureId), simpleReport.getSignatureQualification(signatureId));
+	}
+
+	private Reports execute(XmlDiagnosticData diagnosticData, ReplayScenario scenario) {
+		DefaultSignatureProcessExecutor executor = new DefaultSignatureProcessExecutor();
+		executor.setDiagnosticData(diagnosticData);
+		executor.setValidationPolicy(scenario.getPolicy());
+		executor.setCurrentTime(scenario.getValidationTime());
+		executor.setValidationLevel(scenario.getValidationLevel());
+		return executor.execute();
+	}
+
+	private Date addYears(Date date, int years) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTime(date);
+		calendar.add(Calendar.YEAR, years);
+		return calendar.getTime();
+	}
+
+}
@@ -0,0 +1,121 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * 
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation.process.qualification.certificate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.Date;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.detailedreport.jaxb.XmlCertificate;
+import eu.europa.esig.dss.detailedreport.jaxb.XmlValidationCertificateQualification;
+import eu.europa.esig.dss.diagnostic.DiagnosticDataFacade;
+import eu.europa.esig.dss.diagnostic.jaxb.XmlDiagnosticData;
+import eu.europa.esig.dss.enumerations.ValidationTime;
+import eu.europa.esig.dss.validation.executor.AbstractTestValidationExecutor;
+import eu.europa.esig.dss.validation.executor.certificate.DefaultCertificateProcessExecutor;
+import eu.europa.esig.dss.validation.reports.CertificateReports;
+
+public class CertificateQualificationCacheTest extends AbstractTestValidationExecutor {
+
+	private static final String CERTIFICATE_ID = "C-0E9B5C373AFEC1CED5723FCD9231F793BB330FFBF2B94BB8698301C90405B9BF";
+
+	private final CertificateQualificationCache cache = CertificateQualificationCache.getInstance();
+
+	@BeforeEach
+	public void init() {
+		cache.setEnabled(true);
+	}
+
+	@AfterEach
+	public void reset() {
+		cache.setEnabled(false);
+	}
+
+	@Test
+	public void sameResultAsWithoutCache() throws Exception {
+		XmlDiagnosticData diagnosticData = DiagnosticDataFacade.newFacade().unmarshall(new File("src/test/resources/cert-validation/de_revoked.xml"));
+		assertNotNull(diagnosticData);
+
+		CertificateReports firstReports = execute(diagnosticData, diagnosticData.getValidationDate());
+		int size = cache.size();
+		// at least issuance time + validation time
+		assertTrue(size >= 2);
+
+		CertificateReports secondReports = execute(diagnosticData, diagnosticData.getValidationDate());
+		assertEquals(size, cache.size());
+		assertEquals(firstReports.getXmlDetailedReport(), secondReports.getXmlDetailedReport());
+
+		cache.setEnabled(false);
+		CertificateReports uncachedReports = execute(diagnosticData, diagnosticData.getValidationDate());
+		assertEquals(0, cache.size());
+		assertEquals(uncachedReports.getXmlDetailedReport(), secondReports.getXmlDetailedReport());
+	}
+
+	@Test
+	public void dateIsUpdated() throws Exception {
+		XmlDiagnosticData diagnosticData = DiagnosticDataFacade.newFacade().unmarshall(new File("src/test/resources/cert-validation/de_revoked.xml"));
+
+		Date validationDate = diagnosticData.getValidationDate();
+		execute(diagnosticData, validationDate);
+		int size = cache.size();
+
+		// same trust services at a slightly different time : the result is reused
+		Date otherDate = new Date(validationDate.getTime() + 1000);
+		CertificateReports reports = execute(diagnosticData, otherDate);
+		assertEquals(size, cache.size());
+
+		XmlCertificate certificate = reports.getDetailedReport().getCertificates().get(0);
+		for (XmlValidationCertificateQualification qualification : certificate.getValidationCertificateQualification()) {
+			if (ValidationTime.VALIDATION_TIME == qualification.getValidationTime()) {
+				assertEquals(otherDate, qualification.getDateTime());
+			}
+		}
+	}
+
+	@Test
+	public void invalidate() throws Exception {
+		XmlDiagnosticData diagnosticData = DiagnosticDataFacade.newFacade().unmarshall(new File("src/test/resources/cert-validation/de_revoked.xml"));
+		execute(diagnosticData, diagnosticData.getValidationDate());
+		assertTrue(cache.size() > 0);
+
+		long version = cache.getSnapshotVersion();
+		cache.invalidate();
+		assertEquals(0, cache.size());
+		assertEquals(version + 1, cache.getSnapshotVersion());
+	}
+
+	private CertificateReports execute(XmlDiagnosticData diagnosticData, Date currentTime) throws Exception {
+		DefaultCertificateProcessExecutor executor = new DefaultCertificateProcessExecutor();
+		executor.setCertificateId(CERTIFICATE_ID);
+		executor.setDiagnosticData(diagnosticData);
+		executor.setValidationPolicy(loadDefaultPolicy());
+		executor.setCurrentTime(currentTime);
+		return executor.execute();
+	}
+
+}